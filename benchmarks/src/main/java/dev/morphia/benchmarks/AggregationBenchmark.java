@@ -0,0 +1,94 @@
+package dev.morphia.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.aggregation.AggregationImpl;
+import dev.morphia.aggregation.PipelineTemplate;
+import dev.morphia.benchmarks.models.Wide;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static dev.morphia.aggregation.expressions.AccumulatorExpressions.sum;
+import static dev.morphia.aggregation.expressions.ComparisonExpressions.gte;
+import static dev.morphia.aggregation.expressions.Expressions.field;
+import static dev.morphia.aggregation.expressions.VariableExpressions.variable;
+import static dev.morphia.aggregation.stages.Group.group;
+import static dev.morphia.aggregation.stages.Group.id;
+import static dev.morphia.aggregation.stages.Projection.project;
+import static dev.morphia.aggregation.stages.Sort.sort;
+import static dev.morphia.aggregation.stages.Unwind.unwind;
+import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.filters.Filters.expr;
+import static dev.morphia.query.filters.Filters.gt;
+
+/**
+ * Measures rendering an aggregation to its pipeline documents, including building the stages, against resolving a compiled
+ * {@link PipelineTemplate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+    private Fixtures fixtures;
+    private PipelineTemplate<Wide> template;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+        template = fixtures.getDatastore().aggregate(Wide.class)
+                .match(eq("b0", true), expr(gte(field("i1"), variable("minimum"))))
+                .unwind(unwind("tags2"))
+                .group(group(id("tags2"))
+                        .field("total", sum(field("i1")))
+                        .field("count", sum(field("l3"))))
+                .sort(sort().descending("total"))
+                .project(project()
+                        .include("total")
+                        .include("count"))
+                .limit(10)
+                .template("minimum");
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public List<Document> pipeline() {
+        AggregationImpl<Wide> aggregation = (AggregationImpl<Wide>) fixtures.getDatastore().aggregate(Wide.class)
+                .match(eq("b0", true), gt("i1", 5))
+                .unwind(unwind("tags2"))
+                .group(group(id("tags2"))
+                        .field("total", sum(field("i1")))
+                        .field("count", sum(field("l3"))))
+                .sort(sort().descending("total"))
+                .project(project()
+                        .include("total")
+                        .include("count"))
+                .limit(10);
+        return aggregation.pipeline();
+    }
+
+    @Benchmark
+    public List<Bson> template() {
+        return template.pipeline(Map.of("minimum", 5));
+    }
+}
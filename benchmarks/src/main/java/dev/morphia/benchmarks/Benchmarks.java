@@ -0,0 +1,68 @@
+package dev.morphia.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler enabled and a fixed 2GB heap, and writes the results as JSON. Any standard JMH
+ * command line options may be given to, e.g., select benchmarks or change the result file:
+ *
+ * <pre>
+ * <code>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar CodecBenchmark -rff codec.json
+ * </code>
+ * </pre>
+ *
+ * The results of each release are kept under {@code benchmarks/baselines} for comparison. The {@link ScenarioBenchmark} suite is
+ * gated against {@code baselines/scenarios.json} by the {@code performance} profile:
+ *
+ * <pre>
+ * <code>
+ * mvn -pl benchmarks -am verify -Dperformance
+ * mvn -pl benchmarks verify -Dperformance -Dperformance.score.threshold=0.05
+ * </code>
+ * </pre>
+ *
+ * Scores are only comparable on similar machines so a baseline's scores are only compared against runs on the class of host which
+ * recorded it. Runs on any other class of host fail the gate once allocation has been compared. A baseline for a new class of host is
+ * recorded from a results file with the gate's {@code --record} option:
+ *
+ * <pre>
+ * <code>
+ * java -cp benchmarks/target/benchmarks.jar dev.morphia.benchmarks.gate.RegressionGate benchmarks/baselines/scenarios.json \
+ *     benchmarks/target/scenarios.json --record
+ * </code>
+ * </pre>
+ */
+public final class Benchmarks {
+    private static final String RESULTS = "target/benchmarks.json";
+    /**
+     * A fixed heap keeps the collector from resizing it part way through a run, which otherwise dominates the error margins.
+     */
+    private static final String[] HEAP = { "-Xms2g", "-Xmx2g" };
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @param args the JMH command line options
+     * @throws Exception if the benchmarks can not be run
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse(RESULTS));
+        if (!commandLine.getJvmArgsAppend().hasValue()) {
+            options.jvmArgsAppend(HEAP);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,68 @@
+package dev.morphia.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static dev.morphia.benchmarks.Fixtures.DECODER_CONTEXT;
+import static dev.morphia.benchmarks.Fixtures.ENCODER_CONTEXT;
+
+/**
+ * Measures {@code EntityEncoder} and {@code EntityDecoder} against in-memory BSON buffers for entities of different shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+    @Param({ "narrow", "wide", "deep", "polymorphic" })
+    public String shape;
+
+    private Fixtures fixtures;
+    private Object entity;
+    private Codec<Object> codec;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+        entity = Fixtures.entity(shape);
+        codec = fixtures.codec(entity.getClass());
+        encoded = fixtures.encode(entity);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public int encode() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer(encoded.length);
+        codec.encode(new BsonBinaryWriter(buffer), entity, ENCODER_CONTEXT);
+        return buffer.getPosition();
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(encoded)), DECODER_CONTEXT);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.morphia.benchmarks;
+
+import java.nio.ByteBuffer;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.benchmarks.models.Author;
+import dev.morphia.benchmarks.models.Book;
+import dev.morphia.benchmarks.models.Deep;
+import dev.morphia.benchmarks.models.Drawing;
+import dev.morphia.benchmarks.models.Narrow;
+import dev.morphia.benchmarks.models.Wide;
+import dev.morphia.memory.InMemoryOperations;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * A datastore backed by {@link InMemoryOperations} with the benchmark entities mapped. No server is needed: the client never connects
+ * since every operation is served from memory.
+ */
+public class Fixtures implements AutoCloseable {
+    static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+    static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private final MongoClient client;
+    private final Datastore datastore;
+    private final InMemoryOperations operations = new InMemoryOperations();
+
+    /**
+     * Creates a new datastore
+     */
+    public Fixtures() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "benchmarks");
+        datastore.getMapper().map(Narrow.class, Wide.class, Deep.class, Drawing.class, Author.class, Book.class);
+        ((DatastoreImpl) datastore).operations(operations);
+    }
+
+    /**
+     * Creates an entity of the named kind used by the encoding benchmarks.
+     *
+     * @param kind one of {@code narrow}, {@code wide}, {@code deep}, or {@code polymorphic}
+     * @return the entity
+     */
+    public static Object entity(String kind) {
+        switch (kind) {
+            case "narrow":
+                return new Narrow("narrow", 42);
+            case "wide":
+                return new Wide(42);
+            case "deep":
+                return new Deep(8, 4);
+            case "polymorphic":
+                return new Drawing(24);
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+    }
+
+    public Datastore getDatastore() {
+        return datastore;
+    }
+
+    public InMemoryOperations getOperations() {
+        return operations;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> codec(Class<?> type) {
+        return (Codec<T>) datastore.getCodecRegistry().get(type);
+    }
+
+    /**
+     * @param entity the entity to encode
+     * @return the entity's BSON form
+     */
+    public byte[] encode(Object entity) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec(entity.getClass()).encode(new BsonBinaryWriter(buffer), entity, ENCODER_CONTEXT);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @param type    the type to decode
+     * @param encoded the BSON form
+     * @param <T>     the type to decode
+     * @return the decoded entity
+     */
+    public <T> T decode(Class<T> type, byte[] encoded) {
+        Codec<T> codec = codec(type);
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(encoded)), DECODER_CONTEXT);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,72 @@
+package dev.morphia.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.Datastore;
+import dev.morphia.InsertManyOptions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code Datastore.insert(List)} of a batch of entities encoded while written, in to pooled heap buffers, and in to pooled
+ * direct buffers. Compare the {@code gc.alloc.rate.norm} of each run to see what the pooled buffers save per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+    @Param({ "narrow", "wide" })
+    public String shape;
+
+    @Param({ "default", "pooled", "direct" })
+    public String buffers;
+
+    @Param({ "100" })
+    public int batchSize;
+
+    private Fixtures fixtures;
+    private Datastore datastore;
+    private List<Object> entities;
+    private InsertManyOptions options;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+        datastore = fixtures.getDatastore();
+        entities = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            entities.add(Fixtures.entity(shape));
+        }
+        options = new InsertManyOptions()
+                .pooledBuffers(!buffers.equals("default"))
+                .directBuffers(buffers.equals("direct"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        // the entities keep their IDs so the previous batch is removed before inserting them again
+        fixtures.getOperations().clear();
+        datastore.insert(entities, options);
+    }
+}
@@ -0,0 +1,109 @@
+package dev.morphia.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MapperOptions;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.DynamicType.Builder;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+
+/**
+ * Measures mapping a synthetic model of 500 classes with a fresh {@link Mapper}, as an application does on start up, sequentially and
+ * with {@link MapperOptions.Builder#parallelMapping(boolean) parallel mapping}. The model has 100 root entities each with 4 subclasses
+ * and every class declares a mix of property types. Each invocation maps the whole model once so the first iterations of each fork
+ * reflect a cold start. Parallel mapping can only gain on a host with several processors; on a single processor the two modes are
+ * expected to score the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(3)
+public class MappingBenchmark {
+    private static final int ROOTS = 100;
+    private static final int SUBCLASSES = 4;
+    private static final Class<?>[] PROPERTY_TYPES = { String.class, int.class, long.class, double.class, boolean.class,
+            List.class, ObjectId.class };
+
+    private List<Class> classes;
+
+    @Setup
+    public void setup() {
+        List<DynamicType.Unloaded<?>> types = new ArrayList<>();
+        for (int root = 0; root < ROOTS; root++) {
+            DynamicType.Unloaded<?> parent = properties(new ByteBuddy()
+                    .subclass(Object.class)
+                    .name("dev.morphia.benchmarks.synthetic.Root" + root)
+                    .annotateType(entity("root" + root))
+                    .defineField("id", ObjectId.class, Visibility.PRIVATE)
+                    .annotateField(AnnotationDescription.Builder.ofType(Id.class).build()), "r", 10)
+                            .make();
+            types.add(parent);
+            TypeDescription parentType = parent.getTypeDescription();
+            for (int sub = 0; sub < SUBCLASSES; sub++) {
+                types.add(properties(new ByteBuddy()
+                        .subclass(parentType)
+                        .name(parentType.getName() + "Sub" + sub)
+                        .annotateType(entity("root" + root)), "s", 5)
+                                .make());
+            }
+        }
+        DynamicType.Unloaded<?> first = types.get(0);
+        classes = new ArrayList<>(first.include(types.subList(1, types.size()))
+                .load(getClass().getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getAllLoaded()
+                .values());
+    }
+
+    @Benchmark
+    public Mapper sequential() {
+        Mapper mapper = new Mapper(MapperOptions.builder().build());
+        mapper.map(classes);
+        return mapper;
+    }
+
+    @Benchmark
+    public Mapper parallel() {
+        Mapper mapper = new Mapper(MapperOptions.builder()
+                .parallelMapping(true)
+                .build());
+        mapper.map(classes);
+        return mapper;
+    }
+
+    private static AnnotationDescription entity(String collection) {
+        return AnnotationDescription.Builder.ofType(Entity.class)
+                .define("value", collection)
+                .build();
+    }
+
+    private static Builder<?> properties(Builder<?> builder, String prefix, int count) {
+        for (int i = 0; i < count; i++) {
+            builder = builder.defineField(prefix + i, PROPERTY_TYPES[i % PROPERTY_TYPES.length], Visibility.PRIVATE);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,74 @@
+package dev.morphia.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.benchmarks.models.Deep;
+import dev.morphia.benchmarks.models.Drawing;
+import dev.morphia.benchmarks.models.Wide;
+import dev.morphia.internal.PathTarget;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the resolution of Java field paths to their mapped document paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathTargetBenchmark {
+    @Param({ "wide:s3", "deep:root.child.child.label", "deep:root.leaves.key", "polymorphic:shapes.color" })
+    public String path;
+
+    private Fixtures fixtures;
+    private Mapper mapper;
+    private EntityModel model;
+    private String field;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+        mapper = fixtures.getDatastore().getMapper();
+        String[] parts = path.split(":");
+        model = mapper.getEntityModel(type(parts[0]));
+        field = parts[1];
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public String translatedPath() {
+        return new PathTarget(mapper, model, field).translatedPath();
+    }
+
+    private static Class<?> type(String name) {
+        switch (name) {
+            case "wide":
+                return Wide.class;
+            case "deep":
+                return Deep.class;
+            case "polymorphic":
+                return Drawing.class;
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+}
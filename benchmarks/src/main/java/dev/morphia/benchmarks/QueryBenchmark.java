@@ -0,0 +1,98 @@
+package dev.morphia.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.Datastore;
+import dev.morphia.benchmarks.models.Deep;
+import dev.morphia.benchmarks.models.Drawing;
+import dev.morphia.benchmarks.models.Narrow;
+import dev.morphia.benchmarks.models.Wide;
+import dev.morphia.query.Query;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static dev.morphia.query.filters.Filters.and;
+import static dev.morphia.query.filters.Filters.elemMatch;
+import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.filters.Filters.exists;
+import static dev.morphia.query.filters.Filters.gt;
+import static dev.morphia.query.filters.Filters.gte;
+import static dev.morphia.query.filters.Filters.in;
+import static dev.morphia.query.filters.Filters.lt;
+import static dev.morphia.query.filters.Filters.or;
+import static dev.morphia.query.filters.Filters.regex;
+
+/**
+ * Measures {@code MorphiaQuery.toDocument()} for typical filter trees, both on a prebuilt query and including the cost of building the
+ * query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+    @Param({ "eq", "compound", "nested", "polymorphic" })
+    public String filters;
+
+    private Fixtures fixtures;
+    private Query<?> query;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+        query = query(fixtures.getDatastore(), filters);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public Document toDocument() {
+        return query.toDocument();
+    }
+
+    @Benchmark
+    public Document buildAndEncode() {
+        return query(fixtures.getDatastore(), filters).toDocument();
+    }
+
+    static Query<?> query(Datastore datastore, String filters) {
+        switch (filters) {
+            case "eq":
+                return datastore.find(Narrow.class)
+                        .filter(eq("name", "narrow"));
+            case "compound":
+                return datastore.find(Wide.class)
+                        .filter(and(gte("i0", 5), lt("i0", 50)),
+                                in("s1", List.of("value 1", "value 2", "value 3")),
+                                or(eq("b2", true), exists("tags3")),
+                                regex("s4").pattern("^value"));
+            case "nested":
+                return datastore.find(Deep.class)
+                        .filter(eq("root.child.child.label", "level 2"),
+                                elemMatch("root.leaves", eq("key", "leaf 1"), gt("value", 0)));
+            case "polymorphic":
+                return datastore.find(Drawing.class)
+                        .filter(eq("shapes.color", "black"), exists("primary.color"));
+            default:
+                throw new IllegalArgumentException(filters);
+        }
+    }
+}
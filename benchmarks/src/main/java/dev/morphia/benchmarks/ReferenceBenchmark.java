@@ -0,0 +1,71 @@
+package dev.morphia.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.Datastore;
+import dev.morphia.benchmarks.models.Author;
+import dev.morphia.benchmarks.models.Book;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@code ReferenceCodec} encoding and decoding. Referenced entities are stored in memory so decoding includes fetching them
+ * and creating the lazy proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceBenchmark {
+    private Fixtures fixtures;
+    private Book book;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+        Datastore datastore = fixtures.getDatastore();
+        List<Author> editors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            editors.add(new Author("editor " + i));
+        }
+        Author author = new Author("author");
+        Author reviewer = new Author("reviewer");
+        datastore.save(editors);
+        datastore.save(List.of(author, reviewer));
+        book = new Book("title", author, editors, reviewer);
+        encoded = fixtures.encode(book);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return fixtures.encode(book);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        Book decoded = fixtures.decode(Book.class, encoded);
+        blackhole.consume(decoded.getAuthor());
+        blackhole.consume(decoded.getEditors().size());
+    }
+}
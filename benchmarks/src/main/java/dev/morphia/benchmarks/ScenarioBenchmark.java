@@ -0,0 +1,135 @@
+package dev.morphia.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.Datastore;
+import dev.morphia.aggregation.codecs.ResultCodec;
+import dev.morphia.benchmarks.models.Author;
+import dev.morphia.benchmarks.models.Book;
+import dev.morphia.benchmarks.models.Narrow;
+
+import org.bson.BsonBinaryReader;
+import org.bson.codecs.Codec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static dev.morphia.benchmarks.Fixtures.DECODER_CONTEXT;
+
+/**
+ * End to end scenarios run against {@link dev.morphia.memory.InMemoryOperations}. These cover whole operations rather than single
+ * code paths and are the suite gated against the recorded baseline by {@link dev.morphia.benchmarks.gate.RegressionGate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 20, time = 2)
+@Fork(1)
+public class ScenarioBenchmark {
+    private static final int BULK = 10_000;
+    private static final int QUERY = 100_000;
+    private static final int RESULTS = 1_000;
+    private static final int BOOKS = 1_000;
+
+    private Fixtures fixtures;
+    private Fixtures queries;
+    private List<Narrow> bulk;
+    private List<byte[]> results;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+
+        queries = new Fixtures();
+        List<Narrow> entities = new ArrayList<>();
+        for (int i = 0; i < QUERY; i++) {
+            entities.add(new Narrow("query " + i, i));
+        }
+        queries.getDatastore().save(entities);
+
+        Datastore datastore = queries.getDatastore();
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            authors.add(new Author("author " + i));
+        }
+        datastore.save(authors);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Book("book " + i, authors.get(i % 10), authors.subList(0, 3), authors.get(9 - i % 10)));
+        }
+        datastore.save(books);
+
+        results = new ArrayList<>();
+        for (int i = 0; i < RESULTS; i++) {
+            results.add(queries.encode(new Narrow("group " + i, i)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        fixtures.getOperations().clear();
+        bulk = new ArrayList<>(BULK);
+        for (int i = 0; i < BULK; i++) {
+            bulk.add(new Narrow("bulk " + i, i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+        queries.close();
+    }
+
+    /**
+     * Saves a batch of new entities.
+     */
+    @Benchmark
+    public List<Narrow> bulkSave() {
+        return fixtures.getDatastore().save(bulk);
+    }
+
+    /**
+     * Queries and decodes every entity in a large collection.
+     */
+    @Benchmark
+    public List<Narrow> queryAndDecode() {
+        return queries.getDatastore().find(Narrow.class).iterator().toList();
+    }
+
+    /**
+     * Maps aggregation results to an entity type the way {@code Aggregation.execute()} does when the result type differs from the
+     * collection's type.
+     */
+    @Benchmark
+    public void aggregationMapping(Blackhole blackhole) {
+        Codec<Narrow> codec = new ResultCodec<>(queries.codec(Narrow.class));
+        for (byte[] result : results) {
+            blackhole.consume(codec.decode(new BsonBinaryReader(ByteBuffer.wrap(result)), DECODER_CONTEXT));
+        }
+    }
+
+    /**
+     * Queries entities with eager and lazy references and resolves them.
+     */
+    @Benchmark
+    public void referenceLoading(Blackhole blackhole) {
+        for (Book book : queries.getDatastore().find(Book.class).iterator().toList()) {
+            blackhole.consume(book.getAuthor());
+            blackhole.consume(book.getEditors().size());
+        }
+    }
+}
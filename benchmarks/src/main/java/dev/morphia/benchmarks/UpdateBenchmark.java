@@ -0,0 +1,80 @@
+package dev.morphia.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.Datastore;
+import dev.morphia.benchmarks.models.Deep;
+import dev.morphia.benchmarks.models.Wide;
+import dev.morphia.query.UpdateBase;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.updates.UpdateOperators.inc;
+import static dev.morphia.query.updates.UpdateOperators.max;
+import static dev.morphia.query.updates.UpdateOperators.push;
+import static dev.morphia.query.updates.UpdateOperators.set;
+import static dev.morphia.query.updates.UpdateOperators.unset;
+
+/**
+ * Measures {@code UpdateBase.toDocument()} for scalar updates and for updates carrying embedded entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateBenchmark {
+    @Param({ "scalar", "embedded" })
+    public String updates;
+
+    private Fixtures fixtures;
+    private UpdateBase<?> update;
+
+    @Setup
+    public void setup() {
+        fixtures = new Fixtures();
+        update = update(fixtures.getDatastore(), updates);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public Document toDocument() {
+        return update.toDocument();
+    }
+
+    private static UpdateBase<?> update(Datastore datastore, String updates) {
+        switch (updates) {
+            case "scalar":
+                return datastore.find(Wide.class)
+                        .filter(eq("_id", new ObjectId()))
+                        .update(set("s0", "updated"), inc("i1", 2), push("tags2", "d"), unset("d3"), max("l4", 9L));
+            case "embedded":
+                return datastore.find(Deep.class)
+                        .filter(eq("_id", new ObjectId()))
+                        .update(set("root.child", new Deep.Level(1, 4, 4)),
+                                push("root.leaves", List.of(new Deep.Leaf("a", 1), new Deep.Leaf("b", 2))));
+            default:
+                throw new IllegalArgumentException(updates);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dev.morphia.benchmarks.gate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mongodb.lang.Nullable;
+
+import org.bson.Document;
+import org.bson.json.JsonWriterSettings;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Recorded benchmark results along with the class of host which produced them. Scores are only comparable between runs on the same
+ * class of host so the gate skips the comparison when they differ.
+ */
+public class Baseline {
+    private static final JsonWriterSettings SETTINGS = JsonWriterSettings.builder()
+            .indent(true)
+            .build();
+
+    @Nullable
+    private final String host;
+    private final Map<String, BenchmarkResult> results;
+
+    /**
+     * @param host    the class of host the results were recorded on or null if unknown
+     * @param results the results keyed by benchmark and parameters
+     */
+    public Baseline(@Nullable String host, Map<String, BenchmarkResult> results) {
+        this.host = host;
+        this.results = new LinkedHashMap<>(results);
+    }
+
+    /**
+     * Describes the current host by what most affects benchmark scores: operating system, architecture, processor count, and Java
+     * version. Runners with the same description are assumed to produce comparable results.
+     *
+     * @return the host class
+     */
+    public static String hostClass() {
+        return format("%s-%s-%dcpu-java%s", System.getProperty("os.name"), System.getProperty("os.arch"),
+                Runtime.getRuntime().availableProcessors(), System.getProperty("java.specification.version"))
+                        .replace(' ', '_')
+                        .toLowerCase();
+    }
+
+    /**
+     * Parses either a recorded baseline or JMH's raw JSON output, which carries no host class.
+     *
+     * @param json the JSON
+     * @return the baseline
+     */
+    public static Baseline parse(String json) {
+        Document document = Document.parse(json.trim().startsWith("[") ? "{results: " + json + "}" : json);
+        Map<String, BenchmarkResult> results = new LinkedHashMap<>();
+        for (Document entry : document.getList("results", Document.class)) {
+            BenchmarkResult result = BenchmarkResult.of(entry);
+            results.put(result.getKey(), result);
+        }
+        return new Baseline(document.getString("host"), results);
+    }
+
+    /**
+     * Reads a recorded baseline or JMH's raw JSON output.
+     *
+     * @param path the file
+     * @return the baseline
+     * @throws IOException if the file can not be read
+     */
+    public static Baseline read(Path path) throws IOException {
+        return parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the class of host the results were recorded on or null if unknown
+     */
+    @Nullable
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return the results keyed by benchmark and parameters
+     */
+    public Map<String, BenchmarkResult> getResults() {
+        return unmodifiableMap(results);
+    }
+
+    /**
+     * @return the JSON form of this baseline
+     */
+    public String toJson() {
+        List<Document> entries = new ArrayList<>();
+        results.values().forEach(result -> entries.add(result.toDocument()));
+        return new Document("host", host)
+                .append("results", entries)
+                .toJson(SETTINGS);
+    }
+
+    /**
+     * Writes this baseline to a file.
+     *
+     * @param path the file
+     * @throws IOException if the file can not be written
+     */
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(path, (toJson() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,185 @@
+package dev.morphia.benchmarks.gate;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+import com.mongodb.lang.Nullable;
+
+import org.bson.Document;
+
+/**
+ * A single benchmark result read from JMH's JSON output.
+ */
+public class BenchmarkResult {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private final String benchmark;
+    private final String mode;
+    private final Map<String, String> params;
+    private final double score;
+    private final double scoreError;
+    private final String unit;
+    @Nullable
+    private final Double allocation;
+    private final double allocationError;
+
+    /**
+     * @param benchmark       the benchmark method
+     * @param mode            the JMH mode, e.g., {@code thrpt}
+     * @param params          the parameter values
+     * @param score           the primary score
+     * @param scoreError      the error margin of the primary score at JMH's confidence level
+     * @param unit            the primary score's unit
+     * @param allocation      the bytes allocated per operation if the allocation profiler was enabled
+     * @param allocationError the error margin of the allocation
+     */
+    public BenchmarkResult(String benchmark, String mode, Map<String, String> params, double score, double scoreError, String unit,
+            @Nullable Double allocation, double allocationError) {
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.params = new TreeMap<>(params);
+        this.score = score;
+        this.scoreError = scoreError;
+        this.unit = unit;
+        this.allocation = allocation;
+        this.allocationError = allocationError;
+    }
+
+    /**
+     * Reads a result from one entry of JMH's JSON output.
+     *
+     * @param document the entry
+     * @return the result
+     */
+    public static BenchmarkResult of(Document document) {
+        Map<String, String> params = new TreeMap<>();
+        Document values = document.get("params", Document.class);
+        if (values != null) {
+            values.forEach((key, value) -> params.put(key, String.valueOf(value)));
+        }
+        Document primary = document.get("primaryMetric", Document.class);
+        Double allocation = null;
+        double allocationError = 0;
+        Document secondary = document.get("secondaryMetrics", Document.class);
+        if (secondary != null) {
+            for (Map.Entry<String, Object> entry : secondary.entrySet()) {
+                if (entry.getKey().endsWith(ALLOCATION)) {
+                    Document metric = (Document) entry.getValue();
+                    allocation = number(metric.get("score"));
+                    allocationError = error(metric.get("scoreError"));
+                }
+            }
+        }
+        return new BenchmarkResult(document.getString("benchmark"), document.getString("mode"), params,
+                number(primary.get("score")), error(primary.get("scoreError")), primary.getString("scoreUnit"), allocation,
+                allocationError);
+    }
+
+    /**
+     * Converts this result back to the shape of an entry in JMH's JSON output keeping only what the gate compares. Anything
+     * describing the machine or JVM which produced the result, such as the JVM's path, is dropped.
+     *
+     * @return the entry
+     */
+    public Document toDocument() {
+        Document document = new Document("benchmark", benchmark)
+                .append("mode", mode);
+        if (!params.isEmpty()) {
+            Document values = new Document();
+            params.forEach(values::append);
+            document.append("params", values);
+        }
+        document.append("primaryMetric", new Document("score", score)
+                .append("scoreError", scoreError)
+                .append("scoreUnit", unit));
+        Document secondary = new Document();
+        if (allocation != null) {
+            secondary.append(ALLOCATION, new Document("score", allocation)
+                    .append("scoreError", allocationError)
+                    .append("scoreUnit", "B/op"));
+        }
+        return document.append("secondaryMetrics", secondary);
+    }
+
+    /**
+     * @return the bytes allocated per operation or null if the allocation profiler was not enabled
+     */
+    @Nullable
+    public Double getAllocation() {
+        return allocation;
+    }
+
+    /**
+     * @return the error margin of the allocation per operation, or 0 if it is unknown
+     */
+    public double getAllocationError() {
+        return allocationError;
+    }
+
+    /**
+     * @return the benchmark method
+     */
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    /**
+     * @return a key identifying the benchmark and its parameters
+     */
+    public String getKey() {
+        if (params.isEmpty()) {
+            return benchmark;
+        }
+        StringJoiner joiner = new StringJoiner(",", benchmark + "[", "]");
+        params.forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    /**
+     * @return the JMH mode
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the primary score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * @return the error margin of the primary score, or 0 if it is unknown
+     */
+    public double getScoreError() {
+        return scoreError;
+    }
+
+    /**
+     * @return the primary score's unit
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return true if a higher score is better, i.e., this measures throughput rather than time
+     */
+    public boolean isHigherBetter() {
+        return mode.equals("thrpt");
+    }
+
+    private static double number(@Nullable Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    /**
+     * JMH reports the error as {@code NaN} when there are too few iterations to estimate it.
+     */
+    private static double error(@Nullable Object value) {
+        double error = number(value);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
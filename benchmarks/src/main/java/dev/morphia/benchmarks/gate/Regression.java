@@ -0,0 +1,65 @@
+package dev.morphia.benchmarks.gate;
+
+import static java.lang.String.format;
+
+/**
+ * A benchmark whose score or allocation regressed past the allowed threshold.
+ */
+public class Regression {
+    private final String key;
+    private final String metric;
+    private final double baseline;
+    private final double current;
+    private final String unit;
+
+    Regression(String key, String metric, double baseline, double current, String unit) {
+        this.key = key;
+        this.metric = metric;
+        this.baseline = baseline;
+        this.current = current;
+        this.unit = unit;
+    }
+
+    /**
+     * @return the baseline value
+     */
+    public double getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * @return the current value or NaN if it was not measured
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return the benchmark and its parameters
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the metric which regressed, either {@code score} or {@code allocation}
+     */
+    public String getMetric() {
+        return metric;
+    }
+
+    /**
+     * @return the relative change from the baseline
+     */
+    public double getChange() {
+        return (current - baseline) / baseline;
+    }
+
+    @Override
+    public String toString() {
+        if (Double.isNaN(current)) {
+            return format("%s %s: %.3f %s -> not measured", key, metric, baseline, unit);
+        }
+        return format("%s %s: %.3f %s -> %.3f %s (%+.1f%%)", key, metric, baseline, unit, current, unit, getChange() * 100);
+    }
+}
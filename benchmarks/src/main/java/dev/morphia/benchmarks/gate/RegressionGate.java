@@ -0,0 +1,212 @@
+package dev.morphia.benchmarks.gate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.lang.String.format;
+
+/**
+ * Compares a JMH JSON result file against a recorded baseline and fails when any benchmark's score or allocation per operation
+ * regressed past the allowed thresholds.
+ *
+ * <pre>
+ * <code>
+ * RegressionGate &lt;baseline.json&gt; &lt;results.json&gt; [--score 0.10] [--allocation 0.10] [--host name] [--record]
+ * </code>
+ * </pre>
+ *
+ * A change counts as a regression if it exceeds the threshold and the combined error margins JMH reports for the two results. The
+ * error margins can raise the allowed change to at most twice the threshold so that a noisy run can not hide a large regression.
+ * <p>
+ * Allocation per operation does not depend on the speed of the host so it is always compared, and a benchmark whose baseline records
+ * an allocation but whose result does not, e.g., because the allocation profiler was not enabled, fails the gate. Baselines are
+ * tagged with the {@link Baseline#hostClass() class of host} which recorded them. Scores are only compared when the results come
+ * from the same class of host, or the one named with {@code --host}; otherwise the gate fails once allocation has been compared. A
+ * missing baseline fails the gate.
+ * <p>
+ * With {@code --record}, the results replace the baseline instead of being compared to it. Only the fields the gate compares are
+ * recorded. Benchmarks missing from either side are reported but never fail the gate so that suites can grow without re-recording.
+ *
+ * @since 2.4
+ */
+public class RegressionGate {
+    /**
+     * The default allowed regression, relative to the baseline.
+     */
+    public static final double DEFAULT_THRESHOLD = 0.10;
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegressionGate.class);
+
+    /**
+     * Allocation changes smaller than this many bytes per operation are treated as noise regardless of the threshold.
+     */
+    private static final double ALLOCATION_NOISE = 64;
+
+    private static final String USAGE = "Usage: RegressionGate <baseline.json> <results.json> [--score 0.10] [--allocation 0.10] "
+            + "[--host name] [--record]";
+
+    private final double scoreThreshold;
+    private final double allocationThreshold;
+
+    /**
+     * @param scoreThreshold      the allowed relative loss in throughput, or gain in time per operation
+     * @param allocationThreshold the allowed relative gain in bytes allocated per operation
+     */
+    public RegressionGate(double scoreThreshold, double allocationThreshold) {
+        this.scoreThreshold = scoreThreshold;
+        this.allocationThreshold = allocationThreshold;
+    }
+
+    /**
+     * Runs the gate. Exits with a non-zero status if any regression is found or the gate could not be run.
+     *
+     * @param args the baseline file, the results file, and the options
+     * @throws IOException if either file can not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the gate.
+     *
+     * @param args the baseline file, the results file, and the options
+     * @return 0 if the gate passed or the baseline was recorded, 1 if any regression was found, or 2 if the gate could not be run
+     * @throws IOException if either file can not be read or written
+     */
+    public static int run(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        double score = DEFAULT_THRESHOLD;
+        double allocation = DEFAULT_THRESHOLD;
+        String host = Baseline.hostClass();
+        boolean record = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--score":
+                    score = Double.parseDouble(args[++i]);
+                    break;
+                case "--allocation":
+                    allocation = Double.parseDouble(args[++i]);
+                    break;
+                case "--host":
+                    host = args[++i];
+                    break;
+                case "--record":
+                    record = true;
+                    break;
+                default:
+                    files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            LOG.error(USAGE);
+            return 2;
+        }
+        Path baselinePath = Paths.get(files.get(0));
+        Path resultsPath = Paths.get(files.get(1));
+        Baseline results = Baseline.read(resultsPath);
+        if (record) {
+            new Baseline(host, results.getResults()).write(baselinePath);
+            LOG.info(format("Recorded baseline %s for %s", baselinePath, host));
+            return 0;
+        }
+        if (!Files.exists(baselinePath)) {
+            LOG.error(format("No baseline found at %s.  Run the gate with --record to record one.", baselinePath));
+            return 2;
+        }
+
+        Baseline baseline = Baseline.read(baselinePath);
+        boolean sameHost = host.equals(baseline.getHost());
+        List<Regression> regressions = new RegressionGate(score, allocation).compare(baseline.getResults(), results.getResults(),
+                sameHost);
+        if (!regressions.isEmpty()) {
+            LOG.error(format("%d benchmark regression(s) against %s:", regressions.size(), baselinePath));
+            regressions.forEach(r -> LOG.error("  " + r));
+            return 1;
+        }
+        if (!sameHost) {
+            LOG.error(format("The baseline %s was recorded on %s but this run is on %s so only allocation was compared.  Record a "
+                    + "baseline for this class of host or name a comparable one with --host.", baselinePath, baseline.getHost(), host));
+            return 2;
+        }
+        LOG.info("No regressions against " + baselinePath);
+        return 0;
+    }
+
+    /**
+     * Reads a JMH JSON result file or a recorded baseline.
+     *
+     * @param path the file
+     * @return the results keyed by benchmark and parameters
+     * @throws IOException if the file can not be read
+     */
+    public static Map<String, BenchmarkResult> read(Path path) throws IOException {
+        return Baseline.read(path).getResults();
+    }
+
+    /**
+     * Parses JMH's JSON output or a recorded baseline.
+     *
+     * @param json the JSON
+     * @return the results keyed by benchmark and parameters
+     */
+    public static Map<String, BenchmarkResult> parse(String json) {
+        return Baseline.parse(json).getResults();
+    }
+
+    /**
+     * Compares results against a baseline.
+     *
+     * @param baseline the baseline results
+     * @param current  the current results
+     * @return the regressions found, if any
+     */
+    public List<Regression> compare(Map<String, BenchmarkResult> baseline, Map<String, BenchmarkResult> current) {
+        return compare(baseline, current, true);
+    }
+
+    private List<Regression> compare(Map<String, BenchmarkResult> baseline, Map<String, BenchmarkResult> current, boolean scores) {
+        List<Regression> regressions = new ArrayList<>();
+        for (BenchmarkResult result : current.values()) {
+            BenchmarkResult base = baseline.get(result.getKey());
+            if (base == null) {
+                LOG.info("No baseline for " + result.getKey());
+                continue;
+            }
+            double loss = result.isHigherBetter() ? base.getScore() - result.getScore() : result.getScore() - base.getScore();
+            if (scores && base.getMode().equals(result.getMode())
+                    && significant(loss, base.getScore() * scoreThreshold, base.getScoreError() + result.getScoreError())) {
+                regressions.add(new Regression(result.getKey(), "score", base.getScore(), result.getScore(), result.getUnit()));
+            }
+            Double before = base.getAllocation();
+            Double after = result.getAllocation();
+            if (before != null && after == null) {
+                regressions.add(new Regression(result.getKey(), "allocation", before, Double.NaN, "B/op"));
+            } else if (before != null
+                    && significant(after - before, Math.max(before * allocationThreshold, ALLOCATION_NOISE),
+                            base.getAllocationError() + result.getAllocationError())) {
+                regressions.add(new Regression(result.getKey(), "allocation", before, after, "B/op"));
+            }
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> LOG.info("Not run: " + key));
+        return regressions;
+    }
+
+    /**
+     * A loss counts if it exceeds the allowed amount and can not be explained by the error margins of the two measurements. The error
+     * margins are only credited up to twice the allowed amount.
+     */
+    private static boolean significant(double loss, double allowed, double error) {
+        return loss > Math.max(allowed, Math.min(error, 2 * allowed));
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Compares benchmark results against recorded baselines to catch performance regressions.
+ */
+@NonNullApi
+package dev.morphia.benchmarks.gate;
+
+import com.mongodb.lang.NonNullApi;
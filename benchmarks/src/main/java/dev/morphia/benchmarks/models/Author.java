@@ -0,0 +1,28 @@
+package dev.morphia.benchmarks.models;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+
+import org.bson.types.ObjectId;
+
+/**
+ * The target of the references held by {@link Book}.
+ */
+@Entity("authors")
+public class Author {
+    @Id
+    private ObjectId id;
+    private String name;
+
+    public Author() {
+    }
+
+    public Author(String name) {
+        this.id = new ObjectId();
+        this.name = name;
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+}
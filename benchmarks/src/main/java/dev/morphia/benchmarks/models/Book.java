@@ -0,0 +1,44 @@
+package dev.morphia.benchmarks.models;
+
+import java.util.List;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Reference;
+
+import org.bson.types.ObjectId;
+
+/**
+ * An entity with single, list, and lazy references.
+ */
+@Entity("books")
+public class Book {
+    @Id
+    private ObjectId id;
+    private String title;
+    @Reference(idOnly = true)
+    private Author author;
+    @Reference(idOnly = true)
+    private List<Author> editors;
+    @Reference(idOnly = true, lazy = true)
+    private Author reviewer;
+
+    public Book() {
+    }
+
+    public Book(String title, Author author, List<Author> editors, Author reviewer) {
+        this.id = new ObjectId();
+        this.title = title;
+        this.author = author;
+        this.editors = editors;
+        this.reviewer = reviewer;
+    }
+
+    public Author getAuthor() {
+        return author;
+    }
+
+    public List<Author> getEditors() {
+        return editors;
+    }
+}
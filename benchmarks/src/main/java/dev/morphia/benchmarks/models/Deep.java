@@ -0,0 +1,72 @@
+package dev.morphia.benchmarks.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+
+import org.bson.types.ObjectId;
+
+/**
+ * An entity whose embedded values nest several levels deep.
+ */
+@Entity("deep")
+public class Deep {
+    @Id
+    private ObjectId id;
+    private String name;
+    private Level root;
+
+    public Deep() {
+    }
+
+    public Deep(int depth, int breadth) {
+        id = new ObjectId();
+        name = "deep";
+        root = new Level(0, depth, breadth);
+    }
+
+    /**
+     * A single level of the nested structure.
+     */
+    @Entity
+    public static class Level {
+        private String label;
+        private int depth;
+        private Level child;
+        private List<Leaf> leaves;
+
+        public Level() {
+        }
+
+        public Level(int depth, int maxDepth, int breadth) {
+            this.label = "level " + depth;
+            this.depth = depth;
+            leaves = new ArrayList<>();
+            for (int i = 0; i < breadth; i++) {
+                leaves.add(new Leaf("leaf " + i, i));
+            }
+            if (depth + 1 < maxDepth) {
+                child = new Level(depth + 1, maxDepth, breadth);
+            }
+        }
+    }
+
+    /**
+     * The values held at each level.
+     */
+    @Entity
+    public static class Leaf {
+        private String key;
+        private int value;
+
+        public Leaf() {
+        }
+
+        public Leaf(String key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
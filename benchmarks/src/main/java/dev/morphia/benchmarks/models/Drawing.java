@@ -0,0 +1,98 @@
+package dev.morphia.benchmarks.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+
+import org.bson.types.ObjectId;
+
+/**
+ * An entity holding a polymorphic list which requires discriminator lookups to decode.
+ */
+@Entity("drawings")
+public class Drawing {
+    @Id
+    private ObjectId id;
+    private String title;
+    private Shape primary;
+    private List<Shape> shapes;
+
+    public Drawing() {
+    }
+
+    public Drawing(int count) {
+        id = new ObjectId();
+        title = "drawing";
+        primary = new Circle(1);
+        shapes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            switch (i % 3) {
+                case 0:
+                    shapes.add(new Circle(i));
+                    break;
+                case 1:
+                    shapes.add(new Square(i));
+                    break;
+                default:
+                    shapes.add(new Triangle(i, i + 1));
+            }
+        }
+    }
+
+    /**
+     * The base type of the shapes in a drawing.
+     */
+    @Entity
+    public abstract static class Shape {
+        private String color = "black";
+    }
+
+    /**
+     * A circle.
+     */
+    @Entity
+    public static class Circle extends Shape {
+        private double radius;
+
+        public Circle() {
+        }
+
+        Circle(double radius) {
+            this.radius = radius;
+        }
+    }
+
+    /**
+     * A square.
+     */
+    @Entity
+    public static class Square extends Shape {
+        private double side;
+
+        public Square() {
+        }
+
+        Square(double side) {
+            this.side = side;
+        }
+    }
+
+    /**
+     * A triangle.
+     */
+    @Entity
+    public static class Triangle extends Shape {
+        private double base;
+        private double height;
+
+        public Triangle() {
+        }
+
+        Triangle(double base, double height) {
+            this.base = base;
+            this.height = height;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package dev.morphia.benchmarks.models;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+
+import org.bson.types.ObjectId;
+
+/**
+ * A small entity with a handful of scalar fields.
+ */
+@Entity("narrow")
+public class Narrow {
+    @Id
+    private ObjectId id;
+    private String name;
+    private int count;
+    private boolean active;
+
+    public Narrow() {
+    }
+
+    public Narrow(String name, int count) {
+        this.id = new ObjectId();
+        this.name = name;
+        this.count = count;
+        this.active = count % 2 == 0;
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
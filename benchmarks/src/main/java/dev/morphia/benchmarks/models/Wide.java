@@ -0,0 +1,106 @@
+package dev.morphia.benchmarks.models;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+
+import org.bson.types.ObjectId;
+
+/**
+ * An entity with forty fields of mixed scalar, date, list, and map types.
+ */
+@Entity("wide")
+public class Wide {
+    @Id
+    private ObjectId id;
+    private String s0;
+    private int i0;
+    private long l0;
+    private double d0;
+    private boolean b0;
+    private Date date0;
+    private List<String> tags0;
+    private Map<String, Integer> counts0;
+    private String s1;
+    private int i1;
+    private long l1;
+    private double d1;
+    private boolean b1;
+    private Date date1;
+    private List<String> tags1;
+    private Map<String, Integer> counts1;
+    private String s2;
+    private int i2;
+    private long l2;
+    private double d2;
+    private boolean b2;
+    private Date date2;
+    private List<String> tags2;
+    private Map<String, Integer> counts2;
+    private String s3;
+    private int i3;
+    private long l3;
+    private double d3;
+    private boolean b3;
+    private Date date3;
+    private List<String> tags3;
+    private Map<String, Integer> counts3;
+    private String s4;
+    private int i4;
+    private long l4;
+    private double d4;
+    private boolean b4;
+    private Date date4;
+    private List<String> tags4;
+    private Map<String, Integer> counts4;
+
+    public Wide() {
+    }
+
+    public Wide(int seed) {
+        id = new ObjectId();
+        s0 = "value " + (seed + 0);
+        i0 = (seed + 0);
+        l0 = (seed + 0) * 31L;
+        d0 = (seed + 0) / 3.0;
+        b0 = (seed + 0) % 2 == 0;
+        date0 = new Date(1_600_000_000_000L + (seed + 0));
+        tags0 = List.of("a" + (seed + 0), "b" + (seed + 0), "c" + (seed + 0));
+        counts0 = Map.of("x", (seed + 0), "y", (seed + 0) + 1);
+        s1 = "value " + (seed + 1);
+        i1 = (seed + 1);
+        l1 = (seed + 1) * 31L;
+        d1 = (seed + 1) / 3.0;
+        b1 = (seed + 1) % 2 == 0;
+        date1 = new Date(1_600_000_000_000L + (seed + 1));
+        tags1 = List.of("a" + (seed + 1), "b" + (seed + 1), "c" + (seed + 1));
+        counts1 = Map.of("x", (seed + 1), "y", (seed + 1) + 1);
+        s2 = "value " + (seed + 2);
+        i2 = (seed + 2);
+        l2 = (seed + 2) * 31L;
+        d2 = (seed + 2) / 3.0;
+        b2 = (seed + 2) % 2 == 0;
+        date2 = new Date(1_600_000_000_000L + (seed + 2));
+        tags2 = List.of("a" + (seed + 2), "b" + (seed + 2), "c" + (seed + 2));
+        counts2 = Map.of("x", (seed + 2), "y", (seed + 2) + 1);
+        s3 = "value " + (seed + 3);
+        i3 = (seed + 3);
+        l3 = (seed + 3) * 31L;
+        d3 = (seed + 3) / 3.0;
+        b3 = (seed + 3) % 2 == 0;
+        date3 = new Date(1_600_000_000_000L + (seed + 3));
+        tags3 = List.of("a" + (seed + 3), "b" + (seed + 3), "c" + (seed + 3));
+        counts3 = Map.of("x", (seed + 3), "y", (seed + 3) + 1);
+        s4 = "value " + (seed + 4);
+        i4 = (seed + 4);
+        l4 = (seed + 4) * 31L;
+        d4 = (seed + 4) / 3.0;
+        b4 = (seed + 4) % 2 == 0;
+        date4 = new Date(1_600_000_000_000L + (seed + 4));
+        tags4 = List.of("a" + (seed + 4), "b" + (seed + 4), "c" + (seed + 4));
+        counts4 = Map.of("x", (seed + 4), "y", (seed + 4) + 1);
+    }
+}
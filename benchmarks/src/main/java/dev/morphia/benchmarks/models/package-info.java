@@ -0,0 +1,7 @@
+/**
+ * The entities exercised by the benchmarks.
+ */
+@NonNullApi
+package dev.morphia.benchmarks.models;
+
+import com.mongodb.lang.NonNullApi;
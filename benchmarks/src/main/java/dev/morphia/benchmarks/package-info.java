@@ -0,0 +1,9 @@
+/**
+ * JMH benchmarks for the mapping, query building, and cursor paths. Every benchmark runs against in-memory buffers or
+ * {@link dev.morphia.memory.InMemoryOperations} so no server is needed. Run them via {@link dev.morphia.benchmarks.Benchmarks} to
+ * include the allocation profiler.
+ */
+@NonNullApi
+package dev.morphia.benchmarks;
+
+import com.mongodb.lang.NonNullApi;
@@ -0,0 +1,175 @@
+package dev.morphia.test.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import dev.morphia.benchmarks.gate.Baseline;
+import dev.morphia.benchmarks.gate.BenchmarkResult;
+import dev.morphia.benchmarks.gate.Regression;
+import dev.morphia.benchmarks.gate.RegressionGate;
+
+import org.testng.annotations.Test;
+
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestRegressionGate {
+    private final RegressionGate gate = new RegressionGate(0.10, 0.10);
+
+    @Test
+    public void allocation() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("save", "thrpt", 100, 10_000)));
+
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 100, 10_900)))).isEmpty());
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 100, 5_000)))).isEmpty());
+
+        List<Regression> regressions = gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 100, 12_000))));
+        assertEquals(regressions.size(), 1);
+        assertEquals(regressions.get(0).getMetric(), "allocation");
+    }
+
+    @Test
+    public void allocationNoise() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("save", "thrpt", 100, 100)));
+
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 100, 150)))).isEmpty());
+    }
+
+    @Test
+    public void missing() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("save", "thrpt", 100, 100)));
+
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("load", "thrpt", 1, 100)))).isEmpty());
+    }
+
+    @Test
+    public void parse() {
+        String json = "[{\"benchmark\": \"dev.morphia.benchmarks.CodecBenchmark.encode\", \"mode\": \"thrpt\","
+                + " \"params\": {\"shape\": \"wide\"},"
+                + " \"primaryMetric\": {\"score\": 12.5, \"scoreUnit\": \"ops/ms\"},"
+                + " \"secondaryMetrics\": {\"·gc.alloc.rate.norm\": {\"score\": 2048.0, \"scoreUnit\": \"B/op\"}}},"
+                + " {\"benchmark\": \"dev.morphia.benchmarks.QueryBenchmark.toDocument\", \"mode\": \"avgt\","
+                + " \"primaryMetric\": {\"score\": 3, \"scoreUnit\": \"ms/op\"}, \"secondaryMetrics\": {}}]";
+
+        Map<String, BenchmarkResult> results = RegressionGate.parse(json);
+
+        BenchmarkResult encode = results.get("dev.morphia.benchmarks.CodecBenchmark.encode[shape=wide]");
+        assertEquals(encode.getScore(), 12.5);
+        assertEquals(encode.getAllocation(), 2048.0);
+        assertTrue(encode.isHigherBetter());
+
+        BenchmarkResult toDocument = results.get("dev.morphia.benchmarks.QueryBenchmark.toDocument");
+        assertEquals(toDocument.getScore(), 3.0);
+        assertNull(toDocument.getAllocation());
+    }
+
+    @Test
+    public void throughput() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("save", "thrpt", 100, 0)));
+
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 95, 0)))).isEmpty());
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 150, 0)))).isEmpty());
+
+        List<Regression> regressions = gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 80, 0))));
+        assertEquals(regressions.size(), 1);
+        assertEquals(regressions.get(0).getMetric(), "score");
+        assertEquals(regressions.get(0).getChange(), -0.2, 0.0001);
+    }
+
+    @Test
+    public void withinError() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("save", "thrpt", 100, 15, 10_000, 0)));
+
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 80, 10, 10_000, 0)))).isEmpty());
+        assertEquals(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 70, 10, 10_000, 0)))).size(), 1);
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 100, 0, 12_000, 2_500)))).isEmpty());
+    }
+
+    @Test
+    public void noisyResults() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("save", "thrpt", 100, 90, 10_000, 0)));
+
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 81, 90, 10_000, 0)))).isEmpty());
+        assertEquals(gate.compare(baseline, RegressionGate.parse(results(result("save", "thrpt", 50, 90, 10_000, 0)))).size(), 1);
+    }
+
+    @Test
+    public void record() throws IOException {
+        Path directory = Files.createTempDirectory("gate");
+        Path baseline = directory.resolve("baseline.json");
+        Path results = directory.resolve("results.json");
+        Files.writeString(results, "[{\"jvm\": \"/opt/java/bin/java\", \"benchmark\": \"save\", \"mode\": \"thrpt\","
+                + " \"primaryMetric\": {\"score\": 100, \"scoreError\": \"NaN\", \"scoreUnit\": \"ops/ms\", \"rawData\": [[100]]}}]");
+
+        assertEquals(RegressionGate.run(new String[] { baseline.toString(), results.toString() }), 2);
+        assertFalse(Files.exists(baseline));
+
+        assertEquals(RegressionGate.run(new String[] { baseline.toString(), results.toString(), "--record" }), 0);
+        String recorded = Files.readString(baseline);
+        assertFalse(recorded.contains("jvm"), recorded);
+        assertFalse(recorded.contains("rawData"), recorded);
+        Baseline read = Baseline.read(baseline);
+        assertEquals(read.getHost(), Baseline.hostClass());
+        assertEquals(read.getResults().get("save").getScore(), 100.0);
+        assertEquals(read.getResults().get("save").getScoreError(), 0.0);
+
+        assertEquals(RegressionGate.run(new String[] { baseline.toString(), results.toString() }), 0);
+    }
+
+    @Test
+    public void otherHost() throws IOException {
+        Path directory = Files.createTempDirectory("gate");
+        Path baseline = directory.resolve("baseline.json");
+        Path results = directory.resolve("results.json");
+        new Baseline("elsewhere", RegressionGate.parse(results(result("save", "thrpt", 100, 0)))).write(baseline);
+        Files.writeString(results, results(result("save", "thrpt", 10, 0)));
+
+        assertEquals(RegressionGate.run(new String[] { baseline.toString(), results.toString() }), 2);
+        assertEquals(RegressionGate.run(new String[] { baseline.toString(), results.toString(), "--host", "elsewhere" }), 1);
+
+        Files.writeString(results, results(result("save", "thrpt", 100, 1_000)));
+        assertEquals(RegressionGate.run(new String[] { baseline.toString(), results.toString() }), 1);
+    }
+
+    @Test
+    public void allocationNotMeasured() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("save", "thrpt", 100, 10_000)));
+        String current = "[{\"benchmark\": \"save\", \"mode\": \"thrpt\","
+                + " \"primaryMetric\": {\"score\": 100, \"scoreUnit\": \"ops/ms\"}, \"secondaryMetrics\": {}}]";
+
+        List<Regression> regressions = gate.compare(baseline, RegressionGate.parse(current));
+        assertEquals(regressions.size(), 1);
+        assertEquals(regressions.get(0).getMetric(), "allocation");
+        assertTrue(Double.isNaN(regressions.get(0).getCurrent()));
+    }
+
+    @Test
+    public void time() {
+        Map<String, BenchmarkResult> baseline = RegressionGate.parse(results(result("query", "avgt", 10, 0)));
+
+        assertTrue(gate.compare(baseline, RegressionGate.parse(results(result("query", "avgt", 8, 0)))).isEmpty());
+        assertEquals(gate.compare(baseline, RegressionGate.parse(results(result("query", "avgt", 12, 0)))).size(), 1);
+    }
+
+    private static String result(String benchmark, String mode, double score, double allocation) {
+        return result(benchmark, mode, score, 0, allocation, 0);
+    }
+
+    private static String result(String benchmark, String mode, double score, double scoreError, double allocation,
+            double allocationError) {
+        return format("{\"benchmark\": \"%s\", \"mode\": \"%s\","
+                + " \"primaryMetric\": {\"score\": %s, \"scoreError\": %s, \"scoreUnit\": \"ops/ms\"},"
+                + " \"secondaryMetrics\": {\"gc.alloc.rate.norm\": {\"score\": %s, \"scoreError\": %s, \"scoreUnit\": \"B/op\"}}}",
+                benchmark, mode, score, scoreError, allocation, allocationError);
+    }
+
+    private static String results(String... results) {
+        return "[" + String.join(",", results) + "]";
+    }
+}
@@ -3,6 +3,7 @@ package dev.morphia;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import com.mongodb.ClientSessionOptions;
 import com.mongodb.WriteConcern;
@@ -142,6 +143,31 @@ public interface Datastore {
      */
     <T> DeleteResult delete(T entity, DeleteOptions options);
 
+    /**
+     * Deletes the entities with the given IDs. The IDs are sent in chunks of {@link KeySet#getChunkSize()} with a {@code $in} query
+     * per chunk.
+     *
+     * @param <T>  the type to delete
+     * @param keys the IDs of the entities to delete
+     * @return the combined results of the deletes
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    <T> DeleteResult delete(KeySet<T> keys);
+
+    /**
+     * Deletes the entities with the given IDs.
+     *
+     * @param <T>     the type to delete
+     * @param keys    the IDs of the entities to delete
+     * @param options the options to apply to each delete. The collection is taken from the key set.
+     * @return the combined results of the deletes
+     * @see #delete(KeySet)
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    <T> DeleteResult delete(KeySet<T> keys, DeleteOptions options);
+
     /**
      * Process any {@link Validation} annotations for document validation.
      *
@@ -156,7 +182,11 @@ public interface Datastore {
     void ensureCaps();
 
     /**
-     * Ensures (creating if necessary) the indexes found during class mapping
+     * Ensures (creating if necessary) the indexes found during class mapping. The missing indexes of each collection are created with a
+     * single command, skipping any which already exist, and collections are processed concurrently up to the configured
+     * {@link dev.morphia.mapping.MapperOptions#getIndexParallelism() parallelism}. If the server rejects one of a collection's missing
+     * indexes, none of that collection's missing indexes are created. Indexes which conflict with an existing definition are sent
+     * separately so that the conflict is reported without blocking the other indexes.
      *
      * @see Indexes
      * @see Indexed
@@ -164,6 +194,42 @@ public interface Datastore {
      */
     void ensureIndexes();
 
+    /**
+     * Compares the indexes declared on the mapped entities to those which exist on the server without creating or dropping anything.
+     * This can be used to build indexes ahead of deploying an application rather than on startup.
+     *
+     * @return the differences for each mapped collection
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    List<IndexDiff> diffIndexes();
+
+    /**
+     * Fetches the entities with the given IDs. The IDs are sent in chunks of {@link KeySet#getChunkSize()} with a {@code $in} query
+     * per chunk and each query is only run once the results of the previous one have been consumed. Entities are not returned in the
+     * order of the key set and missing IDs are skipped. Close the stream to release the open cursor if it is not fully consumed.
+     *
+     * @param <T>  the type to fetch
+     * @param keys the IDs of the entities to fetch
+     * @return the entities
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    <T> Stream<T> fetch(KeySet<T> keys);
+
+    /**
+     * Fetches the entities with the given IDs.
+     *
+     * @param <T>     the type to fetch
+     * @param keys    the IDs of the entities to fetch
+     * @param options the options to apply to each query. The collection is taken from the key set.
+     * @return the entities
+     * @see #fetch(KeySet)
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    <T> Stream<T> fetch(KeySet<T> keys, FindOptions options);
+
     /**
      * Find instances of a type
      *
@@ -1,19 +1,33 @@
 package dev.morphia;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.ServiceLoader;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.mongodb.ClientSessionOptions;
 import com.mongodb.MongoCommandException;
 import com.mongodb.MongoException;
 import com.mongodb.MongoWriteException;
 import com.mongodb.WriteConcern;
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
@@ -36,7 +50,12 @@ import dev.morphia.annotations.ShardKeys;
 import dev.morphia.annotations.ShardOptions;
 import dev.morphia.annotations.Validation;
 import dev.morphia.annotations.internal.IndexHelper;
+import dev.morphia.annotations.internal.MorphiaExperimental;
 import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.cache.CachingOperations;
+import dev.morphia.cache.EntityCache;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.InstrumentedOperations;
 import dev.morphia.internal.CollectionConfigurable;
 import dev.morphia.internal.CollectionConfiguration;
 import dev.morphia.internal.ReadConfigurable;
@@ -54,7 +73,9 @@ import dev.morphia.mapping.codec.pojo.MergingEncoder;
 import dev.morphia.mapping.codec.pojo.MorphiaCodec;
 import dev.morphia.mapping.codec.pojo.PropertyModel;
 import dev.morphia.mapping.codec.reader.DocumentReader;
+import dev.morphia.mapping.codec.writer.BufferPool;
 import dev.morphia.mapping.codec.writer.DocumentWriter;
+import dev.morphia.mapping.codec.writer.EncodedBatch;
 import dev.morphia.query.CountOptions;
 import dev.morphia.query.FindAndDeleteOptions;
 import dev.morphia.query.FindOptions;
@@ -62,11 +83,16 @@ import dev.morphia.query.Query;
 import dev.morphia.query.QueryFactory;
 import dev.morphia.query.Update;
 import dev.morphia.query.UpdateException;
+import dev.morphia.query.analysis.QueryAnalyzer;
 import dev.morphia.sofia.Sofia;
+import dev.morphia.transactions.IdentityMap;
+import dev.morphia.transactions.MorphiaSession;
 import dev.morphia.transactions.MorphiaSessionImpl;
 import dev.morphia.transactions.MorphiaTransaction;
 
+import org.bson.BsonReader;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
 import org.bson.codecs.configuration.CodecProvider;
@@ -76,6 +102,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.filters.Filters.in;
 import static dev.morphia.query.updates.UpdateOperators.set;
 import static dev.morphia.sofia.Sofia.noDocumentsUpdated;
 import static dev.morphia.sofia.Sofia.noShardKeyMatch;
@@ -99,14 +126,23 @@ public class DatastoreImpl implements AdvancedDatastore {
     private final QueryFactory queryFactory;
     private final CodecRegistry codecRegistry;
     private final List<MorphiaCodecProvider> morphiaCodecProviders = new ArrayList<>();
+    @Nullable
+    private final QueryAnalyzer queryAnalyzer;
+    @Nullable
+    private final EntityCache entityCache;
     private MongoDatabase database;
     private DatastoreOperations operations;
+    @Nullable
+    private CachingOperations cachingOperations;
+    private final CompletableFuture<Void> prewarming;
+    private final BufferPool bufferPool;
 
     protected DatastoreImpl(Mapper mapper, MongoClient mongoClient, String dbName) {
         this.database = mongoClient.getDatabase(dbName);
         this.mapper = mapper;
         this.mongoClient = mongoClient;
         this.queryFactory = mapper.getOptions().getQueryFactory();
+        this.queryAnalyzer = mapper.getOptions().isAnalyzeQueries() ? new QueryAnalyzer(mapper) : null;
         if (mapper.getOptions().autoImportModels()) {
             importModels();
         }
@@ -129,7 +165,12 @@ public class DatastoreImpl implements AdvancedDatastore {
         this.codecRegistry = fromProviders(providers);
 
         this.database = database.withCodecRegistry(this.codecRegistry);
-        operations = new CollectionOperations();
+        long cacheSize = mapper.getOptions().getEntityCacheSize();
+        this.entityCache = cacheSize != 0 ? new EntityCache(cacheSize, this.codecRegistry) : null;
+        operations(new CollectionOperations());
+        this.bufferPool = new BufferPool(BufferPool.DEFAULT_CAPACITY);
+        List<String> prewarm = mapper.getOptions().getPrewarm();
+        prewarming = prewarm.isEmpty() ? CompletableFuture.completedFuture(null) : prewarm(prewarm);
     }
 
     /**
@@ -144,7 +185,12 @@ public class DatastoreImpl implements AdvancedDatastore {
         this.mongoClient = datastore.mongoClient;
         this.mapper = datastore.mapper;
         this.queryFactory = datastore.queryFactory;
+        this.queryAnalyzer = datastore.queryAnalyzer;
         this.codecRegistry = datastore.codecRegistry;
+        this.entityCache = datastore.entityCache;
+        this.morphiaCodecProviders.addAll(datastore.morphiaCodecProviders);
+        this.prewarming = datastore.prewarming;
+        this.bufferPool = datastore.bufferPool;
     }
 
     @Override
@@ -184,7 +230,14 @@ public class DatastoreImpl implements AdvancedDatastore {
                     try {
                         MongoCollection<T> collection = configureCollection(options,
                                 (MongoCollection<T>) getCollection(entry.getKey()));
-                        operations.insertMany(collection, list, options);
+                        if (options.pooledBuffers()) {
+                            Codec<T> codec = (Codec<T>) collection.getCodecRegistry().get(entry.getKey());
+                            try (EncodedBatch<T> batch = new EncodedBatch<>(bufferPool, codec, list, options.directBuffers())) {
+                                operations.insertMany(batch.collection(collection), list, options);
+                            }
+                        } else {
+                            operations.insertMany(collection, list, options);
+                        }
                     } catch (MongoException e) {
                         infos.forEach(VersionBumpInfo::rollbackVersion);
                         throw e;
@@ -261,6 +314,32 @@ public class DatastoreImpl implements AdvancedDatastore {
         return delete(entity, new DeleteOptions().writeConcern(mapper.getWriteConcern(entity.getClass())));
     }
 
+    @Override
+    public <T> DeleteResult delete(KeySet<T> keys) {
+        return delete(keys, new DeleteOptions().writeConcern(mapper.getWriteConcern(keys.getType())));
+    }
+
+    @Override
+    public <T> DeleteResult delete(KeySet<T> keys, DeleteOptions options) {
+        DeleteOptions chunkOptions = new DeleteOptions(options)
+                .collection(keys.getCollection())
+                .multi(true);
+        long deleted = 0;
+        boolean acknowledged = true;
+        for (int chunk = 0; chunk < keys.chunks(); chunk++) {
+            DeleteResult result = find(keys.getType())
+                    .disableValidation()
+                    .filter(in("_id", keys.chunk(chunk)))
+                    .delete(chunkOptions);
+            if (result.wasAcknowledged()) {
+                deleted += result.getDeletedCount();
+            } else {
+                acknowledged = false;
+            }
+        }
+        return acknowledged ? DeleteResult.acknowledged(deleted) : DeleteResult.unacknowledged();
+    }
+
     @Override
     public void enableDocumentValidation() {
         for (EntityModel model : mapper.getMappedEntities()) {
@@ -274,13 +353,100 @@ public class DatastoreImpl implements AdvancedDatastore {
             LOG.warn(Sofia.noMappedClasses());
         }
         final IndexHelper indexHelper = new IndexHelper(mapper);
-        for (EntityModel model : mapper.getMappedEntities()) {
-            if (model.getIdProperty() != null) {
-                indexHelper.createIndex(getCollection(model.getType()), model);
+        Map<String, MongoCollection<?>> collections = new LinkedHashMap<>();
+        Map<String, List<EntityModel>> byCollection = indexedModels(collections);
+
+        int parallelism = Math.min(mapper.getOptions().getIndexParallelism(), byCollection.size());
+        if (parallelism <= 1) {
+            byCollection.forEach((name, models) -> indexHelper.createIndexes(collections.get(name), models));
+        } else {
+            // without a configured executor the workers get threads of their own which are released once the indexes are created
+            ExecutorService configured = mapper.getOptions().getExecutor();
+            ExecutorService executor = configured != null ? configured : Executors.newFixedThreadPool(parallelism, task -> {
+                Thread thread = new Thread(task, "morphia-indexes");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>(byCollection.keySet());
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(executor.submit(() -> {
+                    String name;
+                    while ((name = pending.poll()) != null) {
+                        indexHelper.createIndexes(collections.get(name), byCollection.get(name));
+                    }
+                }));
+            }
+            try {
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MappingException(e.getMessage(), e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new MappingException(e.getMessage(), e.getCause());
+            } finally {
+                pending.clear();
+                if (executor != configured) {
+                    executor.shutdown();
+                }
             }
         }
     }
 
+    /**
+     * Maps, validates, and builds the codecs for a set of types in the background on the configured
+     * {@link dev.morphia.mapping.MapperOptions#getExecutor() executor}, or a dedicated daemon thread if there is none, so that the first
+     * requests using them do not pay that cost. This is most useful along with
+     * {@link dev.morphia.mapping.MapperOptions#isLazyValidation() lazy validation}. Types which can not be loaded or prepared are logged
+     * and skipped.
+     *
+     * @param classNames the fully qualified names of the types to prepare
+     * @return a future which completes once every type has been attempted
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public CompletableFuture<Void> prewarm(Collection<String> classNames) {
+        List<String> names = List.copyOf(classNames);
+        ExecutorService executor = mapper.getOptions().getExecutor();
+        return CompletableFuture.runAsync(() -> {
+            for (String name : names) {
+                try {
+                    codecRegistry.get(Class.forName(name, true, mapper.getOptions().getClassLoader()));
+                } catch (ClassNotFoundException | RuntimeException e) {
+                    LOG.warn(Sofia.prewarmFailed(name, e.getMessage()), e);
+                }
+            }
+        }, executor != null ? executor : task -> {
+            Thread thread = new Thread(task, "morphia-prewarm");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * @return the future tracking the preparation of the types named by
+     *         {@link dev.morphia.mapping.MapperOptions#getPrewarm()} when this datastore was created
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public CompletableFuture<Void> prewarming() {
+        return prewarming;
+    }
+
+    @Override
+    public List<IndexDiff> diffIndexes() {
+        final IndexHelper indexHelper = new IndexHelper(mapper);
+        Map<String, MongoCollection<?>> collections = new LinkedHashMap<>();
+        return indexedModels(collections).entrySet().stream()
+                .map(entry -> indexHelper.diff(collections.get(entry.getKey()), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
     public <T> void ensureIndexes(Class<T> type) {
         EntityModel model = mapper.getEntityModel(type);
         final IndexHelper indexHelper = new IndexHelper(mapper);
@@ -289,6 +455,24 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
     }
 
+    @Override
+    public <T> Stream<T> fetch(KeySet<T> keys) {
+        return fetch(keys, new FindOptions());
+    }
+
+    @Override
+    public <T> Stream<T> fetch(KeySet<T> keys, FindOptions options) {
+        FindOptions chunkOptions = new FindOptions().copy(options)
+                .collection(keys.getCollection());
+        return IntStream.range(0, keys.chunks())
+                .mapToObj(chunk -> find(keys.getType())
+                        .disableValidation()
+                        .filter(in("_id", keys.chunk(chunk)))
+                        .iterator(chunkOptions))
+                .flatMap(cursor -> StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                        .onClose(cursor::close));
+    }
+
     @Override
     public <T> Query<T> find(Class<T> type) {
         return queryFactory.createQuery(this, type);
@@ -481,6 +665,59 @@ public class DatastoreImpl implements AdvancedDatastore {
         return mapper;
     }
 
+    /**
+     * Returns the cache to read entities through. Sessions do not read through the cache since the documents they see may not have
+     * been committed yet.
+     *
+     * @return the second level entity cache or null if it is not enabled
+     * @morphia.internal
+     * @see dev.morphia.mapping.MapperOptions.Builder#entityCacheSize(long)
+     * @since 2.4
+     */
+    @Nullable
+    @MorphiaInternal
+    public EntityCache getEntityCache() {
+        return this instanceof MorphiaSession ? null : entityCache;
+    }
+
+    /**
+     * Returns the pool of buffers used to encode batches with {@link InsertManyOptions#pooledBuffers(boolean)}. The pool's occupancy and
+     * reuse can be monitored through its getters.
+     *
+     * @return the buffer pool
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Returns the identity map of a session. Datastores outside of a session have none.
+     *
+     * @return the identity map or null if it is not enabled
+     * @morphia.internal
+     * @see MorphiaSession#identityMap(boolean)
+     * @since 2.4
+     */
+    @Nullable
+    @MorphiaInternal
+    public IdentityMap getIdentityMap() {
+        return null;
+    }
+
+    /**
+     * @return the analyzer tracking the shapes of executed queries or null if query analysis is not enabled
+     * @see dev.morphia.mapping.MapperOptions.Builder#analyzeQueries(boolean)
+     * @since 2.4
+     */
+    @Nullable
+    @MorphiaExperimental
+    public QueryAnalyzer getQueryAnalyzer() {
+        return queryAnalyzer;
+    }
+
     @Override
     public void shardCollections() {
         var entities = getMapper().getMappedEntities()
@@ -599,17 +836,32 @@ public class DatastoreImpl implements AdvancedDatastore {
         Codec<T> refreshCodec = getRefreshCodec(entity);
 
         MongoCollection<?> collection = getCollection(entity.getClass());
-        PropertyModel idField = mapper.getEntityModel(entity.getClass())
-                .getIdProperty();
+        EntityModel model = mapper.getEntityModel(entity.getClass());
+        PropertyModel idField = model.getIdProperty();
         if (idField == null) {
             throw new MappingException(Sofia.idRequired(entity.getClass().getName()));
         }
 
-        Document id = collection.find(new Document("_id", idField.getValue(entity)), Document.class)
-                .iterator()
-                .next();
+        BsonReader reader;
+        EntityCache cache = getEntityCache();
+        if (cache != null && EntityCache.isCached(model)) {
+            RawBsonDocument document = cache.load(this, collection, model, idField.getValue(entity));
+            if (document == null) {
+                throw new NoSuchElementException();
+            }
+            reader = document.asBsonReader();
+        } else {
+            reader = new DocumentReader(operations.find(collection.withDocumentClass(Document.class),
+                    new Document("_id", idField.getValue(entity)))
+                    .iterator()
+                    .next());
+        }
 
-        refreshCodec.decode(new DocumentReader(id), DecoderContext.builder().checkedDiscriminator(true).build());
+        refreshCodec.decode(reader, DecoderContext.builder().checkedDiscriminator(true).build());
+        IdentityMap identityMap = getIdentityMap();
+        if (identityMap != null) {
+            identityMap.replace(entity);
+        }
     }
 
     @Override
@@ -700,11 +952,39 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
     }
 
-    protected DatastoreImpl operations(DatastoreOperations operations) {
-        this.operations = operations;
+    /**
+     * Replaces the operations this datastore performs against its collections. This allows, e.g., an in-memory implementation to be
+     * used for testing and benchmarking.
+     *
+     * @param operations the new operations
+     * @return this
+     * @see dev.morphia.memory.InMemoryOperations
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public DatastoreImpl operations(DatastoreOperations operations) {
+        if (entityCache != null) {
+            cachingOperations = new CachingOperations(operations, entityCache, mapper, this instanceof MorphiaSession);
+            operations = cachingOperations;
+        }
+        Instrumentation instrumentation = mapper.getOptions().getInstrumentation();
+        this.operations = instrumentation.isEnabled() ? new InstrumentedOperations(operations, instrumentation) : operations;
         return this;
     }
 
+    /**
+     * Applies the entity cache invalidations recorded by a session again once its writes are visible to other readers.
+     *
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    protected void replayInvalidations() {
+        if (cachingOperations != null) {
+            cachingOperations.replay();
+        }
+    }
+
     private <T> void save(MongoCollection collection, T entity, InsertOneOptions options) {
         collection = configureCollection(options, collection);
 
@@ -821,6 +1101,18 @@ public class DatastoreImpl implements AdvancedDatastore {
         return DocumentWriter.encode(entity, this.getMapper(), this.getCodecRegistry());
     }
 
+    private Map<String, List<EntityModel>> indexedModels(Map<String, MongoCollection<?>> collections) {
+        Map<String, List<EntityModel>> byCollection = new LinkedHashMap<>();
+        for (EntityModel model : mapper.getMappedEntities()) {
+            if (model.getIdProperty() != null) {
+                collections.computeIfAbsent(model.getCollectionName(), name -> getCollection(model.getType()));
+                byCollection.computeIfAbsent(model.getCollectionName(), name -> new ArrayList<>())
+                        .add(model);
+            }
+        }
+        return byCollection;
+    }
+
     private <T> VersionBumpInfo updateVersioning(T entity) {
         final EntityModel entityModel = mapper.getEntityModel(entity.getClass());
         PropertyModel versionProperty = entityModel.getVersionProperty();
@@ -847,6 +1139,19 @@ public class DatastoreImpl implements AdvancedDatastore {
     }
 
     public abstract static class DatastoreOperations {
+        /**
+         * Runs an aggregation. Defaults to running it directly on the collection so existing operations need not implement it.
+         *
+         * @param collection the collection to aggregate
+         * @param pipeline   the pipeline to run
+         * @param <E>        the result type
+         * @return the results
+         * @since 2.4
+         */
+        public <E> AggregateIterable<E> aggregate(MongoCollection<E> collection, List<Document> pipeline) {
+            return collection.aggregate(pipeline);
+        }
+
         public abstract <T> long countDocuments(MongoCollection<T> collection, Document query, CountOptions options);
 
         public abstract <T> DeleteResult deleteMany(MongoCollection<T> collection, Document queryDocument, DeleteOptions options);
@@ -0,0 +1,148 @@
+package dev.morphia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import com.mongodb.client.model.IndexModel;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.annotations.internal.MorphiaInternal;
+
+import org.bson.Document;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Describes the differences between the indexes declared on the entities mapped to a collection and those reported by the server.
+ *
+ * @see Datastore#diffIndexes()
+ * @since 2.4
+ */
+@MorphiaExperimental
+public class IndexDiff {
+    private final String collection;
+    private final List<IndexModel> missing;
+    private final List<Mismatch> mismatched;
+    private final List<Document> extra;
+
+    /**
+     * @param collection the collection name
+     * @param missing    the declared indexes which do not exist
+     * @param mismatched the declared indexes conflicting with existing ones
+     * @param extra      the existing indexes which are not declared
+     * @morphia.internal
+     */
+    @MorphiaInternal
+    public IndexDiff(String collection, List<IndexModel> missing, List<Mismatch> mismatched, List<Document> extra) {
+        this.collection = collection;
+        this.missing = new ArrayList<>(missing);
+        this.mismatched = new ArrayList<>(mismatched);
+        this.extra = new ArrayList<>(extra);
+    }
+
+    /**
+     * @return the collection name
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return the indexes found on the server but not declared on any mapped entity. The {@code _id} index is never included.
+     */
+    public List<Document> getExtra() {
+        return unmodifiableList(extra);
+    }
+
+    /**
+     * @return the declared indexes which do not exist on the server
+     */
+    public List<IndexModel> getMissing() {
+        return unmodifiableList(missing);
+    }
+
+    /**
+     * @return the declared indexes whose keys or name match an index on the server but whose options do not
+     */
+    public List<Mismatch> getMismatched() {
+        return unmodifiableList(mismatched);
+    }
+
+    /**
+     * @return true if the declared indexes exist on the server exactly as defined and the server has no other indexes
+     */
+    public boolean isEmpty() {
+        return missing.isEmpty() && mismatched.isEmpty() && extra.isEmpty();
+    }
+
+    /**
+     * @return true if every declared index exists on the server exactly as defined. Extra indexes on the server are ignored.
+     */
+    public boolean isSatisfied() {
+        return missing.isEmpty() && mismatched.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", IndexDiff.class.getSimpleName() + "[", "]")
+                .add("collection='" + collection + "'")
+                .add("missing=" + missing)
+                .add("mismatched=" + mismatched)
+                .add("extra=" + extra)
+                .toString();
+    }
+
+    /**
+     * A declared index which conflicts with an existing index.
+     *
+     * @since 2.4
+     */
+    public static class Mismatch {
+        private final IndexModel declared;
+        private final Document expected;
+        private final Document existing;
+
+        /**
+         * @param declared the declared index
+         * @param expected the declared index in the form the server would report it
+         * @param existing the conflicting index as reported by the server
+         * @morphia.internal
+         */
+        @MorphiaInternal
+        public Mismatch(IndexModel declared, Document expected, Document existing) {
+            this.declared = declared;
+            this.expected = expected;
+            this.existing = existing;
+        }
+
+        /**
+         * @return the declared index
+         */
+        public IndexModel getDeclared() {
+            return declared;
+        }
+
+        /**
+         * @return the existing index as reported by the server
+         */
+        public Document getExisting() {
+            return existing;
+        }
+
+        /**
+         * @return the declared index in the form the server would report it
+         */
+        public Document getExpected() {
+            return expected;
+        }
+
+        @Override
+        public String toString() {
+            return new StringJoiner(", ", Mismatch.class.getSimpleName() + "[", "]")
+                    .add("expected=" + expected.toJson())
+                    .add("existing=" + existing.toJson())
+                    .toString();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dev.morphia;
 import com.mongodb.WriteConcern;
 import com.mongodb.lang.Nullable;
 
+import dev.morphia.annotations.internal.MorphiaExperimental;
 import dev.morphia.annotations.internal.MorphiaInternal;
 import dev.morphia.internal.CollectionConfigurable;
 import dev.morphia.internal.WriteConfigurable;
@@ -18,6 +19,8 @@ public class InsertManyOptions implements WriteConfigurable<InsertManyOptions>,
     private com.mongodb.client.model.InsertManyOptions options = new com.mongodb.client.model.InsertManyOptions();
     private WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
     private String collection;
+    private boolean pooledBuffers;
+    private boolean directBuffers;
 
     /**
      * Creates a new options wrapper
@@ -35,6 +38,8 @@ public class InsertManyOptions implements WriteConfigurable<InsertManyOptions>,
         this.options = that.options;
         this.writeConcern = that.writeConcern;
         this.collection = that.collection;
+        this.pooledBuffers = that.pooledBuffers;
+        this.directBuffers = that.directBuffers;
     }
 
     /**
@@ -94,6 +99,29 @@ public class InsertManyOptions implements WriteConfigurable<InsertManyOptions>,
         return this;
     }
 
+    /**
+     * Sets whether the pooled buffers used when {@link #pooledBuffers(boolean)} is enabled are allocated outside of the heap. The default
+     * is false.
+     *
+     * @param directBuffers true to use direct buffers
+     * @return this
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public InsertManyOptions directBuffers(boolean directBuffers) {
+        this.directBuffers = directBuffers;
+        return this;
+    }
+
+    /**
+     * @return true if pooled buffers are allocated outside of the heap
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public boolean directBuffers() {
+        return directBuffers;
+    }
+
     /**
      * Gets whether to bypass document validation, or null if unspecified. The default is null.
      *
@@ -157,4 +185,30 @@ public class InsertManyOptions implements WriteConfigurable<InsertManyOptions>,
         options.ordered(ordered);
         return this;
     }
+
+    /**
+     * Sets whether each batch of entities is encoded up front in to buffers reused across writes rather than while the driver writes
+     * them. The buffers are sized from the documents encoded so far and are returned to the datastore's pool once the write completes.
+     * This keeps the encoding of large batches from allocating fresh buffers each time. The default is false.
+     *
+     * @param pooledBuffers true to encode in to pooled buffers
+     * @return this
+     * @see #directBuffers(boolean)
+     * @see DatastoreImpl#getBufferPool()
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public InsertManyOptions pooledBuffers(boolean pooledBuffers) {
+        this.pooledBuffers = pooledBuffers;
+        return this;
+    }
+
+    /**
+     * @return true if batches are encoded in to pooled buffers
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public boolean pooledBuffers() {
+        return pooledBuffers;
+    }
 }
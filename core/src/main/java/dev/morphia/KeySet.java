@@ -0,0 +1,285 @@
+package dev.morphia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.query.FindOptions;
+import dev.morphia.query.Query;
+import dev.morphia.sofia.Sofia;
+
+import org.bson.types.ObjectId;
+
+/**
+ * A compact set of the IDs of entities in one collection. Unlike a list of {@link Key}s, the type and collection are held once and
+ * {@code ObjectId}, {@code int}, and {@code long} IDs are packed in to primitive arrays so that very large key sets can be held without
+ * an object per entry. IDs of any other type, or a mix of types, are held as objects.
+ * <p>
+ * Key sets are typically loaded with {@link Query#keySet(FindOptions)} and then used to fetch or delete the entities in chunks of
+ * {@code $in} queries with {@link Datastore#fetch(KeySet)} and {@link Datastore#delete(KeySet)}. Duplicate IDs are not removed.
+ *
+ * @param <T> the entity type
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class KeySet<T> implements Iterable<Object> {
+    /**
+     * The encoded size of the {@code $in} values sent with each chunk. This is half the maximum document size to leave room for the
+     * rest of the command.
+     */
+    private static final int CHUNK_BYTES = 8 * 1024 * 1024;
+    /**
+     * The type byte and the array index name preceding each value in an encoded array.
+     */
+    private static final int ELEMENT_OVERHEAD = 9;
+    private static final int OBJECT_ID_WIDTH = 12;
+
+    private final Class<T> type;
+    private final String collection;
+    private Kind kind = Kind.EMPTY;
+    private byte[] objectIds;
+    private int[] ints;
+    private long[] longs;
+    private Object[] objects;
+    private int size;
+    private int chunkSize;
+
+    /**
+     * @param type       the entity type
+     * @param collection the collection the entities are stored in
+     */
+    public KeySet(Class<T> type, String collection) {
+        this.type = type;
+        this.collection = collection;
+    }
+
+    /**
+     * Adds an ID.
+     *
+     * @param id the ID
+     * @return this
+     */
+    public KeySet<T> add(Object id) {
+        Kind idKind = Kind.of(id);
+        if (kind == Kind.EMPTY) {
+            kind = idKind;
+        } else if (kind != idKind && kind != Kind.OBJECT) {
+            inflate();
+        }
+        ensureCapacity(size + 1);
+        switch (kind) {
+            case OBJECT_ID:
+                System.arraycopy(((ObjectId) id).toByteArray(), 0, objectIds, size * OBJECT_ID_WIDTH, OBJECT_ID_WIDTH);
+                break;
+            case INT:
+                ints[size] = (Integer) id;
+                break;
+            case LONG:
+                longs[size] = (Long) id;
+                break;
+            default:
+                objects[size] = id;
+        }
+        size++;
+        return this;
+    }
+
+    /**
+     * Sets the number of IDs to send with each {@code $in} query. If this is not set, the size is derived from the kind of IDs held so
+     * that each query stays well within the server's document size limit.
+     *
+     * @param chunkSize the number of IDs
+     * @return this
+     */
+    public KeySet<T> chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException(Sofia.keySetChunkSizeInvalid(chunkSize));
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param index the position of the ID
+     * @return the ID
+     */
+    public Object get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        switch (kind) {
+            case OBJECT_ID:
+                return objectId(index);
+            case INT:
+                return ints[index];
+            case LONG:
+                return longs[index];
+            default:
+                return objects[index];
+        }
+    }
+
+    /**
+     * @return the number of IDs sent with each {@code $in} query
+     */
+    public int getChunkSize() {
+        return chunkSize != 0 ? chunkSize : CHUNK_BYTES / (ELEMENT_OVERHEAD + kind.width);
+    }
+
+    /**
+     * @return the collection the entities are stored in
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return the entity type
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return true if there are no IDs
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * @return the number of IDs
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "KeySet{type=" + type.getName() + ", collection='" + collection + "', size=" + size + '}';
+    }
+
+    /**
+     * @param index the chunk number
+     * @return the IDs in the chunk
+     */
+    List<Object> chunk(int index) {
+        int from = index * getChunkSize();
+        int to = Math.min(size, from + getChunkSize());
+        List<Object> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * @return the number of chunks
+     */
+    int chunks() {
+        return (size + getChunkSize() - 1) / getChunkSize();
+    }
+
+    private void ensureCapacity(int capacity) {
+        int current = capacity();
+        if (capacity <= current) {
+            return;
+        }
+        int grown = Math.max(capacity, Math.max(16, current + (current >> 1)));
+        switch (kind) {
+            case OBJECT_ID:
+                objectIds = objectIds == null ? new byte[grown * OBJECT_ID_WIDTH] : Arrays.copyOf(objectIds, grown * OBJECT_ID_WIDTH);
+                break;
+            case INT:
+                ints = ints == null ? new int[grown] : Arrays.copyOf(ints, grown);
+                break;
+            case LONG:
+                longs = longs == null ? new long[grown] : Arrays.copyOf(longs, grown);
+                break;
+            default:
+                objects = objects == null ? new Object[grown] : Arrays.copyOf(objects, grown);
+        }
+    }
+
+    private int capacity() {
+        switch (kind) {
+            case OBJECT_ID:
+                return objectIds == null ? 0 : objectIds.length / OBJECT_ID_WIDTH;
+            case INT:
+                return ints == null ? 0 : ints.length;
+            case LONG:
+                return longs == null ? 0 : longs.length;
+            default:
+                return objects == null ? 0 : objects.length;
+        }
+    }
+
+    private void inflate() {
+        Object[] inflated = new Object[Math.max(16, size + (size >> 1))];
+        for (int i = 0; i < size; i++) {
+            inflated[i] = get(i);
+        }
+        objects = inflated;
+        objectIds = null;
+        ints = null;
+        longs = null;
+        kind = Kind.OBJECT;
+    }
+
+    private ObjectId objectId(int index) {
+        byte[] bytes = new byte[OBJECT_ID_WIDTH];
+        System.arraycopy(objectIds, index * OBJECT_ID_WIDTH, bytes, 0, OBJECT_ID_WIDTH);
+        return new ObjectId(bytes);
+    }
+
+    private enum Kind {
+        EMPTY(1),
+        OBJECT_ID(OBJECT_ID_WIDTH),
+        INT(4),
+        LONG(8),
+        /**
+         * A generous estimate since the encoded size of arbitrary IDs is not known up front.
+         */
+        OBJECT(119);
+
+        private final int width;
+
+        Kind(int width) {
+            this.width = width;
+        }
+
+        static Kind of(Object id) {
+            if (id instanceof ObjectId) {
+                return OBJECT_ID;
+            } else if (id instanceof Integer) {
+                return INT;
+            } else if (id instanceof Long) {
+                return LONG;
+            }
+            return OBJECT;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import dev.morphia.aggregation.stages.Sort;
 import dev.morphia.aggregation.stages.Stage;
 import dev.morphia.aggregation.stages.Unset;
 import dev.morphia.aggregation.stages.Unwind;
+import dev.morphia.annotations.internal.MorphiaExperimental;
 import dev.morphia.annotations.internal.MorphiaInternal;
 import dev.morphia.query.filters.Filter;
 import dev.morphia.query.internal.MorphiaCursor;
@@ -445,6 +446,18 @@ public interface Aggregation<T> {
      */
     Aggregation<T> sortByCount(Expression sort);
 
+    /**
+     * Encodes the current stages into a reusable template. Later changes to this aggregation do not affect the template.
+     *
+     * @param variables the names of the variables the stages reference via
+     *                  {@link dev.morphia.aggregation.expressions.VariableExpressions#variable(String)}
+     * @return the template
+     * @see PipelineTemplate
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    PipelineTemplate<T> template(String... variables);
+
     /**
      * Performs a union of two collections; i.e. $unionWith combines pipeline results from two collections into a single result set. The
      * stage outputs the combined result set (including duplicates) to the next stage.
@@ -2,16 +2,15 @@ package dev.morphia.aggregation;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import com.mongodb.ServerAddress;
-import com.mongodb.ServerCursor;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
-import com.mongodb.lang.Nullable;
 
 import dev.morphia.DatastoreImpl;
+import dev.morphia.aggregation.codecs.ResultCodec;
 import dev.morphia.aggregation.expressions.Expressions;
 import dev.morphia.aggregation.expressions.impls.DocumentExpression;
 import dev.morphia.aggregation.expressions.impls.Expression;
@@ -51,8 +50,9 @@ import dev.morphia.aggregation.stages.UnionWith;
 import dev.morphia.aggregation.stages.Unset;
 import dev.morphia.aggregation.stages.Unwind;
 import dev.morphia.annotations.internal.MorphiaInternal;
-import dev.morphia.mapping.codec.pojo.EntityModel;
-import dev.morphia.mapping.codec.reader.DocumentReader;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.InstrumentedCursor;
+import dev.morphia.instrumentation.OperationType;
 import dev.morphia.mapping.codec.writer.DocumentWriter;
 import dev.morphia.query.filters.Filter;
 import dev.morphia.query.internal.MorphiaCursor;
@@ -60,8 +60,6 @@ import dev.morphia.query.internal.MorphiaCursor;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import org.bson.Document;
-import org.bson.codecs.Codec;
-import org.bson.codecs.DecoderContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -147,27 +145,22 @@ public class AggregationImpl<T> implements Aggregation<T> {
 
     @Override
     public <R> MorphiaCursor<R> execute(Class<R> resultType) {
-        MongoCursor<R> cursor;
+        long start = System.nanoTime();
         List<Document> pipeline = pipeline();
         if (LOG.isDebugEnabled()) {
             LOG.debug("pipeline = " + pipeline);
         }
-        if (datastore.getMapper().isMappable(resultType) && !resultType.equals(this.collection.getDocumentClass())) {
-            MongoCollection<Document> collection = this.collection.withDocumentClass(Document.class);
-            MongoCursor<Document> results = collection.aggregate(pipeline).iterator();
-            EntityModel entityModel = datastore.getMapper().getEntityModel(this.collection.getDocumentClass());
-            cursor = new MappingCursor<>(results, datastore.getCodecRegistry().get(resultType),
-                    entityModel.getDiscriminatorKey());
-        } else {
-            cursor = collection.aggregate(pipeline, resultType).iterator();
-        }
-        return new MorphiaCursor<>(cursor);
+        MongoCursor<R> cursor = ResultCodec.configure(collection, datastore.getMapper(), resultType)
+                .aggregate(pipeline, resultType)
+                .iterator();
+        return new MorphiaCursor<>(instrument(datastore, collection, cursor, start));
     }
 
     @Override
     public <R> MorphiaCursor<R> execute(Class<R> resultType, AggregationOptions options) {
-        return new MorphiaCursor<>(options.apply(pipeline(), datastore, collection, resultType)
-                .iterator());
+        long start = System.nanoTime();
+        return new MorphiaCursor<>(instrument(datastore, collection, options.apply(pipeline(), datastore, collection, resultType)
+                .iterator(), start));
     }
 
     @Override
@@ -359,57 +352,17 @@ public class AggregationImpl<T> implements Aggregation<T> {
         return this;
     }
 
-    private static class MappingCursor<R> implements MongoCursor<R> {
-        private final MongoCursor<Document> results;
-        private final Codec<R> codec;
-        private final String discriminator;
-
-        MappingCursor(MongoCursor<Document> results, Codec<R> codec, String discriminator) {
-            this.results = results;
-            this.codec = codec;
-            this.discriminator = discriminator;
-        }
-
-        @Override
-        public void close() {
-            results.close();
-        }
-
-        @Override
-        public boolean hasNext() {
-            return results.hasNext();
-        }
-
-        @Override
-        public R next() {
-            return map(results.next());
-        }
-
-        public int available() {
-            return results.available();
-        }
-
-        @Override
-        @Nullable
-        public R tryNext() {
-            return hasNext() ? next() : null;
-        }
-
-        @Override
-        @Nullable
-        public ServerCursor getServerCursor() {
-            return results.getServerCursor();
-        }
-
-        @Override
-        public ServerAddress getServerAddress() {
-            return results.getServerAddress();
-        }
+    @Override
+    public PipelineTemplate<T> template(String... variables) {
+        return new PipelineTemplate<>(datastore, collection, pipeline(), new LinkedHashSet<>(Arrays.asList(variables)));
+    }
 
-        private R map(Document next) {
-            next.remove(discriminator);
-            return codec.decode(new DocumentReader(next), DecoderContext.builder().build());
+    static <R> MongoCursor<R> instrument(DatastoreImpl datastore, MongoCollection<?> collection, MongoCursor<R> cursor, long start) {
+        Instrumentation instrumentation = datastore.getMapper().getOptions().getInstrumentation();
+        if (!instrumentation.isEnabled()) {
+            return cursor;
         }
+        return new InstrumentedCursor<>(cursor, instrumentation, OperationType.AGGREGATE, collection.getDocumentClass(),
+                collection.getNamespace().getCollectionName(), System.nanoTime() - start);
     }
-
 }
@@ -12,12 +12,14 @@ import com.mongodb.client.model.Collation;
 import com.mongodb.lang.Nullable;
 
 import dev.morphia.DatastoreImpl;
+import dev.morphia.aggregation.codecs.ResultCodec;
 import dev.morphia.annotations.internal.MorphiaInternal;
 import dev.morphia.internal.CollectionConfigurable;
 import dev.morphia.internal.ReadConfigurable;
 import dev.morphia.internal.WriteConfigurable;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 
 /**
  * Defines options to be applied to an aggregation pipeline.
@@ -67,9 +69,9 @@ public class AggregationOptions implements ReadConfigurable<AggregationOptions>,
      * @morphia.internal
      */
     @MorphiaInternal
-    <S, T> AggregateIterable<S> apply(List<Document> documents, DatastoreImpl datastore,
+    <S, T> AggregateIterable<S> apply(List<? extends Bson> documents, DatastoreImpl datastore,
             MongoCollection<T> collection, Class<S> resultType) {
-        MongoCollection<T> bound = prepare(collection, datastore.getDatabase());
+        MongoCollection<T> bound = ResultCodec.configure(prepare(collection, datastore.getDatabase()), datastore.getMapper(), resultType);
         if (readConcern != null) {
             bound = bound.withReadConcern(readConcern);
         }
@@ -0,0 +1,331 @@
+package dev.morphia.aggregation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.DatastoreImpl;
+import dev.morphia.aggregation.codecs.ResultCodec;
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.query.internal.MorphiaCursor;
+import dev.morphia.sofia.Sofia;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+/**
+ * An aggregation pipeline encoded once into immutable BSON so that it can be run repeatedly without encoding its stages again. Values
+ * which change between executions are declared as named variables and referenced in the pipeline with
+ * {@link dev.morphia.aggregation.expressions.VariableExpressions#variable(String)}:
+ *
+ * <pre>
+ * <code>
+ * PipelineTemplate&lt;Order&gt; recent = datastore.aggregate(Order.class)
+ *     .match(expr(gte(field("placed"), variable("since"))))
+ *     .group(group(id("status")).field("count", sum(value(1))))
+ *     .template("since");
+ *
+ * recent.execute(StatusCount.class, Map.of("since", lastHour));
+ * </code>
+ * </pre>
+ * <p>
+ * Where the server evaluates a variable as an expression, its value is passed with the aggregate command's {@code let} option and
+ * the pipeline is sent unchanged. The server can not resolve variables in query filters outside of {@code $expr} or in
+ * {@code $limit} and {@code $skip} so variables used there are substituted into a copy of just the stages using them. Servers older
+ * than 5.0 do not support {@code let} so {@link #inline()} substitutes every variable instead.
+ *
+ * @param <T> the source type
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class PipelineTemplate<T> {
+    private static final Set<String> QUERY_STAGES = Set.of("$match");
+    private static final Set<String> VALUE_STAGES = Set.of("$limit", "$skip");
+    private static final Set<String> LOGICAL_OPERATORS = Set.of("$and", "$or", "$nor");
+    private static final Set<String> SUB_PIPELINE_STAGES = Set.of("$lookup", "$unionWith");
+
+    private final DatastoreImpl datastore;
+    private final MongoCollection<T> collection;
+    private final List<RawBsonDocument> stages;
+    private final Set<String> variables;
+    private final boolean inline;
+    private final List<Boolean> substituted = new ArrayList<>();
+    private final Set<String> letVariables = new TreeSet<>();
+
+    PipelineTemplate(DatastoreImpl datastore, MongoCollection<T> collection, List<Document> pipeline, Set<String> variables) {
+        this(datastore, collection, encode(pipeline, collection.getCodecRegistry()), variables, false);
+    }
+
+    private PipelineTemplate(DatastoreImpl datastore, MongoCollection<T> collection, List<RawBsonDocument> stages,
+            Set<String> variables, boolean inline) {
+        this.datastore = datastore;
+        this.collection = collection;
+        this.stages = stages;
+        this.variables = Collections.unmodifiableSet(new LinkedHashSet<>(variables));
+        this.inline = inline;
+        for (RawBsonDocument stage : stages) {
+            Set<String> substitutes = new TreeSet<>();
+            stage(stage, null, substitutes, letVariables);
+            substituted.add(!substitutes.isEmpty());
+        }
+    }
+
+    /**
+     * Runs the pipeline with the given variable values.
+     *
+     * @param resultType the type to map the results to
+     * @param values     the values of every declared variable
+     * @param <R>        the result type
+     * @return the results
+     */
+    public <R> MorphiaCursor<R> execute(Class<R> resultType, Map<String, ?> values) {
+        long start = System.nanoTime();
+        AggregateIterable<R> iterable = ResultCodec.configure(collection, datastore.getMapper(), resultType)
+                .aggregate(pipeline(values), resultType);
+        return execute(iterable, values, start);
+    }
+
+    /**
+     * Runs the pipeline with the given variable values.
+     *
+     * @param resultType the type to map the results to
+     * @param values     the values of every declared variable
+     * @param options    the options to apply
+     * @param <R>        the result type
+     * @return the results
+     */
+    public <R> MorphiaCursor<R> execute(Class<R> resultType, Map<String, ?> values, AggregationOptions options) {
+        long start = System.nanoTime();
+        return execute(options.apply(pipeline(values), datastore, collection, resultType), values, start);
+    }
+
+    /**
+     * @return the encoded stages with variables unresolved
+     */
+    public List<RawBsonDocument> getStages() {
+        return stages;
+    }
+
+    /**
+     * @return the declared variables
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Creates a template which substitutes every variable into the pipeline rather than passing any with {@code let}. This is needed
+     * for servers older than 5.0.
+     *
+     * @return the new template
+     */
+    public PipelineTemplate<T> inline() {
+        return inline ? this : new PipelineTemplate<>(datastore, collection, stages, variables, true);
+    }
+
+    /**
+     * @return true if every variable is substituted into the pipeline
+     * @see #inline()
+     */
+    public boolean isInline() {
+        return inline;
+    }
+
+    /**
+     * Resolves the pipeline to send for the given variable values. Stages which do not need any values substituted are returned as
+     * encoded by the template.
+     *
+     * @param values the values of every declared variable
+     * @return the pipeline
+     */
+    public List<Bson> pipeline(Map<String, ?> values) {
+        Map<String, BsonValue> encoded = encode(values);
+        List<Bson> pipeline = new ArrayList<>(stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            RawBsonDocument stage = stages.get(i);
+            pipeline.add(substituted.get(i) ? stage(stage, encoded, new TreeSet<>(), new TreeSet<>()) : stage);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Resolves the {@code let} variables to send for the given variable values.
+     *
+     * @param values the values of every declared variable
+     * @return the variables or null if none are passed with {@code let}
+     */
+    @Nullable
+    public BsonDocument variables(Map<String, ?> values) {
+        if (letVariables.isEmpty()) {
+            return null;
+        }
+        Map<String, BsonValue> encoded = encode(values);
+        BsonDocument let = new BsonDocument();
+        for (String name : letVariables) {
+            let.put(name, encoded.get(name));
+        }
+        return let;
+    }
+
+    private static List<RawBsonDocument> encode(List<Document> pipeline, CodecRegistry registry) {
+        List<RawBsonDocument> stages = new ArrayList<>(pipeline.size());
+        for (Document stage : pipeline) {
+            stages.add(new RawBsonDocument(stage, registry.get(Document.class)));
+        }
+        return Collections.unmodifiableList(stages);
+    }
+
+    private Map<String, BsonValue> encode(Map<String, ?> values) {
+        Set<String> unbound = new TreeSet<>(variables);
+        unbound.removeAll(values.keySet());
+        if (!unbound.isEmpty()) {
+            throw new IllegalArgumentException(Sofia.templateUnboundVariables(unbound));
+        }
+        Set<String> undeclared = new TreeSet<>(values.keySet());
+        undeclared.removeAll(variables);
+        if (!undeclared.isEmpty()) {
+            throw new IllegalArgumentException(Sofia.templateUndeclaredVariables(undeclared, variables));
+        }
+        return new Document(values).toBsonDocument(Document.class, collection.getCodecRegistry());
+    }
+
+    private <R> MorphiaCursor<R> execute(AggregateIterable<R> iterable, Map<String, ?> values, long start) {
+        BsonDocument let = variables(values);
+        if (let != null) {
+            iterable.let(let);
+        }
+        return new MorphiaCursor<>(AggregationImpl.instrument(datastore, collection, iterable.iterator(), start));
+    }
+
+    /**
+     * Walks a stage finding variable references and, if values are given, copies the stage substituting the variables which can not
+     * be passed with {@code let}.
+     */
+    private BsonDocument stage(BsonDocument stage, @Nullable Map<String, BsonValue> values, Set<String> substitutes,
+            Set<String> let) {
+        BsonDocument copy = new BsonDocument();
+        for (Entry<String, BsonValue> entry : stage.entrySet()) {
+            String name = entry.getKey();
+            BsonValue value = entry.getValue();
+            BsonValue walked;
+            if (QUERY_STAGES.contains(name)) {
+                walked = query(value, values, substitutes, let);
+            } else if (VALUE_STAGES.contains(name)) {
+                walked = walk(value, false, values, substitutes, let);
+            } else if (name.equals("$facet") && value.isDocument()) {
+                BsonDocument facets = new BsonDocument();
+                for (Entry<String, BsonValue> facet : value.asDocument().entrySet()) {
+                    facets.put(facet.getKey(), stages(facet.getValue(), values, substitutes, let));
+                }
+                walked = facets;
+            } else if (SUB_PIPELINE_STAGES.contains(name) && value.isDocument()) {
+                BsonDocument options = new BsonDocument();
+                for (Entry<String, BsonValue> option : value.asDocument().entrySet()) {
+                    options.put(option.getKey(), option.getKey().equals("pipeline")
+                            ? stages(option.getValue(), values, substitutes, let)
+                            : walk(option.getValue(), true, values, substitutes, let));
+                }
+                walked = options;
+            } else {
+                walked = walk(value, true, values, substitutes, let);
+            }
+            copy.put(name, walked);
+        }
+        return copy;
+    }
+
+    private BsonValue stages(BsonValue value, @Nullable Map<String, BsonValue> values, Set<String> substitutes, Set<String> let) {
+        if (!value.isArray()) {
+            return walk(value, true, values, substitutes, let);
+        }
+        BsonArray stages = new BsonArray();
+        for (BsonValue stage : value.asArray()) {
+            stages.add(stage.isDocument() ? stage(stage.asDocument(), values, substitutes, let) : stage);
+        }
+        return stages;
+    }
+
+    private BsonValue query(BsonValue value, @Nullable Map<String, BsonValue> values, Set<String> substitutes, Set<String> let) {
+        if (!value.isDocument()) {
+            return walk(value, false, values, substitutes, let);
+        }
+        BsonDocument query = new BsonDocument();
+        for (Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+            String name = entry.getKey();
+            BsonValue clause = entry.getValue();
+            if (name.equals("$expr")) {
+                query.put(name, walk(clause, true, values, substitutes, let));
+            } else if (LOGICAL_OPERATORS.contains(name) && clause.isArray()) {
+                BsonArray clauses = new BsonArray();
+                for (BsonValue element : clause.asArray()) {
+                    clauses.add(query(element, values, substitutes, let));
+                }
+                query.put(name, clauses);
+            } else {
+                query.put(name, walk(clause, false, values, substitutes, let));
+            }
+        }
+        return query;
+    }
+
+    private BsonValue walk(BsonValue value, boolean expression, @Nullable Map<String, BsonValue> values, Set<String> substitutes,
+            Set<String> let) {
+        if (value.isString()) {
+            String variable = variable(value.asString());
+            if (variable == null) {
+                return value;
+            }
+            if (expression && !inline) {
+                let.add(variable);
+                return value;
+            }
+            substitutes.add(variable);
+            if (values == null) {
+                return value;
+            }
+            BsonValue bound = values.getOrDefault(variable, BsonNull.VALUE);
+            return expression ? new BsonDocument("$literal", bound) : bound;
+        } else if (value.isDocument()) {
+            BsonDocument copy = new BsonDocument();
+            for (Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                copy.put(entry.getKey(), walk(entry.getValue(), expression, values, substitutes, let));
+            }
+            return copy;
+        } else if (value.isArray()) {
+            BsonArray copy = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                copy.add(walk(element, expression, values, substitutes, let));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    @Nullable
+    private String variable(BsonString value) {
+        String string = value.getValue();
+        if (string.startsWith("$$")) {
+            String name = string.substring(2);
+            if (variables.contains(name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+}
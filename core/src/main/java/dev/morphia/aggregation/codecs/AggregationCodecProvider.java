@@ -53,7 +53,7 @@ public class AggregationCodecProvider implements CodecProvider {
 
     private final Codec expressionCodec;
     private final Datastore datastore;
-    private Map<Class, StageCodec> codecs;
+    private volatile Map<Class, StageCodec> codecs;
 
     @SuppressFBWarnings("EI_EXPOSE_REP2")
     public AggregationCodecProvider(Datastore datastore) {
@@ -73,11 +73,13 @@ public class AggregationCodecProvider implements CodecProvider {
     }
 
     private Map<Class, StageCodec> getCodecs() {
+        Map<Class, StageCodec> codecs = this.codecs;
         if (codecs == null) {
+            // populated fully before publishing so that concurrent readers never see a partially filled map
             codecs = new HashMap<>();
 
             // Stages
-            addCodec(new AddFieldsCodec(datastore),
+            addCodec(codecs, new AddFieldsCodec(datastore),
                     new AutoBucketCodec(datastore),
                     new BucketCodec(datastore),
                     new ChangeStreamCodec(datastore),
@@ -111,12 +113,13 @@ public class AggregationCodecProvider implements CodecProvider {
                     new UnionWithCodec(datastore),
                     new UnsetCodec(datastore),
                     new UnwindCodec(datastore));
+            this.codecs = codecs;
         }
         return codecs;
     }
 
     @Nullable
-    private void addCodec(StageCodec... stageCodecs) {
+    private void addCodec(Map<Class, StageCodec> codecs, StageCodec... stageCodecs) {
         for (StageCodec codec : stageCodecs) {
             codecs.put(codec.getEncoderClass(), codec);
         }
@@ -0,0 +1,72 @@
+package dev.morphia.aggregation.codecs;
+
+import com.mongodb.client.MongoCollection;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.Mapper;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import static org.bson.codecs.configuration.CodecRegistries.fromCodecs;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+
+/**
+ * Decodes aggregation results directly from the driver's reader into an entity type other than the one mapped to the source
+ * collection. The source documents' discriminator names the source type rather than the result type so the discriminator is
+ * treated as already checked and the result type's codec decodes the document as is.
+ *
+ * @param <R> the result type
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class ResultCodec<R> implements Codec<R> {
+    private static final DecoderContext CHECKED = DecoderContext.builder().checkedDiscriminator(true).build();
+
+    private final Codec<R> codec;
+
+    /**
+     * @param codec the result type's codec
+     */
+    public ResultCodec(Codec<R> codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Configures a collection to decode aggregation results of the given type with a {@code ResultCodec} if that type is a mapped
+     * entity other than the collection's type.
+     *
+     * @param collection the source collection
+     * @param mapper     the mapper
+     * @param resultType the result type
+     * @param <T>        the source type
+     * @return the collection to aggregate with
+     */
+    public static <T> MongoCollection<T> configure(MongoCollection<T> collection, Mapper mapper, Class<?> resultType) {
+        if (!mapper.isMappable(resultType) || resultType.equals(collection.getDocumentClass())) {
+            return collection;
+        }
+        return collection.withCodecRegistry(fromRegistries(
+                fromCodecs(new ResultCodec<>(collection.getCodecRegistry().get(resultType))),
+                collection.getCodecRegistry()));
+    }
+
+    @Override
+    public R decode(BsonReader reader, DecoderContext decoderContext) {
+        return codec.decode(reader, CHECKED);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, R value, EncoderContext encoderContext) {
+        codec.encode(writer, value, encoderContext);
+    }
+
+    @Override
+    public Class<R> getEncoderClass() {
+        return codec.getEncoderClass();
+    }
+}
@@ -3,6 +3,8 @@ package dev.morphia.aggregation.expressions;
 import dev.morphia.aggregation.expressions.impls.Expression;
 import dev.morphia.aggregation.expressions.impls.LetExpression;
 
+import static dev.morphia.aggregation.expressions.Expressions.value;
+
 /**
  * Defines helper methods for the variable expressions
  *
@@ -23,4 +25,16 @@ public final class VariableExpressions {
     public static LetExpression let(Expression in) {
         return new LetExpression(in);
     }
+
+    /**
+     * References a variable by name, e.g., one defined by {@code $let} or a bind variable of a
+     * {@link dev.morphia.aggregation.PipelineTemplate}.
+     *
+     * @param name the variable name without the {@code $$} prefix
+     * @return the new expression
+     * @since 2.4
+     */
+    public static Expression variable(String name) {
+        return value("$$" + name);
+    }
 }
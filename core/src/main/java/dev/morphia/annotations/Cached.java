@@ -0,0 +1,36 @@
+package dev.morphia.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+/**
+ * Marks an entity as eligible for the second level entity cache. Lookups by ID, reference resolution, and refreshes of these entities
+ * are served from the cache when one has been configured via {@link dev.morphia.mapping.MapperOptions.Builder#entityCacheSize(long)}.
+ * Entries are invalidated whenever Morphia writes to the documents they hold. Writes made outside of this datastore are not seen so
+ * a {@link #ttl()} should be given for data which can change underneath the application.
+ *
+ * @since 2.4
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@MorphiaExperimental
+public @interface Cached {
+    /**
+     * @return how long an entry may be served from the cache. Defaults to 0 which keeps entries until they are evicted or invalidated.
+     */
+    long ttl() default 0;
+
+    /**
+     * @return the unit of {@link #ttl()}
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -3,14 +3,22 @@ package dev.morphia.annotations.internal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.lang.Nullable;
 
+import dev.morphia.IndexDiff;
+import dev.morphia.IndexDiff.Mismatch;
 import dev.morphia.annotations.Collation;
 import dev.morphia.annotations.Field;
 import dev.morphia.annotations.Index;
@@ -28,6 +36,7 @@ import dev.morphia.utils.IndexType;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -183,11 +192,109 @@ public final class IndexHelper {
      */
     @MorphiaInternal
     public void createIndex(MongoCollection<?> collection, EntityModel model) {
-        if (!model.isInterface() && !model.isAbstract()) {
-            for (Index index : collectIndexes(model, Collections.emptyList())) {
-                createIndex(collection, model, index);
+        createIndexes(collection, List.of(model));
+    }
+
+    /**
+     * Creates the indexes defined by all the given models which are missing from the collection in one {@code createIndexes} command.
+     * Any index which already exists on the collection with an identical definition is skipped. The server builds the indexes of a
+     * single command together so if it rejects one, e.g., a unique index over duplicate values, none of the missing indexes are created.
+     * <p>
+     * Indexes whose definition conflicts with an existing index are then sent one at a time, after the missing indexes have been
+     * created, so that the server reports the conflict without preventing any other index from being created.
+     *
+     * @param collection the collection
+     * @param models     the models mapped to the collection
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public void createIndexes(MongoCollection<?> collection, List<EntityModel> models) {
+        IndexDiff diff = diff(collection, models);
+        if (!diff.getMissing().isEmpty()) {
+            collection.createIndexes(diff.getMissing());
+        }
+        for (Mismatch mismatch : diff.getMismatched()) {
+            IndexModel declared = mismatch.getDeclared();
+            collection.createIndex(declared.getKeys(), declared.getOptions());
+        }
+    }
+
+    /**
+     * Compares the indexes declared by the given models to those currently defined on the collection. Nothing is created or dropped.
+     *
+     * @param collection the collection
+     * @param models     the models mapped to the collection
+     * @return the differences
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public IndexDiff diff(MongoCollection<?> collection, List<EntityModel> models) {
+        return diff(collection.getNamespace().getCollectionName(), models, collection.listIndexes().into(new ArrayList<>()));
+    }
+
+    /**
+     * Compares the indexes declared by the given models to a list of existing indexes in the form returned by {@code listIndexes}.
+     *
+     * @param collection the collection name to report
+     * @param models     the models mapped to the collection
+     * @param existing   the existing indexes
+     * @return the differences
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public IndexDiff diff(String collection, List<EntityModel> models, List<Document> existing) {
+        Map<Document, IndexModel> declared = new LinkedHashMap<>();
+        for (EntityModel model : models) {
+            for (IndexModel indexModel : indexModels(model)) {
+                declared.putIfAbsent(toSpec(indexModel), indexModel);
             }
         }
+
+        List<IndexModel> missing = new ArrayList<>();
+        List<Mismatch> mismatched = new ArrayList<>();
+        List<Document> unmatched = existing.stream()
+                .filter(index -> !"_id_".equals(index.getString("name")))
+                .collect(Collectors.toCollection(ArrayList::new));
+        for (Entry<Document, IndexModel> entry : declared.entrySet()) {
+            Document spec = entry.getKey();
+            Document match = find(existing, index -> matches(spec, index));
+            if (match == null) {
+                String name = indexName(entry.getValue());
+                Document conflict = find(existing, index -> name.equals(index.getString("name"))
+                        || keysMatch(spec.get("key", Document.class), index.get("key", Document.class)));
+                if (conflict == null) {
+                    missing.add(entry.getValue());
+                } else {
+                    mismatched.add(new Mismatch(entry.getValue(), spec, conflict));
+                    unmatched.remove(conflict);
+                }
+            } else {
+                unmatched.remove(match);
+            }
+        }
+
+        return new IndexDiff(collection, missing, mismatched, unmatched);
+    }
+
+    /**
+     * Converts the index definitions on a model to the driver's form.
+     *
+     * @param model the model
+     * @return the index models
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public List<IndexModel> indexModels(EntityModel model) {
+        if (model.isInterface() || model.isAbstract()) {
+            return emptyList();
+        }
+        return collectIndexes(model, Collections.emptyList()).stream()
+                .map(index -> toIndexModel(model, index))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -196,11 +303,8 @@ public final class IndexHelper {
      * @param index
      */
     public void createIndex(MongoCollection<?> collection, EntityModel entityModel, Index index) {
-        Document keys = calculateKeys(entityModel, index);
-        com.mongodb.client.model.IndexOptions indexOptions = convert(index.options());
-        calculateWeights(index, indexOptions);
-
-        collection.createIndex(keys, indexOptions);
+        IndexModel indexModel = toIndexModel(entityModel, index);
+        collection.createIndex(indexModel.getKeys(), indexModel.getOptions());
     }
 
     /**
@@ -232,6 +336,146 @@ public final class IndexHelper {
         }
     }
 
+    @Nullable
+    private static Document find(List<Document> indexes, Predicate<Document> predicate) {
+        return indexes.stream()
+                .filter(predicate)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Computes the name the driver would generate for an index without an explicit name.
+     */
+    private static String indexName(IndexModel indexModel) {
+        String name = indexModel.getOptions().getName();
+        if (name != null) {
+            return name;
+        }
+        return toDocument(indexModel.getKeys()).entrySet().stream()
+                .map(entry -> entry.getKey() + "_"
+                        + (entry.getValue() instanceof Number ? ((Number) entry.getValue()).intValue() : entry.getValue()))
+                .collect(Collectors.joining("_"));
+    }
+
+    private static boolean matches(Document declared, Document existing) {
+        if (!keysMatch(declared.get("key", Document.class), existing.get("key", Document.class))) {
+            return false;
+        }
+        Document weights = declared.get("weights", Document.class);
+        if (weights != null && weights.size() != existing.get("weights", new Document()).size()) {
+            return false;
+        }
+        for (Entry<String, Object> entry : declared.entrySet()) {
+            if (!entry.getKey().equals("key") && !valuesMatch(entry.getValue(), existing.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        for (String option : List.of("unique", "sparse", "expireAfterSeconds", "partialFilterExpression", "collation")) {
+            if (!declared.containsKey(option) && existing.containsKey(option) && !Boolean.FALSE.equals(existing.get(option))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean keysMatch(Document declared, @Nullable Document existing) {
+        if (existing == null || declared.size() != existing.size()) {
+            return false;
+        }
+        List<Entry<String, Object>> declaredKeys = new ArrayList<>(declared.entrySet());
+        List<Entry<String, Object>> existingKeys = new ArrayList<>(existing.entrySet());
+        for (int i = 0; i < declaredKeys.size(); i++) {
+            if (!declaredKeys.get(i).getKey().equals(existingKeys.get(i).getKey())
+                    || !valuesMatch(declaredKeys.get(i).getValue(), existingKeys.get(i).getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares a declared value to the server's. Key order is significant, numbers are compared by value regardless of type, and
+     * declared subdocuments such as collations only need to be a subset of what the server reports since it fills in the defaults.
+     */
+    private static boolean valuesMatch(@Nullable Object declared, @Nullable Object existing) {
+        if (declared instanceof Number && existing instanceof Number) {
+            return ((Number) declared).doubleValue() == ((Number) existing).doubleValue();
+        }
+        if (declared instanceof Document && existing instanceof Document) {
+            Document declaredDocument = (Document) declared;
+            Document existingDocument = (Document) existing;
+            for (Entry<String, Object> entry : declaredDocument.entrySet()) {
+                if (!valuesMatch(entry.getValue(), existingDocument.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.equals(declared, existing);
+    }
+
+    /**
+     * Builds the document form of an index as {@code listIndexes} would report it so the two can be compared.
+     */
+    private static Document toSpec(IndexModel indexModel) {
+        com.mongodb.client.model.IndexOptions options = indexModel.getOptions();
+        Document spec = new Document();
+        Document key = new Document();
+        Document weights = new Document();
+        for (Entry<String, Object> entry : toDocument(indexModel.getKeys()).entrySet()) {
+            if (IndexType.TEXT.toIndexValue().equals(entry.getValue())) {
+                if (!key.containsKey("_fts")) {
+                    key.put("_fts", "text");
+                    key.put("_ftsx", 1);
+                }
+                weights.put(entry.getKey(), 1);
+            } else {
+                key.put(entry.getKey(), entry.getValue());
+            }
+        }
+        spec.put("key", key);
+        if (options.getName() != null) {
+            spec.put("name", options.getName());
+        }
+        if (options.isUnique()) {
+            spec.put("unique", true);
+        }
+        if (options.isSparse()) {
+            spec.put("sparse", true);
+        }
+        Long expireAfter = options.getExpireAfter(TimeUnit.SECONDS);
+        if (expireAfter != null) {
+            spec.put("expireAfterSeconds", expireAfter);
+        }
+        if (options.getPartialFilterExpression() != null) {
+            spec.put("partialFilterExpression", toDocument(options.getPartialFilterExpression()));
+        }
+        if (options.getCollation() != null) {
+            spec.put("collation", toDocument(options.getCollation().asDocument()));
+        }
+        if (!weights.isEmpty()) {
+            if (options.getWeights() != null) {
+                weights.putAll(toDocument(options.getWeights()));
+            }
+            spec.put("weights", weights);
+            spec.put("default_language", options.getDefaultLanguage() != null ? options.getDefaultLanguage() : "english");
+            spec.put("language_override", options.getLanguageOverride() != null ? options.getLanguageOverride() : "language");
+        }
+        return spec;
+    }
+
+    private static Document toDocument(Bson bson) {
+        return bson instanceof Document ? (Document) bson : Document.parse(bson.toBsonDocument().toJson());
+    }
+
+    private IndexModel toIndexModel(EntityModel entityModel, Index index) {
+        Document keys = calculateKeys(entityModel, index);
+        com.mongodb.client.model.IndexOptions indexOptions = convert(index.options());
+        calculateWeights(index, indexOptions);
+        return new IndexModel(keys, indexOptions);
+    }
+
     private List<Index> collectFieldIndexes(EntityModel entityModel) {
         List<Index> list = entityModel.getProperties(Indexed.class).stream()
                 .map(field -> convert(field.getAnnotation(Indexed.class), field.getMappedName()))
@@ -0,0 +1,260 @@
+package dev.morphia.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.DatastoreImpl.DatastoreOperations;
+import dev.morphia.DeleteOptions;
+import dev.morphia.InsertManyOptions;
+import dev.morphia.InsertOneOptions;
+import dev.morphia.ModifyOptions;
+import dev.morphia.ReplaceOptions;
+import dev.morphia.UpdateOptions;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.query.CountOptions;
+import dev.morphia.query.FindAndDeleteOptions;
+
+import org.bson.Document;
+
+/**
+ * Invalidates the {@link EntityCache} entries of the documents written by a delegate. Writes whose filter names the affected IDs
+ * invalidate only those entries while any other write invalidates every entry of the collection.
+ * <p>
+ * Writes made in a transaction are not visible to other readers until the transaction commits so a concurrent read could cache the
+ * old document in the meantime. When deferring, the invalidations are recorded and should be {@link #replay() replayed} once the
+ * transaction completes.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class CachingOperations extends DatastoreOperations {
+    private final DatastoreOperations operations;
+    private final EntityCache cache;
+    private final Mapper mapper;
+    @Nullable
+    private final List<Runnable> pending;
+
+    /**
+     * @param operations the operations to delegate to
+     * @param cache      the cache to invalidate
+     * @param mapper     the mapper used to find entity IDs
+     * @param deferred   true if invalidations should be recorded to be replayed later
+     */
+    public CachingOperations(DatastoreOperations operations, EntityCache cache, Mapper mapper, boolean deferred) {
+        this.operations = operations;
+        this.cache = cache;
+        this.mapper = mapper;
+        pending = deferred ? new ArrayList<>() : null;
+    }
+
+    @Override
+    public <E> AggregateIterable<E> aggregate(MongoCollection<E> collection, List<Document> pipeline) {
+        return operations.aggregate(collection, pipeline);
+    }
+
+    @Override
+    public <T> long countDocuments(MongoCollection<T> collection, Document query, CountOptions options) {
+        return operations.countDocuments(collection, query, options);
+    }
+
+    @Override
+    public <T> DeleteResult deleteMany(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        try {
+            return operations.deleteMany(collection, queryDocument, options);
+        } finally {
+            invalidate(collection, queryDocument);
+        }
+    }
+
+    @Override
+    public <T> DeleteResult deleteOne(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        try {
+            return operations.deleteOne(collection, queryDocument, options);
+        } finally {
+            invalidate(collection, queryDocument);
+        }
+    }
+
+    @Override
+    public <E> FindIterable<E> find(MongoCollection<E> collection, Document query) {
+        return operations.find(collection, query);
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndDelete(MongoCollection<T> mongoCollection, Document queryDocument, FindAndDeleteOptions options) {
+        try {
+            return operations.findOneAndDelete(mongoCollection, queryDocument, options);
+        } finally {
+            invalidate(mongoCollection, queryDocument);
+        }
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndUpdate(MongoCollection<T> collection, Document toDocument, Document update, ModifyOptions options) {
+        try {
+            return operations.findOneAndUpdate(collection, toDocument, update, options);
+        } finally {
+            invalidate(collection, toDocument);
+        }
+    }
+
+    @Override
+    public <T> InsertManyResult insertMany(MongoCollection<T> collection, List<T> list, InsertManyOptions options) {
+        try {
+            return operations.insertMany(collection, list, options);
+        } finally {
+            for (T entity : list) {
+                invalidateEntity(collection, entity);
+            }
+        }
+    }
+
+    @Override
+    public <T> InsertOneResult insertOne(MongoCollection<T> collection, T entity, InsertOneOptions options) {
+        try {
+            return operations.insertOne(collection, entity, options);
+        } finally {
+            invalidateEntity(collection, entity);
+        }
+    }
+
+    @Override
+    public <T> UpdateResult replaceOne(MongoCollection<T> collection, T entity, Document filter, ReplaceOptions options) {
+        try {
+            return operations.replaceOne(collection, entity, filter, options);
+        } finally {
+            invalidate(collection, filter);
+        }
+    }
+
+    /**
+     * Applies the recorded invalidations again and clears them.
+     */
+    public void replay() {
+        if (pending != null) {
+            pending.forEach(Runnable::run);
+            pending.clear();
+        }
+    }
+
+    @Override
+    public Document runCommand(Document command) {
+        return operations.runCommand(command);
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateMany(collection, queryObject, updateOperations, options);
+        } finally {
+            invalidate(collection, queryObject);
+        }
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateMany(collection, queryObject, updateOperations, options);
+        } finally {
+            invalidate(collection, queryObject);
+        }
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateOne(collection, queryObject, updateOperations, options);
+        } finally {
+            invalidate(collection, queryObject);
+        }
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateOne(collection, queryObject, updateOperations, options);
+        } finally {
+            invalidate(collection, queryObject);
+        }
+    }
+
+    /**
+     * Extracts the IDs a filter is restricted to. Other criteria in the filter can only narrow the documents affected further.
+     *
+     * @return the IDs or null if the filter does not restrict the IDs to known values
+     */
+    @Nullable
+    private static Collection<?> ids(Document filter) {
+        Object id = filter.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id instanceof Document) {
+            Document document = (Document) id;
+            if (document.size() == 1 && document.containsKey("$eq")) {
+                return Collections.singletonList(document.get("$eq"));
+            }
+            if (document.size() == 1 && document.get("$in") instanceof Collection) {
+                return (Collection<?>) document.get("$in");
+            }
+            if (document.keySet().stream().anyMatch(key -> key.startsWith("$"))) {
+                return null;
+            }
+        }
+        return List.of(id);
+    }
+
+    private void invalidate(MongoCollection<?> collection, Document filter) {
+        String name = collection.getNamespace().getCollectionName();
+        Collection<?> ids = ids(filter);
+        if (ids == null) {
+            invalidate(name);
+        } else {
+            for (Object id : ids) {
+                invalidate(name, id);
+            }
+        }
+    }
+
+    private void invalidate(String collection) {
+        apply(() -> cache.invalidate(collection));
+    }
+
+    private void apply(Runnable invalidation) {
+        invalidation.run();
+        if (pending != null) {
+            pending.add(invalidation);
+        }
+    }
+
+    private void invalidate(String collection, @Nullable Object id) {
+        if (id == null) {
+            invalidate(collection);
+            return;
+        }
+        apply(() -> cache.invalidate(collection, id));
+    }
+
+    private void invalidateEntity(MongoCollection<?> collection, Object entity) {
+        invalidate(collection.getNamespace().getCollectionName(), mapper.getId(entity));
+    }
+}
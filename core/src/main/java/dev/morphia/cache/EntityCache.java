@@ -0,0 +1,442 @@
+package dev.morphia.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.DatastoreImpl;
+import dev.morphia.annotations.Cached;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonValue;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * A second level cache of the encoded documents of {@link Cached} entities keyed by collection and ID. Documents are held as BSON bytes
+ * rather than as entities so every read decodes a fresh instance and callers can never observe each other's modifications.
+ * <p>
+ * Entries are spread over up to 16 segments, one per MiB of capacity, each guarded by its own lock so concurrent reads of different
+ * documents rarely contend. Each segment evicts its least recently used documents once the total size of its documents exceeds its
+ * share of the configured capacity. Invalidations are tracked per collection so a write to one collection does not stop documents of
+ * other collections read at the same time from being cached.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class EntityCache {
+    private static final long SEGMENT_CAPACITY = 1024 * 1024;
+    private static final int MAX_SEGMENTS = 16;
+    private final long capacity;
+    private final CodecRegistry codecRegistry;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Long> invalidated = new ConcurrentHashMap<>();
+    private volatile long cleared;
+
+    /**
+     * @param capacity      the maximum total size in bytes of the cached documents
+     * @param codecRegistry the registry used to encode ID values
+     */
+    public EntityCache(long capacity, CodecRegistry codecRegistry) {
+        this.capacity = capacity;
+        this.codecRegistry = codecRegistry;
+        int count = (int) Math.min(Math.max(Long.highestOneBit(capacity / SEGMENT_CAPACITY), 1), MAX_SEGMENTS);
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(capacity / count);
+        }
+    }
+
+    /**
+     * @param model the entity model
+     * @return true if the entity is eligible for caching
+     */
+    public static boolean isCached(EntityModel model) {
+        return model.getAnnotation(Cached.class) != null;
+    }
+
+    /**
+     * Removes all entries and resets the hit and miss counts
+     */
+    public void clear() {
+        cleared = version.incrementAndGet();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.clear();
+                segment.collections.clear();
+                segment.bytes = 0;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Finds an entity by its ID reading through the cache.
+     *
+     * @param datastore  the datastore to query on a miss
+     * @param collection the collection to query
+     * @param model      the entity's model
+     * @param id         the ID to find
+     * @param <T>        the entity type
+     * @return the entity or null if no document has the ID
+     */
+    @Nullable
+    public <T> T find(DatastoreImpl datastore, MongoCollection<T> collection, EntityModel model, Object id) {
+        RawBsonDocument document = load(datastore, collection, model, id);
+        return document != null ? decode(collection, document) : null;
+    }
+
+    /**
+     * Finds entities by their IDs reading through the cache. Only the IDs not found in the cache are queried.
+     *
+     * @param datastore  the datastore to query on a miss
+     * @param collection the collection to query
+     * @param model      the entities' model
+     * @param ids        the IDs to find
+     * @param <T>        the entity type
+     * @return the entities found in no particular order
+     */
+    public <T> List<T> find(DatastoreImpl datastore, MongoCollection<T> collection, EntityModel model, Collection<?> ids) {
+        String name = collection.getNamespace().getCollectionName();
+        List<T> found = new ArrayList<>();
+        List<BsonValue> missing = new ArrayList<>();
+        for (Object id : ids) {
+            BsonValue key = encodeId(id);
+            RawBsonDocument document = get(name, key);
+            if (document != null) {
+                found.add(decode(collection, document));
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = version.get();
+            Document query = new Document("_id", new Document("$in", missing));
+            try (MongoCursor<RawBsonDocument> cursor = datastore.operations()
+                    .find(collection.withDocumentClass(RawBsonDocument.class), query)
+                    .iterator()) {
+                while (cursor.hasNext()) {
+                    RawBsonDocument document = cursor.next();
+                    put(name, document.get("_id"), document, ttl(model), stamp);
+                    found.add(decode(collection, document));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the total size in bytes of the cached documents
+     */
+    public long getBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                bytes += segment.bytes;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the maximum total size in bytes of the cached documents
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups which had to query the database
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes the entry for an ID
+     *
+     * @param collection the collection name
+     * @param id         the ID
+     */
+    public void invalidate(String collection, Object id) {
+        Key key = new Key(collection, encodeId(id));
+        invalidated(collection);
+        Segment segment = segment(key);
+        segment.lock.lock();
+        try {
+            segment.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all the entries of a collection
+     *
+     * @param collection the collection name
+     */
+    public void invalidate(String collection) {
+        invalidated(collection);
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                if (segment.collections.containsKey(collection)) {
+                    Iterator<Map.Entry<Key, Entry>> iterator = segment.entries.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<Key, Entry> entry = iterator.next();
+                        if (entry.getKey().collection.equals(collection)) {
+                            iterator.remove();
+                            segment.removed(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Loads the encoded document for an ID reading through the cache.
+     *
+     * @param datastore  the datastore to query on a miss
+     * @param collection the collection to query
+     * @param model      the entity's model
+     * @param id         the ID to find
+     * @return the document or null if no document has the ID
+     */
+    @Nullable
+    public RawBsonDocument load(DatastoreImpl datastore, MongoCollection<?> collection, EntityModel model, Object id) {
+        String name = collection.getNamespace().getCollectionName();
+        BsonValue key = encodeId(id);
+        RawBsonDocument document = get(name, key);
+        if (document == null) {
+            long stamp = version.get();
+            document = datastore.operations()
+                    .find(collection.withDocumentClass(RawBsonDocument.class), new Document("_id", key))
+                    .first();
+            if (document != null) {
+                put(name, key, document, ttl(model), stamp);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * @return the number of cached documents
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private static <T> T decode(MongoCollection<T> collection, RawBsonDocument document) {
+        Codec<T> codec = collection.getCodecRegistry().get(collection.getDocumentClass());
+        return codec.decode(document.asBsonReader(), DecoderContext.builder().build());
+    }
+
+    private static long ttl(EntityModel model) {
+        Cached cached = model.getAnnotation(Cached.class);
+        return cached != null ? cached.unit().toNanos(cached.ttl()) : 0;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private BsonValue encodeId(Object id) {
+        if (id instanceof BsonValue) {
+            return (BsonValue) id;
+        }
+        BsonDocument document = new BsonDocument();
+        BsonDocumentWriter writer = new BsonDocumentWriter(document);
+        writer.writeStartDocument();
+        writer.writeName("_id");
+        Codec codec = codecRegistry.get(id.getClass());
+        EncoderContext.builder().build().encodeWithChildContext(codec, writer, id);
+        writer.writeEndDocument();
+        return document.get("_id");
+    }
+
+    @Nullable
+    private RawBsonDocument get(String collection, BsonValue id) {
+        Key key = new Key(collection, id);
+        Segment segment = segment(key);
+        Entry entry;
+        segment.lock.lock();
+        try {
+            entry = segment.entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                segment.remove(key);
+                entry = null;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new RawBsonDocument(entry.bytes);
+    }
+
+    /**
+     * Records an invalidation before the entries are removed so that a document read before the invalidation and cached after the
+     * removal is still rejected by {@link #put(String, BsonValue, RawBsonDocument, long, long)}.
+     */
+    private void invalidated(String collection) {
+        invalidated.merge(collection, version.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Any invalidation of the collection between reading a document from the database and caching it may have been for that document
+     * so the version taken before the read is compared when caching to avoid holding on to stale data.
+     */
+    private void put(String collection, BsonValue id, RawBsonDocument document, long ttl, long stamp) {
+        Key key = new Key(collection, id);
+        Segment segment = segment(key);
+        ByteBuf buffer = document.getByteBuffer();
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        if (data.length > segment.capacity) {
+            return;
+        }
+        segment.lock.lock();
+        try {
+            if (cleared > stamp || invalidated.getOrDefault(collection, 0L) > stamp) {
+                return;
+            }
+            segment.remove(key);
+            segment.entries.put(key, new Entry(data, ttl != 0 ? System.nanoTime() + ttl : 0));
+            segment.collections.merge(collection, 1, Integer::sum);
+            segment.bytes += data.length;
+
+            Iterator<Map.Entry<Key, Entry>> iterator = segment.entries.entrySet().iterator();
+            while (segment.bytes > segment.capacity && iterator.hasNext()) {
+                Map.Entry<Key, Entry> eldest = iterator.next();
+                iterator.remove();
+                segment.removed(eldest.getKey(), eldest.getValue());
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Segment segment(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * A least recently used map of entries. Every access reorders the map so reads as well as writes hold the lock.
+     */
+    private static final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long capacity;
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<String, Integer> collections = new HashMap<>();
+        private long bytes;
+
+        private Segment(long capacity) {
+            this.capacity = capacity;
+        }
+
+        private void remove(Key key) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                removed(key, entry);
+            }
+        }
+
+        private void removed(Key key, Entry entry) {
+            bytes -= entry.bytes.length;
+            collections.computeIfPresent(key.collection, (k, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] bytes;
+        private final long expires;
+
+        private Entry(byte[] bytes, long expires) {
+            this.bytes = bytes;
+            this.expires = expires;
+        }
+
+        private boolean isExpired() {
+            return expires != 0 && System.nanoTime() - expires > 0;
+        }
+    }
+
+    private static final class Key {
+        private final String collection;
+        private final BsonValue id;
+
+        private Key(String collection, BsonValue id) {
+            this.collection = collection;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return collection.equals(key.collection) && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(collection, id);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * The second level entity cache. Entities opt in to caching via {@link dev.morphia.annotations.Cached} and the cache is enabled via
+ * {@link dev.morphia.mapping.MapperOptions.Builder#entityCacheSize(long)}.
+ */
+@NonNullApi
+package dev.morphia.cache;
+
+import com.mongodb.lang.NonNullApi;
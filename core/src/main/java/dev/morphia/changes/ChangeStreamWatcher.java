@@ -0,0 +1,349 @@
+package dev.morphia.changes;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.Datastore;
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.annotations.internal.MorphiaInternal;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follows the change stream of an entity's collection and delivers each change to a listener. The position of the last delivered change
+ * is recorded in a {@link ResumeTokenStore} so that a new watcher with the same name continues where the previous one stopped. Change
+ * streams require a replica set or sharded cluster.
+ * <p>
+ * The watcher runs on the {@link dev.morphia.mapping.MapperOptions#getExecutor() configured executor}. When none is configured, the
+ * watcher runs on a dedicated daemon thread instead.
+ * <p>
+ * Failures reading the change stream are retried from the last delivered change. If the server no longer holds that position, e.g.,
+ * because the watcher was stopped for longer than the oplog window, the watcher stops and reports the failure through
+ * {@link EntityChangeListener#onError(Throwable)} and {@link #getFailure()}. Remove the recorded position or choose a new name to start
+ * again from the current time.
+ * <p>
+ * Watching a collection is one way to keep in-process caches coherent across application nodes: each node watches the collections it
+ * caches and evicts the changed IDs as the changes arrive.
+ *
+ * @param <T> the entity type
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class ChangeStreamWatcher<T> implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeStreamWatcher.class);
+
+    /**
+     * ChangeStreamFatalError and ChangeStreamHistoryLost
+     */
+    private static final Set<Integer> FATAL = Set.of(280, 286);
+
+    private final Datastore datastore;
+    private final Class<T> type;
+    private final MongoCollection<T> collection;
+    private final EntityChangeListener<T> listener;
+    private final WatchOptions options;
+    private final ResumeTokenStore store;
+    private final String name;
+    private final Function<BsonDocument, MongoChangeStreamCursor<ChangeStreamDocument<T>>> source;
+    private final CountDownLatch closing = new CountDownLatch(1);
+    private final CountDownLatch done = new CountDownLatch(1);
+    @Nullable
+    private volatile Thread runner;
+    @Nullable
+    private volatile BsonDocument resumeToken;
+    @Nullable
+    private BsonDocument saved;
+    private long savedAt;
+    @Nullable
+    private volatile RuntimeException failure;
+    private volatile boolean closed;
+
+    private ChangeStreamWatcher(Datastore datastore, Class<T> type, EntityChangeListener<T> listener, WatchOptions options,
+            @Nullable Function<BsonDocument, MongoChangeStreamCursor<ChangeStreamDocument<T>>> source) {
+        this.datastore = datastore;
+        this.type = type;
+        this.collection = datastore.getCollection(type);
+        this.listener = listener;
+        this.options = options;
+        this.source = source != null ? source : this::open;
+        String configuredName = options.getName();
+        this.name = configuredName != null ? configuredName : collection.getNamespace().getCollectionName() + "@" + node();
+        ResumeTokenStore configured = options.getResumeTokenStore();
+        this.store = configured != null
+                ? configured
+                : ResumeTokenStore.collection(datastore.getDatabase().getCollection(ResumeTokenStore.DEFAULT_COLLECTION));
+    }
+
+    /**
+     * Starts watching an entity's collection.
+     *
+     * @param datastore the datastore to use
+     * @param type      the entity type
+     * @param listener  the listener to deliver changes to
+     * @param <T>       the entity type
+     * @return the running watcher
+     */
+    public static <T> ChangeStreamWatcher<T> watch(Datastore datastore, Class<T> type, EntityChangeListener<T> listener) {
+        return watch(datastore, type, listener, new WatchOptions());
+    }
+
+    /**
+     * Starts watching an entity's collection.
+     *
+     * @param datastore the datastore to use
+     * @param type      the entity type
+     * @param listener  the listener to deliver changes to
+     * @param options   the options to apply
+     * @param <T>       the entity type
+     * @return the running watcher
+     */
+    public static <T> ChangeStreamWatcher<T> watch(Datastore datastore, Class<T> type, EntityChangeListener<T> listener,
+            WatchOptions options) {
+        return watch(datastore, type, listener, options, null);
+    }
+
+    /**
+     * Starts watching changes read from the given source rather than the collection's change stream.
+     *
+     * @param datastore the datastore to use
+     * @param type      the entity type
+     * @param listener  the listener to deliver changes to
+     * @param options   the options to apply
+     * @param source    opens a cursor starting after the given token, which is null to start from the current time
+     * @param <T>       the entity type
+     * @return the running watcher
+     * @morphia.internal
+     */
+    @MorphiaInternal
+    public static <T> ChangeStreamWatcher<T> watch(Datastore datastore, Class<T> type, EntityChangeListener<T> listener,
+            WatchOptions options, @Nullable Function<BsonDocument, MongoChangeStreamCursor<ChangeStreamDocument<T>>> source) {
+        ChangeStreamWatcher<T> watcher = new ChangeStreamWatcher<>(datastore, type, listener, options, source);
+        Executor executor = datastore.getMapper().getOptions().getExecutor();
+        if (executor == null) {
+            Thread thread = new Thread(watcher::run, "morphia-watch-" + watcher.name);
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            executor.execute(watcher::run);
+        }
+        return watcher;
+    }
+
+    /**
+     * Stops watching and records the position of the last delivered change. Waits at most twice the configured
+     * {@link WatchOptions#maxAwaitTime(long, TimeUnit) await time} for the current batch to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        closing.countDown();
+        if (Thread.currentThread() != runner) {
+            try {
+                done.await(options.getMaxAwaitTime(TimeUnit.MILLISECONDS) * 2, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the failure which stopped the watcher or null if it has not failed
+     */
+    @Nullable
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the name under which the position is recorded
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the token of the last change delivered or null if none has been. This may be ahead of the recorded position.
+     * @see WatchOptions#saveInterval(long, TimeUnit)
+     */
+    @Nullable
+    public BsonDocument getResumeToken() {
+        return resumeToken;
+    }
+
+    /**
+     * @return the entity type
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return true if the watcher has not been closed or stopped by a failure
+     */
+    public boolean isRunning() {
+        return !closed && done.getCount() != 0;
+    }
+
+    private static boolean isFatal(RuntimeException e) {
+        return e instanceof MongoServerException && FATAL.contains(((MongoServerException) e).getCode())
+                || e instanceof MongoException && ((MongoException) e).hasErrorLabel("NonResumableChangeStreamError");
+    }
+
+    private static String node() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return String.valueOf(ProcessHandle.current().pid());
+        }
+    }
+
+    /**
+     * @return true if the change should be considered delivered
+     */
+    private boolean deliver(ChangeStreamDocument<T> document) {
+        try {
+            listener.onChange(EntityChange.of(datastore, type, document));
+        } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+            listener.onError(e);
+            if (!options.isSkipFailedChanges()) {
+                return false;
+            }
+        }
+        record(document.getResumeToken());
+        return true;
+    }
+
+    private void flush() {
+        BsonDocument token = resumeToken;
+        if (token != null && !token.equals(saved)) {
+            store.save(name, token);
+            saved = token;
+        }
+        savedAt = System.nanoTime();
+    }
+
+    /**
+     * Delivers changes until the watcher is closed, the stream is invalidated, or a change is not delivered.
+     *
+     * @return true if the stream should be reopened immediately
+     */
+    private boolean follow(MongoChangeStreamCursor<ChangeStreamDocument<T>> cursor) {
+        while (!closed) {
+            ChangeStreamDocument<T> document = cursor.tryNext();
+            if (document != null) {
+                if (!deliver(document)) {
+                    return false;
+                }
+                if (document.getOperationType() == OperationType.INVALIDATE) {
+                    // the server closes the stream once invalidated so reopen it after the invalidation
+                    flush();
+                    return true;
+                }
+            } else {
+                // empty batches still advance the position past changes the pipeline filtered out
+                record(cursor.getResumeToken());
+            }
+        }
+        return true;
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<T>> open(@Nullable BsonDocument token) {
+        List<Bson> pipeline = new ArrayList<>();
+        if (!options.getOperationTypes().isEmpty()) {
+            List<String> types = new ArrayList<>();
+            for (OperationType operationType : options.getOperationTypes()) {
+                types.add(operationType.getValue());
+            }
+            pipeline.add(Aggregates.match(Filters.in("operationType", types)));
+        }
+        ChangeStreamIterable<T> iterable = collection.watch(pipeline, type)
+                .fullDocument(options.getFullDocument())
+                .maxAwaitTime(options.getMaxAwaitTime(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        if (options.getBatchSize() != null) {
+            iterable.batchSize(options.getBatchSize());
+        }
+        if (token != null) {
+            iterable.startAfter(token);
+        }
+        return iterable.cursor();
+    }
+
+    private void pause() {
+        try {
+            closing.await(options.getRetryDelay(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            closed = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void record(@Nullable BsonDocument token) {
+        if (token != null && !token.equals(resumeToken)) {
+            resumeToken = token;
+            if (System.nanoTime() - savedAt >= options.getSaveInterval(TimeUnit.NANOSECONDS)) {
+                flush();
+            }
+        }
+    }
+
+    private void run() {
+        runner = Thread.currentThread();
+        try {
+            savedAt = System.nanoTime();
+            while (!closed) {
+                boolean reopen;
+                BsonDocument token = resumeToken;
+                try (MongoChangeStreamCursor<ChangeStreamDocument<T>> cursor = source.apply(token != null ? token : store.load(name))) {
+                    reopen = follow(cursor);
+                } catch (RuntimeException e) {
+                    if (closed) {
+                        break;
+                    }
+                    if (isFatal(e)) {
+                        LOG.error(e.getMessage(), e);
+                        failure = e;
+                        listener.onError(e);
+                        break;
+                    }
+                    LOG.warn(e.getMessage(), e);
+                    listener.onError(e);
+                    reopen = false;
+                }
+                if (!reopen) {
+                    pause();
+                }
+            }
+        } finally {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOG.warn(e.getMessage(), e);
+            } finally {
+                closed = true;
+                done.countDown();
+            }
+        }
+    }
+}
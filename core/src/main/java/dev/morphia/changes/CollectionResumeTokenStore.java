@@ -0,0 +1,37 @@
+package dev.morphia.changes;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+
+import static com.mongodb.client.model.Filters.eq;
+
+/**
+ * @see ResumeTokenStore#collection(MongoCollection)
+ */
+class CollectionResumeTokenStore implements ResumeTokenStore {
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+    private final MongoCollection<BsonDocument> collection;
+
+    CollectionResumeTokenStore(MongoCollection<BsonDocument> collection) {
+        this.collection = collection;
+    }
+
+    @Override
+    @Nullable
+    public BsonDocument load(String name) {
+        BsonDocument document = collection.find(eq("_id", name)).first();
+        return document != null ? document.getDocument("token", null) : null;
+    }
+
+    @Override
+    public void save(String name, BsonDocument token) {
+        collection.replaceOne(eq("_id", name), new BsonDocument("_id", new BsonString(name))
+                .append("token", token)
+                .append("updated", new BsonDateTime(System.currentTimeMillis())), UPSERT);
+    }
+}
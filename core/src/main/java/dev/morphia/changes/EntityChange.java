@@ -0,0 +1,143 @@
+package dev.morphia.changes;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.Datastore;
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.codecs.DecoderContext;
+
+/**
+ * A change made to an entity's collection.
+ *
+ * @param <T> the entity type
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class EntityChange<T> {
+    private final Class<T> type;
+    private final ChangeStreamDocument<T> document;
+    @Nullable
+    private final Object id;
+
+    private EntityChange(Class<T> type, ChangeStreamDocument<T> document, @Nullable Object id) {
+        this.type = type;
+        this.document = document;
+        this.id = id;
+    }
+
+    /**
+     * Creates a change from a change stream event whose full document has already been decoded.
+     *
+     * @param datastore the datastore used to decode the ID
+     * @param type      the entity type
+     * @param document  the change stream event
+     * @param <T>       the entity type
+     * @return the change
+     * @morphia.internal
+     */
+    @MorphiaInternal
+    public static <T> EntityChange<T> of(Datastore datastore, Class<T> type, ChangeStreamDocument<T> document) {
+        BsonDocument key = document.getDocumentKey();
+        BsonValue value = key != null ? key.get("_id") : null;
+        Object id = null;
+        if (value != null) {
+            PropertyModel idProperty = datastore.getMapper().getEntityModel(type).getIdProperty();
+            if (idProperty != null) {
+                BsonDocumentReader reader = new BsonDocumentReader(new BsonDocument("_id", value));
+                reader.readStartDocument();
+                reader.readName();
+                id = datastore.getCodecRegistry().get(idProperty.getType()).decode(reader, DecoderContext.builder().build());
+            } else {
+                id = value;
+            }
+        }
+        return new EntityChange<>(type, document, id);
+    }
+
+    /**
+     * @return the name of the collection changed
+     */
+    public String getCollection() {
+        return document.getNamespace() != null ? document.getNamespace().getCollectionName() : "";
+    }
+
+    /**
+     * @return the time of the change or null if it is unknown
+     */
+    @Nullable
+    public BsonTimestamp getClusterTime() {
+        return document.getClusterTime();
+    }
+
+    /**
+     * @return the key of the changed document including any shard key values or null if the change was not to a single document
+     */
+    @Nullable
+    public BsonDocument getDocumentKey() {
+        return document.getDocumentKey();
+    }
+
+    /**
+     * Returns the entity as it was after the change. This is always given for inserts and replacements. For updates, it is given only
+     * when the watcher requests the full document, and may be null if the document was deleted in the meantime.
+     *
+     * @return the changed entity or null if it is not available
+     * @see WatchOptions#fullDocument(com.mongodb.client.model.changestream.FullDocument)
+     */
+    @Nullable
+    public T getEntity() {
+        return document.getFullDocument();
+    }
+
+    /**
+     * @return the ID of the changed entity or null if the change was not to a single document
+     */
+    @Nullable
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * @return the kind of change
+     */
+    public OperationType getOperationType() {
+        return document.getOperationType();
+    }
+
+    /**
+     * @return the token identifying the position of this change in the change stream
+     */
+    public BsonDocument getResumeToken() {
+        return document.getResumeToken();
+    }
+
+    /**
+     * @return the entity type
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return the fields updated and removed by an update or null for other kinds of changes
+     */
+    @Nullable
+    public UpdateDescription getUpdateDescription() {
+        return document.getUpdateDescription();
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChange{operationType=" + getOperationType() + ", type=" + type.getName() + ", id=" + id + '}';
+    }
+}
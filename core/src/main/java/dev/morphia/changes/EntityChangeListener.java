@@ -0,0 +1,31 @@
+package dev.morphia.changes;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+/**
+ * Receives the changes made to an entity's collection.
+ *
+ * @param <T> the entity type
+ * @since 2.4
+ */
+@MorphiaExperimental
+@FunctionalInterface
+public interface EntityChangeListener<T> {
+    /**
+     * Called for each change in the order they were made. Changes are delivered at least once: a change may be delivered again if the
+     * watcher is restarted before its position is recorded.
+     *
+     * @param change the change
+     */
+    void onChange(EntityChange<T> change);
+
+    /**
+     * Called when a change could not be read or when {@link #onChange(EntityChange)} fails. Failures reading the change stream are
+     * retried from the last delivered change unless the server no longer holds that position, in which case the watcher stops. A failed
+     * change is delivered again unless {@link WatchOptions#skipFailedChanges(boolean) skipping} is enabled. By default, nothing is done.
+     *
+     * @param error the failure
+     */
+    default void onError(Throwable error) {
+    }
+}
@@ -0,0 +1,26 @@
+package dev.morphia.changes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonDocument;
+
+/**
+ * @see ResumeTokenStore#inMemory()
+ */
+class MemoryResumeTokenStore implements ResumeTokenStore {
+    private final Map<String, BsonDocument> tokens = new ConcurrentHashMap<>();
+
+    @Override
+    @Nullable
+    public BsonDocument load(String name) {
+        return tokens.get(name);
+    }
+
+    @Override
+    public void save(String name, BsonDocument token) {
+        tokens.put(name, token);
+    }
+}
@@ -0,0 +1,53 @@
+package dev.morphia.changes;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+import org.bson.BsonDocument;
+
+/**
+ * Records the position of a {@link ChangeStreamWatcher} in its change stream so it can resume where it left off.
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public interface ResumeTokenStore {
+    /**
+     * The collection used by default to store resume tokens
+     */
+    String DEFAULT_COLLECTION = "morphia_resume_tokens";
+
+    /**
+     * Creates a store which keeps tokens in a collection. Each watcher's token is held in a document whose ID is the watcher's name.
+     *
+     * @param collection the collection to store tokens in
+     * @return the store
+     */
+    static ResumeTokenStore collection(MongoCollection<?> collection) {
+        return new CollectionResumeTokenStore(collection.withDocumentClass(BsonDocument.class));
+    }
+
+    /**
+     * Creates a store which keeps tokens in memory. Watchers using this store only resume within the life of the application.
+     *
+     * @return the store
+     */
+    static ResumeTokenStore inMemory() {
+        return new MemoryResumeTokenStore();
+    }
+
+    /**
+     * @param name the name of the watcher
+     * @return the last token saved for the watcher or null if there is none
+     */
+    @Nullable
+    BsonDocument load(String name);
+
+    /**
+     * @param name  the name of the watcher
+     * @param token the token to save
+     */
+    void save(String name, BsonDocument token);
+}
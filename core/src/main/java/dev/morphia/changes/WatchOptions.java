@@ -0,0 +1,216 @@
+package dev.morphia.changes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Defines how a {@link ChangeStreamWatcher} follows a change stream.
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public class WatchOptions {
+    private FullDocument fullDocument = FullDocument.UPDATE_LOOKUP;
+    private final List<OperationType> operationTypes = new ArrayList<>();
+    @Nullable
+    private String name;
+    @Nullable
+    private ResumeTokenStore resumeTokenStore;
+    @Nullable
+    private Integer batchSize;
+    private long maxAwaitTime = 1000;
+    private long retryDelay = 1000;
+    private long saveInterval = 1000;
+    private boolean skipFailedChanges;
+
+    /**
+     * Sets the number of changes to fetch from the server at a time.
+     *
+     * @param batchSize the batch size
+     * @return this
+     */
+    public WatchOptions batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets whether updates should carry the current version of the changed entity. The default is
+     * {@link FullDocument#UPDATE_LOOKUP}.
+     *
+     * @param fullDocument the option to apply
+     * @return this
+     */
+    public WatchOptions fullDocument(FullDocument fullDocument) {
+        this.fullDocument = fullDocument;
+        return this;
+    }
+
+    /**
+     * @return the batch size or null to use the server default
+     */
+    @Nullable
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the full document option
+     */
+    public FullDocument getFullDocument() {
+        return fullDocument;
+    }
+
+    /**
+     * @param unit the unit to convert to
+     * @return how long the server waits for new changes before returning an empty batch
+     */
+    public long getMaxAwaitTime(TimeUnit unit) {
+        return unit.convert(maxAwaitTime, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the name of the watcher or null to use the collection and host names
+     */
+    @Nullable
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the kinds of changes to deliver. An empty list delivers every kind.
+     */
+    public List<OperationType> getOperationTypes() {
+        return operationTypes;
+    }
+
+    /**
+     * @return the store of resume tokens or null to use the default store
+     */
+    @Nullable
+    public ResumeTokenStore getResumeTokenStore() {
+        return resumeTokenStore;
+    }
+
+    /**
+     * @param unit the unit to convert to
+     * @return how long to wait before reopening the change stream after a failure
+     */
+    public long getRetryDelay(TimeUnit unit) {
+        return unit.convert(retryDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param unit the unit to convert to
+     * @return the minimum time between saves of the watcher's position
+     */
+    public long getSaveInterval(TimeUnit unit) {
+        return unit.convert(saveInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return true if a change whose listener failed is skipped rather than delivered again
+     */
+    public boolean isSkipFailedChanges() {
+        return skipFailedChanges;
+    }
+
+    /**
+     * Sets how long the server waits for new changes before returning an empty batch. This also bounds how long closing a watcher
+     * takes. The default is one second.
+     *
+     * @param maxAwaitTime the time to wait
+     * @param unit         the unit of the time
+     * @return this
+     */
+    public WatchOptions maxAwaitTime(long maxAwaitTime, TimeUnit unit) {
+        this.maxAwaitTime = TimeUnit.MILLISECONDS.convert(maxAwaitTime, unit);
+        return this;
+    }
+
+    /**
+     * Sets the name under which the watcher's position is recorded. Watchers sharing a name share a position so each independent
+     * consumer of a collection's changes should be given its own name. The default is the collection name followed by {@code @} and the
+     * host name so that watchers on different hosts do not share a position.
+     *
+     * @param name the name
+     * @return this
+     */
+    public WatchOptions name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Restricts the kinds of changes delivered. By default, every kind is delivered.
+     *
+     * @param operationTypes the kinds to deliver
+     * @return this
+     */
+    public WatchOptions operationTypes(OperationType... operationTypes) {
+        this.operationTypes.clear();
+        this.operationTypes.addAll(asList(operationTypes));
+        return this;
+    }
+
+    /**
+     * Sets where the watcher's position is recorded. By default, positions are recorded in the
+     * {@value ResumeTokenStore#DEFAULT_COLLECTION} collection of the datastore's database.
+     *
+     * @param resumeTokenStore the store
+     * @return this
+     */
+    public WatchOptions resumeTokenStore(ResumeTokenStore resumeTokenStore) {
+        this.resumeTokenStore = resumeTokenStore;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait before reopening the change stream after a failure. The default is one second.
+     *
+     * @param retryDelay the time to wait
+     * @param unit       the unit of the time
+     * @return this
+     */
+    public WatchOptions retryDelay(long retryDelay, TimeUnit unit) {
+        this.retryDelay = TimeUnit.MILLISECONDS.convert(retryDelay, unit);
+        return this;
+    }
+
+    /**
+     * Sets the minimum time between saves of the watcher's position. The latest position is always saved when the watcher stops so the
+     * interval only bounds how many changes are delivered again after a crash. A zero interval saves the position after every change.
+     * The default is one second.
+     *
+     * @param saveInterval the time between saves
+     * @param unit         the unit of the time
+     * @return this
+     */
+    public WatchOptions saveInterval(long saveInterval, TimeUnit unit) {
+        this.saveInterval = TimeUnit.MILLISECONDS.convert(saveInterval, unit);
+        return this;
+    }
+
+    /**
+     * Sets whether a change whose listener failed is skipped. By default, the position is not advanced past a change whose listener
+     * throws: the stream is reopened after the {@link #retryDelay(long, TimeUnit) retry delay} and the change is delivered again.
+     * Enabling this records the position regardless so the failed change is only reported through
+     * {@link EntityChangeListener#onError(Throwable)}.
+     *
+     * @param skipFailedChanges true to skip failed changes
+     * @return this
+     */
+    public WatchOptions skipFailedChanges(boolean skipFailedChanges) {
+        this.skipFailedChanges = skipFailedChanges;
+        return this;
+    }
+}
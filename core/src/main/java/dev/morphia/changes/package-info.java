@@ -0,0 +1,9 @@
+/**
+ * Typed notifications of the changes made to mapped collections. A {@link dev.morphia.changes.ChangeStreamWatcher} follows the change
+ * stream of an entity's collection, decodes each event in to an {@link dev.morphia.changes.EntityChange}, and records its position in a
+ * {@link dev.morphia.changes.ResumeTokenStore} so it can continue where it left off after a restart.
+ */
+@NonNullApi
+package dev.morphia.changes;
+
+import com.mongodb.lang.NonNullApi;
@@ -0,0 +1,66 @@
+package dev.morphia.instrumentation;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+/**
+ * A service provider interface for observing the operations Morphia performs. Implementations are configured via
+ * {@link dev.morphia.mapping.MapperOptions.Builder#instrumentation(Instrumentation)} and are called on the thread performing the work
+ * so they should return quickly and must be thread safe.
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public interface Instrumentation {
+    /**
+     * @return an instrumentation which does nothing. When this instance is configured Morphia skips all timing.
+     */
+    static Instrumentation none() {
+        return NoOpInstrumentation.INSTANCE;
+    }
+
+    /**
+     * Called when an entity has been decoded. Only top level entities are reported. The time spent decoding any embedded types is
+     * included in their parent's time.
+     *
+     * @param type  the entity type
+     * @param nanos the time spent decoding
+     */
+    default void decoded(Class<?> type, long nanos) {
+    }
+
+    /**
+     * Called when an entity has been encoded. Only top level entities are reported. The time spent encoding any embedded types is
+     * included in their parent's time.
+     *
+     * @param type  the entity type
+     * @param bytes the number of bytes written or -1 if the target was not a binary writer
+     * @param nanos the time spent encoding
+     */
+    default void encoded(Class<?> type, long bytes, long nanos) {
+    }
+
+    /**
+     * @return true if this instrumentation should be called. Returning false allows Morphia to skip the timing entirely.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Called when an operation completes, successfully or not. For queries and aggregations this is when the cursor is exhausted or
+     * closed.
+     *
+     * @param event the details of the operation
+     */
+    void operation(OperationEvent event);
+
+    /**
+     * Called when a proxy class for lazy references has been generated. Each referenced type needs only one proxy class so this should
+     * be reported at most once per type unless two threads race to generate the same class.
+     *
+     * @param type  the referenced type
+     * @param nanos the time spent generating the class
+     */
+    default void proxyGenerated(Class<?> type, long nanos) {
+    }
+}
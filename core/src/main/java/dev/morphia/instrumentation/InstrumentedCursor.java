@@ -0,0 +1,137 @@
+package dev.morphia.instrumentation;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+
+/**
+ * Reports the time spent iterating a cursor as a single operation once the cursor is exhausted or closed.
+ *
+ * @param <T> the cursor type
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class InstrumentedCursor<T> implements MongoCursor<T> {
+    private final MongoCursor<T> cursor;
+    private final Instrumentation instrumentation;
+    private final OperationType type;
+    private final Class<?> entityType;
+    private final String collection;
+    private long serverNanos;
+    private long mappingNanos;
+    private long documents;
+    private boolean reported;
+
+    /**
+     * @param cursor          the cursor to wrap
+     * @param instrumentation the instrumentation to report to
+     * @param type            the operation type
+     * @param entityType      the entity type
+     * @param collection      the collection name
+     * @param openNanos       the time spent opening the cursor
+     */
+    public InstrumentedCursor(MongoCursor<T> cursor, Instrumentation instrumentation, OperationType type, Class<?> entityType,
+            String collection, long openNanos) {
+        this.cursor = cursor;
+        this.instrumentation = instrumentation;
+        this.type = type;
+        this.entityType = entityType;
+        this.collection = collection;
+        this.serverNanos = openNanos;
+    }
+
+    @Override
+    public void close() {
+        try {
+            cursor.close();
+        } finally {
+            report(null);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        MappingTimer timer = MappingTimer.get();
+        long mapping = timer.nanos();
+        long start = System.nanoTime();
+        try {
+            boolean hasNext = cursor.hasNext();
+            record(timer, start, mapping);
+            if (!hasNext) {
+                report(null);
+            }
+            return hasNext;
+        } catch (RuntimeException e) {
+            record(timer, start, mapping);
+            report(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public T next() {
+        MappingTimer timer = MappingTimer.get();
+        long mapping = timer.nanos();
+        long start = System.nanoTime();
+        try {
+            T next = cursor.next();
+            documents++;
+            return next;
+        } catch (RuntimeException e) {
+            report(e);
+            throw e;
+        } finally {
+            record(timer, start, mapping);
+        }
+    }
+
+    @Override
+    public int available() {
+        return cursor.available();
+    }
+
+    @Override
+    @Nullable
+    public T tryNext() {
+        MappingTimer timer = MappingTimer.get();
+        long mapping = timer.nanos();
+        long start = System.nanoTime();
+        try {
+            T next = cursor.tryNext();
+            if (next != null) {
+                documents++;
+            }
+            return next;
+        } finally {
+            record(timer, start, mapping);
+        }
+    }
+
+    @Override
+    @Nullable
+    public ServerCursor getServerCursor() {
+        return cursor.getServerCursor();
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+        return cursor.getServerAddress();
+    }
+
+    private void record(MappingTimer timer, long start, long mappingStart) {
+        long mapping = timer.nanos() - mappingStart;
+        mappingNanos += mapping;
+        serverNanos += System.nanoTime() - start - mapping;
+    }
+
+    private void report(@Nullable Throwable failure) {
+        if (!reported) {
+            reported = true;
+            instrumentation.operation(new OperationEvent(type, entityType, collection, serverNanos, mappingNanos, documents, failure));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dev.morphia.instrumentation;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.DatastoreImpl.DatastoreOperations;
+import dev.morphia.DeleteOptions;
+import dev.morphia.InsertManyOptions;
+import dev.morphia.InsertOneOptions;
+import dev.morphia.ModifyOptions;
+import dev.morphia.ReplaceOptions;
+import dev.morphia.UpdateOptions;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.query.CountOptions;
+import dev.morphia.query.FindAndDeleteOptions;
+
+import org.bson.Document;
+
+/**
+ * Reports each operation performed by a delegate to an {@link Instrumentation}. Queries are not reported here since they execute
+ * lazily; their cursors are instrumented instead.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class InstrumentedOperations extends DatastoreOperations {
+    private final DatastoreOperations operations;
+    private final Instrumentation instrumentation;
+
+    /**
+     * @param operations      the operations to delegate to
+     * @param instrumentation the instrumentation to report to
+     */
+    public InstrumentedOperations(DatastoreOperations operations, Instrumentation instrumentation) {
+        this.operations = operations;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public <E> AggregateIterable<E> aggregate(MongoCollection<E> collection, List<Document> pipeline) {
+        return operations.aggregate(collection, pipeline);
+    }
+
+    @Override
+    public <T> long countDocuments(MongoCollection<T> collection, Document query, CountOptions options) {
+        return time(OperationType.COUNT, collection, () -> operations.countDocuments(collection, query, options), count -> 0);
+    }
+
+    @Override
+    public <T> DeleteResult deleteMany(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        return time(OperationType.DELETE, collection, () -> operations.deleteMany(collection, queryDocument, options),
+                InstrumentedOperations::deleted);
+    }
+
+    @Override
+    public <T> DeleteResult deleteOne(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        return time(OperationType.DELETE, collection, () -> operations.deleteOne(collection, queryDocument, options),
+                InstrumentedOperations::deleted);
+    }
+
+    @Override
+    public <E> FindIterable<E> find(MongoCollection<E> collection, Document query) {
+        return operations.find(collection, query);
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndDelete(MongoCollection<T> mongoCollection, Document queryDocument, FindAndDeleteOptions options) {
+        return time(OperationType.FIND_AND_DELETE, mongoCollection,
+                () -> operations.findOneAndDelete(mongoCollection, queryDocument, options), entity -> 1);
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndUpdate(MongoCollection<T> collection, Document toDocument, Document update, ModifyOptions options) {
+        return time(OperationType.FIND_AND_MODIFY, collection,
+                () -> operations.findOneAndUpdate(collection, toDocument, update, options), entity -> 1);
+    }
+
+    @Override
+    public <T> InsertManyResult insertMany(MongoCollection<T> collection, List<T> list, InsertManyOptions options) {
+        return time(OperationType.INSERT, collection, () -> operations.insertMany(collection, list, options), result -> list.size());
+    }
+
+    @Override
+    public <T> InsertOneResult insertOne(MongoCollection<T> collection, T entity, InsertOneOptions options) {
+        return time(OperationType.INSERT, collection, () -> operations.insertOne(collection, entity, options), result -> 1);
+    }
+
+    @Override
+    public <T> UpdateResult replaceOne(MongoCollection<T> collection, T entity, Document filter, ReplaceOptions options) {
+        return time(OperationType.REPLACE, collection, () -> operations.replaceOne(collection, entity, filter, options),
+                InstrumentedOperations::modified);
+    }
+
+    @Override
+    public Document runCommand(Document command) {
+        return time(OperationType.COMMAND, null, () -> operations.runCommand(command), result -> 0);
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        return time(OperationType.UPDATE, collection, () -> operations.updateMany(collection, queryObject, updateOperations, options),
+                InstrumentedOperations::modified);
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        return time(OperationType.UPDATE, collection, () -> operations.updateMany(collection, queryObject, updateOperations, options),
+                InstrumentedOperations::modified);
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        return time(OperationType.UPDATE, collection, () -> operations.updateOne(collection, queryObject, updateOperations, options),
+                InstrumentedOperations::modified);
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        return time(OperationType.UPDATE, collection, () -> operations.updateOne(collection, queryObject, updateOperations, options),
+                InstrumentedOperations::modified);
+    }
+
+    private static long deleted(DeleteResult result) {
+        return result.wasAcknowledged() ? result.getDeletedCount() : 0;
+    }
+
+    private static long modified(UpdateResult result) {
+        return result.wasAcknowledged() ? result.getModifiedCount() : 0;
+    }
+
+    private <R> R time(OperationType type, @Nullable MongoCollection<?> collection, Supplier<R> operation,
+            ToLongFunction<R> documents) {
+        MappingTimer timer = MappingTimer.get();
+        long mappingStart = timer.nanos();
+        long start = System.nanoTime();
+        R result = null;
+        Throwable failure = null;
+        try {
+            result = operation.get();
+            return result;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            long mapping = timer.nanos() - mappingStart;
+            long server = System.nanoTime() - start - mapping;
+            instrumentation.operation(new OperationEvent(type,
+                    collection != null ? collection.getDocumentClass() : null,
+                    collection != null ? collection.getNamespace().getCollectionName() : null,
+                    server, mapping, result != null ? documents.applyAsLong(result) : 0, failure));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package dev.morphia.instrumentation;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+
+/**
+ * Tracks the time the current thread spends in the entity codecs so that operations can separate mapping time from server time.
+ * Nested codec calls, e.g. for embedded types, are only timed at the outermost level.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public final class MappingTimer {
+    private static final ThreadLocal<MappingTimer> TIMER = ThreadLocal.withInitial(MappingTimer::new);
+
+    private int depth;
+    private long nanos;
+
+    private MappingTimer() {
+    }
+
+    /**
+     * @return the timer for the current thread
+     */
+    public static MappingTimer get() {
+        return TIMER.get();
+    }
+
+    /**
+     * @return the total time spent mapping on this thread
+     */
+    public long nanos() {
+        return nanos;
+    }
+
+    /**
+     * Marks the start of a codec call.
+     *
+     * @return the start time
+     */
+    public long start() {
+        depth++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a codec call.
+     *
+     * @param start the value returned by {@link #start()}
+     * @return the elapsed time if this was the outermost call or -1 if it was nested
+     */
+    public long stop(long start) {
+        if (--depth == 0) {
+            long elapsed = System.nanoTime() - start;
+            nanos += elapsed;
+            return elapsed;
+        }
+        return -1;
+    }
+}
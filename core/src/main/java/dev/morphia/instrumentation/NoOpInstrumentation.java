@@ -0,0 +1,17 @@
+package dev.morphia.instrumentation;
+
+final class NoOpInstrumentation implements Instrumentation {
+    static final NoOpInstrumentation INSTANCE = new NoOpInstrumentation();
+
+    private NoOpInstrumentation() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void operation(OperationEvent event) {
+    }
+}
@@ -0,0 +1,117 @@
+package dev.morphia.instrumentation;
+
+import java.util.StringJoiner;
+
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+/**
+ * Describes a completed operation.
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class OperationEvent {
+    private final OperationType type;
+    private final Class<?> entityType;
+    private final String collection;
+    private final long serverNanos;
+    private final long mappingNanos;
+    private final long documents;
+    private final Throwable failure;
+
+    /**
+     * Creates an event
+     *
+     * @param type         the operation type
+     * @param entityType   the entity type, if any
+     * @param collection   the collection name, if any
+     * @param serverNanos  the time spent in the driver and waiting on the server
+     * @param mappingNanos the time spent encoding and decoding entities
+     * @param documents    the number of documents affected
+     * @param failure      the exception thrown, if any
+     */
+    public OperationEvent(OperationType type, @Nullable Class<?> entityType, @Nullable String collection, long serverNanos,
+            long mappingNanos, long documents, @Nullable Throwable failure) {
+        this.type = type;
+        this.entityType = entityType;
+        this.collection = collection;
+        this.serverNanos = serverNanos;
+        this.mappingNanos = mappingNanos;
+        this.documents = documents;
+        this.failure = failure;
+    }
+
+    /**
+     * @return the collection name or null for commands which do not target a collection
+     */
+    @Nullable
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return the number of documents read, written, updated, or deleted depending on the operation
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @return the entity type or null for commands which do not target a collection
+     */
+    @Nullable
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the exception thrown by the operation or null if it succeeded
+     */
+    @Nullable
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the time spent encoding and decoding entities
+     */
+    public long getMappingNanos() {
+        return mappingNanos;
+    }
+
+    /**
+     * @return the time spent in the driver and waiting on the server, excluding the mapping time
+     */
+    public long getServerNanos() {
+        return serverNanos;
+    }
+
+    /**
+     * @return the total time of the operation
+     */
+    public long getTotalNanos() {
+        return serverNanos + mappingNanos;
+    }
+
+    /**
+     * @return the operation type
+     */
+    public OperationType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", OperationEvent.class.getSimpleName() + "[", "]")
+                .add("type=" + type)
+                .add("entityType=" + (entityType != null ? entityType.getName() : null))
+                .add("collection='" + collection + "'")
+                .add("serverNanos=" + serverNanos)
+                .add("mappingNanos=" + mappingNanos)
+                .add("documents=" + documents)
+                .add("failure=" + failure)
+                .toString();
+    }
+}
@@ -0,0 +1,22 @@
+package dev.morphia.instrumentation;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+/**
+ * The kinds of operations reported to {@link Instrumentation}
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public enum OperationType {
+    AGGREGATE,
+    COMMAND,
+    COUNT,
+    DELETE,
+    FIND,
+    FIND_AND_DELETE,
+    FIND_AND_MODIFY,
+    INSERT,
+    REPLACE,
+    UPDATE
+}
@@ -0,0 +1,4 @@
+@NonNullApi
+package dev.morphia.instrumentation;
+
+import com.mongodb.lang.NonNullApi;
@@ -1,7 +1,12 @@
 package dev.morphia.internal;
 
-import java.util.HashMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 
 import com.mongodb.lang.Nullable;
@@ -18,8 +23,9 @@ import org.slf4j.LoggerFactory;
 @MorphiaInternal
 public final class MorphiaInternals {
     private static final Logger LOG = LoggerFactory.getLogger(MorphiaInternals.class);
-    private static final Map<DriverVersion, Boolean> versions = new HashMap<>();
-    private static Boolean proxyClassesPresent;
+    private static final Map<DriverVersion, Boolean> versions = new ConcurrentHashMap<>();
+    private static final MethodHandle VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+    private static volatile Boolean proxyClassesPresent;
 
     private MorphiaInternals() {
     }
@@ -42,6 +48,46 @@ public final class MorphiaInternals {
         return proxyClassesPresent;
     }
 
+    /**
+     * Creates a new executor which starts a new virtual thread for each task. Virtual threads are only available on newer JVMs so this
+     * method returns null when running on a JVM without them.
+     *
+     * @return the new executor or null if virtual threads are not supported
+     * @since 2.4
+     */
+    @Nullable
+    public static ExecutorService newVirtualThreadExecutor() {
+        if (VIRTUAL_THREAD_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invoke();
+        } catch (Throwable e) {
+            LOG.warn(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns an executor which starts a new virtual thread for each task. The executor is created on first use and shared by every
+     * caller so that building options repeatedly does not leave executors behind.
+     *
+     * @return the shared executor or null if virtual threads are not supported
+     * @since 2.4
+     */
+    @Nullable
+    public static ExecutorService virtualThreadExecutor() {
+        return VirtualThreads.EXECUTOR;
+    }
+
+    /**
+     * @return true if the current JVM supports virtual threads
+     * @since 2.4
+     */
+    public static boolean virtualThreadsSupported() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
     /**
      * @param version the required mininum version
      * @param block
@@ -75,6 +121,21 @@ public final class MorphiaInternals {
         return fallback.get();
     }
 
+    @Nullable
+    private static MethodHandle findVirtualThreadExecutor() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static final class VirtualThreads {
+        @Nullable
+        private static final ExecutorService EXECUTOR = newVirtualThreadExecutor();
+    }
+
     public enum DriverVersion {
         v4_0_0,
         v4_1_0,
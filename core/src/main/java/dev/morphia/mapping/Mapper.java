@@ -4,14 +4,22 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.mongodb.WriteConcern;
@@ -28,6 +36,7 @@ import dev.morphia.mapping.codec.pojo.EntityModel;
 import dev.morphia.mapping.codec.pojo.EntityModelBuilder;
 import dev.morphia.mapping.codec.pojo.PropertyModel;
 import dev.morphia.mapping.codec.references.MorphiaProxy;
+import dev.morphia.mapping.codec.references.ProxyFactory;
 import dev.morphia.mapping.validation.MappingValidator;
 import dev.morphia.sofia.Sofia;
 
@@ -66,10 +75,37 @@ public class Mapper {
     private final Map<Class, EntityModel> mappedEntities = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Set<EntityModel>> mappedEntitiesByCollection = new ConcurrentHashMap<>();
 
+    /**
+     * Guards the creation and registration of new models. This is a j.u.c. lock rather than a monitor so that virtual threads mapping
+     * types lazily are not pinned to their carrier while the models are built.
+     */
+    private final ReentrantLock registrationLock = new ReentrantLock();
+    /**
+     * Serializes parallel mapping so that only one batch of models is pending at a time.
+     */
+    private final ReentrantLock batchLock = new ReentrantLock();
+    /**
+     * The models of a parallel batch which have been built but not yet registered. These are visible to {@link #getEntityModel(Class)}
+     * only on the threads building the batch so that models built in parallel can find their already built super types while no other
+     * thread sees a model before it is registered.
+     */
+    private final ThreadLocal<Map<Class, EntityModel>> pendingEntities = new ThreadLocal<>();
+    /**
+     * The types registered but not yet validated when {@link MapperOptions#isLazyValidation()} is enabled.
+     */
+    private final Set<Class<?>> unvalidated = ConcurrentHashMap.newKeySet();
+    /**
+     * Guards validating models on first use so each is validated once.
+     */
+    private final ReentrantLock validationLock = new ReentrantLock();
+
     //EntityInterceptors; these are called after EntityListeners and lifecycle methods on an Entity, for all Entities
-    private final List<EntityInterceptor> interceptors = new LinkedList<>();
+    private final List<EntityInterceptor> interceptors = new CopyOnWriteArrayList<>();
     private final MapperOptions options;
     private final DiscriminatorLookup discriminatorLookup;
+    private final ProxyFactory proxyFactory = new ProxyFactory(this);
+    @Nullable
+    private final MappingIndex mappingIndex;
 
     /**
      * Creates a Mapper with the given options.
@@ -81,6 +117,7 @@ public class Mapper {
     public Mapper(MapperOptions options) {
         this.options = options;
         discriminatorLookup = new DiscriminatorLookup(options.getClassLoader());
+        mappingIndex = options.isMappingIndex() ? MappingIndex.load(options.getClassLoader()) : null;
     }
 
     /**
@@ -202,12 +239,26 @@ public class Mapper {
     public EntityModel getEntityModel(Class type) {
         final Class actual = MorphiaProxy.class.isAssignableFrom(type) ? type.getSuperclass() : type;
         EntityModel model = mappedEntities.get(actual);
+        if (model == null) {
+            Map<Class, EntityModel> pending = pendingEntities.get();
+            if (pending != null) {
+                model = pending.get(actual);
+            }
+        }
 
         if (model == null) {
             if (!isMappable(actual)) {
                 throw new NotMappableException(type);
             }
-            model = register(createEntityModel(type));
+            registrationLock.lock();
+            try {
+                model = mappedEntities.get(actual);
+                if (model == null) {
+                    model = register(createEntityModel(type));
+                }
+            } finally {
+                registrationLock.unlock();
+            }
         }
 
         return model;
@@ -309,6 +360,16 @@ public class Mapper {
     public void setOptions(MapperOptions options) {
     }
 
+    /**
+     * @return the factory of lazy reference proxies
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public ProxyFactory getProxyFactory() {
+        return proxyFactory;
+    }
+
     /**
      * Gets the write concern for entity or returns the default write concern for this datastore
      *
@@ -381,6 +442,9 @@ public class Mapper {
                 throw new MappingException(Sofia.mappingAnnotationNeeded(type.getName()));
             }
         }
+        if (options.isParallelMapping()) {
+            return mapParallel(classes);
+        }
         return classes.stream()
                 .map(this::getEntityModel)
                 .filter(Objects::nonNull)
@@ -392,10 +456,21 @@ public class Mapper {
      *
      * @param packageName the name of the package to process
      */
-    public synchronized void mapPackage(String packageName) {
+    public void mapPackage(String packageName) {
         try {
-            getClasses(options.getClassLoader(), packageName, getOptions().isMapSubPackages())
-                    .stream()
+            List<String> indexed = mappingIndex != null
+                    ? mappingIndex.classes(packageName, getOptions().isMapSubPackages())
+                    : null;
+            List<Class> classes = indexed != null
+                    ? loadClasses(options.getClassLoader(), indexed)
+                    : getClasses(options.getClassLoader(), packageName, getOptions().isMapSubPackages());
+            if (options.isParallelMapping()) {
+                mapParallel(classes.stream()
+                        .filter(this::isMappable)
+                        .collect(Collectors.toList()));
+                return;
+            }
+            classes.stream()
                     .map(type -> {
                         try {
                             return getEntityModel(type);
@@ -463,6 +538,43 @@ public class Mapper {
         }
     }
 
+    /**
+     * Validates a model if its validation was deferred by {@link MapperOptions#isLazyValidation()}. A model which fails validation
+     * remains pending so that each use of it reports the error.
+     *
+     * @param entityModel the model
+     * @throws MappingException if the model is invalid
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public void ensureValidated(EntityModel entityModel) {
+        Class<?> type = entityModel.getType();
+        if (!unvalidated.contains(type)) {
+            return;
+        }
+        validationLock.lock();
+        try {
+            if (unvalidated.contains(type)) {
+                validate(entityModel);
+                unvalidated.remove(type);
+            }
+        } finally {
+            validationLock.unlock();
+        }
+    }
+
+    /**
+     * @param type the type to check
+     * @return true if the type is mapped and has been validated
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public boolean isValidated(Class<?> type) {
+        return isMapped(type) && !unvalidated.contains(type);
+    }
+
     /**
      * @param entityModel the model to register
      * @return the model
@@ -471,18 +583,31 @@ public class Mapper {
      */
     @MorphiaInternal
     public EntityModel register(EntityModel entityModel) {
-        discriminatorLookup.addModel(entityModel);
-        mappedEntities.put(entityModel.getType(), entityModel);
-        entityModel.getCollectionName();
-        mappedEntitiesByCollection.computeIfAbsent(entityModel.getCollectionName(), s -> new CopyOnWriteArraySet<>())
-                .add(entityModel);
-
-        if (!entityModel.isInterface()) {
-            new MappingValidator()
-                    .validate(this, entityModel);
+        return register(entityModel, true);
+    }
 
+    private EntityModel register(EntityModel entityModel, boolean validate) {
+        registrationLock.lock();
+        try {
+            discriminatorLookup.addModel(entityModel);
+            mappedEntities.put(entityModel.getType(), entityModel);
+            mappedEntitiesByCollection.computeIfAbsent(entityModel.getCollectionName(), s -> new CopyOnWriteArraySet<>())
+                    .add(entityModel);
+
+            if (validate) {
+                if (options.isLazyValidation()) {
+                    unvalidated.add(entityModel.getType());
+                } else {
+                    validate(entityModel);
+                }
+            }
+            if (options.isEagerProxies()) {
+                proxyFactory.prepare(entityModel);
+            }
+            return entityModel;
+        } finally {
+            registrationLock.unlock();
         }
-        return entityModel;
     }
 
     /**
@@ -517,6 +642,123 @@ public class Mapper {
         return new ArrayList<>(classes);
     }
 
+    private void validate(EntityModel entityModel) {
+        if (!entityModel.isInterface() && (mappingIndex == null || !mappingIndex.isValidated(entityModel))) {
+            new MappingValidator()
+                    .validate(this, entityModel);
+        }
+    }
+
+    /**
+     * Builds the models of a batch of classes in parallel on the configured executor. Each model's super types must be built first so the
+     * classes are grouped by their depth in the hierarchy of unmapped types and each level is built in parallel once the previous one is
+     * done. The models are only registered once they have all been built and validated. If any fails, the links the batch's models added
+     * to the subtypes of already registered models are removed.
+     */
+    private List<EntityModel> mapParallel(List<Class> classes) {
+        batchLock.lock();
+        Map<Class, EntityModel> batch = new ConcurrentHashMap<>();
+        try {
+            Map<Class, Integer> depths = new HashMap<>();
+            for (Class type : classes) {
+                depth(type, depths);
+            }
+            TreeMap<Integer, List<Class>> levels = depths.entrySet().stream()
+                    .collect(Collectors.groupingBy(Entry::getValue, TreeMap::new,
+                            Collectors.mapping(Entry::getKey, Collectors.toList())));
+            for (List<Class> level : levels.values()) {
+                inParallel(level, batch, type -> batch.put(type, createEntityModel(type)));
+            }
+            if (!options.isLazyValidation()) {
+                inParallel(batch.values(), batch, this::validate);
+            }
+
+            registrationLock.lock();
+            try {
+                for (EntityModel model : batch.values()) {
+                    if (!mappedEntities.containsKey(model.getType())) {
+                        register(model, options.isLazyValidation());
+                    }
+                }
+            } finally {
+                registrationLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            Collection<EntityModel> failed = batch.values();
+            for (EntityModel model : mappedEntities.values()) {
+                model.removeSubtypes(failed);
+            }
+            throw e;
+        } finally {
+            batchLock.unlock();
+        }
+        return classes.stream()
+                .map(this::getEntityModel)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies an action to each item on the configured executor with the pending models of the batch visible, and waits for all of them
+     * to finish. Without an executor the items are processed in turn on the calling thread.
+     */
+    private <T> void inParallel(Collection<T> items, Map<Class, EntityModel> batch, Consumer<T> action) {
+        Executor executor = options.getExecutor() != null ? options.getExecutor() : Runnable::run;
+        CompletableFuture<?>[] tasks = items.stream()
+                .map(item -> CompletableFuture.runAsync(() -> {
+                    Map<Class, EntityModel> previous = pendingEntities.get();
+                    pendingEntities.set(batch);
+                    try {
+                        action.accept(item);
+                    } finally {
+                        if (previous != null) {
+                            pendingEntities.set(previous);
+                        } else {
+                            pendingEntities.remove();
+                        }
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the length of the longest chain of unmapped, mappable super types above the type or -1 if the type is mapped already or
+     *         is not mappable
+     */
+    private int depth(Class<?> type, Map<Class, Integer> depths) {
+        Integer known = depths.get(type);
+        if (known != null) {
+            return known;
+        }
+        if (mappedEntities.containsKey(type) || !isMappable(type)) {
+            return -1;
+        }
+        int depth = 0;
+        if (type.getSuperclass() != null) {
+            depth = Math.max(depth, depth(type.getSuperclass(), depths) + 1);
+        }
+        for (Class<?> anInterface : type.getInterfaces()) {
+            depth = Math.max(depth, depth(anInterface, depths) + 1);
+        }
+        depths.put(type, depth);
+        return depth;
+    }
+
+    private List<Class> loadClasses(ClassLoader loader, List<String> names) throws ClassNotFoundException {
+        List<Class> classes = new ArrayList<>();
+        for (String name : names) {
+            classes.add(Class.forName(name, true, loader));
+        }
+        return classes;
+    }
+
     private <T> boolean hasAnnotation(Class<T> clazz, List<Class<? extends Annotation>> annotations) {
         for (Class<? extends Annotation> annotation : annotations) {
             if (clazz.getAnnotation(annotation) != null) {
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.ExecutorService;
 
 import com.mongodb.lang.Nullable;
 
@@ -11,6 +12,8 @@ import dev.morphia.annotations.Entity;
 import dev.morphia.annotations.Property;
 import dev.morphia.annotations.internal.MorphiaExperimental;
 import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.internal.MorphiaInternals;
 import dev.morphia.mapping.conventions.ConfigureProperties;
 import dev.morphia.mapping.conventions.FieldDiscovery;
 import dev.morphia.mapping.conventions.MethodDiscovery;
@@ -56,6 +59,19 @@ public class MapperOptions {
     private final boolean enablePolymorphicQueries;
     private final ClassLoader classLoader;
     private final CodecProvider codecProvider;
+    private final boolean virtualThreads;
+    @Nullable
+    private final ExecutorService executor;
+    private final int indexParallelism;
+    private final boolean analyzeQueries;
+    private final long entityCacheSize;
+    private final boolean eagerProxies;
+    private final boolean batchLazyReferences;
+    private final boolean mappingIndex;
+    private final boolean parallelMapping;
+    private final boolean lazyValidation;
+    private final List<String> prewarm;
+    private final Instrumentation instrumentation;
 
     private MapperOptions(Builder builder) {
         autoImportModels = builder.autoImportModels;
@@ -81,6 +97,18 @@ public class MapperOptions {
         storeEmpties = builder.storeEmpties();
         storeNulls = builder.storeNulls();
         uuidRepresentation = builder.uuidRepresentation();
+        virtualThreads = builder.virtualThreads;
+        executor = builder.executor();
+        indexParallelism = builder.indexParallelism;
+        analyzeQueries = builder.analyzeQueries;
+        entityCacheSize = builder.entityCacheSize;
+        eagerProxies = builder.eagerProxies;
+        batchLazyReferences = builder.batchLazyReferences;
+        mappingIndex = builder.mappingIndex;
+        parallelMapping = builder.parallelMapping;
+        lazyValidation = builder.lazyValidation;
+        prewarm = List.copyOf(builder.prewarm);
+        instrumentation = builder.instrumentation;
     }
 
     /**
@@ -114,6 +142,24 @@ public class MapperOptions {
                 .queryFactory(new LegacyQueryFactory());
     }
 
+    /**
+     * @return true if the shapes of executed queries should be checked against the declared indexes
+     * @see Builder#analyzeQueries(boolean)
+     * @since 2.4
+     */
+    public boolean isAnalyzeQueries() {
+        return analyzeQueries;
+    }
+
+    /**
+     * @return true if the lazy references loaded by a query are loaded together
+     * @see Builder#batchLazyReferences(boolean)
+     * @since 2.4
+     */
+    public boolean isBatchLazyReferences() {
+        return batchLazyReferences;
+    }
+
     /**
      * @return true if {@link EntityModelImporter} instances should be loaded
      * @morphia.internal
@@ -146,6 +192,21 @@ public class MapperOptions {
         return classLoader;
     }
 
+    /**
+     * Returns the executor used by those features which can perform work concurrently such as loading references from multiple
+     * collections. Unless an executor or virtual threads have been configured there is none and that work is done on the calling
+     * thread.
+     *
+     * @return the executor or null if none has been configured
+     * @see Builder#executor(ExecutorService)
+     * @see Builder#virtualThreads(boolean)
+     * @since 2.4
+     */
+    @Nullable
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
     /**
      * @return the naming strategy for collections unless explicitly set via @Entity
      * @see Entity
@@ -182,6 +243,15 @@ public class MapperOptions {
         return discriminatorKey;
     }
 
+    /**
+     * @return the names of the entity types to prepare in the background when a datastore is created
+     * @see Builder#prewarm(String...)
+     * @since 2.4
+     */
+    public List<String> getPrewarm() {
+        return prewarm;
+    }
+
     /**
      * @return the naming strategy for properties unless explicitly set via @Property
      * @see Property
@@ -225,6 +295,15 @@ public class MapperOptions {
         return cacheClassLookups;
     }
 
+    /**
+     * @return true if lazy reference proxies are generated when entities are mapped
+     * @see Builder#eagerProxies(boolean)
+     * @since 2.4
+     */
+    public boolean isEagerProxies() {
+        return eagerProxies;
+    }
+
     /**
      * @return true if polymorphic queries are enabled
      */
@@ -239,6 +318,24 @@ public class MapperOptions {
         return ignoreFinals;
     }
 
+    /**
+     * @return true if models are validated on first use rather than when they are mapped
+     * @see Builder#lazyValidation(boolean)
+     * @since 2.4
+     */
+    public boolean isLazyValidation() {
+        return lazyValidation;
+    }
+
+    /**
+     * @return true if the mapping index written at build time is used when mapping
+     * @see Builder#mappingIndex(boolean)
+     * @since 2.4
+     */
+    public boolean isMappingIndex() {
+        return mappingIndex;
+    }
+
     /**
      * @return true if Morphia should map classes from the sub-packages as well
      */
@@ -246,6 +343,53 @@ public class MapperOptions {
         return mapSubPackages;
     }
 
+    /**
+     * @return true if batches of classes are mapped in parallel
+     * @see Builder#parallelMapping(boolean)
+     * @since 2.4
+     */
+    public boolean isParallelMapping() {
+        return parallelMapping;
+    }
+
+    /**
+     * @return the maximum total size in bytes of the documents held by the second level entity cache or 0 if the cache is disabled
+     * @see Builder#entityCacheSize(long)
+     * @since 2.4
+     */
+    public long getEntityCacheSize() {
+        return entityCacheSize;
+    }
+
+    /**
+     * Returns the maximum number of collections whose indexes will be created concurrently by
+     * {@link dev.morphia.Datastore#ensureIndexes()}.
+     *
+     * @return the index creation parallelism
+     * @see Builder#indexParallelism(int)
+     * @since 2.4
+     */
+    public int getIndexParallelism() {
+        return indexParallelism;
+    }
+
+    /**
+     * @return the instrumentation to report operations to
+     * @see Builder#instrumentation(Instrumentation)
+     * @since 2.4
+     */
+    public Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * @return true if Morphia should use virtual threads for its concurrent work when running on a JVM which supports them
+     * @since 2.4
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     /**
      * @return true if Morphia should store empty values for lists/maps/sets/arrays
      */
@@ -273,12 +417,25 @@ public class MapperOptions {
 
         private final List<MorphiaConvention> conventions = new ArrayList<>();
         private boolean autoImportModels = true;
+        private boolean analyzeQueries;
         private boolean ignoreFinals;
         private boolean storeNulls;
         private boolean storeEmpties;
         private boolean cacheClassLookups;
         private boolean mapSubPackages;
         private boolean enablePolymorphicQueries;
+        private boolean virtualThreads;
+        @Nullable
+        private ExecutorService executor;
+        private int indexParallelism = 1;
+        private long entityCacheSize;
+        private boolean eagerProxies;
+        private boolean batchLazyReferences;
+        private boolean mappingIndex;
+        private boolean parallelMapping;
+        private boolean lazyValidation;
+        private final List<String> prewarm = new ArrayList<>();
+        private Instrumentation instrumentation = Instrumentation.none();
         private ClassLoader classLoader;
         private CodecProvider codecProvider;
         private DateStorage dateStorage = DateStorage.UTC;
@@ -296,6 +453,7 @@ public class MapperOptions {
 
         private Builder(MapperOptions original) {
             autoImportModels = original.autoImportModels;
+            analyzeQueries = original.analyzeQueries;
             cacheClassLookups = original.cacheClassLookups;
             classLoader = original.getClassLoader();
             codecProvider = original.codecProvider;
@@ -313,6 +471,17 @@ public class MapperOptions {
             uuidRepresentation = original.uuidRepresentation;
             queryFactory = original.queryFactory;
             propertyDiscovery = original.propertyDiscovery;
+            virtualThreads = original.virtualThreads;
+            executor = original.executor;
+            indexParallelism = original.indexParallelism;
+            entityCacheSize = original.entityCacheSize;
+            eagerProxies = original.eagerProxies;
+            batchLazyReferences = original.batchLazyReferences;
+            mappingIndex = original.mappingIndex;
+            parallelMapping = original.parallelMapping;
+            lazyValidation = original.lazyValidation;
+            prewarm.addAll(original.prewarm);
+            instrumentation = original.instrumentation;
         }
 
         /**
@@ -329,6 +498,22 @@ public class MapperOptions {
             return this;
         }
 
+        /**
+         * Enables the analysis of executed queries against the indexes declared on the mapped entities. Each distinct query shape is
+         * counted and those which can not be served by a declared index, or which would require an in-memory sort, are logged. This is
+         * intended for development and staging environments.
+         *
+         * @param analyzeQueries true to analyze queries
+         * @return this
+         * @see dev.morphia.DatastoreImpl#getQueryAnalyzer()
+         * @since 2.4
+         */
+        public Builder analyzeQueries(boolean analyzeQueries) {
+            assertNotLocked();
+            this.analyzeQueries = analyzeQueries;
+            return this;
+        }
+
         /**
          * This feature automatically discovers and uses {@link EntityModelImporter} instances to allow for external definition of class
          * models. This feature defaults to true.
@@ -353,6 +538,23 @@ public class MapperOptions {
             return options;
         }
 
+        /**
+         * Loads the lazy references decoded from a batch of query results together. The first lazy reference to be used loads every
+         * other pending reference from the same batch to the same collection with a single {@code $in} query instead of each
+         * reference issuing its own. References remain lazy: nothing is loaded until one of them is used. Only references to single
+         * entities are batched. This defaults to false.
+         *
+         * @param batchLazyReferences true to load lazy references in batches
+         * @return this
+         * @since 2.4
+         */
+        @MorphiaExperimental
+        public Builder batchLazyReferences(boolean batchLazyReferences) {
+            assertNotLocked();
+            this.batchLazyReferences = batchLazyReferences;
+            return this;
+        }
+
         /**
          * @param cacheClassLookups if true class lookups are cached
          * @return this
@@ -461,6 +663,22 @@ public class MapperOptions {
             return this;
         }
 
+        /**
+         * Generates the proxy classes for lazy references when their entities are mapped rather than on the first load of each
+         * reference. This moves the class generation off of request threads and in to startup. Proxy classes are shared by every lazy
+         * reference to the same type either way. This defaults to false.
+         *
+         * @param eagerProxies true to generate proxies when mapping
+         * @return this
+         * @since 2.4
+         */
+        @MorphiaExperimental
+        public Builder eagerProxies(boolean eagerProxies) {
+            assertNotLocked();
+            this.eagerProxies = eagerProxies;
+            return this;
+        }
+
         /**
          * @param enablePolymorphicQueries if true queries are updated, in some cases, to check for subtypes' discriminator values so
          *                                 that subtype might be returned by a query.
@@ -472,6 +690,39 @@ public class MapperOptions {
             return this;
         }
 
+        /**
+         * Enables the second level entity cache for entities annotated with {@link dev.morphia.annotations.Cached}. Lookups by ID,
+         * reference resolution, and refreshes of those entities are served from encoded documents held in memory. Once the total size
+         * of the cached documents exceeds the given size, the least recently used are evicted. The default of 0 disables the cache.
+         *
+         * @param entityCacheSize the maximum total size in bytes of the cached documents
+         * @return this
+         * @since 2.4
+         */
+        @MorphiaExperimental
+        public Builder entityCacheSize(long entityCacheSize) {
+            assertNotLocked();
+            if (entityCacheSize < 0) {
+                throw new IllegalArgumentException(Sofia.invalidEntityCacheSize(entityCacheSize));
+            }
+            this.entityCacheSize = entityCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor to use for those features which can perform work concurrently. If no executor is given, a virtual thread
+         * executor is used if {@link #virtualThreads(boolean) enabled}. Otherwise, that work is done on the calling thread.
+         *
+         * @param executor the executor to use
+         * @return this
+         * @since 2.4
+         */
+        public Builder executor(ExecutorService executor) {
+            assertNotLocked();
+            this.executor = executor;
+            return this;
+        }
+
         /**
          * Sets the naming strategy to use for fields unless expliclity set via @Property
          *
@@ -496,6 +747,72 @@ public class MapperOptions {
             return this;
         }
 
+        /**
+         * Defers validating each model until its codec is first needed, e.g., when an entity of that type is first saved or loaded,
+         * rather than validating every model when it is mapped. Property codecs are already specialized on first use so with this
+         * enabled only the model itself is built when a type is mapped. Mapping errors are then reported on first use instead. Types
+         * which are known to be used early can be prepared ahead of time with {@link #prewarm(String...)}. This defaults to false.
+         *
+         * @param lazyValidation true to validate models on first use
+         * @return this
+         * @since 2.4
+         */
+        @MorphiaExperimental
+        public Builder lazyValidation(boolean lazyValidation) {
+            assertNotLocked();
+            this.lazyValidation = lazyValidation;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of collections whose indexes are created concurrently when calling
+         * {@link dev.morphia.Datastore#ensureIndexes()}. The work is run on the configured {@link #executor(ExecutorService) executor}.
+         * Without one, each call to {@code ensureIndexes} starts that many threads of its own and stops them once it returns. The default
+         * is 1 which creates indexes for one collection at a time on the calling thread.
+         *
+         * @param indexParallelism the number of collections to process concurrently
+         * @return this
+         * @since 2.4
+         */
+        public Builder indexParallelism(int indexParallelism) {
+            assertNotLocked();
+            if (indexParallelism < 1) {
+                throw new IllegalArgumentException(Sofia.invalidIndexParallelism(indexParallelism));
+            }
+            this.indexParallelism = indexParallelism;
+            return this;
+        }
+
+        /**
+         * Sets the instrumentation to report operation timings and counts to. By default, nothing is reported and no timing is done.
+         *
+         * @param instrumentation the instrumentation to use
+         * @return this
+         * @since 2.4
+         */
+        public Builder instrumentation(Instrumentation instrumentation) {
+            assertNotLocked();
+            this.instrumentation = instrumentation;
+            return this;
+        }
+
+        /**
+         * Uses the {@link MappingIndex mapping index} written at build time by {@link MappingIndexWriter}. Packages covered by the index
+         * are mapped from its class list rather than by scanning the classpath and models built with the same layout as when the index
+         * was written are not validated again. Packages and models not covered by the index are mapped as usual. Mapping a package
+         * whose class files have changed since the index was written fails. This defaults to false.
+         *
+         * @param mappingIndex true to use the mapping index
+         * @return this
+         * @since 2.4
+         */
+        @MorphiaExperimental
+        public Builder mappingIndex(boolean mappingIndex) {
+            assertNotLocked();
+            this.mappingIndex = mappingIndex;
+            return this;
+        }
+
         /**
          * @param mapSubPackages if true subpackages are mapped when given a particular package
          * @return this
@@ -506,6 +823,40 @@ public class MapperOptions {
             return this;
         }
 
+        /**
+         * Maps the classes given to {@link Mapper#map(List)} or found by {@link Mapper#mapPackage(String)} in parallel. The models are
+         * built on the configured {@link #executor(ExecutorService) executor} a level of the class hierarchy at a time so that each
+         * model's super types are built before it. The models are then validated in parallel and registered together once all of them
+         * are valid. Without an executor the batch is built the same way on the calling thread. This defaults to false.
+         *
+         * @param parallelMapping true to map batches of classes in parallel
+         * @return this
+         * @since 2.4
+         */
+        @MorphiaExperimental
+        public Builder parallelMapping(boolean parallelMapping) {
+            assertNotLocked();
+            this.parallelMapping = parallelMapping;
+            return this;
+        }
+
+        /**
+         * Names entity types to prepare in the background once a datastore is created. Each type is mapped, validated, and has its
+         * codec built on the configured {@link #executor(ExecutorService) executor}, or a dedicated daemon thread if there is none, so
+         * the first requests using them do not pay that cost. Types which can not be prepared are logged and skipped.
+         *
+         * @param classNames the fully qualified names of the types to prepare
+         * @return this
+         * @see #lazyValidation(boolean)
+         * @since 2.4
+         */
+        @MorphiaExperimental
+        public Builder prewarm(String... classNames) {
+            assertNotLocked();
+            this.prewarm.addAll(List.of(classNames));
+            return this;
+        }
+
         /**
          * Determines how properties are discovered on mapped entities
          *
@@ -577,6 +928,22 @@ public class MapperOptions {
             return this;
         }
 
+        /**
+         * Enables the use of virtual threads for Morphia's concurrent work. This option only applies if no explicit executor has been
+         * configured and is ignored, with a warning, on JVMs without virtual thread support. All options using virtual threads share a
+         * single executor.
+         *
+         * @param virtualThreads true to use virtual threads
+         * @return this
+         * @see #executor(ExecutorService)
+         * @since 2.4
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            assertNotLocked();
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
         /**
          * Configures the UUID representation to use
          *
@@ -616,6 +983,21 @@ public class MapperOptions {
             return dateStorage;
         }
 
+        @Nullable
+        private ExecutorService executor() {
+            if (executor != null) {
+                return executor;
+            }
+            if (virtualThreads) {
+                ExecutorService virtual = MorphiaInternals.virtualThreadExecutor();
+                if (virtual != null) {
+                    return virtual;
+                }
+                LOG.warn(Sofia.virtualThreadsNotSupported());
+            }
+            return null;
+        }
+
         private DiscriminatorFunction discriminator() {
             return discriminator;
         }
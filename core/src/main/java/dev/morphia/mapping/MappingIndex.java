@@ -0,0 +1,350 @@
+package dev.morphia.mapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.sofia.Sofia;
+
+import org.bson.Document;
+import org.bson.json.JsonWriterSettings;
+
+/**
+ * A snapshot of the models built for a set of packages, written at build time by {@link MappingIndexWriter} and read by the
+ * {@link Mapper} when {@link MapperOptions#isMappingIndex()} is enabled. The index lists the mapped classes of each package scanned so
+ * mapping a package does not need to scan the classpath, and records the layout of each model, which passed validation when the index
+ * was written, so that validation is skipped for any model built at runtime with the same layout.
+ * <p>
+ * Each package is recorded with a fingerprint of the contents of its listed class files. Each file is read through
+ * {@link ClassLoader#getResource(String)} without scanning the classpath or loading the class, so the fingerprint is checked the first
+ * time a package is mapped from the index. An index whose classes have changed or gone missing is rejected rather than silently mapping
+ * outdated models. Classes added to a package after the index was written are not detected so the index should be written as part of
+ * the build.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public final class MappingIndex {
+    /**
+     * The location of the index on the classpath
+     */
+    public static final String RESOURCE = "META-INF/morphia/mapping-index.json";
+    private static final String SUBPACKAGES = ".*";
+
+    private final Map<String, String> packages = new LinkedHashMap<>();
+    private final Map<String, Document> entities = new LinkedHashMap<>();
+    @Nullable
+    private final ClassLoader loader;
+    private final Set<String> verified = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates an empty index, e.g., to be written.
+     */
+    public MappingIndex() {
+        this(null);
+    }
+
+    private MappingIndex(@Nullable ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Loads and merges every index found on the classpath.
+     *
+     * @param loader the loader to search
+     * @return the index which is empty if none were found
+     */
+    public static MappingIndex load(ClassLoader loader) {
+        MappingIndex index = new MappingIndex(loader);
+        try {
+            Enumeration<URL> resources = loader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                try (InputStream stream = url.openStream()) {
+                    index.merge(Document.parse(new String(stream.readAllBytes(), StandardCharsets.UTF_8)));
+                } catch (IOException | RuntimeException e) {
+                    throw new MappingException(Sofia.mappingIndexUnreadable(url), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new MappingException(Sofia.mappingIndexUnreadable(RESOURCE), e);
+        }
+        return index;
+    }
+
+    /**
+     * Computes a fingerprint from the CRC of each class file. The class files are read as resources and the classes are not loaded.
+     *
+     * @param loader     the loader to read the class files with
+     * @param classNames the names of the classes
+     * @return the fingerprint
+     */
+    public static String fingerprint(ClassLoader loader, Collection<String> classNames) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String name : classNames.stream().sorted().collect(Collectors.toList())) {
+                String crc = "missing";
+                URL resource = loader.getResource(name.replace('.', '/') + ".class");
+                if (resource != null) {
+                    try (InputStream stream = resource.openStream()) {
+                        CRC32 checksum = new CRC32();
+                        checksum.update(stream.readAllBytes());
+                        crc = Long.toHexString(checksum.getValue());
+                    }
+                }
+                digest.update((name + ":" + crc + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return String.format("%064x", new BigInteger(1, digest.digest()));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new MappingException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records a scanned package with the {@link #fingerprint(ClassLoader, Collection) fingerprint} of the classes recorded for it. Add
+     * the package's models first.
+     *
+     * @param packageName the package name, ending with {@code .*} if its sub-packages were scanned as well
+     * @param loader      the loader to read the class files with
+     */
+    public void addPackage(String packageName, ClassLoader loader) {
+        addPackage(packageName, fingerprint(loader, listed(packageName)));
+    }
+
+    /**
+     * Records a scanned package.
+     *
+     * @param packageName the package name, ending with {@code .*} if its sub-packages were scanned as well
+     * @param fingerprint the {@link #fingerprint(ClassLoader, Collection) fingerprint} of the package's classes when it was scanned
+     */
+    public void addPackage(String packageName, String fingerprint) {
+        packages.put(packageName, fingerprint);
+    }
+
+    /**
+     * Records the layout of a model.
+     *
+     * @param model the model
+     */
+    public void add(EntityModel model) {
+        entities.put(model.getType().getName(), describe(model));
+    }
+
+    /**
+     * Lists the mapped classes of a package if the package was scanned when the index was written. For an index loaded from the
+     * classpath, the package's current fingerprint is first compared to the one recorded.
+     *
+     * @param packageName    the package name
+     * @param mapSubPackages true if the classes of sub-packages should be included
+     * @return the class names or null if the index does not cover the package
+     * @throws MappingException if the classes of the package have changed since the index was written
+     */
+    @Nullable
+    public List<String> classes(String packageName, boolean mapSubPackages) {
+        String scanned = covering(packageName, mapSubPackages);
+        if (scanned == null) {
+            return null;
+        }
+        if (loader != null && !verified.contains(scanned)) {
+            if (!fingerprint(loader, listed(scanned)).equals(packages.get(scanned))) {
+                throw new MappingException(Sofia.mappingIndexStale(scanned));
+            }
+            verified.add(scanned);
+        }
+        return classes(packageName, mapSubPackages, entities.keySet());
+    }
+
+    /**
+     * @return true if no models are recorded
+     */
+    public boolean isEmpty() {
+        return entities.isEmpty();
+    }
+
+    /**
+     * Checks if a model was validated when the index was written.
+     *
+     * @param model the model built at runtime
+     * @return true if a model for the same type was recorded with the same layout
+     */
+    public boolean isValidated(EntityModel model) {
+        Document recorded = entities.get(model.getType().getName());
+        return recorded != null && recorded.equals(describe(model));
+    }
+
+    /**
+     * @return the index as a document
+     */
+    public Document toDocument() {
+        List<Document> scanned = new ArrayList<>();
+        packages.forEach((name, fingerprint) -> scanned.add(new Document("name", name).append("fingerprint", fingerprint)));
+        return new Document("packages", scanned)
+                .append("entities", new ArrayList<>(entities.values()));
+    }
+
+    /**
+     * Writes the index to its location under a directory, typically the build's class output.
+     *
+     * @param directory the directory
+     * @return the file written
+     * @throws IOException if the file could not be written
+     */
+    public Path write(Path directory) throws IOException {
+        Path file = directory.resolve(RESOURCE);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, toDocument().toJson(JsonWriterSettings.builder().indent(true).build()), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static Document describe(EntityModel model) {
+        EntityModel superClass = model.getSuperClass();
+        List<Document> properties = model.getProperties().stream()
+                .map(MappingIndex::describe)
+                .collect(Collectors.toList());
+        return new Document("type", model.getType().getName())
+                .append("superClass", superClass != null ? superClass.getType().getName() : null)
+                .append("collection", model.getCollectionName())
+                .append("discriminatorKey", model.getDiscriminatorKey())
+                .append("discriminator", model.getDiscriminator())
+                .append("annotations", annotations(model.getAnnotations().values()))
+                .append("properties", properties);
+    }
+
+    private static Document describe(PropertyModel property) {
+        return new Document("name", property.getName())
+                .append("mappedName", property.getMappedName())
+                .append("loadNames", property.getLoadNames())
+                .append("type", String.valueOf(property.getTypeData()))
+                .append("annotations", annotations(property.getAnnotations()));
+    }
+
+    /**
+     * Describes annotations by their types and member values rather than by {@link Annotation#toString()} whose format differs between
+     * JVMs.
+     */
+    private static List<Document> annotations(Collection<? extends Annotation> annotations) {
+        return annotations.stream()
+                .sorted(Comparator.comparing(annotation -> annotation.annotationType().getName()))
+                .map(MappingIndex::describe)
+                .collect(Collectors.toList());
+    }
+
+    private static Document describe(Annotation annotation) {
+        Document document = new Document("@type", annotation.annotationType().getName());
+        Method[] members = annotation.annotationType().getDeclaredMethods();
+        Arrays.sort(members, Comparator.comparing(Method::getName));
+        for (Method member : members) {
+            try {
+                member.trySetAccessible();
+                document.append(member.getName(), value(member.invoke(annotation)));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new MappingException(e.getMessage(), e);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Converts an annotation member's value to a form which survives the index's JSON unchanged.
+     */
+    private static Object value(Object value) {
+        if (value instanceof Annotation) {
+            return describe((Annotation) value);
+        }
+        if (value.getClass().isArray()) {
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < Array.getLength(value); i++) {
+                values.add(value(Array.get(value, i)));
+            }
+            return values;
+        }
+        if (value instanceof Class) {
+            return ((Class<?>) value).getName();
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Boolean) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private static List<String> classes(String packageName, boolean mapSubPackages, Collection<String> names) {
+        return names.stream()
+                .filter(name -> {
+                    String owner = packageOf(name);
+                    return owner.equals(packageName) || mapSubPackages && owner.startsWith(packageName + ".");
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static String packageOf(String className) {
+        int dot = className.lastIndexOf('.');
+        return dot == -1 ? "" : className.substring(0, dot);
+    }
+
+    /**
+     * @return the recorded package whose scan covers the given package or null if there is none
+     */
+    @Nullable
+    private String covering(String packageName, boolean mapSubPackages) {
+        if (packages.containsKey(packageName + SUBPACKAGES)) {
+            return packageName + SUBPACKAGES;
+        }
+        if (!mapSubPackages && packages.containsKey(packageName)) {
+            return packageName;
+        }
+        return packages.keySet().stream()
+                .filter(scanned -> scanned.endsWith(SUBPACKAGES))
+                .filter(scanned -> packageName.startsWith(scanned.substring(0, scanned.length() - SUBPACKAGES.length()) + "."))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @return the recorded classes of a scanned package
+     */
+    private List<String> listed(String scanned) {
+        boolean subPackages = scanned.endsWith(SUBPACKAGES);
+        String packageName = subPackages ? scanned.substring(0, scanned.length() - SUBPACKAGES.length()) : scanned;
+        return classes(packageName, subPackages, entities.keySet());
+    }
+
+    private void merge(Document document) {
+        for (Document scanned : document.getList("packages", Document.class, List.of())) {
+            packages.put(scanned.getString("name"), scanned.getString("fingerprint"));
+        }
+        for (Document entity : document.getList("entities", Document.class, List.of())) {
+            entities.put(entity.getString("type"), entity);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dev.morphia.mapping;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.sofia.Sofia;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a {@link MappingIndex} as a build step so that applications can skip classpath scanning and mapping validation on start up.
+ * Run this after compilation with the compiled classes on the classpath, for example from the {@code process-classes} phase:
+ *
+ * <pre>
+ * java -cp ... dev.morphia.mapping.MappingIndexWriter target/classes com.example.model.* com.example.events
+ * </pre>
+ * <p>
+ * The first argument is the directory to write the index under. The rest are the packages to map with a trailing {@code .*} to include
+ * their sub-packages. Every model is built and validated with the default {@link MapperOptions} so the build fails on any mapping
+ * error. Enable {@link MapperOptions.Builder#mappingIndex(boolean)} for the index to be used.
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class MappingIndexWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(MappingIndexWriter.class);
+
+    private MappingIndexWriter() {
+    }
+
+    /**
+     * @param args the output directory followed by the packages to map
+     * @throws IOException if the index could not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(Sofia.mappingIndexUsage());
+        }
+        Path file = write(Paths.get(args[0]), Arrays.asList(args).subList(1, args.length));
+        LOG.info("Wrote the mapping index to {}", file);
+    }
+
+    /**
+     * Maps the packages given and writes the resulting index.
+     *
+     * @param directory the directory to write the index under
+     * @param packages  the packages to map with a trailing {@code .*} to include their sub-packages
+     * @return the file written
+     * @throws IOException if the index could not be written
+     */
+    public static Path write(Path directory, List<String> packages) throws IOException {
+        return index(MapperOptions.DEFAULT, packages).write(directory);
+    }
+
+    /**
+     * Maps the packages given in to an index.
+     *
+     * @param options  the options to map with
+     * @param packages the packages to map with a trailing {@code .*} to include their sub-packages
+     * @return the index
+     */
+    public static MappingIndex index(MapperOptions options, List<String> packages) {
+        MappingIndex index = new MappingIndex();
+        for (String name : packages) {
+            boolean subPackages = name.endsWith(".*");
+            Mapper mapper = new Mapper(MapperOptions.builder(options)
+                    .mapSubPackages(subPackages)
+                    .mappingIndex(false)
+                    .build());
+            mapper.mapPackage(subPackages ? name.substring(0, name.length() - 2) : name);
+            for (EntityModel model : mapper.getMappedEntities()) {
+                index.add(model);
+            }
+            index.addPackage(name, options.getClassLoader());
+        }
+        return index;
+    }
+}
@@ -8,6 +8,9 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 
 import com.mongodb.lang.Nullable;
@@ -33,7 +36,13 @@ import static java.lang.Boolean.FALSE;
 public final class Conversions {
     private static final Logger LOG = LoggerFactory.getLogger(Conversions.class);
 
-    private static final Map<Class<?>, Map<Class<?>, Function<?, ?>>> CONVERSIONS = new HashMap<>();
+    private static final ReentrantLock REGISTRATION_LOCK = new ReentrantLock();
+
+    /**
+     * Resolves conversions from the registrations it was created with. It is replaced whenever the registrations change so a
+     * conversion resolved from an outdated registration can only ever land in a discarded cache.
+     */
+    private static volatile Resolver resolver = new Resolver(Map.of());
 
     static {
         registerStringConversions();
@@ -143,19 +152,22 @@ public final class Conversions {
             return (T) value;
         }
 
-        final Function function = CONVERSIONS
-                .computeIfAbsent(fromType, (f) -> new HashMap<>())
-                .get(target);
-        if (function == null) {
-            if (target.equals(String.class)) {
-                return (T) value.toString();
-            }
-            if (target.isEnum() && fromType.equals(String.class)) {
-                return (T) Enum.valueOf((Class<? extends Enum>) target, (String) value);
-            }
-            return (T) value;
+        return (T) resolver.resolve(fromType, target).apply(value);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Function<Object, Object> resolve(Class<?> source, Class<?> target, Map<Class<?>, Function<?, ?>> targets) {
+        Function function = targets.get(target);
+        if (function != null) {
+            return function;
         }
-        return (T) function.apply(value);
+        if (target.equals(String.class)) {
+            return Object::toString;
+        }
+        if (target.isEnum() && source.equals(String.class)) {
+            return value -> Enum.valueOf((Class<? extends Enum>) target, (String) value);
+        }
+        return Function.identity();
     }
 
     @Nullable
@@ -193,8 +205,45 @@ public final class Conversions {
                     }
                     return function.apply(s);
                 };
-        CONVERSIONS.computeIfAbsent(source, (Class<?> c) -> new HashMap<>())
-                .put(target, conversion);
+        REGISTRATION_LOCK.lock();
+        try {
+            Map<Class<?>, Map<Class<?>, Function<?, ?>>> registered = resolver.registered;
+            Map<Class<?>, Function<?, ?>> targets = new HashMap<>(registered.getOrDefault(source, Map.of()));
+            targets.put(target, conversion);
+            Map<Class<?>, Map<Class<?>, Function<?, ?>>> updated = new HashMap<>(registered);
+            updated.put(source, Map.copyOf(targets));
+            resolver = new Resolver(Map.copyOf(updated));
+        } finally {
+            REGISTRATION_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes a previously registered conversion between two types. Conversions registered by Morphia itself can be removed as well so
+     * care should be taken to only remove those added by the application.
+     *
+     * @param source the source type
+     * @param target the target type
+     * @since 2.4
+     */
+    public static void unregister(Class<?> source, Class<?> target) {
+        REGISTRATION_LOCK.lock();
+        try {
+            Map<Class<?>, Map<Class<?>, Function<?, ?>>> registered = resolver.registered;
+            Map<Class<?>, Function<?, ?>> targets = new HashMap<>(registered.getOrDefault(source, Map.of()));
+            if (targets.remove(target) == null) {
+                return;
+            }
+            Map<Class<?>, Map<Class<?>, Function<?, ?>>> updated = new HashMap<>(registered);
+            if (targets.isEmpty()) {
+                updated.remove(source);
+            } else {
+                updated.put(source, Map.copyOf(targets));
+            }
+            resolver = new Resolver(Map.copyOf(updated));
+        } finally {
+            REGISTRATION_LOCK.unlock();
+        }
     }
 
     private static boolean isNumber(Class<?> type) {
@@ -204,4 +253,36 @@ public final class Conversions {
     private static boolean isBoolean(Class<?> type) {
         return type.equals(boolean.class);
     }
+
+    /**
+     * Caches the resolved conversions of each source type alongside that type so that a lookup is a class value read and a map read.
+     */
+    private static final class Resolver extends ClassValue<ConcurrentMap<Class<?>, Function<Object, Object>>> {
+        /**
+         * The registered conversions: source type to target type to the function to apply
+         */
+        private final Map<Class<?>, Map<Class<?>, Function<?, ?>>> registered;
+
+        private Resolver(Map<Class<?>, Map<Class<?>, Function<?, ?>>> registered) {
+            this.registered = registered;
+        }
+
+        @Override
+        protected ConcurrentMap<Class<?>, Function<Object, Object>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+
+        private Function<Object, Object> resolve(Class<?> source, Class<?> target) {
+            ConcurrentMap<Class<?>, Function<Object, Object>> targets = get(source);
+            Function<Object, Object> function = targets.get(target);
+            if (function == null) {
+                function = Conversions.resolve(source, target, registered.getOrDefault(source, Map.of()));
+                Function<Object, Object> existing = targets.putIfAbsent(target, function);
+                if (existing != null) {
+                    function = existing;
+                }
+            }
+            return function;
+        }
+    }
 }
@@ -6,12 +6,15 @@ import java.util.Map;
 import com.mongodb.lang.Nullable;
 
 import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.codec.writer.EncodedNameOutput;
 
+import org.bson.BsonBinaryWriter;
 import org.bson.BsonWriter;
 import org.bson.codecs.Codec;
 import org.bson.codecs.EncoderContext;
 import org.bson.codecs.IdGenerator;
 import org.bson.codecs.ObjectIdGenerator;
+import org.bson.io.BsonOutput;
 import org.bson.types.ObjectId;
 
 import static dev.morphia.aggregation.codecs.ExpressionHelper.document;
@@ -36,9 +39,14 @@ public class EntityEncoder<T> implements org.bson.codecs.Encoder<T> {
     public void encode(BsonWriter writer, T value, EncoderContext encoderContext) {
         EntityModel model = morphiaCodec.getEntityModel();
         if (areEquivalentTypes(value.getClass(), model.getType())) {
+            // only outputs Morphia owns accept encoded names so this is checked once per document rather than for every property
+            EncodedNameOutput names = encodedNames(writer);
             document(writer, () -> {
 
                 PropertyModel idModel = model.getIdProperty();
+                if (names != null && idModel != null) {
+                    nextName(names, idModel);
+                }
                 encodeIdProperty(writer, value, encoderContext, idModel);
 
                 if (model.useDiscriminator()) {
@@ -49,6 +57,9 @@ public class EntityEncoder<T> implements org.bson.codecs.Encoder<T> {
                     if (propertyModel.equals(idModel)) {
                         continue;
                     }
+                    if (names != null) {
+                        nextName(names, propertyModel);
+                    }
                     encodeProperty(writer, propertyModel, value, encoderContext);
                 }
             });
@@ -79,6 +90,24 @@ public class EntityEncoder<T> implements org.bson.codecs.Encoder<T> {
         return morphiaCodec.getEncoderClass();
     }
 
+    @Nullable
+    private static EncodedNameOutput encodedNames(BsonWriter writer) {
+        if (writer instanceof BsonBinaryWriter) {
+            BsonOutput output = ((BsonBinaryWriter) writer).getBsonOutput();
+            if (output instanceof EncodedNameOutput) {
+                return (EncodedNameOutput) output;
+            }
+        }
+        return null;
+    }
+
+    private static void nextName(EncodedNameOutput names, PropertyModel model) {
+        byte[] encodedName = model.getEncodedName();
+        if (encodedName != null) {
+            names.nextName(model.getMappedName(), encodedName);
+        }
+    }
+
     protected <S, V> boolean areEquivalentTypes(Class<S> t1, Class<V> t2) {
         return t1.equals(t2)
                 || Collection.class.isAssignableFrom(t1) && Collection.class.isAssignableFrom(t2)
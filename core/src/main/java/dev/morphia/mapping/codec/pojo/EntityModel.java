@@ -4,6 +4,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -373,6 +374,17 @@ public class EntityModel {
         return getType().isInterface();
     }
 
+    /**
+     * Removes models from the subtypes of this model, e.g., when the batch which built them fails to map. Models are matched by
+     * identity so that an equal model registered separately is kept.
+     *
+     * @param models the models to remove
+     * @since 2.4
+     */
+    public void removeSubtypes(Collection<EntityModel> models) {
+        subtypes.removeIf(subtype -> models.stream().anyMatch(model -> model == subtype));
+    }
+
     /**
      * @return true if the discriminator should be used
      */
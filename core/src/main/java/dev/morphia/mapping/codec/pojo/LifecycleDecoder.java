@@ -35,7 +35,7 @@ public class LifecycleDecoder<T> extends EntityDecoder<T> {
     public T decode(BsonReader reader, DecoderContext decoderContext) {
         Document document = getMorphiaCodec().getRegistry().get(Document.class).decode(reader, decoderContext);
         EntityModel model = getMorphiaCodec().getEntityModel();
-        if (model.useDiscriminator()) {
+        if (model.useDiscriminator() && !decoderContext.hasCheckedDiscriminator()) {
             String discriminator = document.getString(model.getDiscriminatorKey());
             if (discriminator != null) {
                 Class<?> discriminatorClass = getMorphiaCodec().getDiscriminatorLookup().lookup(discriminator);
@@ -4,12 +4,15 @@ import java.util.List;
 
 import dev.morphia.Datastore;
 import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.MappingTimer;
 import dev.morphia.mapping.DiscriminatorLookup;
 import dev.morphia.mapping.Mapper;
 import dev.morphia.mapping.MappingException;
 import dev.morphia.mapping.codec.PropertyCodecRegistryImpl;
 import dev.morphia.sofia.Sofia;
 
+import org.bson.BsonBinaryWriter;
 import org.bson.BsonReader;
 import org.bson.BsonValue;
 import org.bson.BsonWriter;
@@ -20,6 +23,7 @@ import org.bson.codecs.EncoderContext;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.PropertyCodecProvider;
 import org.bson.codecs.pojo.PropertyCodecRegistry;
+import org.bson.io.BsonOutput;
 import org.bson.types.ObjectId;
 
 import static dev.morphia.mapping.codec.Conversions.convert;
@@ -42,6 +46,7 @@ public class MorphiaCodec<T> implements CollectibleCodec<T> {
     private final PropertyCodecRegistry propertyCodecRegistry;
     private final DiscriminatorLookup discriminatorLookup;
     private final Datastore datastore;
+    private final Instrumentation instrumentation;
     private EntityEncoder<T> encoder;
     private EntityDecoder<T> decoder;
 
@@ -64,17 +69,46 @@ public class MorphiaCodec<T> implements CollectibleCodec<T> {
         this.registry = fromRegistries(fromCodecs(this), registry);
         this.propertyCodecRegistry = new PropertyCodecRegistryImpl(this, registry, propertyCodecProviders);
         idProperty = model.getIdProperty();
+        instrumentation = datastore.getMapper().getOptions().getInstrumentation();
+        datastore.getMapper().ensureValidated(model);
         specializePropertyCodecs();
     }
 
     @Override
     public T decode(BsonReader reader, DecoderContext decoderContext) {
-        return getDecoder().decode(reader, decoderContext);
+        if (!instrumentation.isEnabled()) {
+            return getDecoder().decode(reader, decoderContext);
+        }
+        MappingTimer timer = MappingTimer.get();
+        long start = timer.start();
+        try {
+            return getDecoder().decode(reader, decoderContext);
+        } finally {
+            long elapsed = timer.stop(start);
+            if (elapsed >= 0) {
+                instrumentation.decoded(entityModel.getType(), elapsed);
+            }
+        }
     }
 
     @Override
     public void encode(BsonWriter writer, T value, EncoderContext encoderContext) {
-        getEncoder().encode(writer, value, encoderContext);
+        if (!instrumentation.isEnabled()) {
+            getEncoder().encode(writer, value, encoderContext);
+            return;
+        }
+        BsonOutput output = writer instanceof BsonBinaryWriter ? ((BsonBinaryWriter) writer).getBsonOutput() : null;
+        long position = output != null ? output.getPosition() : 0;
+        MappingTimer timer = MappingTimer.get();
+        long start = timer.start();
+        try {
+            getEncoder().encode(writer, value, encoderContext);
+        } finally {
+            long elapsed = timer.stop(start);
+            if (elapsed >= 0) {
+                instrumentation.encoded(entityModel.getType(), output != null ? output.getPosition() - position : -1, elapsed);
+            }
+        }
     }
 
     @Override
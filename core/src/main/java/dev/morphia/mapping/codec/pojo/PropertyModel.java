@@ -18,7 +18,9 @@ package dev.morphia.mapping.codec.pojo;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -46,6 +48,8 @@ import dev.morphia.mapping.codec.MorphiaPropertySerialization;
 import dev.morphia.mapping.codec.references.MorphiaProxy;
 import dev.morphia.sofia.Sofia;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 import org.bson.Document;
 import org.bson.codecs.Codec;
 import org.bson.codecs.pojo.PropertyAccessor;
@@ -64,6 +68,8 @@ public final class PropertyModel {
     private final String name;
     private final TypeData<?> typeData;
     private final String mappedName;
+    @Nullable
+    private final byte[] encodedName;
     private final PropertyAccessor<? super Object> accessor;
     private final MorphiaPropertySerialization serialization;
     private final Map<Class<? extends Annotation>, Annotation> annotationMap = new HashMap<>();
@@ -76,6 +82,7 @@ public final class PropertyModel {
         entityModel = builder.owner();
         name = Objects.requireNonNull(builder.name(), Sofia.notNull("name"));
         mappedName = Objects.requireNonNull(builder.mappedName(), Sofia.notNull("name"));
+        encodedName = encode(mappedName);
         typeData = Objects.requireNonNull(builder.typeData(), Sofia.notNull("typeData"));
         accessor = builder.accessor();
         serialization = builder.serialization();
@@ -139,6 +146,14 @@ public final class PropertyModel {
         return type.cast(annotationMap.get(type));
     }
 
+    /**
+     * @return the annotations discovered on this property
+     * @since 2.4
+     */
+    public Collection<Annotation> getAnnotations() {
+        return Collections.unmodifiableCollection(annotationMap.values());
+    }
+
     Codec<?> getCodec() {
         return codec;
     }
@@ -186,6 +201,22 @@ public final class PropertyModel {
         return mappedName;
     }
 
+    /**
+     * Returns the mapped name encoded as a BSON C string, i.e., its UTF-8 bytes followed by a zero byte, so that encoding entities does
+     * not need to encode the name for every document. The array is shared and must not be modified.
+     *
+     * @return the encoded name or null if the name can not be written as a C string
+     * @morphia.internal
+     * @see dev.morphia.mapping.codec.writer.EncodedNameOutput
+     * @since 2.4
+     */
+    @Nullable
+    @MorphiaInternal
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public byte[] getEncodedName() {
+        return encodedName;
+    }
+
     /**
      * @return the field name for the model
      */
@@ -391,6 +422,15 @@ public final class PropertyModel {
         return handler;
     }
 
+    @Nullable
+    private static byte[] encode(String name) {
+        if (name.indexOf('\0') != -1) {
+            return null;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return Arrays.copyOf(bytes, bytes.length + 1);
+    }
+
     private boolean isCollection() {
         return Collection.class.isAssignableFrom(getTypeData().getType());
     }
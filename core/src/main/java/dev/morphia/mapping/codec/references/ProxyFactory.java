@@ -0,0 +1,158 @@
+package dev.morphia.mapping.codec.references;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.morphia.annotations.Reference;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MappingException;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.ByteCodeElement;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType.Builder;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy.Default;
+import net.bytebuddy.implementation.InvocationHandlerAdapter;
+import net.bytebuddy.matcher.ElementMatcher.Junction;
+import net.bytebuddy.matcher.ElementMatchers;
+
+/**
+ * Generates and holds the proxy classes used for lazy references. A single proxy class is generated per referenced type and shared by
+ * every lazy reference property of that type across all the mapper's entities.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public final class ProxyFactory {
+    /**
+     * Name of instance field that holds the invocation handler of the proxy object.
+     */
+    private static final String FIELD_INVOCATION_HANDLER = "handler";
+
+    private final Mapper mapper;
+    private final Map<Class<?>, ProxyClass> proxies = new ConcurrentHashMap<>();
+    private final AtomicLong generated = new AtomicLong();
+
+    /**
+     * @param mapper the mapper to use
+     */
+    public ProxyFactory(Mapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates a proxy of the given type delegating to a reference.
+     *
+     * @param type    the referenced type
+     * @param handler the handler to delegate to
+     * @param <T>     the referenced type
+     * @return the new proxy
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T createProxy(Class<?> type, InvocationHandler handler) {
+        try {
+            ProxyClass proxyClass = proxyClass(type);
+            T proxy = (T) proxyClass.constructor.newInstance();
+            proxyClass.handler.set(proxy, handler);
+            return proxy;
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new MappingException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of proxy classes generated
+     */
+    public long getGenerated() {
+        return generated.get();
+    }
+
+    /**
+     * Generates the proxy classes for the lazy references of a model ahead of their first use.
+     *
+     * @param model the model to prepare
+     */
+    public void prepare(EntityModel model) {
+        for (PropertyModel property : model.getProperties(Reference.class)) {
+            Reference reference = property.getAnnotation(Reference.class);
+            if (reference != null && reference.lazy()) {
+                proxyClass(property.getType());
+            }
+        }
+    }
+
+    /**
+     * @return the number of proxy classes held
+     */
+    public int size() {
+        return proxies.size();
+    }
+
+    private ProxyClass proxyClass(Class<?> type) {
+        ProxyClass proxyClass = proxies.get(type);
+        if (proxyClass == null) {
+            // computeIfAbsent is avoided so that class generation doesn't pin virtual threads. a racing thread might generate a
+            // duplicate class but only the first one inserted is ever handed out.
+            long start = System.nanoTime();
+            ProxyClass created = new ProxyClass(makeProxy(type));
+            generated.incrementAndGet();
+            mapper.getOptions().getInstrumentation().proxyGenerated(type, System.nanoTime() - start);
+            proxyClass = proxies.putIfAbsent(type, created);
+            if (proxyClass == null) {
+                proxyClass = created;
+            }
+        }
+        return proxyClass;
+    }
+
+    private static Class<?> makeProxy(Class<?> type) {
+        // classes can't be defined in the java packages so proxies of collection types are named after this package instead
+        String name = type.getName().startsWith("java.")
+                ? ProxyFactory.class.getPackageName() + "." + type.getName().replace('.', '_')
+                : type.getName();
+        Builder<?> builder = new ByteBuddy()
+                .subclass(type)
+                .implement(MorphiaProxy.class)
+                .name(name + "$$ReferenceProxy");
+
+        Junction<ByteCodeElement> matcher = ElementMatchers.isDeclaredBy(type);
+        if (!type.isInterface()) {
+            Class<?> superclass = type.getSuperclass();
+            while (superclass != null && !superclass.equals(Object.class)) {
+                matcher = matcher.or(ElementMatchers.isDeclaredBy(superclass));
+                superclass = superclass.getSuperclass();
+            }
+        }
+
+        return builder
+                .invokable(matcher.or(ElementMatchers.isDeclaredBy(MorphiaProxy.class)))
+                .intercept(InvocationHandlerAdapter.toField(FIELD_INVOCATION_HANDLER))
+                .defineField(FIELD_INVOCATION_HANDLER, InvocationHandler.class, Visibility.PRIVATE)
+                .make()
+                .load(Thread.currentThread().getContextClassLoader(), Default.WRAPPER)
+                .getLoaded();
+    }
+
+    private static final class ProxyClass {
+        private final Constructor<?> constructor;
+        private final Field handler;
+
+        private ProxyClass(Class<?> type) {
+            try {
+                constructor = type.getDeclaredConstructor();
+                handler = type.getDeclaredField(FIELD_INVOCATION_HANDLER);
+                handler.setAccessible(true);
+            } catch (NoSuchMethodException | NoSuchFieldException e) {
+                throw new MappingException(e.getMessage(), e);
+            }
+        }
+    }
+}
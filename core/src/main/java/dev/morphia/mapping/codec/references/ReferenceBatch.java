@@ -0,0 +1,154 @@
+package dev.morphia.mapping.codec.references;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.cache.EntityCache;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.experimental.SingleReference;
+import dev.morphia.transactions.IdentityMap;
+
+import org.bson.BsonValue;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import static dev.morphia.query.filters.Filters.in;
+
+/**
+ * Collects the lazy references decoded from a batch of query results so that they can be loaded together. The first reference to be
+ * loaded loads every pending reference to the same type with a single {@code $in} query, queried as the reference would be queried on its
+ * own. Loaded entities are matched to their
+ * references by {@link IdentityMap#key(CodecRegistry, Object) encoded ID} so that, e.g., an int ID in a reference finds an entity with a
+ * long ID.
+ *
+ * @morphia.internal
+ * @see dev.morphia.mapping.MapperOptions.Builder#batchLazyReferences(boolean)
+ * @since 2.4
+ */
+@MorphiaInternal
+public final class ReferenceBatch {
+    private static final ThreadLocal<ReferenceBatch> CURRENT = new ThreadLocal<>();
+
+    private final Datastore datastore;
+    private final Map<Class<?>, List<SingleReference<?>>> pending = new HashMap<>();
+    /**
+     * A j.u.c. lock rather than a monitor so that virtual threads loading references are not pinned to their carrier.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param datastore the datastore to load with
+     */
+    public ReferenceBatch(Datastore datastore) {
+        this.datastore = datastore;
+    }
+
+    /**
+     * @return the batch bound to the current thread or null if there is none
+     */
+    @Nullable
+    public static ReferenceBatch current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds a batch to the current thread for the duration of the given work. References decoded during the work join the batch.
+     *
+     * @param batch    the batch to bind
+     * @param supplier the work to perform
+     * @param <T>      the result type
+     * @return the result of the work
+     */
+    public static <T> T with(ReferenceBatch batch, Supplier<T> supplier) {
+        ReferenceBatch previous = CURRENT.get();
+        CURRENT.set(batch);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Loads the given reference along with every other pending reference to the same type.
+     *
+     * @param reference the reference being loaded
+     */
+    public void load(SingleReference<?> reference) {
+        Class<?> type = reference.getQueryType();
+        List<SingleReference<?>> references;
+        lock.lock();
+        try {
+            references = pending.remove(type);
+        } finally {
+            lock.unlock();
+        }
+        if (references == null) {
+            // another thread is already loading this batch so load this one alone rather than waiting on it
+            references = new ArrayList<>();
+        }
+        if (!references.contains(reference)) {
+            references.add(reference);
+        }
+        Map<BsonValue, Object> entities = query(type, references);
+        CodecRegistry codecRegistry = datastore.getCodecRegistry();
+        for (SingleReference<?> loaded : references) {
+            loaded.complete(entities.get(IdentityMap.key(codecRegistry, loaded.getIds().get(0))));
+        }
+    }
+
+    /**
+     * Adds a reference to the batch.
+     *
+     * @param reference the reference to add
+     */
+    public void register(SingleReference<?> reference) {
+        lock.lock();
+        try {
+            pending.computeIfAbsent(reference.getQueryType(), k -> new ArrayList<>()).add(reference);
+        } finally {
+            lock.unlock();
+        }
+        reference.batch(this);
+    }
+
+    private Map<BsonValue, Object> query(Class<?> type, List<SingleReference<?>> references) {
+        List<Object> ids = new ArrayList<>();
+        for (SingleReference<?> reference : references) {
+            ids.add(reference.getIds().get(0));
+        }
+        Mapper mapper = datastore.getMapper();
+        CodecRegistry codecRegistry = datastore.getCodecRegistry();
+        Map<BsonValue, Object> entities = new HashMap<>();
+        EntityCache cache = datastore instanceof DatastoreImpl ? ((DatastoreImpl) datastore).getEntityCache() : null;
+        EntityModel model = mapper.getEntityModel(type);
+        if (cache != null && EntityCache.isCached(model)) {
+            for (Object entity : cache.find((DatastoreImpl) datastore, datastore.getCollection(type), model, ids)) {
+                entities.put(IdentityMap.key(codecRegistry, mapper.getId(entity)), entity);
+            }
+        } else {
+            try (MongoCursor<?> cursor = datastore.find(type)
+                    .filter(in("_id", ids)).iterator()) {
+                while (cursor.hasNext()) {
+                    Object entity = cursor.next();
+                    entities.put(IdentityMap.key(codecRegistry, mapper.getId(entity)), entity);
+                }
+            }
+        }
+        return entities;
+    }
+}
@@ -1,7 +1,5 @@
 package dev.morphia.mapping.codec.references;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationHandler;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -49,19 +47,7 @@ import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
 import org.bson.codecs.configuration.CodecConfigurationException;
 
-import net.bytebuddy.ByteBuddy;
-import net.bytebuddy.TypeCache;
-import net.bytebuddy.TypeCache.Sort;
-import net.bytebuddy.description.ByteCodeElement;
-import net.bytebuddy.description.modifier.Visibility;
-import net.bytebuddy.dynamic.DynamicType.Builder;
-import net.bytebuddy.dynamic.loading.ClassLoadingStrategy.Default;
-import net.bytebuddy.implementation.InvocationHandlerAdapter;
-import net.bytebuddy.matcher.ElementMatcher.Junction;
-import net.bytebuddy.matcher.ElementMatchers;
-
 import static dev.morphia.aggregation.codecs.ExpressionHelper.document;
-import static java.lang.String.format;
 
 /**
  * @morphia.internal
@@ -73,15 +59,6 @@ public class ReferenceCodec extends BaseReferenceCodec<Object> implements Proper
     private final BsonTypeClassMap bsonTypeClassMap = new BsonTypeClassMap();
     private final Mapper mapper;
 
-    /**
-     * Name of instance field that holds the invocation handler of the proxy object.
-     */
-    private static final String FIELD_INVOCATION_HANDLER = "handler";
-    /**
-     * Type-cache for proxy classes generated w/ Byte Buddy.
-     */
-    private final TypeCache<TypeCache.SimpleKey> typeCache = new TypeCache.WithInlineExpunction<>(Sort.SOFT);
-
     /**
      * Creates a codec
      *
@@ -144,28 +121,46 @@ public class ReferenceCodec extends BaseReferenceCodec<Object> implements Proper
      */
     @NonNull
     public static Object processId(Datastore datastore, Object decode, DecoderContext decoderContext) {
+        return processId(datastore, decode, decoderContext, null);
+    }
+
+    /**
+     * Decodes an ID value. Embedded documents are recognized as whole entities if they carry either the mapper's discriminator key or
+     * the discriminator key of the referenced entity type.
+     *
+     * @param datastore      the Datastore to use
+     * @param decode         the value to decode
+     * @param decoderContext the decoder context
+     * @param target         the referenced entity type, if known
+     * @return the decoded value
+     * @since 2.4
+     */
+    @NonNull
+    public static Object processId(Datastore datastore, Object decode, DecoderContext decoderContext, @Nullable EntityModel target) {
         Object id = decode;
         if (id instanceof Iterable) {
             Iterable<?> iterable = (Iterable<?>) id;
             List<Object> ids = new ArrayList<>();
             for (Object o : iterable) {
-                ids.add(processId(datastore, o, decoderContext));
+                ids.add(processId(datastore, o, decoderContext, target));
             }
             id = ids;
         } else if (id instanceof Document) {
             Document document = (Document) id;
             if (document.containsKey("$ref")) {
                 id = processId(datastore, new DBRef(document.getString("$db"), document.getString("$ref"), document.get("$id")),
-                        decoderContext);
-            } else if (document.containsKey(datastore.getMapper().getOptions().getDiscriminatorKey())) {
-                try {
-                    id = datastore.getCodecRegistry()
-                            .get(datastore.getMapper().getClass(document))
-                            .decode(new DocumentReader(document), decoderContext);
-                } catch (CodecConfigurationException e) {
-                    throw new MappingException(Sofia.cannotFindTypeInDocument(), e);
+                        decoderContext, target);
+            } else {
+                Class<?> type = discriminated(datastore.getMapper(), document, target);
+                if (type != null) {
+                    try {
+                        id = datastore.getCodecRegistry()
+                                .get(type)
+                                .decode(new DocumentReader(document), decoderContext);
+                    } catch (CodecConfigurationException e) {
+                        throw new MappingException(Sofia.cannotFindTypeInDocument(), e);
+                    }
                 }
-
             }
         } else if (id instanceof DBRef) {
             DBRef ref = (DBRef) id;
@@ -180,20 +175,33 @@ public class ReferenceCodec extends BaseReferenceCodec<Object> implements Proper
         return id;
     }
 
+    @Nullable
+    private static Class<?> discriminated(Mapper mapper, Document document, @Nullable EntityModel target) {
+        String key = mapper.getOptions().getDiscriminatorKey();
+        if (!document.containsKey(key) && target != null) {
+            key = target.getDiscriminatorKey();
+        }
+        Object discriminator = document.get(key);
+        if (discriminator == null) {
+            return null;
+        }
+        Class<?> type = mapper.getClass(discriminator.toString());
+        if (type == null) {
+            throw new MappingException(Sofia.cannotFindTypeInDocument());
+        }
+        return type;
+    }
+
     @Nullable
     @Override
     public Object decode(BsonReader reader, DecoderContext decoderContext) {
         Object decode = getDatastore().getCodecRegistry()
                 .get(bsonTypeClassMap.get(reader.getCurrentBsonType()))
                 .decode(reader, decoderContext);
-        decode = processId(getDatastore(), decode, decoderContext);
+        decode = processId(getDatastore(), decode, decoderContext, getEntityModelForField());
         return fetch(decode);
     }
 
-    private static TypeCache.SimpleKey getCacheKey(Class<?> type) {
-        return new TypeCache.SimpleKey(type, Arrays.asList(type.getInterfaces()));
-    }
-
     @Override
     public Object encode(Object value) {
         try {
@@ -255,22 +263,7 @@ public class ReferenceCodec extends BaseReferenceCodec<Object> implements Proper
     }
 
     private <T> T createProxy(MorphiaReference<?> reference) {
-        ReferenceProxy referenceProxy = new ReferenceProxy(reference);
-        PropertyModel propertyModel = getPropertyModel();
-        try {
-            Class<?> type = propertyModel.getType();
-            // Get or create proxy class
-            Class<T> proxyClass = (Class<T>) typeCache.findOrInsert(type.getClassLoader(), getCacheKey(type), this::makeProxy, typeCache);
-            //... instantiate it
-            final T proxy = proxyClass.getDeclaredConstructor().newInstance();
-            // .. and set the invocation handler
-            final Field field = proxyClass.getDeclaredField(FIELD_INVOCATION_HANDLER);
-            field.setAccessible(true);
-            field.set(proxy, referenceProxy);
-            return proxy;
-        } catch (ReflectiveOperationException | IllegalArgumentException e) {
-            throw new MappingException(e.getMessage(), e);
-        }
+        return mapper.getProxyFactory().createProxy(getPropertyModel().getType(), new ReferenceProxy(reference));
     }
 
     /**
@@ -309,32 +302,6 @@ public class ReferenceCodec extends BaseReferenceCodec<Object> implements Proper
         return idValue;
     }
 
-    private <T> Class<T> makeProxy() {
-        PropertyModel propertyModel = getPropertyModel();
-        Class<?> type = propertyModel.getType();
-        Builder<?> builder = new ByteBuddy()
-                .subclass(type)
-                .implement(MorphiaProxy.class)
-                .name(format("%s$%s$$ReferenceProxy", propertyModel.getEntityModel().getName(), propertyModel.getName()));
-
-        Junction<ByteCodeElement> matcher = ElementMatchers.isDeclaredBy(type);
-        if (!type.isInterface()) {
-            type = type.getSuperclass();
-            while (type != null && !type.equals(Object.class)) {
-                matcher = matcher.or(ElementMatchers.isDeclaredBy(type));
-                type = type.getSuperclass();
-            }
-        }
-
-        return (Class<T>) builder
-                .invokable(matcher.or(ElementMatchers.isDeclaredBy(MorphiaProxy.class)))
-                .intercept(InvocationHandlerAdapter.toField(FIELD_INVOCATION_HANDLER))
-                .defineField(FIELD_INVOCATION_HANDLER, InvocationHandler.class, Visibility.PRIVATE)
-                .make()
-                .load(Thread.currentThread().getContextClassLoader(), Default.WRAPPER)
-                .getLoaded();
-    }
-
     @Nullable
     private Object fetch(Object value) {
         MorphiaReference<?> reference;
@@ -354,7 +321,14 @@ public class ReferenceCodec extends BaseReferenceCodec<Object> implements Proper
         }
         reference.ignoreMissing(annotation.ignoreMissing());
 
-        return !annotation.lazy() ? reference.get() : createProxy(reference);
+        if (!annotation.lazy()) {
+            return reference.get();
+        }
+        ReferenceBatch batch = ReferenceBatch.current();
+        if (batch != null && reference instanceof SingleReference && !reference.isResolved()) {
+            batch.register((SingleReference<?>) reference);
+        }
+        return createProxy(reference);
     }
 
     private List<?> mapToEntitiesIfNecessary(List<?> value) {
@@ -0,0 +1,189 @@
+package dev.morphia.mapping.codec.writer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+
+/**
+ * A pool of reusable buffers for encoding batches of entities ahead of a write. Buffers are pooled by capacity, always a power of two,
+ * and are sized from the average size of the documents encoded so far so that a batch usually fits in a handful of buffers. Buffers
+ * released once the pool holds its capacity are left to the garbage collector.
+ *
+ * @morphia.internal
+ * @see dev.morphia.InsertManyOptions#pooledBuffers(boolean)
+ * @since 2.4
+ */
+@MorphiaInternal
+public class BufferPool {
+    /**
+     * The default maximum total size in bytes of the idle buffers held by a pool
+     */
+    public static final long DEFAULT_CAPACITY = 64L * 1024 * 1024;
+    /**
+     * The smallest buffer handed out
+     */
+    public static final int MIN_BUFFER_SIZE = 64 * 1024;
+    /**
+     * The largest buffer handed out for a batch. Single documents larger than this get a buffer of their own.
+     */
+    public static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private final long capacity;
+    private final Map<Integer, Deque<ByteBuffer>> heap = new HashMap<>();
+    private final Map<Integer, Deque<ByteBuffer>> direct = new HashMap<>();
+    private long pooledBytes;
+    private int pooledBuffers;
+    private long bytesInUse;
+    private int buffersInUse;
+    private long allocations;
+    private long reuses;
+    private double averageDocumentSize;
+
+    /**
+     * Creates a pool
+     *
+     * @param capacity the maximum total size in bytes of the idle buffers to hold
+     */
+    public BufferPool(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Hands out a buffer of at least the size given. The buffer is cleared and little endian.
+     *
+     * @param size     the minimum size of the buffer
+     * @param isDirect true if the buffer should be allocated outside of the heap
+     * @return the buffer
+     */
+    public synchronized ByteBuffer acquire(int size, boolean isDirect) {
+        int bufferSize = Math.max(MIN_BUFFER_SIZE, nextPowerOfTwo(size));
+        Deque<ByteBuffer> idle = pools(isDirect).get(bufferSize);
+        ByteBuffer buffer = idle != null ? idle.poll() : null;
+        if (buffer != null) {
+            reuses++;
+            pooledBuffers--;
+            pooledBytes -= bufferSize;
+            buffer.clear();
+        } else {
+            allocations++;
+            buffer = isDirect ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffersInUse++;
+        bytesInUse += bufferSize;
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer must not be used afterwards.
+     *
+     * @param buffer the buffer
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        int bufferSize = buffer.capacity();
+        buffersInUse--;
+        bytesInUse -= bufferSize;
+        if (pooledBytes + bufferSize <= capacity) {
+            pools(buffer.isDirect()).computeIfAbsent(bufferSize, s -> new ArrayDeque<>())
+                    .push(buffer);
+            pooledBuffers++;
+            pooledBytes += bufferSize;
+        }
+    }
+
+    /**
+     * Records the size of an encoded document so later batches can be sized from it.
+     *
+     * @param size the size in bytes
+     */
+    public synchronized void record(int size) {
+        averageDocumentSize = averageDocumentSize == 0 ? size : averageDocumentSize + (size - averageDocumentSize) / 16;
+    }
+
+    /**
+     * Estimates the size of the buffers to encode a batch with from the documents encoded so far.
+     *
+     * @param count the number of documents in the batch
+     * @return the buffer size
+     */
+    public synchronized int bufferSize(int count) {
+        long estimate = (long) Math.ceil(averageDocumentSize) * count;
+        return (int) Math.min(MAX_BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, estimate));
+    }
+
+    /**
+     * @return the number of buffers which had to be allocated
+     */
+    public synchronized long getAllocations() {
+        return allocations;
+    }
+
+    /**
+     * @return the moving average size in bytes of the documents encoded
+     */
+    public synchronized int getAverageDocumentSize() {
+        return (int) averageDocumentSize;
+    }
+
+    /**
+     * @return the number of buffers handed out and not yet released
+     */
+    public synchronized int getBuffersInUse() {
+        return buffersInUse;
+    }
+
+    /**
+     * @return the total size in bytes of the buffers handed out and not yet released
+     */
+    public synchronized long getBytesInUse() {
+        return bytesInUse;
+    }
+
+    /**
+     * @return the maximum total size in bytes of the idle buffers held
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of idle buffers held
+     */
+    public synchronized int getPooledBuffers() {
+        return pooledBuffers;
+    }
+
+    /**
+     * @return the total size in bytes of the idle buffers held
+     */
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    /**
+     * @return the number of buffers handed out from the pool rather than allocated
+     */
+    public synchronized long getReuses() {
+        return reuses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("BufferPool{pooledBuffers=%d, pooledBytes=%d, buffersInUse=%d, bytesInUse=%d, allocations=%d, reuses=%d}",
+                pooledBuffers, pooledBytes, buffersInUse, bytesInUse, allocations, reuses);
+    }
+
+    private static int nextPowerOfTwo(int size) {
+        int highest = Integer.highestOneBit(Math.max(1, size));
+        return highest == size ? size : highest << 1;
+    }
+
+    private Map<Integer, Deque<ByteBuffer>> pools(boolean isDirect) {
+        return isDirect ? direct : heap;
+    }
+}
@@ -0,0 +1,148 @@
+package dev.morphia.mapping.codec.writer;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mongodb.client.MongoCollection;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import static org.bson.codecs.configuration.CodecRegistries.fromCodecs;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+
+/**
+ * Encodes a batch of entities in to pooled buffers ahead of a write. The collection returned by
+ * {@link #collection(MongoCollection)} copies the encoded bytes of each entity in the batch rather than encoding it again so the entities
+ * themselves can still be passed through to the driver. The buffers are returned to the pool when the batch is closed.
+ *
+ * @param <T> the entity type
+ * @morphia.internal
+ * @see dev.morphia.InsertManyOptions#pooledBuffers(boolean)
+ * @since 2.4
+ */
+@MorphiaInternal
+@SuppressWarnings("unchecked")
+public class EncodedBatch<T> implements AutoCloseable {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder()
+            .isEncodingCollectibleDocument(true)
+            .build();
+
+    private final BufferPool pool;
+    private final Codec<T> codec;
+    private final PooledBsonOutput output;
+    private final Map<T, ByteBuffer> documents = new IdentityHashMap<>();
+    private long bytes;
+
+    /**
+     * Encodes a batch. Any missing IDs are generated first.
+     *
+     * @param pool     the pool to take buffers from
+     * @param codec    the codec for the entities
+     * @param entities the entities
+     * @param isDirect true if the buffers should be allocated outside of the heap
+     */
+    public EncodedBatch(BufferPool pool, Codec<T> codec, List<T> entities, boolean isDirect) {
+        this.pool = pool;
+        this.codec = codec;
+        output = new PooledBsonOutput(pool, pool.bufferSize(entities.size()), isDirect);
+        try {
+            for (T entity : entities) {
+                encode(entity);
+            }
+        } catch (RuntimeException e) {
+            output.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @param collection the collection to write to
+     * @return the collection configured to write the encoded documents of this batch
+     */
+    public MongoCollection<T> collection(MongoCollection<T> collection) {
+        return collection.withCodecRegistry(fromRegistries(fromCodecs(new EncodedCodec()), collection.getCodecRegistry()));
+    }
+
+    /**
+     * @return the total size in bytes of the encoded documents
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of encoded documents
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    @Override
+    public void close() {
+        documents.clear();
+        output.release();
+    }
+
+    private void encode(T entity) {
+        if (codec instanceof CollectibleCodec) {
+            ((CollectibleCodec<T>) codec).generateIdIfAbsentFromDocument(entity);
+        }
+        output.begin();
+        codec.encode(new BsonBinaryWriter(output), entity, ENCODER_CONTEXT);
+        ByteBuffer document = output.end();
+        pool.record(document.remaining());
+        bytes += document.remaining();
+        documents.put(entity, document);
+    }
+
+    private class EncodedCodec implements CollectibleCodec<T> {
+        @Override
+        public T decode(BsonReader reader, DecoderContext decoderContext) {
+            return codec.decode(reader, decoderContext);
+        }
+
+        @Override
+        public boolean documentHasId(T document) {
+            return !(codec instanceof CollectibleCodec) || ((CollectibleCodec<T>) codec).documentHasId(document);
+        }
+
+        @Override
+        public void encode(BsonWriter writer, T value, EncoderContext encoderContext) {
+            ByteBuffer document = documents.get(value);
+            if (document != null) {
+                writer.pipe(new BsonBinaryReader(document.duplicate()));
+            } else {
+                codec.encode(writer, value, encoderContext);
+            }
+        }
+
+        @Override
+        public T generateIdIfAbsentFromDocument(T document) {
+            return codec instanceof CollectibleCodec
+                    ? ((CollectibleCodec<T>) codec).generateIdIfAbsentFromDocument(document)
+                    : document;
+        }
+
+        @Override
+        public Class<T> getEncoderClass() {
+            return codec.getEncoderClass();
+        }
+
+        @Override
+        public BsonValue getDocumentId(T document) {
+            return ((CollectibleCodec<T>) codec).getDocumentId(document);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dev.morphia.mapping.codec.writer;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+
+/**
+ * A BSON output which can write names encoded ahead of time. Before a {@link org.bson.BsonBinaryWriter} writing to such an output is
+ * given a name, the encoded form of that name is passed here so that when the writer writes the name, the encoded bytes are copied
+ * rather than the string encoded again. Names are matched by identity so any other string is encoded as usual.
+ *
+ * @morphia.internal
+ * @see dev.morphia.mapping.codec.pojo.PropertyModel#getEncodedName()
+ * @since 2.4
+ */
+@MorphiaInternal
+public interface EncodedNameOutput {
+    /**
+     * Supplies the encoded form of the next name to be written.
+     *
+     * @param name    the name
+     * @param encoded the name encoded as a BSON C string including the terminating zero
+     */
+    void nextName(String name, byte[] encoded);
+}
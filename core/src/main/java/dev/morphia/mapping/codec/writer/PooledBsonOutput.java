@@ -0,0 +1,188 @@
+package dev.morphia.mapping.codec.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mongodb.lang.Nullable;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import org.bson.ByteBuf;
+import org.bson.ByteBufNIO;
+import org.bson.io.OutputBuffer;
+
+/**
+ * Writes a sequence of documents in to buffers from a {@link BufferPool}. Positions are relative to the start of the current document
+ * so that a document which outgrows its buffer can be moved to a larger one part way through.
+ */
+final class PooledBsonOutput extends OutputBuffer implements EncodedNameOutput {
+    private final BufferPool pool;
+    private final int bufferSize;
+    private final boolean isDirect;
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private ByteBuffer current;
+    private int start;
+    @Nullable
+    private String nextName;
+    @Nullable
+    private byte[] nextEncodedName;
+
+    PooledBsonOutput(BufferPool pool, int bufferSize, boolean isDirect) {
+        this.pool = pool;
+        this.bufferSize = bufferSize;
+        this.isDirect = isDirect;
+        current = acquire(bufferSize);
+    }
+
+    /**
+     * Starts a new document
+     */
+    void begin() {
+        start = current.position();
+    }
+
+    /**
+     * @return a view of the bytes of the document written since {@link #begin()}
+     */
+    ByteBuffer end() {
+        ByteBuffer document = current.duplicate();
+        document.limit(current.position());
+        document.position(start);
+        return document.slice();
+    }
+
+    /**
+     * Returns every buffer used to the pool. Any views returned by {@link #end()} are invalid afterwards.
+     */
+    void release() {
+        for (ByteBuffer buffer : buffers) {
+            pool.release(buffer);
+        }
+        buffers.clear();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public List<ByteBuf> getByteBuffers() {
+        return List.of(new ByteBufNIO(end()));
+    }
+
+    @Override
+    public int getPosition() {
+        return current.position() - start;
+    }
+
+    @Override
+    public int getSize() {
+        return getPosition();
+    }
+
+    @Override
+    public int pipe(OutputStream out) throws IOException {
+        ByteBuffer document = end();
+        byte[] bytes = new byte[document.remaining()];
+        document.get(bytes);
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    @Override
+    public void truncateToPosition(int newPosition) {
+        current.position(start + newPosition);
+    }
+
+    @Override
+    public void writeByte(int value) {
+        ensure(1);
+        current.put((byte) value);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        current.put(bytes, offset, length);
+    }
+
+    @Override
+    public void nextName(String name, byte[] encoded) {
+        nextName = name;
+        nextEncodedName = encoded;
+    }
+
+    @Override
+    @SuppressFBWarnings("ES_COMPARING_PARAMETER_STRING_WITH_EQ")
+    public void writeCString(String value) {
+        byte[] encoded = nextEncodedName;
+        // names are matched by identity so only the exact string the encoded bytes were made from is replaced
+        if (encoded != null && value == nextName) {
+            writeBytes(encoded, 0, encoded.length);
+            nextName = null;
+            nextEncodedName = null;
+        } else {
+            super.writeCString(value);
+        }
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        ensure(8);
+        current.putDouble(value);
+    }
+
+    @Override
+    public void writeInt32(int value) {
+        ensure(4);
+        current.putInt(value);
+    }
+
+    @Override
+    public void writeInt32(int position, int value) {
+        current.putInt(start + position, value);
+    }
+
+    @Override
+    public void writeInt64(long value) {
+        ensure(8);
+        current.putLong(value);
+    }
+
+    @Override
+    protected void write(int position, int value) {
+        current.put(start + position, (byte) value);
+    }
+
+    private ByteBuffer acquire(int size) {
+        ByteBuffer buffer = pool.acquire(size, isDirect);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private void ensure(int size) {
+        if (current.remaining() >= size) {
+            return;
+        }
+        int length = current.position() - start;
+        ByteBuffer previous = current;
+        ByteBuffer partial = previous.duplicate();
+        partial.limit(previous.position());
+        partial.position(start);
+
+        // a buffer holding only the document being moved is released rather than kept for the rest of the batch
+        boolean empty = start == 0;
+        if (empty) {
+            buffers.remove(buffers.size() - 1);
+        }
+        current = acquire(Math.max(bufferSize, (length + size) * 2));
+        current.put(partial);
+        if (empty) {
+            pool.release(previous);
+        }
+        start = 0;
+    }
+}
@@ -20,8 +20,6 @@ import dev.morphia.mapping.codec.pojo.EntityModelBuilder;
 import dev.morphia.mapping.codec.pojo.TypeData;
 import dev.morphia.sofia.Sofia;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-
 import org.jetbrains.annotations.NotNull;
 
 import static java.util.Arrays.stream;
@@ -29,14 +27,9 @@ import static java.util.stream.Collectors.toList;
 
 @MorphiaInternal
 public class MethodDiscovery implements MorphiaConvention {
-    private EntityModelBuilder entityModelBuilder;
-
     @Override
-    @SuppressFBWarnings("EI_EXPOSE_REP2")
     public void apply(Mapper mapper, EntityModelBuilder builder) {
         if (builder.propertyModels().isEmpty()) {
-            this.entityModelBuilder = builder;
-
             Set<Class<?>> hierarchy = new LinkedHashSet<>(Set.of(builder.type()));
             hierarchy.addAll(builder.classHierarchy());
 
@@ -64,10 +57,10 @@ public class MethodDiscovery implements MorphiaConvention {
 
     private void addProperties(EntityModelBuilder builder, Set<Methods> properties) {
         for (Methods methods : properties) {
-            TypeData<?> typeData = entityModelBuilder.getTypeData(methods.type, TypeData.newInstance(methods.getter),
+            TypeData<?> typeData = builder.getTypeData(methods.type, TypeData.newInstance(methods.getter),
                     methods.getter.getGenericReturnType());
 
-            entityModelBuilder.addProperty()
+            builder.addProperty()
                     .name(methods.property)
                     .accessor(new MethodAccessor(getTargetMethod(builder, methods.getter),
                             getTargetMethod(builder, methods.setter)))
@@ -9,18 +9,27 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import com.mongodb.DBRef;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
 
 import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
 import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.cache.EntityCache;
 import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MappingException;
 import dev.morphia.mapping.codec.pojo.EntityModel;
 import dev.morphia.mapping.codec.references.ReferenceCodec;
 import dev.morphia.mapping.lazy.proxy.ReferenceException;
 import dev.morphia.sofia.Sofia;
+import dev.morphia.transactions.IdentityMap;
+import dev.morphia.transactions.MorphiaSession;
 
 import static dev.morphia.query.filters.Filters.in;
 import static java.util.Arrays.asList;
@@ -36,10 +45,13 @@ public abstract class CollectionReference<C extends Collection> extends MorphiaR
     private final Map<String, List<Object>> collections = new HashMap<>();
     private EntityModel entityModel;
     private List ids;
+    @Nullable
+    private IdentityMap identityMap;
 
     protected CollectionReference(Datastore datastore, Mapper mapper, EntityModel entityModel, List ids) {
         super(datastore, mapper);
         this.entityModel = entityModel;
+        this.identityMap = IdentityMap.current();
         if (ids != null) {
             if (ids.stream().allMatch(entityModel.getType()::isInstance)) {
                 setValues(ids);
@@ -146,8 +158,13 @@ public abstract class CollectionReference<C extends Collection> extends MorphiaR
 
     final List find() {
         HashMap<Object, Object> idMap = new HashMap<>();
-        for (Entry<String, List<Object>> entry : collections.entrySet()) {
-            idMap.putAll(query(entry.getKey(), extractIds(entry.getValue())));
+        ExecutorService executor = getMapper().getOptions().getExecutor();
+        if (executor != null && collections.size() > 1 && !(getDatastore() instanceof MorphiaSession)) {
+            idMap.putAll(queryConcurrently(executor));
+        } else {
+            for (Entry<String, List<Object>> entry : collections.entrySet()) {
+                idMap.putAll(query(entry.getKey(), extractIds(entry.getValue())));
+            }
         }
         List values = mapIds(ids, idMap).stream()
                 .filter(Objects::nonNull)
@@ -156,23 +173,80 @@ public abstract class CollectionReference<C extends Collection> extends MorphiaR
         return values;
     }
 
+    /**
+     * Queries each referenced collection on the configured executor. Sessions are not safe for concurrent use so this is only done
+     * outside of a session.
+     */
+    private Map<Object, Object> queryConcurrently(ExecutorService executor) {
+        List<Future<Map<Object, Object>>> futures = new ArrayList<>();
+        for (Entry<String, List<Object>> entry : collections.entrySet()) {
+            List<Object> collectionIds = extractIds(entry.getValue());
+            futures.add(executor.submit(() -> query(entry.getKey(), collectionIds)));
+        }
+        Map<Object, Object> idMap = new HashMap<>();
+        try {
+            for (Future<Map<Object, Object>> future : futures) {
+                idMap.putAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MappingException(e.getMessage(), e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+        return idMap;
+    }
+
     Map<Object, Object> query(String collection, List<Object> collectionIds) {
 
         final Map<Object, Object> idMap = new HashMap<>();
-        try (MongoCursor<?> cursor = getDatastore().find(collection)
-                .disableValidation()
-                .filter(in("_id", collectionIds)).iterator()) {
-            while (cursor.hasNext()) {
-                final Object entity = cursor.next();
-                idMap.put(getMapper().getId(entity), entity);
+        List<Object> queried = collectionIds;
+        if (identityMap != null) {
+            queried = new ArrayList<>();
+            for (Object id : collectionIds) {
+                Object loaded = identityMap.get(collection, id);
+                if (loaded != null) {
+                    idMap.put(id, loaded);
+                } else {
+                    queried.add(id);
+                }
             }
-
-            if (!ignoreMissing() && idMap.size() != new HashSet<>(collectionIds).size()) {
-                throw new ReferenceException(
-                        Sofia.missingReferencedEntities(entityModel.getType().getSimpleName()));
+        }
+        if (queried.isEmpty()) {
+            return idMap;
+        }
+        EntityCache cache = getDatastore() instanceof DatastoreImpl ? ((DatastoreImpl) getDatastore()).getEntityCache() : null;
+        EntityModel model = cache != null ? getMapper().getEntityModel(getMapper().getClassFromCollection(collection)) : null;
+        if (cache != null && EntityCache.isCached(model)) {
+            for (Object entity : cache.find((DatastoreImpl) getDatastore(),
+                    getDatastore().getDatabase().getCollection(collection, model.getType()), model, queried)) {
+                idMap.put(getMapper().getId(entity), canonical(entity));
+            }
+        } else {
+            try (MongoCursor<?> cursor = getDatastore().find(collection)
+                    .disableValidation()
+                    .filter(in("_id", queried)).iterator()) {
+                while (cursor.hasNext()) {
+                    final Object entity = cursor.next();
+                    idMap.put(getMapper().getId(entity), canonical(entity));
+                }
             }
         }
 
+        if (!ignoreMissing() && idMap.size() != new HashSet<>(collectionIds).size()) {
+            throw new ReferenceException(
+                    Sofia.missingReferencedEntities(entityModel.getType().getSimpleName()));
+        }
+
         return idMap;
     }
+
+    private Object canonical(Object entity) {
+        return identityMap != null ? identityMap.register(entity) : entity;
+    }
 }
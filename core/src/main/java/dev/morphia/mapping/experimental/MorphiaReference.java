@@ -28,7 +28,7 @@ public abstract class MorphiaReference<T> {
     private Datastore datastore;
     private Mapper mapper;
     private boolean ignoreMissing;
-    private boolean resolved;
+    private volatile boolean resolved;
 
     MorphiaReference() {
     }
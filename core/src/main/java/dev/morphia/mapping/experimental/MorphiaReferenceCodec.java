@@ -54,9 +54,9 @@ public class MorphiaReferenceCodec extends BaseReferenceCodec<MorphiaReference>
         Object value = getDatastore().getCodecRegistry()
                 .get(bsonTypeClassMap.get(reader.getCurrentBsonType()))
                 .decode(reader, decoderContext);
-        value = processId(getDatastore(), value, decoderContext);
-        TypeData typeData = getTypeData().getTypeParameters().get(0);
         EntityModel fieldEntityModel = getEntityModelForField();
+        value = processId(getDatastore(), value, decoderContext, fieldEntityModel);
+        TypeData typeData = getTypeData().getTypeParameters().get(0);
         if (Set.class.isAssignableFrom(typeData.getType())) {
             return new SetReference<>(getDatastore(), mapper, fieldEntityModel, (List) value);
         } else if (Collection.class.isAssignableFrom(typeData.getType())) {
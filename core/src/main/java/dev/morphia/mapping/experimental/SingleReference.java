@@ -11,9 +11,11 @@ import dev.morphia.mapping.Mapper;
 import dev.morphia.mapping.MappingException;
 import dev.morphia.mapping.codec.pojo.EntityModel;
 import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.mapping.codec.references.ReferenceBatch;
 import dev.morphia.mapping.lazy.proxy.ReferenceException;
 import dev.morphia.query.Query;
 import dev.morphia.sofia.Sofia;
+import dev.morphia.transactions.IdentityMap;
 
 import org.bson.Document;
 
@@ -29,7 +31,11 @@ import static dev.morphia.query.filters.Filters.eq;
 public class SingleReference<T> extends MorphiaReference<T> {
     private EntityModel entityModel;
     private Object id;
-    private T value;
+    private volatile T value;
+    @Nullable
+    private volatile ReferenceBatch batch;
+    @Nullable
+    private IdentityMap identityMap;
 
     /**
      * @param datastore   the datastore to use
@@ -43,6 +49,7 @@ public class SingleReference<T> extends MorphiaReference<T> {
         super(datastore, mapper);
         this.entityModel = entityModel;
         this.id = id;
+        this.identityMap = IdentityMap.current();
         if (entityModel.getType().isInstance(id)) {
             value = (T) id;
             PropertyModel idProperty = entityModel.getIdProperty();
@@ -82,7 +89,15 @@ public class SingleReference<T> extends MorphiaReference<T> {
     @Override
     public T get() {
         if (!isResolved() && value == null && id != null) {
-            value = (T) buildQuery().iterator().tryNext();
+            ReferenceBatch pending = batch;
+            T loaded = identityMap != null ? identityMap.get(getCollectionName(), getId()) : null;
+            if (loaded != null) {
+                value = loaded;
+            } else if (pending != null) {
+                pending.load(this);
+            } else {
+                value = canonical((T) buildQuery().first());
+            }
             if (value == null && !ignoreMissing()) {
                 throw new ReferenceException(
                         Sofia.missingReferencedEntity(entityModel.getType().getSimpleName()));
@@ -92,6 +107,68 @@ public class SingleReference<T> extends MorphiaReference<T> {
         return value;
     }
 
+    /**
+     * Adds this reference to a batch to be loaded with the other references in it.
+     *
+     * @param batch the batch
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public void batch(ReferenceBatch batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * Completes the loading of this reference by a batch.
+     *
+     * @param value the referenced entity or null if it was not found
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public void complete(@Nullable Object value) {
+        this.value = canonical((T) value);
+        batch = null;
+        if (value != null) {
+            resolve();
+        }
+    }
+
+    /**
+     * @return the name of the referenced collection
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public String getCollectionName() {
+        return id instanceof DBRef ? ((DBRef) id).getCollectionName() : entityModel.getCollectionName();
+    }
+
+    /**
+     * Finds the type to load the referenced entity as. A reference to the property type's own collection is loaded as the property's
+     * type even when other types share that collection. A DBRef to another collection is loaded as the type mapped to that collection
+     * which is assignable to the property's type, if there is one.
+     *
+     * @return the type queried to load the referenced entity
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public Class<?> getQueryType() {
+        String collection = getCollectionName();
+        if (collection.equals(entityModel.getCollectionName())) {
+            return entityModel.getType();
+        }
+        Mapper mapper = getDatastore().getMapper();
+        for (EntityModel model : mapper.getClassesMappedToCollection(collection)) {
+            if (entityModel.getType().isAssignableFrom(model.getType())) {
+                return model.getType();
+            }
+        }
+        return mapper.getClassFromCollection(collection);
+    }
+
     @Override
     public List<Object> getIds() {
         return List.of(getId());
@@ -123,16 +200,13 @@ public class SingleReference<T> extends MorphiaReference<T> {
         return id instanceof DBRef ? ((DBRef) id).getId() : id;
     }
 
+    @Nullable
+    private T canonical(@Nullable T loaded) {
+        return loaded != null && identityMap != null ? identityMap.register(loaded) : loaded;
+    }
+
     Query<?> buildQuery() {
-        final Query<?> query;
-        if (id instanceof DBRef) {
-            query = getDatastore().find(getDatastore()
-                    .getMapper()
-                    .getClassFromCollection(((DBRef) this.id).getCollectionName()));
-        } else {
-            query = getDatastore().find(entityModel.getType());
-        }
-        return query.filter(eq("_id", getId()));
+        return getDatastore().find(getQueryType()).filter(eq("_id", getId()));
     }
 
     @Nullable
@@ -0,0 +1,38 @@
+package dev.morphia.memory;
+
+import java.util.Comparator;
+import java.util.Map.Entry;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Orders documents by a sort specification such as {@code {age: -1, name: 1}}.
+ */
+class DocumentComparator implements Comparator<BsonValue> {
+    private static final BsonDocument EMPTY = new BsonDocument();
+    private final BsonDocument sort;
+
+    DocumentComparator(BsonDocument sort) {
+        this.sort = sort;
+    }
+
+    @Override
+    public int compare(BsonValue left, BsonValue right) {
+        BsonDocument first = left.isDocument() ? left.asDocument() : EMPTY;
+        BsonDocument second = right.isDocument() ? right.asDocument() : EMPTY;
+        for (Entry<String, BsonValue> entry : sort.entrySet()) {
+            BsonValue direction = entry.getValue();
+            if (!direction.isNumber()) {
+                throw QueryMatcher.unsupported(String.valueOf(direction));
+            }
+            boolean ascending = direction.asNumber().intValue() >= 0;
+            int compare = Values.compare(Values.sortKey(first, entry.getKey(), ascending),
+                    Values.sortKey(second, entry.getKey(), ascending));
+            if (compare != 0) {
+                return ascending ? compare : -compare;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,116 @@
+package dev.morphia.memory;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Applies inclusion and exclusion projections, including {@code $slice} and {@code $elemMatch} on array fields.
+ */
+final class DocumentProjector {
+    private final BsonDocument projection;
+    private final boolean inclusive;
+    private final boolean includeId;
+
+    DocumentProjector(BsonDocument projection) {
+        this.projection = projection;
+        boolean inclusive = false;
+        for (Entry<String, BsonValue> entry : projection.entrySet()) {
+            if (!entry.getKey().equals("_id") && !entry.getValue().isDocument() && isInclusion(entry.getValue())) {
+                inclusive = true;
+            }
+        }
+        this.inclusive = inclusive;
+        BsonValue id = projection.get("_id");
+        includeId = id == null || isInclusion(id);
+    }
+
+    /**
+     * @param document the source document
+     * @return a new document containing the projected fields
+     */
+    BsonDocument project(BsonDocument document) {
+        BsonDocument result = inclusive ? new BsonDocument() : document.clone();
+        if (inclusive && includeId && document.containsKey("_id")) {
+            result.put("_id", document.get("_id"));
+        }
+        if (!includeId) {
+            result.remove("_id");
+        }
+        for (Entry<String, BsonValue> entry : projection.entrySet()) {
+            String path = entry.getKey();
+            BsonValue value = entry.getValue();
+            if (path.equals("_id")) {
+                continue;
+            }
+            if (value.isDocument()) {
+                BsonValue current = Values.get(document, path);
+                if (current != null && current.isArray()) {
+                    BsonValue projected = operator(current.asArray(), value.asDocument());
+                    if (projected != null) {
+                        DocumentUpdater.set(result, path, projected);
+                    } else {
+                        remove(result, path);
+                    }
+                }
+            } else if (inclusive) {
+                BsonValue current = Values.get(document, path);
+                if (current != null) {
+                    DocumentUpdater.set(result, path, current);
+                }
+            } else {
+                remove(result, path);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private BsonValue operator(BsonArray array, BsonDocument operator) {
+        BsonValue slice = operator.get("$slice");
+        if (slice != null) {
+            int skip;
+            int limit;
+            if (slice.isArray()) {
+                skip = slice.asArray().get(0).asNumber().intValue();
+                limit = slice.asArray().get(1).asNumber().intValue();
+            } else {
+                int count = slice.asNumber().intValue();
+                skip = count < 0 ? count : 0;
+                limit = Math.abs(count);
+            }
+            int start = skip < 0 ? Math.max(0, array.size() + skip) : Math.min(skip, array.size());
+            return new BsonArray(array.subList(start, Math.min(array.size(), start + limit)));
+        }
+        BsonValue elemMatch = operator.get("$elemMatch");
+        if (elemMatch != null) {
+            for (BsonValue element : array) {
+                if (element.isDocument() && QueryMatcher.matches(element.asDocument(), elemMatch.asDocument())) {
+                    return new BsonArray(List.of(element));
+                }
+            }
+            return null;
+        }
+        throw QueryMatcher.unsupported(operator.getFirstKey());
+    }
+
+    private static boolean isInclusion(BsonValue value) {
+        if (value.isBoolean()) {
+            return value.asBoolean().getValue();
+        }
+        return !value.isNumber() || value.asNumber().intValue() != 0;
+    }
+
+    private static void remove(BsonDocument document, String path) {
+        int dot = path.lastIndexOf('.');
+        BsonValue parent = dot == -1 ? document : Values.get(document, path.substring(0, dot));
+        if (parent != null && parent.isDocument()) {
+            parent.asDocument().remove(path.substring(dot + 1));
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package dev.morphia.memory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonArray;
+import org.bson.BsonDateTime;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.types.Decimal128;
+
+import static dev.morphia.memory.MemoryCollection.writeError;
+import static java.lang.String.format;
+
+/**
+ * Applies update documents to stored documents. The supported operators are the field and array operators generated by
+ * {@link dev.morphia.query.updates.UpdateOperators} along with the {@code $} and {@code $[]} positional operators.
+ */
+final class DocumentUpdater {
+    private static final int BAD_VALUE = 2;
+    private static final int TYPE_MISMATCH = 14;
+    private static final int PATH_NOT_VIABLE = 28;
+
+    private DocumentUpdater() {
+    }
+
+    /**
+     * Applies an update to a document in place.
+     *
+     * @param document  the document to update
+     * @param update    the update operators or a replacement document
+     * @param filter    the filter that selected the document, used to resolve the {@code $} positional operator
+     * @param inserting true if the document is being created by an upsert
+     * @return true if the document was modified
+     */
+    static boolean apply(BsonDocument document, BsonDocument update, BsonDocument filter, boolean inserting) {
+        BsonDocument original = document.clone();
+        if (!update.isEmpty() && !update.getFirstKey().startsWith("$")) {
+            replace(document, update);
+            return !original.equals(document);
+        }
+        for (Entry<String, BsonValue> entry : update.entrySet()) {
+            String operator = entry.getKey();
+            for (Entry<String, BsonValue> field : entry.getValue().asDocument().entrySet()) {
+                if (operator.equals("$setOnInsert") && !inserting) {
+                    continue;
+                }
+                for (String path : paths(document, field.getKey(), filter)) {
+                    apply(document, operator, path, field.getValue());
+                }
+            }
+        }
+        return !original.equals(document);
+    }
+
+    /**
+     * Replaces the contents of a document while preserving its {@code _id}.
+     *
+     * @param document    the document to update
+     * @param replacement the new contents
+     */
+    static void replace(BsonDocument document, BsonDocument replacement) {
+        BsonValue id = document.get("_id");
+        document.clear();
+        if (id != null) {
+            document.put("_id", id);
+        }
+        for (Entry<String, BsonValue> entry : replacement.entrySet()) {
+            if (!entry.getKey().equals("_id")) {
+                document.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Creates the document an upsert starts from using the equality conditions of the filter.
+     *
+     * @param filter the filter
+     * @return the new document
+     */
+    static BsonDocument seed(BsonDocument filter) {
+        BsonDocument document = new BsonDocument();
+        seed(document, filter);
+        return document;
+    }
+
+    private static void seed(BsonDocument document, BsonDocument filter) {
+        for (Entry<String, BsonValue> entry : filter.entrySet()) {
+            String key = entry.getKey();
+            BsonValue value = entry.getValue();
+            if (key.equals("$and")) {
+                for (BsonValue clause : value.asArray()) {
+                    seed(document, clause.asDocument());
+                }
+            } else if (!key.startsWith("$")) {
+                if (!QueryMatcher.isOperatorDocument(value)) {
+                    set(document, key, value);
+                } else if (value.asDocument().containsKey("$eq")) {
+                    set(document, key, value.asDocument().get("$eq"));
+                }
+            }
+        }
+    }
+
+    private static void apply(BsonDocument document, String operator, String path, BsonValue operand) {
+        BsonValue current = Values.get(document, path);
+        switch (operator) {
+            case "$set":
+            case "$setOnInsert":
+                set(document, path, operand);
+                break;
+            case "$unset":
+                unset(document, path);
+                break;
+            case "$inc":
+                set(document, path, current == null ? operand : add(number(current, path, operator), operand));
+                break;
+            case "$mul":
+                set(document, path, current == null ? multiply(new BsonInt32(0), operand)
+                        : multiply(number(current, path, operator), operand));
+                break;
+            case "$min":
+                if (current == null || Values.compare(operand, current) < 0) {
+                    set(document, path, operand);
+                }
+                break;
+            case "$max":
+                if (current == null || Values.compare(operand, current) > 0) {
+                    set(document, path, operand);
+                }
+                break;
+            case "$rename":
+                if (current != null) {
+                    unset(document, path);
+                    set(document, operand.asString().getValue(), current);
+                }
+                break;
+            case "$currentDate":
+                set(document, path, currentDate(operand));
+                break;
+            case "$push":
+                set(document, path, push(array(current, path, operator), operand));
+                break;
+            case "$addToSet":
+                set(document, path, addToSet(array(current, path, operator), operand));
+                break;
+            case "$pop":
+                if (current != null) {
+                    BsonArray array = array(current, path, operator);
+                    if (!array.isEmpty()) {
+                        array.remove(operand.asNumber().intValue() < 0 ? 0 : array.size() - 1);
+                    }
+                }
+                break;
+            case "$pull":
+                if (current != null) {
+                    array(current, path, operator).removeIf(element -> QueryMatcher.matchesValue(element, operand));
+                }
+                break;
+            case "$pullAll":
+                if (current != null) {
+                    array(current, path, operator).removeIf(element -> operand.asArray().stream()
+                            .anyMatch(value -> Values.equal(element, value)));
+                }
+                break;
+            default:
+                throw QueryMatcher.unsupported(operator);
+        }
+    }
+
+    private static List<String> paths(BsonDocument document, String path, BsonDocument filter) {
+        String[] parts = path.split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.equals("$")) {
+                parts[i] = String.valueOf(positional(document, join(parts, i), filter));
+                return paths(document, String.join(".", parts), filter);
+            } else if (part.equals("$[]")) {
+                String prefix = join(parts, i);
+                BsonValue array = Values.get(document, prefix);
+                List<String> paths = new ArrayList<>();
+                if (array != null && array.isArray()) {
+                    for (int index = 0; index < array.asArray().size(); index++) {
+                        parts[i] = String.valueOf(index);
+                        paths.addAll(paths(document, String.join(".", parts), filter));
+                    }
+                }
+                return paths;
+            } else if (part.startsWith("$[")) {
+                throw QueryMatcher.unsupported("arrayFilters");
+            }
+        }
+        return List.of(path);
+    }
+
+    private static int positional(BsonDocument document, String prefix, BsonDocument filter) {
+        BsonValue value = Values.get(document, prefix);
+        if (value != null && value.isArray()) {
+            BsonArray array = value.asArray();
+            for (int i = 0; i < array.size(); i++) {
+                BsonDocument candidate = document.clone();
+                set(candidate, prefix, new BsonArray(List.of(array.get(i))));
+                if (QueryMatcher.matches(candidate, filter)) {
+                    return i;
+                }
+            }
+        }
+        throw writeError(BAD_VALUE, "The positional operator did not find the match needed from the query.");
+    }
+
+    private static String join(String[] parts, int end) {
+        return String.join(".", List.of(parts).subList(0, end));
+    }
+
+    static void set(BsonDocument document, String path, BsonValue value) {
+        String[] parts = path.split("\\.");
+        BsonValue container = document;
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            boolean last = i == parts.length - 1;
+            if (container.isDocument()) {
+                BsonDocument current = container.asDocument();
+                if (last) {
+                    current.put(part, value);
+                } else {
+                    BsonValue next = current.get(part);
+                    if (next == null || next.isNull()) {
+                        next = new BsonDocument();
+                        current.put(part, next);
+                    }
+                    container = next;
+                }
+            } else if (container.isArray() && Values.isIndex(part)) {
+                BsonArray array = container.asArray();
+                int index = Integer.parseInt(part);
+                while (array.size() <= index) {
+                    array.add(BsonNull.VALUE);
+                }
+                if (last) {
+                    array.set(index, value);
+                } else {
+                    BsonValue next = array.get(index);
+                    if (next.isNull()) {
+                        next = new BsonDocument();
+                        array.set(index, next);
+                    }
+                    container = next;
+                }
+            } else {
+                throw writeError(PATH_NOT_VIABLE, format("Cannot create field '%s' in element %s", part, container));
+            }
+        }
+    }
+
+    private static void unset(BsonDocument document, String path) {
+        int dot = path.lastIndexOf('.');
+        BsonValue parent = dot == -1 ? document : Values.get(document, path.substring(0, dot));
+        String name = path.substring(dot + 1);
+        if (parent != null && parent.isDocument()) {
+            parent.asDocument().remove(name);
+        } else if (parent != null && parent.isArray() && Values.isIndex(name)) {
+            BsonArray array = parent.asArray();
+            int index = Integer.parseInt(name);
+            if (index < array.size()) {
+                array.set(index, BsonNull.VALUE);
+            }
+        }
+    }
+
+    private static BsonValue number(BsonValue value, String path, String operator) {
+        if (!value.isNumber() && !value.isDecimal128()) {
+            throw writeError(TYPE_MISMATCH, format("Cannot apply %s to a value of non-numeric type. {_id: ...} has the field '%s' of "
+                    + "non-numeric type %s", operator, path, value.getBsonType()));
+        }
+        return value;
+    }
+
+    private static BsonArray array(@Nullable BsonValue value, String path, String operator) {
+        if (value == null) {
+            return new BsonArray();
+        }
+        if (!value.isArray()) {
+            throw writeError(TYPE_MISMATCH, format("The field '%s' must be an array but is of type %s. %s can not be applied.", path,
+                    value.getBsonType(), operator));
+        }
+        return value.asArray();
+    }
+
+    private static BsonValue add(BsonValue left, BsonValue right) {
+        if (left.isDecimal128() || right.isDecimal128()) {
+            return new BsonDecimal128(new Decimal128(Values.decimal(left).add(Values.decimal(right))));
+        }
+        if (left.isDouble() || right.isDouble()) {
+            return new BsonDouble(left.asNumber().doubleValue() + right.asNumber().doubleValue());
+        }
+        long sum = left.asNumber().longValue() + right.asNumber().longValue();
+        return left.isInt32() && right.isInt32() && sum == (int) sum ? new BsonInt32((int) sum) : new BsonInt64(sum);
+    }
+
+    private static BsonValue multiply(BsonValue left, BsonValue right) {
+        if (left.isDecimal128() || right.isDecimal128()) {
+            BigDecimal product = Values.decimal(left).multiply(Values.decimal(right));
+            return new BsonDecimal128(new Decimal128(product));
+        }
+        if (left.isDouble() || right.isDouble()) {
+            return new BsonDouble(left.asNumber().doubleValue() * right.asNumber().doubleValue());
+        }
+        long product = left.asNumber().longValue() * right.asNumber().longValue();
+        return left.isInt32() && right.isInt32() && product == (int) product ? new BsonInt32((int) product) : new BsonInt64(product);
+    }
+
+    private static BsonValue currentDate(BsonValue operand) {
+        long now = System.currentTimeMillis();
+        if (operand.isDocument() && new BsonString("timestamp").equals(operand.asDocument().get("$type"))) {
+            return new BsonTimestamp((int) (now / 1000), 1);
+        }
+        return new BsonDateTime(now);
+    }
+
+    private static BsonArray push(BsonArray array, BsonValue operand) {
+        if (!operand.isDocument() || !operand.asDocument().containsKey("$each")) {
+            array.add(operand);
+            return array;
+        }
+        BsonDocument modifiers = operand.asDocument();
+        BsonArray each = modifiers.getArray("$each");
+        BsonValue position = modifiers.get("$position");
+        if (position != null) {
+            int index = position.asNumber().intValue();
+            index = index < 0 ? Math.max(0, array.size() + index) : Math.min(index, array.size());
+            array.addAll(index, each);
+        } else {
+            array.addAll(each);
+        }
+        BsonValue sort = modifiers.get("$sort");
+        if (sort != null) {
+            array.sort(sort.isDocument()
+                    ? new DocumentComparator(sort.asDocument())
+                    : (a, b) -> sort.asNumber().intValue() * Values.compare(a, b));
+        }
+        BsonValue slice = modifiers.get("$slice");
+        if (slice != null) {
+            int size = slice.asNumber().intValue();
+            List<BsonValue> kept = size >= 0
+                    ? new ArrayList<>(array.subList(0, Math.min(size, array.size())))
+                    : new ArrayList<>(array.subList(Math.max(0, array.size() + size), array.size()));
+            array.clear();
+            array.addAll(kept);
+        }
+        return array;
+    }
+
+    private static BsonArray addToSet(BsonArray array, BsonValue operand) {
+        List<BsonValue> values = operand.isDocument() && operand.asDocument().containsKey("$each")
+                ? operand.asDocument().getArray("$each")
+                : List.of(operand);
+        for (BsonValue value : values) {
+            if (array.stream().noneMatch(element -> Values.equal(element, value))) {
+                array.add(value);
+            }
+        }
+        return array;
+    }
+}
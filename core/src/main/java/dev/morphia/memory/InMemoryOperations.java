@@ -0,0 +1,280 @@
+package dev.morphia.memory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteInsert;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl.DatastoreOperations;
+import dev.morphia.DeleteOptions;
+import dev.morphia.InsertManyOptions;
+import dev.morphia.InsertOneOptions;
+import dev.morphia.ModifyOptions;
+import dev.morphia.ReplaceOptions;
+import dev.morphia.UpdateOptions;
+import dev.morphia.annotations.internal.IndexHelper;
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.query.CountOptions;
+import dev.morphia.query.FindAndDeleteOptions;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.io.BasicOutputBuffer;
+
+import static java.lang.String.format;
+
+/**
+ * Performs a datastore's operations against collections held in memory rather than against a server. Entities are encoded to raw BSON
+ * with the datastore's codecs on the way in and decoded on the way out so the full mapping layer is exercised while server latency is
+ * removed entirely. This makes it suitable for fast local tests and for benchmarking Morphia's own overhead.
+ * <p>
+ * Queries support the comparison, logical, element, array, and evaluation operators generated by
+ * {@link dev.morphia.query.filters.Filters} except those requiring the aggregation framework, text search, or geospatial indexes.
+ * Updates support the field and array operators generated by {@link dev.morphia.query.updates.UpdateOperators} but not update
+ * pipelines or array filters. Regular indexes are maintained for uniqueness and equality lookups. Aggregations support only the
+ * {@code $match}, {@code $sort}, {@code $skip}, {@code $limit}, {@code $project}, and {@code $bucketAuto} stages. Commands and
+ * transactions are not supported.
+ *
+ * <pre>
+ * <code>
+ * InMemoryOperations operations = new InMemoryOperations();
+ * ((DatastoreImpl) datastore).operations(operations);
+ * operations.ensureIndexes(datastore);
+ * </code>
+ * </pre>
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public class InMemoryOperations extends DatastoreOperations {
+    private final Map<String, MemoryCollection> collections = new ConcurrentHashMap<>();
+
+    /**
+     * Removes all documents and indexes from every collection.
+     */
+    public void clear() {
+        collections.values().forEach(MemoryCollection::clear);
+    }
+
+    /**
+     * Creates the indexes declared on the entities mapped by the datastore. Only regular indexes are created. Text, geospatial, and
+     * hashed indexes are skipped.
+     *
+     * @param datastore the datastore whose mapped entities should be indexed
+     */
+    public void ensureIndexes(Datastore datastore) {
+        IndexHelper indexHelper = new IndexHelper(datastore.getMapper());
+        for (EntityModel model : datastore.getMapper().getMappedEntities()) {
+            if (model.getIdProperty() != null) {
+                MongoCollection<?> collection = datastore.getCollection(model.getType());
+                for (IndexModel index : indexHelper.indexModels(model)) {
+                    collection(collection).createIndex(toBson(collection, index.getKeys()), index.getOptions());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param collection the collection
+     * @return the names of the indexes on the collection, including the {@code _id} index
+     */
+    public List<String> indexNames(MongoCollection<?> collection) {
+        return collection(collection).indexNames();
+    }
+
+    @Override
+    public <E> AggregateIterable<E> aggregate(MongoCollection<E> collection, List<Document> pipeline) {
+        List<BsonDocument> stages = new ArrayList<>();
+        for (Document stage : pipeline) {
+            stages.add(toBson(collection, stage));
+        }
+        return new MemoryAggregateIterable<>(collection(collection), collection.getCodecRegistry(), collection.getDocumentClass(),
+                stages);
+    }
+
+    @Override
+    public <T> long countDocuments(MongoCollection<T> collection, Document query, CountOptions options) {
+        return collection(collection).count(toBson(collection, query), options.getSkip(), options.getLimit());
+    }
+
+    @Override
+    public <T> DeleteResult deleteMany(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        return collection(collection).delete(toBson(collection, queryDocument), true);
+    }
+
+    @Override
+    public <T> DeleteResult deleteOne(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        return collection(collection).delete(toBson(collection, queryDocument), false);
+    }
+
+    @Override
+    public <E> FindIterable<E> find(MongoCollection<E> collection, Document query) {
+        return new MemoryFindIterable<>(collection(collection), collection.getCodecRegistry(), collection.getDocumentClass(),
+                toBson(collection, query));
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndDelete(MongoCollection<T> mongoCollection, Document queryDocument, FindAndDeleteOptions options) {
+        RawBsonDocument deleted = collection(mongoCollection).findOneAndDelete(toBson(mongoCollection, queryDocument),
+                toBsonOrNull(mongoCollection, options.getSort()));
+        return decode(mongoCollection, deleted, options.getProjection());
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndUpdate(MongoCollection<T> collection, Document toDocument, Document update, ModifyOptions options) {
+        RawBsonDocument updated = collection(collection).findOneAndUpdate(toBson(collection, toDocument),
+                toBsonOrNull(collection, options.getSort()), toBson(collection, update), options.isUpsert(),
+                options.getReturnDocument() == ReturnDocument.AFTER);
+        return decode(collection, updated, options.getProjection());
+    }
+
+    @Override
+    public <T> InsertManyResult insertMany(MongoCollection<T> collection, List<T> list, InsertManyOptions options) {
+        MemoryCollection memory = collection(collection);
+        Map<Integer, BsonValue> ids = new HashMap<>();
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            try {
+                ids.put(i, memory.insert(encode(collection, list.get(i))));
+            } catch (MongoWriteException e) {
+                errors.add(new BulkWriteError(e.getCode(), e.getMessage(), new BsonDocument(), i));
+                if (options.options().isOrdered()) {
+                    break;
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            List<BulkWriteInsert> inserts = new ArrayList<>();
+            ids.forEach((index, id) -> inserts.add(new BulkWriteInsert(index, id)));
+            throw new MongoBulkWriteException(BulkWriteResult.acknowledged(ids.size(), 0, 0, 0, List.of(), inserts), errors, null,
+                    new ServerAddress(), Set.of());
+        }
+        return InsertManyResult.acknowledged(ids);
+    }
+
+    @Override
+    public <T> InsertOneResult insertOne(MongoCollection<T> collection, T entity, InsertOneOptions options) {
+        return InsertOneResult.acknowledged(collection(collection).insert(encode(collection, entity)));
+    }
+
+    @Override
+    public <T> UpdateResult replaceOne(MongoCollection<T> collection, T entity, Document filter, ReplaceOptions options) {
+        return collection(collection).replace(toBson(collection, filter), encode(collection, entity), options.isUpsert());
+    }
+
+    @Override
+    public Document runCommand(Document command) {
+        throw QueryMatcher.unsupported(format("the '%s' command", command.keySet().iterator().next()));
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        return update(collection, queryObject, updateOperations, options, true);
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        throw QueryMatcher.unsupported("update pipelines");
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        return update(collection, queryObject, updateOperations, options, false);
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        throw QueryMatcher.unsupported("update pipelines");
+    }
+
+    private <T> UpdateResult update(MongoCollection<T> collection, Document query, Document update, UpdateOptions options,
+            boolean multi) {
+        if (options.getArrayFilters() != null && !options.getArrayFilters().isEmpty()) {
+            throw QueryMatcher.unsupported("arrayFilters");
+        }
+        return collection(collection).update(toBson(collection, query), toBson(collection, update), multi, options.isUpsert());
+    }
+
+    private MemoryCollection collection(MongoCollection<?> collection) {
+        String namespace = collection.getNamespace().getFullName();
+        return collections.computeIfAbsent(namespace, MemoryCollection::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BsonDocument encode(MongoCollection<T> collection, T entity) {
+        Codec<T> codec = (Codec<T>) collection.getCodecRegistry().get(entity.getClass());
+        if (codec instanceof CollectibleCodec) {
+            CollectibleCodec<T> collectible = (CollectibleCodec<T>) codec;
+            if (!collectible.documentHasId(entity)) {
+                collectible.generateIdIfAbsentFromDocument(entity);
+            }
+        }
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, entity, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+        }
+        return new RawBsonDocument(buffer.toByteArray());
+    }
+
+    @Nullable
+    private static <T> T decode(MongoCollection<T> collection, @Nullable RawBsonDocument document, @Nullable Bson projection) {
+        if (document == null) {
+            return null;
+        }
+        Codec<T> codec = collection.getCodecRegistry().get(collection.getDocumentClass());
+        BsonDocument projected = toBsonOrNull(collection, projection);
+        if (projected != null && !projected.isEmpty()) {
+            return codec.decode(new BsonDocumentReader(new DocumentProjector(projected).project(document)),
+                    DecoderContext.builder().build());
+        }
+        return codec.decode(new BsonBinaryReader(document.getByteBuffer().asNIO()), DecoderContext.builder().build());
+    }
+
+    private static BsonDocument toBson(MongoCollection<?> collection, Bson bson) {
+        CodecRegistry registry = collection.getCodecRegistry();
+        return bson.toBsonDocument(BsonDocument.class, registry);
+    }
+
+    @Nullable
+    private static BsonDocument toBsonOrNull(MongoCollection<?> collection, @Nullable Bson bson) {
+        return bson != null ? toBson(collection, bson) : null;
+    }
+}
@@ -0,0 +1,247 @@
+package dev.morphia.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.Function;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.Collation;
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonInt32;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+/**
+ * Evaluates an aggregation pipeline against a {@link MemoryCollection}. Only the {@code $match}, {@code $sort}, {@code $skip},
+ * {@code $limit}, {@code $project}, and {@code $bucketAuto} stages are supported. Any other stage is rejected when the pipeline is run.
+ *
+ * @param <T> the result type
+ */
+class MemoryAggregateIterable<T> implements AggregateIterable<T> {
+    private final MemoryCollection collection;
+    private final CodecRegistry registry;
+    private final Class<T> type;
+    private final List<BsonDocument> pipeline;
+
+    MemoryAggregateIterable(MemoryCollection collection, CodecRegistry registry, Class<T> type, List<BsonDocument> pipeline) {
+        this.collection = collection;
+        this.registry = registry;
+        this.type = type;
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public void toCollection() {
+        throw QueryMatcher.unsupported("$out");
+    }
+
+    @Override
+    public AggregateIterable<T> allowDiskUse(@Nullable Boolean allowDiskUse) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> batchSize(int batchSize) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> maxTime(long maxTime, TimeUnit timeUnit) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> maxAwaitTime(long maxAwaitTime, TimeUnit timeUnit) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> bypassDocumentValidation(@Nullable Boolean bypassDocumentValidation) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> collation(@Nullable Collation collation) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> comment(@Nullable String comment) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> comment(@Nullable BsonValue comment) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> hint(@Nullable Bson hint) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> hintString(@Nullable String hint) {
+        return this;
+    }
+
+    @Override
+    public AggregateIterable<T> let(@Nullable Bson variables) {
+        return this;
+    }
+
+    @Override
+    public Document explain() {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public Document explain(ExplainVerbosity verbosity) {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public <E> E explain(Class<E> explainResultClass) {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public <E> E explain(Class<E> explainResultClass, ExplainVerbosity verbosity) {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public MongoCursor<T> iterator() {
+        return new MemoryCursor<>(results());
+    }
+
+    @Override
+    public MongoCursor<T> cursor() {
+        return iterator();
+    }
+
+    @Override
+    @Nullable
+    public T first() {
+        List<T> results = results();
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    @Override
+    public <U> MongoIterable<U> map(Function<T, U> mapper) {
+        throw QueryMatcher.unsupported("map()");
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        results().forEach(action);
+    }
+
+    @Override
+    public <A extends Collection<? super T>> A into(A target) {
+        target.addAll(results());
+        return target;
+    }
+
+    private List<T> results() {
+        List<BsonDocument> documents = new ArrayList<>(collection.find(new BsonDocument()));
+        for (BsonDocument stage : pipeline) {
+            documents = apply(documents, stage);
+        }
+        Codec<T> codec = registry.get(type);
+        List<T> results = new ArrayList<>();
+        for (BsonDocument document : documents) {
+            results.add(codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build()));
+        }
+        return results;
+    }
+
+    private List<BsonDocument> apply(List<BsonDocument> documents, BsonDocument stage) {
+        if (stage.size() != 1) {
+            throw QueryMatcher.unsupported(stage.toJson());
+        }
+        Entry<String, BsonValue> entry = stage.entrySet().iterator().next();
+        BsonValue operand = entry.getValue();
+        switch (entry.getKey()) {
+            case "$match":
+                List<BsonDocument> matched = new ArrayList<>();
+                for (BsonDocument document : documents) {
+                    if (QueryMatcher.matches(document, operand.asDocument())) {
+                        matched.add(document);
+                    }
+                }
+                return matched;
+            case "$sort":
+                documents.sort(new DocumentComparator(operand.asDocument()));
+                return documents;
+            case "$skip":
+                return new ArrayList<>(documents.subList(Math.min(documents.size(), (int) operand.asNumber().longValue()),
+                        documents.size()));
+            case "$limit":
+                return new ArrayList<>(documents.subList(0, (int) Math.min(documents.size(), operand.asNumber().longValue())));
+            case "$project":
+                DocumentProjector projector = new DocumentProjector(operand.asDocument());
+                List<BsonDocument> projected = new ArrayList<>();
+                for (BsonDocument document : documents) {
+                    projected.add(projector.project(document));
+                }
+                return projected;
+            case "$bucketAuto":
+                return buckets(documents, operand.asDocument());
+            default:
+                throw QueryMatcher.unsupported(entry.getKey());
+        }
+    }
+
+    /**
+     * Splits the documents into buckets of roughly equal size by a field. Equal values are never split across buckets and each bucket's
+     * upper bound is the lower bound of the next except for the last which is inclusive. Only the default {@code count} output is
+     * produced.
+     */
+    private List<BsonDocument> buckets(List<BsonDocument> documents, BsonDocument options) {
+        BsonValue groupBy = options.get("groupBy");
+        if (groupBy == null || !groupBy.isString() || !groupBy.asString().getValue().startsWith("$")
+                || options.containsKey("output") || options.containsKey("granularity")) {
+            throw QueryMatcher.unsupported("$bucketAuto " + options.toJson());
+        }
+        String path = groupBy.asString().getValue().substring(1);
+        List<BsonValue> values = new ArrayList<>();
+        for (BsonDocument document : documents) {
+            BsonValue value = Values.get(document, path);
+            values.add(value != null ? value : BsonNull.VALUE);
+        }
+        values.sort(Values::compare);
+        int count = options.getNumber("buckets").intValue();
+        List<BsonDocument> buckets = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= count && start < values.size(); i++) {
+            int end = Math.max(start + 1, (int) ((long) values.size() * i / count));
+            while (end < values.size() && Values.compare(values.get(end - 1), values.get(end)) == 0) {
+                end++;
+            }
+            if (i == count) {
+                end = values.size();
+            }
+            BsonValue max = end < values.size() ? values.get(end) : values.get(end - 1);
+            buckets.add(new BsonDocument("_id", new BsonDocument("min", values.get(start)).append("max", max))
+                    .append("count", new BsonInt32(end - start)));
+            start = end;
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,390 @@
+package dev.morphia.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.sofia.Sofia;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+
+/**
+ * Stores the documents of a single collection as raw BSON along with its indexes. Reads share a lock and writes are exclusive.
+ */
+class MemoryCollection {
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int IMMUTABLE_FIELD = 66;
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    private final String namespace;
+    private final Map<BsonValue, RawBsonDocument> documents = new LinkedHashMap<>();
+    private final Map<String, MemoryIndex> indexes = new LinkedHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    MemoryCollection(String namespace) {
+        this.namespace = namespace;
+    }
+
+    static MongoWriteException writeError(int code, String message) {
+        return new MongoWriteException(new WriteError(code, message, new BsonDocument()), new ServerAddress());
+    }
+
+    /**
+     * Creates an index. Unsupported index types, such as text or geospatial indexes, are ignored.
+     *
+     * @param keys    the index keys
+     * @param options the index options
+     */
+    void createIndex(BsonDocument keys, IndexOptions options) {
+        if (!MemoryIndex.supports(keys)) {
+            return;
+        }
+        String name = options.getName() != null
+                ? options.getName()
+                : keys.entrySet().stream()
+                        .map(e -> e.getKey() + "_" + e.getValue().asNumber().intValue())
+                        .collect(Collectors.joining("_"));
+        lock.writeLock().lock();
+        try {
+            if (indexes.containsKey(name)) {
+                return;
+            }
+            MemoryIndex index = new MemoryIndex(name, keys, options);
+            for (Entry<BsonValue, RawBsonDocument> entry : documents.entrySet()) {
+                List<BsonValue> conflict = index.conflict(entry.getValue(), entry.getKey());
+                if (conflict != null) {
+                    throw duplicate(index.getName(), conflict);
+                }
+                index.add(entry.getValue(), entry.getKey());
+            }
+            indexes.put(name, index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the names of the indexes on this collection
+     */
+    List<String> indexNames() {
+        lock.readLock().lock();
+        try {
+            List<String> names = new ArrayList<>();
+            names.add("_id_");
+            names.addAll(indexes.keySet());
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long count(BsonDocument filter, int skip, int limit) {
+        long count = find(filter).stream()
+                .skip(skip)
+                .count();
+        return limit > 0 ? Math.min(count, limit) : count;
+    }
+
+    DeleteResult delete(BsonDocument filter, boolean multi) {
+        lock.writeLock().lock();
+        try {
+            long deleted = 0;
+            for (RawBsonDocument document : matching(filter)) {
+                remove(document);
+                deleted++;
+                if (!multi) {
+                    break;
+                }
+            }
+            return DeleteResult.acknowledged(deleted);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param filter the filter
+     * @return a snapshot of the matching documents in natural order
+     */
+    List<RawBsonDocument> find(BsonDocument filter) {
+        lock.readLock().lock();
+        try {
+            return matching(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Nullable
+    RawBsonDocument findOneAndDelete(BsonDocument filter, @Nullable BsonDocument sort) {
+        lock.writeLock().lock();
+        try {
+            RawBsonDocument document = first(filter, sort);
+            if (document != null) {
+                remove(document);
+            }
+            return document;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Nullable
+    RawBsonDocument findOneAndUpdate(BsonDocument filter, @Nullable BsonDocument sort, BsonDocument update, boolean upsert,
+            boolean returnUpdated) {
+        lock.writeLock().lock();
+        try {
+            RawBsonDocument document = first(filter, sort);
+            if (document == null) {
+                if (!upsert) {
+                    return null;
+                }
+                RawBsonDocument created = upsert(filter, update);
+                return returnUpdated ? created : null;
+            }
+            RawBsonDocument updated = update(document, filter, update);
+            return returnUpdated ? updated : document;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a document, generating an {@code _id} if it does not have one.
+     *
+     * @param document the document
+     * @return the document's id
+     */
+    BsonValue insert(BsonDocument document) {
+        lock.writeLock().lock();
+        try {
+            return store(withId(document));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    UpdateResult replace(BsonDocument filter, BsonDocument replacement, boolean upsert) {
+        lock.writeLock().lock();
+        try {
+            RawBsonDocument document = first(filter, null);
+            if (document == null) {
+                if (!upsert) {
+                    return UpdateResult.acknowledged(0, 0L, null);
+                }
+                BsonDocument created = replacement.clone();
+                BsonValue id = DocumentUpdater.seed(filter).get("_id");
+                if (!created.containsKey("_id") && id != null) {
+                    created = withId(created, id);
+                }
+                return UpdateResult.acknowledged(0, 0L, store(withId(created)));
+            }
+            BsonValue id = document.get("_id");
+            if (replacement.containsKey("_id") && !Values.equal(replacement.get("_id"), id)) {
+                throw immutableId();
+            }
+            BsonDocument replaced = mutable(document);
+            DocumentUpdater.replace(replaced, replacement);
+            boolean modified = !replaced.equals(document);
+            if (modified) {
+                restore(document, replaced);
+            }
+            return UpdateResult.acknowledged(1, modified ? 1L : 0L, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    UpdateResult update(BsonDocument filter, BsonDocument update, boolean multi, boolean upsert) {
+        lock.writeLock().lock();
+        try {
+            List<RawBsonDocument> matched = matching(filter);
+            if (matched.isEmpty()) {
+                if (!upsert) {
+                    return UpdateResult.acknowledged(0, 0L, null);
+                }
+                return UpdateResult.acknowledged(0, 0L, upsert(filter, update).get("_id"));
+            }
+            long count = 0;
+            long modified = 0;
+            for (RawBsonDocument document : matched) {
+                count++;
+                if (update(document, filter, update) != document) {
+                    modified++;
+                }
+                if (!multi) {
+                    break;
+                }
+            }
+            return UpdateResult.acknowledged(count, modified, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            indexes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<RawBsonDocument> matching(BsonDocument filter) {
+        List<RawBsonDocument> matched = new ArrayList<>();
+        for (RawBsonDocument document : candidates(filter)) {
+            if (QueryMatcher.matches(document, filter)) {
+                matched.add(document);
+            }
+        }
+        return matched;
+    }
+
+    private Collection<RawBsonDocument> candidates(BsonDocument filter) {
+        BsonValue id = equality(filter.get("_id"));
+        if (id != null) {
+            RawBsonDocument document = documents.get(Values.normalize(id));
+            return document != null ? List.of(document) : List.of();
+        }
+        for (MemoryIndex index : indexes.values()) {
+            if (index.isLookupCapable()) {
+                List<BsonValue> values = new ArrayList<>();
+                for (String field : index.getFields()) {
+                    BsonValue value = equality(filter.get(field));
+                    if (value == null) {
+                        break;
+                    }
+                    values.add(value);
+                }
+                if (values.size() == index.getFields().size()) {
+                    return index.lookup(values).stream()
+                            .map(documents::get)
+                            .collect(Collectors.toList());
+                }
+            }
+        }
+        return documents.values();
+    }
+
+    @Nullable
+    private static BsonValue equality(@Nullable BsonValue condition) {
+        if (condition == null || condition.isNull() || condition.isRegularExpression() || condition.isArray()) {
+            return null;
+        }
+        if (QueryMatcher.isOperatorDocument(condition)) {
+            BsonDocument operators = condition.asDocument();
+            BsonValue eq = operators.size() == 1 ? operators.get("$eq") : null;
+            return eq != null && !eq.isNull() && !eq.isArray() && !eq.isDocument() ? eq : null;
+        }
+        return condition.isDocument() ? null : condition;
+    }
+
+    @Nullable
+    private RawBsonDocument first(BsonDocument filter, @Nullable BsonDocument sort) {
+        List<RawBsonDocument> matched = matching(filter);
+        if (sort != null && !sort.isEmpty()) {
+            matched.sort(new DocumentComparator(sort));
+        }
+        return matched.isEmpty() ? null : matched.get(0);
+    }
+
+    private RawBsonDocument update(RawBsonDocument document, BsonDocument filter, BsonDocument update) {
+        BsonDocument updated = mutable(document);
+        if (!DocumentUpdater.apply(updated, update, filter, false)) {
+            return document;
+        }
+        if (!Values.equal(updated.get("_id", document.get("_id")), document.get("_id"))) {
+            throw immutableId();
+        }
+        return restore(document, updated);
+    }
+
+    private RawBsonDocument upsert(BsonDocument filter, BsonDocument update) {
+        BsonDocument created = DocumentUpdater.seed(filter);
+        DocumentUpdater.apply(created, update, filter, true);
+        BsonValue id = store(withId(created));
+        return documents.get(Values.normalize(id));
+    }
+
+    private BsonValue store(BsonDocument document) {
+        BsonValue id = document.get("_id");
+        BsonValue key = Values.normalize(id);
+        if (documents.containsKey(key)) {
+            throw duplicate("_id_", List.of(id));
+        }
+        RawBsonDocument raw = new RawBsonDocument(document, CODEC);
+        checkIndexes(raw, key);
+        documents.put(key, raw);
+        indexes.values().forEach(index -> index.add(raw, key));
+        return id;
+    }
+
+    private RawBsonDocument restore(RawBsonDocument previous, BsonDocument document) {
+        BsonValue key = Values.normalize(previous.get("_id"));
+        RawBsonDocument raw = new RawBsonDocument(document, CODEC);
+        checkIndexes(raw, key);
+        indexes.values().forEach(index -> index.remove(previous, key));
+        indexes.values().forEach(index -> index.add(raw, key));
+        documents.put(key, raw);
+        return raw;
+    }
+
+    private void remove(RawBsonDocument document) {
+        BsonValue key = Values.normalize(document.get("_id"));
+        documents.remove(key);
+        indexes.values().forEach(index -> index.remove(document, key));
+    }
+
+    private void checkIndexes(BsonDocument document, BsonValue key) {
+        for (MemoryIndex index : indexes.values()) {
+            List<BsonValue> conflict = index.conflict(document, key);
+            if (conflict != null) {
+                throw duplicate(index.getName(), conflict);
+            }
+        }
+    }
+
+    private MongoWriteException duplicate(String index, List<BsonValue> key) {
+        return writeError(DUPLICATE_KEY, Sofia.inMemoryDuplicateKey(namespace, index, key));
+    }
+
+    private static MongoWriteException immutableId() {
+        return writeError(IMMUTABLE_FIELD, "Performing an update on the path '_id' would modify the immutable field '_id'");
+    }
+
+    private static BsonDocument mutable(RawBsonDocument document) {
+        return CODEC.decode(new BsonBinaryReader(document.getByteBuffer().asNIO()), DecoderContext.builder().build());
+    }
+
+    private static BsonDocument withId(BsonDocument document) {
+        return document.containsKey("_id") ? document : withId(document, new BsonObjectId());
+    }
+
+    private static BsonDocument withId(BsonDocument document, BsonValue id) {
+        BsonDocument created = new BsonDocument("_id", id);
+        created.putAll(document);
+        return created;
+    }
+}
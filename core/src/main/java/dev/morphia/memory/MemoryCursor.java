@@ -0,0 +1,66 @@
+package dev.morphia.memory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
+
+/**
+ * A cursor over a snapshot of query results.
+ *
+ * @param <T> the result type
+ */
+class MemoryCursor<T> implements MongoCursor<T> {
+    private final Iterator<T> iterator;
+    private int remaining;
+
+    MemoryCursor(List<T> results) {
+        this.iterator = results.iterator();
+        this.remaining = results.size();
+    }
+
+    @Override
+    public void close() {
+        remaining = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0 && iterator.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        remaining--;
+        return iterator.next();
+    }
+
+    @Override
+    public int available() {
+        return remaining;
+    }
+
+    @Override
+    @Nullable
+    public T tryNext() {
+        return hasNext() ? next() : null;
+    }
+
+    @Override
+    @Nullable
+    public ServerCursor getServerCursor() {
+        return null;
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+        return new ServerAddress();
+    }
+}
@@ -0,0 +1,260 @@
+package dev.morphia.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.mongodb.CursorType;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.Function;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.Collation;
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonReader;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+/**
+ * Evaluates a find against a {@link MemoryCollection}. The filter, sort, skip, limit, and projection are honored while options that
+ * only affect the server's execution of a query, such as hints or timeouts, are accepted and ignored.
+ *
+ * @param <T> the result type
+ */
+class MemoryFindIterable<T> implements FindIterable<T> {
+    private final MemoryCollection collection;
+    private final CodecRegistry registry;
+    private final Class<T> type;
+    private BsonDocument filter;
+    @Nullable
+    private BsonDocument sort;
+    @Nullable
+    private BsonDocument projection;
+    private int skip;
+    private int limit;
+
+    MemoryFindIterable(MemoryCollection collection, CodecRegistry registry, Class<T> type, BsonDocument filter) {
+        this.collection = collection;
+        this.registry = registry;
+        this.type = type;
+        this.filter = filter;
+    }
+
+    @Override
+    public FindIterable<T> filter(@Nullable Bson filter) {
+        this.filter = filter != null ? toBson(filter) : new BsonDocument();
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> skip(int skip) {
+        this.skip = skip;
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> maxTime(long maxTime, TimeUnit timeUnit) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> maxAwaitTime(long maxAwaitTime, TimeUnit timeUnit) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> projection(@Nullable Bson projection) {
+        this.projection = projection != null ? toBson(projection) : null;
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> sort(@Nullable Bson sort) {
+        this.sort = sort != null ? toBson(sort) : null;
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> noCursorTimeout(boolean noCursorTimeout) {
+        return this;
+    }
+
+    /**
+     * @deprecated required by {@link FindIterable} which still declares it. The server ignores this flag and so does this class.
+     */
+    @Override
+    @Deprecated
+    public FindIterable<T> oplogReplay(boolean oplogReplay) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> partial(boolean partial) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> cursorType(CursorType cursorType) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> batchSize(int batchSize) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> collation(@Nullable Collation collation) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> comment(@Nullable String comment) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> comment(@Nullable BsonValue comment) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> hint(@Nullable Bson hint) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> hintString(@Nullable String hint) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> let(@Nullable Bson variables) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> max(@Nullable Bson max) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> min(@Nullable Bson min) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> returnKey(boolean returnKey) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> showRecordId(boolean showRecordId) {
+        return this;
+    }
+
+    @Override
+    public FindIterable<T> allowDiskUse(@Nullable Boolean allowDiskUse) {
+        return this;
+    }
+
+    @Override
+    public Document explain() {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public Document explain(ExplainVerbosity verbosity) {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public <E> E explain(Class<E> explainResultClass) {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public <E> E explain(Class<E> explainResultClass, ExplainVerbosity verbosity) {
+        throw QueryMatcher.unsupported("explain");
+    }
+
+    @Override
+    public MongoCursor<T> iterator() {
+        return new MemoryCursor<>(results());
+    }
+
+    @Override
+    public MongoCursor<T> cursor() {
+        return iterator();
+    }
+
+    @Override
+    @Nullable
+    public T first() {
+        int limit = this.limit;
+        try {
+            this.limit = 1;
+            List<T> results = results();
+            return results.isEmpty() ? null : results.get(0);
+        } finally {
+            this.limit = limit;
+        }
+    }
+
+    @Override
+    public <U> MongoIterable<U> map(Function<T, U> mapper) {
+        throw QueryMatcher.unsupported("map()");
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        results().forEach(action);
+    }
+
+    @Override
+    public <A extends Collection<? super T>> A into(A target) {
+        target.addAll(results());
+        return target;
+    }
+
+    private List<T> results() {
+        List<RawBsonDocument> documents = collection.find(filter);
+        if (sort != null && !sort.isEmpty()) {
+            documents.sort(new DocumentComparator(sort));
+        }
+        int end = limit != 0 ? Math.min(documents.size(), skip + Math.abs(limit)) : documents.size();
+        Codec<T> codec = registry.get(type);
+        DocumentProjector projector = projection != null && !projection.isEmpty() ? new DocumentProjector(projection) : null;
+        List<T> results = new ArrayList<>();
+        for (int i = skip; i < end; i++) {
+            RawBsonDocument document = documents.get(i);
+            BsonReader reader = projector != null
+                    ? new BsonDocumentReader(projector.project(document))
+                    : new BsonBinaryReader(document.getByteBuffer().asNIO());
+            results.add(codec.decode(reader, DecoderContext.builder().build()));
+        }
+        return results;
+    }
+
+    private BsonDocument toBson(Bson bson) {
+        return bson.toBsonDocument(BsonDocument.class, registry);
+    }
+}
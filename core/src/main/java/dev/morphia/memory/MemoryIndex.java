@@ -0,0 +1,135 @@
+package dev.morphia.memory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+
+/**
+ * A hash index over one or more fields. Indexes enforce uniqueness and serve equality lookups on all of their fields. Special index
+ * types such as text and geospatial indexes are not supported and are never created.
+ */
+class MemoryIndex {
+    private final String name;
+    private final List<String> fields;
+    private final boolean unique;
+    private final boolean sparse;
+    private final Map<List<BsonValue>, Set<BsonValue>> entries = new HashMap<>();
+    private int multikey;
+
+    MemoryIndex(String name, BsonDocument keys, IndexOptions options) {
+        this.name = name;
+        this.fields = new ArrayList<>(keys.keySet());
+        this.unique = options.isUnique();
+        this.sparse = options.isSparse();
+    }
+
+    /**
+     * @param keys the index keys
+     * @return true if every key is a regular ascending or descending key
+     */
+    static boolean supports(BsonDocument keys) {
+        return keys.values().stream().allMatch(BsonValue::isNumber);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Multikey indexes can not serve equality lookups since they key on whole arrays rather than their elements.
+     *
+     * @return true if this index can find documents by value
+     */
+    boolean isLookupCapable() {
+        return multikey == 0;
+    }
+
+    /**
+     * @param document the document to check
+     * @param id       the id of the document being written, which may already be indexed under the same key
+     * @return the conflicting key if adding the document would violate uniqueness, or null
+     */
+    @Nullable
+    List<BsonValue> conflict(BsonDocument document, BsonValue id) {
+        List<BsonValue> key = key(document);
+        if (!unique || key == null) {
+            return null;
+        }
+        Set<BsonValue> ids = entries.get(key);
+        return ids == null || ids.isEmpty() || ids.size() == 1 && ids.contains(id) ? null : key;
+    }
+
+    void add(BsonDocument document, BsonValue id) {
+        List<BsonValue> key = key(document);
+        if (key != null) {
+            if (isMultikey(document)) {
+                multikey++;
+            }
+            entries.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+        }
+    }
+
+    void remove(BsonDocument document, BsonValue id) {
+        List<BsonValue> key = key(document);
+        if (key != null) {
+            Set<BsonValue> ids = entries.get(key);
+            if (ids != null && ids.remove(id)) {
+                if (isMultikey(document)) {
+                    multikey--;
+                }
+                if (ids.isEmpty()) {
+                    entries.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param values the values for each of the indexed fields in order
+     * @return the ids of the documents with those values
+     */
+    Set<BsonValue> lookup(List<BsonValue> values) {
+        List<BsonValue> key = new ArrayList<>(values.size());
+        for (BsonValue value : values) {
+            key.add(Values.normalize(value));
+        }
+        return entries.getOrDefault(key, Set.of());
+    }
+
+    @Nullable
+    private List<BsonValue> key(BsonDocument document) {
+        List<BsonValue> key = new ArrayList<>(fields.size());
+        boolean present = false;
+        for (String field : fields) {
+            BsonValue value = Values.get(document, field);
+            present |= value != null;
+            key.add(value != null ? Values.normalize(value) : BsonNull.VALUE);
+        }
+        return sparse && !present ? null : key;
+    }
+
+    private boolean isMultikey(BsonDocument document) {
+        for (String field : fields) {
+            List<BsonValue> values = Values.resolve(document, field, false);
+            if (values.size() > 1 || values.stream().anyMatch(BsonValue::isArray)
+                    || values.size() == 1 && Values.get(document, field) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
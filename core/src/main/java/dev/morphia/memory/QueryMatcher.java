@@ -0,0 +1,343 @@
+package dev.morphia.memory;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import dev.morphia.sofia.Sofia;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+
+import static java.lang.String.format;
+
+/**
+ * Evaluates query filters against documents. The supported operators are those generated by {@link dev.morphia.query.filters.Filters}
+ * that don't require an index or the aggregation framework to evaluate.
+ */
+final class QueryMatcher {
+    private static final Set<String> IGNORED = Set.of("$comment", "$isolated", "$atomic");
+    private static final Set<String> LOGICAL = Set.of("$and", "$or", "$nor");
+
+    private QueryMatcher() {
+    }
+
+    /**
+     * @param document the document to test
+     * @param filter   the filter to apply
+     * @return true if the document matches the filter
+     */
+    static boolean matches(BsonDocument document, BsonDocument filter) {
+        for (Entry<String, BsonValue> entry : filter.entrySet()) {
+            if (!matches(document, entry.getKey(), entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests a single value against an operator document such as {@code {$gt: 5}} or against a plain value for equality.
+     *
+     * @param value     the value to test
+     * @param condition the condition
+     * @return true if the value matches
+     */
+    static boolean matchesValue(BsonValue value, BsonValue condition) {
+        if (isOperatorDocument(condition)) {
+            BsonDocument wrapper = new BsonDocument("v", value);
+            return matchesOperators(wrapper, "v", condition.asDocument());
+        }
+        if (condition.isRegularExpression()) {
+            return Values.matches(value, condition.asRegularExpression());
+        }
+        if (condition.isDocument() && value.isDocument()) {
+            return Values.equal(value, condition) || matches(value.asDocument(), condition.asDocument());
+        }
+        return equalTo(List.of(value), condition);
+    }
+
+    static boolean isOperatorDocument(BsonValue value) {
+        if (!value.isDocument() || value.asDocument().isEmpty()) {
+            return false;
+        }
+        return value.asDocument().getFirstKey().startsWith("$");
+    }
+
+    private static boolean matches(BsonDocument document, String key, BsonValue condition) {
+        switch (key) {
+            case "$and":
+                for (BsonValue clause : condition.asArray()) {
+                    if (!matches(document, clause.asDocument())) {
+                        return false;
+                    }
+                }
+                return true;
+            case "$or":
+                for (BsonValue clause : condition.asArray()) {
+                    if (matches(document, clause.asDocument())) {
+                        return true;
+                    }
+                }
+                return false;
+            case "$nor":
+                for (BsonValue clause : condition.asArray()) {
+                    if (matches(document, clause.asDocument())) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                if (key.startsWith("$")) {
+                    if (IGNORED.contains(key)) {
+                        return true;
+                    }
+                    throw unsupported(key);
+                }
+                if (isOperatorDocument(condition)) {
+                    return matchesOperators(document, key, condition.asDocument());
+                }
+                if (condition.isRegularExpression()) {
+                    return regex(document, key, condition.asRegularExpression());
+                }
+                return equalTo(Values.resolve(document, key, true), condition);
+        }
+    }
+
+    private static boolean matchesOperators(BsonDocument document, String path, BsonDocument operators) {
+        for (Entry<String, BsonValue> entry : operators.entrySet()) {
+            String operator = entry.getKey();
+            BsonValue operand = entry.getValue();
+            boolean matched;
+            switch (operator) {
+                case "$eq":
+                    matched = equalTo(Values.resolve(document, path, true), operand);
+                    break;
+                case "$ne":
+                    matched = !equalTo(Values.resolve(document, path, true), operand);
+                    break;
+                case "$gt":
+                    matched = range(document, path, operand, c -> c > 0);
+                    break;
+                case "$gte":
+                    matched = range(document, path, operand, c -> c >= 0);
+                    break;
+                case "$lt":
+                    matched = range(document, path, operand, c -> c < 0);
+                    break;
+                case "$lte":
+                    matched = range(document, path, operand, c -> c <= 0);
+                    break;
+                case "$in":
+                    matched = in(Values.resolve(document, path, true), operand.asArray());
+                    break;
+                case "$nin":
+                    matched = !in(Values.resolve(document, path, true), operand.asArray());
+                    break;
+                case "$exists":
+                    matched = Values.resolve(document, path, false).isEmpty() != truthy(operand);
+                    break;
+                case "$type":
+                    matched = type(Values.resolve(document, path, true), operand);
+                    break;
+                case "$size":
+                    matched = Values.resolve(document, path, false).stream()
+                            .anyMatch(v -> v.isArray() && v.asArray().size() == operand.asNumber().intValue());
+                    break;
+                case "$all":
+                    matched = all(document, path, operand.asArray());
+                    break;
+                case "$elemMatch":
+                    matched = elemMatch(document, path, operand.asDocument());
+                    break;
+                case "$not":
+                    matched = operand.isRegularExpression()
+                            ? !regex(document, path, operand.asRegularExpression())
+                            : !matchesOperators(document, path, operand.asDocument());
+                    break;
+                case "$regex":
+                    matched = regex(document, path, regex(operand, operators.get("$options")));
+                    break;
+                case "$options":
+                    matched = true;
+                    break;
+                case "$mod":
+                    matched = mod(document, path, operand.asArray());
+                    break;
+                default:
+                    throw unsupported(operator);
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalTo(List<BsonValue> values, BsonValue operand) {
+        if (operand.isNull()) {
+            return values.isEmpty() || values.stream().anyMatch(BsonValue::isNull);
+        }
+        for (BsonValue value : values) {
+            if (Values.equal(value, operand)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean in(List<BsonValue> values, BsonArray operands) {
+        for (BsonValue operand : operands) {
+            if (operand.isRegularExpression()) {
+                if (values.stream().anyMatch(v -> Values.matches(v, operand.asRegularExpression()))) {
+                    return true;
+                }
+            } else if (equalTo(values, operand)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean range(BsonDocument document, String path, BsonValue operand, Comparison comparison) {
+        for (BsonValue value : Values.resolve(document, path, true)) {
+            if (Values.comparable(value, operand) && comparison.test(Values.compare(value, operand))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean all(BsonDocument document, String path, BsonArray operands) {
+        if (operands.isEmpty()) {
+            return false;
+        }
+        List<BsonValue> values = Values.resolve(document, path, true);
+        for (BsonValue operand : operands) {
+            if (isOperatorDocument(operand) && operand.asDocument().containsKey("$elemMatch")) {
+                if (!elemMatch(document, path, operand.asDocument().getDocument("$elemMatch"))) {
+                    return false;
+                }
+            } else if (!equalTo(values, operand)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean elemMatch(BsonDocument document, String path, BsonDocument condition) {
+        boolean valueCondition = isOperatorDocument(condition) && !LOGICAL.contains(condition.getFirstKey());
+        for (BsonValue value : Values.resolve(document, path, false)) {
+            if (value.isArray()) {
+                for (BsonValue element : value.asArray()) {
+                    if (valueCondition
+                            ? matchesValue(element, condition)
+                            : element.isDocument() && matches(element.asDocument(), condition)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean regex(BsonDocument document, String path, BsonRegularExpression regex) {
+        return Values.resolve(document, path, true).stream()
+                .anyMatch(value -> Values.matches(value, regex));
+    }
+
+    private static BsonRegularExpression regex(BsonValue pattern, BsonValue options) {
+        String flags = options != null ? options.asString().getValue() : "";
+        if (pattern.isRegularExpression()) {
+            return new BsonRegularExpression(pattern.asRegularExpression().getPattern(),
+                    pattern.asRegularExpression().getOptions() + flags);
+        }
+        return new BsonRegularExpression(pattern.asString().getValue(), flags);
+    }
+
+    private static boolean mod(BsonDocument document, String path, BsonArray operand) {
+        long divisor = operand.get(0).asNumber().longValue();
+        long remainder = operand.get(1).asNumber().longValue();
+        return Values.resolve(document, path, true).stream()
+                .anyMatch(value -> value.isNumber() && value.asNumber().longValue() % divisor == remainder);
+    }
+
+    private static boolean type(List<BsonValue> values, BsonValue operand) {
+        if (operand.isArray()) {
+            for (BsonValue type : operand.asArray()) {
+                if (type(values, type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (BsonValue value : values) {
+            if (operand.isString()) {
+                String alias = operand.asString().getValue();
+                if (alias.equals("number") ? value.isNumber() || value.isDecimal128() : alias.equals(alias(value.getBsonType()))) {
+                    return true;
+                }
+            } else if (value.getBsonType().getValue() == operand.asNumber().intValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String alias(BsonType type) {
+        switch (type) {
+            case DOUBLE:
+                return "double";
+            case STRING:
+                return "string";
+            case DOCUMENT:
+                return "object";
+            case ARRAY:
+                return "array";
+            case BINARY:
+                return "binData";
+            case OBJECT_ID:
+                return "objectId";
+            case BOOLEAN:
+                return "bool";
+            case DATE_TIME:
+                return "date";
+            case NULL:
+                return "null";
+            case REGULAR_EXPRESSION:
+                return "regex";
+            case INT32:
+                return "int";
+            case TIMESTAMP:
+                return "timestamp";
+            case INT64:
+                return "long";
+            case DECIMAL128:
+                return "decimal";
+            default:
+                return type.name();
+        }
+    }
+
+    private static boolean truthy(BsonValue value) {
+        if (value.isBoolean()) {
+            return value.asBoolean().getValue();
+        }
+        if (value.isNumber()) {
+            return value.asNumber().doubleValue() != 0;
+        }
+        return !value.equals(BsonNull.VALUE);
+    }
+
+    static UnsupportedOperationException unsupported(String operator) {
+        return new UnsupportedOperationException(Sofia.inMemoryUnsupported(format("'%s'", operator)));
+    }
+
+    private interface Comparison {
+        boolean test(int comparison);
+    }
+}
@@ -0,0 +1,367 @@
+package dev.morphia.memory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+
+import com.mongodb.lang.Nullable;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+
+/**
+ * Comparison, equality, and path resolution for BSON values following the server's semantics.
+ */
+final class Values {
+    private Values() {
+    }
+
+    /**
+     * Compares two values using the server's ordering across types.
+     *
+     * @param left  the first value
+     * @param right the second value
+     * @return the comparison result
+     */
+    static int compare(BsonValue left, BsonValue right) {
+        int rank = Integer.compare(rank(left), rank(right));
+        if (rank != 0) {
+            return rank;
+        }
+        switch (left.getBsonType()) {
+            case INT32:
+            case INT64:
+            case DOUBLE:
+            case DECIMAL128:
+                return compareNumbers(left, right);
+            case STRING:
+            case SYMBOL:
+                return text(left).compareTo(text(right));
+            case DOCUMENT:
+                return compareDocuments(left.asDocument(), right.asDocument());
+            case ARRAY:
+                return compareArrays(left.asArray(), right.asArray());
+            case BINARY:
+                return compareBinaries(left.asBinary(), right.asBinary());
+            case OBJECT_ID:
+                return left.asObjectId().getValue().compareTo(right.asObjectId().getValue());
+            case BOOLEAN:
+                return Boolean.compare(left.asBoolean().getValue(), right.asBoolean().getValue());
+            case DATE_TIME:
+                return Long.compare(left.asDateTime().getValue(), right.asDateTime().getValue());
+            case TIMESTAMP:
+                return left.asTimestamp().compareTo(right.asTimestamp());
+            case REGULAR_EXPRESSION:
+                BsonRegularExpression first = left.asRegularExpression();
+                BsonRegularExpression second = right.asRegularExpression();
+                int pattern = first.getPattern().compareTo(second.getPattern());
+                return pattern != 0 ? pattern : first.getOptions().compareTo(second.getOptions());
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Compares two values only if the server would consider them comparable by a range operator, i.e., they share a canonical type.
+     *
+     * @return true if the values share a canonical type
+     */
+    static boolean comparable(BsonValue left, BsonValue right) {
+        return rank(left) == rank(right);
+    }
+
+    /**
+     * @return true if the values are equal with numbers compared by value regardless of their BSON type
+     */
+    static boolean equal(BsonValue left, BsonValue right) {
+        if (left.isNumber() || left.isDecimal128()) {
+            return (right.isNumber() || right.isDecimal128()) && compareNumbers(left, right) == 0;
+        }
+        if (left.isDocument() && right.isDocument()) {
+            return compareDocuments(left.asDocument(), right.asDocument()) == 0;
+        }
+        if (left.isArray() && right.isArray()) {
+            return compareArrays(left.asArray(), right.asArray()) == 0;
+        }
+        if ((left.isString() || left.isSymbol()) && (right.isString() || right.isSymbol())) {
+            return text(left).equals(text(right));
+        }
+        return left.equals(right);
+    }
+
+    /**
+     * Normalizes a value for use as a hash key so that numerically equal values of different types hash together.
+     *
+     * @param value the value
+     * @return the normalized value
+     */
+    static BsonValue normalize(BsonValue value) {
+        if ((value.isNumber() || value.isDecimal128()) && finite(value)) {
+            BigDecimal decimal = decimal(value);
+            try {
+                return new BsonInt64(decimal.longValueExact());
+            } catch (ArithmeticException e) {
+                return new BsonDouble(decimal.doubleValue());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return true if the string value matches the regular expression
+     */
+    static boolean matches(BsonValue value, BsonRegularExpression regex) {
+        if (!value.isString() && !value.isSymbol()) {
+            return value.isRegularExpression() && value.equals(regex);
+        }
+        return pattern(regex.getPattern(), regex.getOptions()).matcher(text(value)).find();
+    }
+
+    static Pattern pattern(String regex, String options) {
+        int flags = 0;
+        for (char c : options.toCharArray()) {
+            switch (c) {
+                case 'i':
+                    flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+                    break;
+                case 'm':
+                    flags |= Pattern.MULTILINE;
+                    break;
+                case 's':
+                    flags |= Pattern.DOTALL;
+                    break;
+                case 'x':
+                    flags |= Pattern.COMMENTS;
+                    break;
+                default:
+            }
+        }
+        return Pattern.compile(regex, flags);
+    }
+
+    /**
+     * Resolves a dotted path against a document. Arrays encountered along the path are traversed so that each element is considered
+     * and numeric path segments index in to arrays.
+     *
+     * @param document the document
+     * @param path     the path
+     * @param expand   if true, arrays found at the end of the path contribute their elements as well as themselves
+     * @return the values found. An empty list means the path does not exist.
+     */
+    static List<BsonValue> resolve(BsonValue document, String path, boolean expand) {
+        List<BsonValue> values = new ArrayList<>();
+        resolve(document, path.split("\\."), 0, expand, values);
+        return values;
+    }
+
+    /**
+     * Finds the single value at a path without traversing arrays except by numeric index.
+     *
+     * @return the value or null if the path does not exist
+     */
+    @Nullable
+    static BsonValue get(BsonDocument document, String path) {
+        BsonValue current = document;
+        for (String part : path.split("\\.")) {
+            if (current.isDocument()) {
+                current = current.asDocument().get(part);
+            } else if (current.isArray() && isIndex(part)) {
+                BsonArray array = current.asArray();
+                int index = Integer.parseInt(part);
+                current = index < array.size() ? array.get(index) : null;
+            } else {
+                current = null;
+            }
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Finds the value to sort a document by. Arrays sort by their smallest element ascending and largest element descending, and
+     * missing values sort as null.
+     */
+    static BsonValue sortKey(BsonDocument document, String path, boolean ascending) {
+        List<BsonValue> values = resolve(document, path, false);
+        BsonValue key = null;
+        for (BsonValue value : values) {
+            Iterator<BsonValue> candidates = value.isArray() && !value.asArray().isEmpty()
+                    ? value.asArray().iterator()
+                    : List.of(value).iterator();
+            while (candidates.hasNext()) {
+                BsonValue candidate = candidates.next();
+                if (key == null || (ascending ? compare(candidate, key) < 0 : compare(candidate, key) > 0)) {
+                    key = candidate;
+                }
+            }
+        }
+        return key != null ? key : BsonNull.VALUE;
+    }
+
+    static boolean isIndex(String part) {
+        if (part.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < part.length(); i++) {
+            if (!Character.isDigit(part.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static BigDecimal decimal(BsonValue value) {
+        switch (value.getBsonType()) {
+            case INT32:
+                return BigDecimal.valueOf(value.asInt32().getValue());
+            case INT64:
+                return BigDecimal.valueOf(value.asInt64().getValue());
+            case DOUBLE:
+                return BigDecimal.valueOf(value.asDouble().getValue());
+            default:
+                return value.asDecimal128().getValue().bigDecimalValue();
+        }
+    }
+
+    private static void resolve(BsonValue current, String[] parts, int index, boolean expand, List<BsonValue> values) {
+        if (index == parts.length) {
+            values.add(current);
+            if (expand && current.isArray()) {
+                values.addAll(current.asArray());
+            }
+            return;
+        }
+        String part = parts[index];
+        if (current.isDocument()) {
+            BsonValue value = current.asDocument().get(part);
+            if (value != null) {
+                resolve(value, parts, index + 1, expand, values);
+            }
+        } else if (current.isArray()) {
+            BsonArray array = current.asArray();
+            if (isIndex(part)) {
+                int position = Integer.parseInt(part);
+                if (position < array.size()) {
+                    resolve(array.get(position), parts, index + 1, expand, values);
+                }
+            }
+            for (BsonValue element : array) {
+                if (element.isDocument()) {
+                    resolve(element, parts, index, expand, values);
+                }
+            }
+        }
+    }
+
+    private static int compareNumbers(BsonValue left, BsonValue right) {
+        if ((left.isInt32() || left.isInt64()) && (right.isInt32() || right.isInt64())) {
+            return Long.compare(left.asNumber().longValue(), right.asNumber().longValue());
+        }
+        if (left.isDouble() && right.isDouble() || !finite(left) || !finite(right)) {
+            return Double.compare(left.asNumber().doubleValue(), right.asNumber().doubleValue());
+        }
+        return decimal(left).compareTo(decimal(right));
+    }
+
+    private static boolean finite(BsonValue value) {
+        if (value.isDouble()) {
+            double number = value.asDouble().getValue();
+            return !Double.isNaN(number) && !Double.isInfinite(number);
+        }
+        return !value.isDecimal128() || value.asDecimal128().getValue().isFinite();
+    }
+
+    private static int compareDocuments(BsonDocument left, BsonDocument right) {
+        Iterator<Entry<String, BsonValue>> first = left.entrySet().iterator();
+        Iterator<Entry<String, BsonValue>> second = right.entrySet().iterator();
+        while (first.hasNext() && second.hasNext()) {
+            Entry<String, BsonValue> a = first.next();
+            Entry<String, BsonValue> b = second.next();
+            int compare = Integer.compare(rank(a.getValue()), rank(b.getValue()));
+            if (compare == 0) {
+                compare = a.getKey().compareTo(b.getKey());
+            }
+            if (compare == 0) {
+                compare = compare(a.getValue(), b.getValue());
+            }
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Boolean.compare(first.hasNext(), second.hasNext());
+    }
+
+    private static int compareArrays(BsonArray left, BsonArray right) {
+        for (int i = 0; i < Math.min(left.size(), right.size()); i++) {
+            int compare = compare(left.get(i), right.get(i));
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Integer.compare(left.size(), right.size());
+    }
+
+    private static int compareBinaries(BsonBinary left, BsonBinary right) {
+        int compare = Integer.compare(left.getData().length, right.getData().length);
+        if (compare == 0) {
+            compare = Byte.compare(left.getType(), right.getType());
+        }
+        return compare != 0 ? compare : Arrays.compare(left.getData(), right.getData());
+    }
+
+    private static int rank(BsonValue value) {
+        BsonType type = value.getBsonType();
+        switch (type) {
+            case MIN_KEY:
+                return 1;
+            case UNDEFINED:
+            case NULL:
+                return 2;
+            case INT32:
+            case INT64:
+            case DOUBLE:
+            case DECIMAL128:
+                return 3;
+            case STRING:
+            case SYMBOL:
+                return 4;
+            case DOCUMENT:
+                return 5;
+            case ARRAY:
+                return 6;
+            case BINARY:
+                return 7;
+            case OBJECT_ID:
+                return 8;
+            case BOOLEAN:
+                return 9;
+            case DATE_TIME:
+                return 10;
+            case TIMESTAMP:
+                return 11;
+            case REGULAR_EXPRESSION:
+                return 12;
+            case MAX_KEY:
+                return 14;
+            default:
+                return 13;
+        }
+    }
+
+    private static String text(BsonValue value) {
+        return value.isString() ? value.asString().getValue() : value.asSymbol().getSymbol();
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * An in-memory implementation of the operations a datastore performs against the server. This is intended for tests and benchmarks
+ * of the mapping layer and supports only a subset of the query and update operators the server does.
+ */
+@NonNullApi
+package dev.morphia.memory;
+
+import com.mongodb.lang.NonNullApi;
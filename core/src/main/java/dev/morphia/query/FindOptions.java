@@ -16,6 +16,8 @@
 
 package dev.morphia.query;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -26,16 +28,19 @@ import com.mongodb.DBObject;
 import com.mongodb.ReadConcern;
 import com.mongodb.ReadPreference;
 import com.mongodb.assertions.Assertions;
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.model.Collation;
 import com.mongodb.lang.Nullable;
 
+import dev.morphia.annotations.internal.MorphiaExperimental;
 import dev.morphia.annotations.internal.MorphiaInternal;
 import dev.morphia.internal.CollectionConfigurable;
 import dev.morphia.internal.PathTarget;
 import dev.morphia.internal.ReadConfigurable;
 import dev.morphia.mapping.Mapper;
 import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.query.internal.ReferenceLookup;
 import dev.morphia.sofia.Sofia;
 
 import org.bson.BsonString;
@@ -45,6 +50,7 @@ import org.bson.types.ObjectId;
 
 import static dev.morphia.internal.MorphiaInternals.DriverVersion.v4_1_0;
 import static dev.morphia.internal.MorphiaInternals.tryInvoke;
+import static java.util.Arrays.asList;
 
 /**
  * The options to apply to a find operation (also commonly referred to as a query).
@@ -80,6 +86,7 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
     private Projection projection;
     private String queryLogId;
     private String collection;
+    private List<String> fetch = new ArrayList<>();
 
     /**
      * Creates an instance with default values
@@ -139,14 +146,8 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
         iterable.returnKey(returnKey);
         iterable.showRecordId(showRecordId);
         iterable.skip(skip);
-        if (sort != null) {
-            Document mapped = new Document();
-            EntityModel model = mapper.getEntityModel(type);
-            for (Entry<String, Object> entry : sort.entrySet()) {
-                Object value = entry.getValue();
-                boolean metaScore = value instanceof Document && ((Document) value).get("$meta") != null;
-                mapped.put(new PathTarget(mapper, model, entry.getKey(), !metaScore).translatedPath(), value);
-            }
+        Document mapped = mappedSort(mapper, type);
+        if (mapped != null) {
             iterable.sort(mapped);
         }
         iterable.let(variables);
@@ -248,6 +249,7 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
         this.readPreference = original.readPreference;
         this.projection = original.projection;
         this.queryLogId = original.queryLogId;
+        this.fetch = new ArrayList<>(original.fetch);
 
         return this;
     }
@@ -274,6 +276,110 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
         return cursorType;
     }
 
+    /**
+     * Joins the entities referenced by the given {@link dev.morphia.annotations.Reference @Reference} properties in to the results on
+     * the server so they are loaded in the same round trip as the query results rather than being fetched afterwards. Paths may pass
+     * through embedded properties, e.g., {@code "lineItems.product"}. The query is run as an aggregation with a {@code $lookup} per
+     * path. References whose entities are stored in a different collection than the property's type, and those which are not found,
+     * are fetched as usual.
+     * <p>
+     * Since the query is run as an aggregation, cursor types, {@code min}/{@code max}, {@code returnKey}, and {@code showRecordId} are
+     * not supported and filters must be valid in a {@code $match} stage.
+     *
+     * @param paths the reference properties to join
+     * @return this
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    public FindOptions fetch(String... paths) {
+        this.fetch = new ArrayList<>(asList(paths));
+        return this;
+    }
+
+    /**
+     * @return the reference properties to join
+     * @morphia.internal
+     * @see #fetch(String...)
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public List<String> fetchPaths() {
+        return fetch;
+    }
+
+    /**
+     * Creates the pipeline which runs a query with {@link #fetch(String...) fetched} references.
+     *
+     * @param mapper the mapper to use
+     * @param type   the queried type
+     * @param query  the query document
+     * @return the pipeline
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public List<Document> fetchPipeline(Mapper mapper, Class<?> type, Document query) {
+        if (cursorType != null && cursorType != CursorType.NonTailable) {
+            throw new IllegalArgumentException(Sofia.fetchOptionsUnsupported("cursorType"));
+        }
+        if (min != null || max != null) {
+            throw new IllegalArgumentException(Sofia.fetchOptionsUnsupported("min/max"));
+        }
+        if (returnKey || showRecordId) {
+            throw new IllegalArgumentException(Sofia.fetchOptionsUnsupported(returnKey ? "returnKey" : "showRecordId"));
+        }
+        List<Document> pipeline = new ArrayList<>();
+        if (!query.isEmpty()) {
+            pipeline.add(new Document("$match", query));
+        }
+        Document mapped = mappedSort(mapper, type);
+        if (mapped != null) {
+            pipeline.add(new Document("$sort", mapped));
+        }
+        if (skip > 0) {
+            pipeline.add(new Document("$skip", skip));
+        }
+        if (limit > 0) {
+            pipeline.add(new Document("$limit", limit));
+        }
+        if (projection != null) {
+            Document fields = projection.map(mapper, type);
+            if (fields != null && !fields.isEmpty()) {
+                pipeline.add(new Document("$project", fields));
+            }
+        }
+        pipeline.addAll(new ReferenceLookup(mapper, type).stages(fetch));
+        return pipeline;
+    }
+
+    /**
+     * Applies the options which carry over to the aggregation running a query with {@link #fetch(String...) fetched} references.
+     *
+     * @param iterable the iterable to use
+     * @param <T>      the result type
+     * @return the iterable instance for the query results
+     * @morphia.internal
+     * @since 2.4
+     */
+    @MorphiaInternal
+    public <T> AggregateIterable<T> apply(AggregateIterable<T> iterable) {
+        if (isLogQuery()) {
+            logQuery(); //  reset to a new ID
+        }
+        iterable.allowDiskUse(allowDiskUse);
+        iterable.batchSize(batchSize);
+        iterable.collation(collation);
+        iterable.comment(comment);
+        if (hint != null) {
+            iterable.hint(hint);
+        }
+        iterable.hintString(hintString);
+        iterable.maxAwaitTime(maxAwaitTimeMS, TimeUnit.MILLISECONDS);
+        iterable.maxTime(maxTimeMS, TimeUnit.MILLISECONDS);
+        iterable.let(variables);
+        return iterable;
+    }
+
     /**
      * @return true is disk use is allowed
      */
@@ -413,7 +519,7 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
     public int hashCode() {
         return Objects.hash(allowDiskUse, batchSize, limit, maxTimeMS, maxAwaitTimeMS, skip, sort, cursorType, noCursorTimeout, oplogReplay,
                 partial, collation, comment, hint, hintString, max, min, returnKey, showRecordId, readConcern, readPreference, projection,
-                queryLogId);
+                queryLogId, fetch);
     }
 
     @Override
@@ -433,7 +539,7 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
                 && Objects.equals(comment, that.comment) && Objects.equals(hint, that.hint) && Objects.equals(hintString, that.hintString)
                 && Objects.equals(max, that.max) && Objects.equals(min, that.min) && Objects.equals(readConcern, that.readConcern)
                 && Objects.equals(readPreference, that.readPreference) && Objects.equals(projection, that.projection)
-                && Objects.equals(queryLogId, that.queryLogId);
+                && Objects.equals(queryLogId, that.queryLogId) && Objects.equals(fetch, that.fetch);
     }
 
     /**
@@ -783,6 +889,7 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
                 .add("readPreference=" + readPreference)
                 .add("queryLogId='" + queryLogId + "'")
                 .add("projection=" + projection)
+                .add("fetch=" + fetch)
                 .toString();
     }
 
@@ -823,4 +930,21 @@ public final class FindOptions implements ReadConfigurable<FindOptions>, Collect
         return this;
     }
 
+    /**
+     * @return the sort with its field names translated to their mapped form, or null if no sort is set
+     */
+    @Nullable
+    Document mappedSort(Mapper mapper, Class<?> type) {
+        if (sort == null) {
+            return null;
+        }
+        Document mapped = new Document();
+        EntityModel model = mapper.getEntityModel(type);
+        for (Entry<String, Object> entry : sort.entrySet()) {
+            Object value = entry.getValue();
+            boolean metaScore = value instanceof Document && ((Document) value).get("$meta") != null;
+            mapped.put(new PathTarget(mapper, model, entry.getKey(), !metaScore).translatedPath(), value);
+        }
+        return mapped;
+    }
 }
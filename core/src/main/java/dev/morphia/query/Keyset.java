@@ -0,0 +1,196 @@
+package dev.morphia.query;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.sofia.Sofia;
+
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+
+/**
+ * The sort and last sort key values of a keyset paginated query. This is what a page token encodes.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+final class Keyset {
+    private static final String ID = "_id";
+
+    private final Document sort;
+    private final int size;
+    private final int query;
+    private final List<Object> keys;
+
+    Keyset(Document sort, int size, int query, List<Object> keys) {
+        this.sort = sort;
+        this.size = size;
+        this.query = query;
+        this.keys = keys;
+    }
+
+    /**
+     * Validates a mapped sort for keyset pagination and appends {@code _id} to break ties if it is not already sorted on.
+     *
+     * @param mapped the mapped sort or null for none
+     * @return the sort to page by
+     */
+    static Document sort(@Nullable Document mapped) {
+        Document sort = new Document();
+        if (mapped != null) {
+            for (Entry<String, Object> entry : mapped.entrySet()) {
+                Object value = entry.getValue();
+                if (!(value instanceof Number) || Math.abs(((Number) value).intValue()) != 1) {
+                    throw new IllegalArgumentException(Sofia.pageSortUnsupported(entry.getKey()));
+                }
+                sort.put(entry.getKey(), ((Number) value).intValue());
+            }
+        }
+        if (!sort.containsKey(ID)) {
+            sort.put(ID, 1);
+        }
+        return sort;
+    }
+
+    /**
+     * Decodes a page token.
+     *
+     * @param token the token
+     * @param codec the document codec
+     * @param query the hash of the query the token is used with
+     * @return the keyset
+     */
+    @SuppressWarnings("unchecked")
+    static Keyset decode(String token, Codec<Document> codec, int query) {
+        Keyset keyset;
+        try {
+            Document document = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(Base64.getUrlDecoder().decode(token))),
+                    DecoderContext.builder().build());
+            keyset = new Keyset(document.get("s", Document.class), document.getInteger("n"), document.getInteger("q"),
+                    (List<Object>) document.get("k", List.class));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(Sofia.pageTokenInvalid(), e);
+        }
+        if (keyset.query != query || keyset.sort == null || keyset.keys == null || keyset.keys.size() != keyset.sort.size()
+                || keyset.size <= 0) {
+            throw new IllegalArgumentException(Sofia.pageTokenInvalid());
+        }
+        return keyset;
+    }
+
+    /**
+     * Reads the sort key values from an entity by walking each mapped sort path through the entity's properties.
+     *
+     * @param mapper the mapper
+     * @param model  the entity's model
+     * @param sort   the mapped sort
+     * @param entity the entity
+     * @return the sort key values in sort order
+     */
+    static List<Object> keys(Mapper mapper, EntityModel model, Document sort, Object entity) {
+        List<Object> keys = new ArrayList<>(sort.size());
+        for (String path : sort.keySet()) {
+            keys.add(path.equals(ID) ? mapper.getId(entity) : value(mapper, model, path, entity));
+        }
+        return keys;
+    }
+
+    @Nullable
+    private static Object value(Mapper mapper, EntityModel root, String path, Object entity) {
+        EntityModel model = root;
+        Object value = entity;
+        for (String segment : path.split("\\.")) {
+            PropertyModel property = model != null ? model.getProperty(segment) : null;
+            if (property == null || property.isMultipleValues()) {
+                throw new IllegalArgumentException(Sofia.pageSortUnsupported(path));
+            }
+            value = property.getValue(value);
+            if (value == null) {
+                return null;
+            }
+            if (property.isReference()) {
+                return mapper.getId(value);
+            }
+            model = mapper.isMappable(value.getClass()) ? mapper.getEntityModel(value.getClass()) : null;
+        }
+        return value;
+    }
+
+    /**
+     * Builds the filter selecting every document after the given key values in sort order. Null and missing values sort before every
+     * other value but the server only compares values of the same type so {@code $gt}/{@code $lt} can not cross that bracket. After a
+     * null key an ascending sort continues with every non-null value and a descending one has nothing left, while before a non-null key
+     * a descending sort still has the null bracket to come. Equality on a null key matches both null and missing values as the sort
+     * does.
+     *
+     * @return the filter
+     */
+    Document seek() {
+        List<Document> clauses = new ArrayList<>();
+        List<String> paths = new ArrayList<>(sort.keySet());
+        for (int i = 0; i < paths.size(); i++) {
+            String path = paths.get(i);
+            Object key = keys.get(i);
+            boolean ascending = sort.getInteger(path) > 0;
+            if (key == null && !ascending) {
+                continue;
+            }
+            Document clause = new Document();
+            for (int j = 0; j < i; j++) {
+                clause.put(paths.get(j), keys.get(j));
+            }
+            if (key == null) {
+                clause.put(path, new Document("$ne", null));
+            } else if (ascending) {
+                clause.put(path, new Document("$gt", key));
+            } else {
+                clause.put("$or", List.of(new Document(path, new Document("$lt", key)), new Document(path, null)));
+            }
+            clauses.add(clause);
+        }
+        return clauses.size() == 1 ? clauses.get(0) : new Document("$or", clauses);
+    }
+
+    /**
+     * Encodes this keyset as an opaque token.
+     *
+     * @param codec the document codec
+     * @return the token
+     */
+    String encode(Codec<Document> codec) {
+        Document document = new Document("q", query)
+                .append("n", size)
+                .append("s", sort)
+                .append("k", keys);
+        RawBsonDocument raw = new RawBsonDocument(document, codec);
+        ByteBuffer buffer = raw.getByteBuffer().asNIO();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    boolean hasKeys() {
+        return !keys.isEmpty();
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    Document getSort() {
+        return sort;
+    }
+}
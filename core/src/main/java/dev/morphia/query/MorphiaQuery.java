@@ -5,8 +5,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
@@ -19,21 +23,41 @@ import com.mongodb.lang.Nullable;
 import dev.morphia.Datastore;
 import dev.morphia.DatastoreImpl;
 import dev.morphia.DeleteOptions;
+import dev.morphia.KeySet;
 import dev.morphia.ModifyOptions;
 import dev.morphia.UpdateOptions;
 import dev.morphia.aggregation.stages.Stage;
 import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.cache.EntityCache;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.InstrumentedCursor;
+import dev.morphia.instrumentation.OperationType;
 import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.mapping.codec.references.ReferenceBatch;
 import dev.morphia.mapping.codec.writer.DocumentWriter;
+import dev.morphia.query.analysis.QueryAnalyzer;
 import dev.morphia.query.filters.Filter;
 import dev.morphia.query.filters.Filters;
 import dev.morphia.query.filters.NearFilter;
+import dev.morphia.query.internal.IdentityMapCursor;
 import dev.morphia.query.internal.MorphiaCursor;
 import dev.morphia.query.internal.MorphiaKeyCursor;
+import dev.morphia.query.internal.PartitionSpliterator;
+import dev.morphia.query.internal.ReferenceBatchCursor;
 import dev.morphia.query.updates.UpdateOperator;
 import dev.morphia.sofia.Sofia;
+import dev.morphia.transactions.IdentityMap;
 
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonValue;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -189,6 +213,33 @@ class MorphiaQuery<T> implements Query<T> {
 
     @Override
     public T first() {
+        IdentityMap identityMap = datastore.getIdentityMap();
+        if (identityMap != null && mapper.isMappable(type)) {
+            Document query = toDocument();
+            Object id = query.get("_id");
+            if (query.size() == 1 && isLiteral(id)) {
+                Object loaded = identityMap.get(getCollectionName(), id);
+                if (type.isInstance(loaded)) {
+                    return type.cast(loaded);
+                }
+            }
+        }
+        EntityCache cache = datastore.getEntityCache();
+        if (cache != null && mapper.isMappable(type)) {
+            EntityModel model = mapper.getEntityModel(type);
+            if (EntityCache.isCached(model)) {
+                Document query = toDocument();
+                Object id = query.get("_id");
+                if (query.size() == 1 && isLiteral(id)) {
+                    if (identityMap == null) {
+                        return cache.find(datastore, collection, model, id);
+                    }
+                    // register cache hits as a session's cursor registers the entities it decodes
+                    T found = IdentityMap.with(identityMap, () -> cache.find(datastore, collection, model, id));
+                    return found != null ? identityMap.register(found) : null;
+                }
+            }
+        }
         return first(new FindOptions());
     }
 
@@ -228,6 +279,7 @@ class MorphiaQuery<T> implements Query<T> {
     @Override
     public MorphiaKeyCursor<T> keys(FindOptions options) {
         FindOptions includeId = new FindOptions().copy(options)
+                .fetch()
                 .projection()
                 .include("_id");
 
@@ -235,6 +287,62 @@ class MorphiaQuery<T> implements Query<T> {
                 datastore, type, getCollectionName());
     }
 
+    @Override
+    public KeySet<T> keySet(FindOptions options) {
+        FindOptions includeId = new FindOptions().copy(options)
+                .fetch()
+                .projection()
+                .include("_id");
+        KeySet<T> keys = new KeySet<>(type, includeId.collection() != null ? includeId.collection() : getCollectionName());
+        Codec<?> idCodec = idCodec();
+        try (MongoCursor<RawBsonDocument> cursor = prepareCursor(includeId, collection.withDocumentClass(RawBsonDocument.class))) {
+            while (cursor.hasNext()) {
+                keys.add(toId(cursor.next().get("_id"), idCodec));
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public Page<T> page(FindOptions options) {
+        if (options.getLimit() <= 0) {
+            throw new IllegalArgumentException(Sofia.pageSizeRequired(options.getLimit()));
+        }
+        Document query = toDocument();
+        return page(options, query, new Keyset(Keyset.sort(options.mappedSort(mapper, type)), options.getLimit(), hash(query),
+                List.of()));
+    }
+
+    @Override
+    public Page<T> page(String token, FindOptions options) {
+        Document query = toDocument();
+        return page(options, query, Keyset.decode(token, documentCodec(), hash(query)));
+    }
+
+    @Override
+    public Stream<T> partitioned(int partitions, FindOptions options) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException(Sofia.partitionCountInvalid(partitions));
+        }
+        if (options.getSkip() != 0 || options.getLimit() != 0 || options.getSort() != null) {
+            throw new IllegalArgumentException(Sofia.partitionOptionsNotAllowed());
+        }
+        Document query = toDocument();
+        List<Document> ranges = new ArrayList<>();
+        Object lower = null;
+        for (Object boundary : boundaries(partitions, query)) {
+            ranges.add(range(lower, boundary));
+            lower = boundary;
+        }
+        ranges.add(range(lower, null));
+
+        lastOptions = options;
+        PartitionSpliterator<T> spliterator = new PartitionSpliterator<>(ranges, range -> prepareCursor(options, collection,
+                range.isEmpty() ? query : query.isEmpty() ? range : new Document("$and", List.of(query, range))),
+                mapper.getOptions().getExecutor());
+        return StreamSupport.stream(spliterator, true).onClose(spliterator::close);
+    }
+
     @Override
     public Query<T> search(String searchText) {
         return filter(text(searchText));
@@ -311,30 +419,197 @@ class MorphiaQuery<T> implements Query<T> {
         return collectionName;
     }
 
+    /**
+     * Finds the {@code _id} values splitting the matching documents into evenly sized partitions with a single {@code $bucketAuto} pass
+     * over the {@code _id} values. The ranges derived from these values only match {@code _id} values of the same type as their
+     * bounds so mixed types are rejected rather than silently skipped.
+     */
+    private List<Object> boundaries(int partitions, Document query) {
+        List<Object> boundaries = new ArrayList<>();
+        if (partitions == 1) {
+            return boundaries;
+        }
+        List<Document> pipeline = new ArrayList<>();
+        if (!query.isEmpty()) {
+            pipeline.add(new Document("$match", query));
+        }
+        pipeline.add(new Document("$bucketAuto", new Document("groupBy", "$_id").append("buckets", partitions)));
+        Object first = null;
+        boolean seen = false;
+        for (Document bucket : datastore.operations().aggregate(collection.withDocumentClass(Document.class), pipeline)) {
+            Document bounds = bucket.get("_id", Document.class);
+            Object min = bounds.get("min");
+            if (!seen) {
+                first = min;
+                seen = true;
+            } else {
+                boundaries.add(min);
+            }
+            // values of each type sort together so a type change shows at the edge of a bucket
+            checkIdType(first, min);
+            checkIdType(first, bounds.get("max"));
+        }
+        return boundaries;
+    }
+
+    private static void checkIdType(@Nullable Object expected, @Nullable Object actual) {
+        if (idType(expected) != idType(actual)) {
+            throw new IllegalStateException(Sofia.partitionMixedIdTypes(idType(expected).getSimpleName(),
+                    idType(actual).getSimpleName()));
+        }
+    }
+
+    private static Class<?> idType(@Nullable Object id) {
+        if (id == null) {
+            return Void.class;
+        }
+        return id instanceof Number ? Number.class : id.getClass();
+    }
+
+    private static Document range(@Nullable Object lower, @Nullable Object upper) {
+        Document range = new Document();
+        if (lower != null) {
+            range.put("$gte", lower);
+        }
+        if (upper != null) {
+            range.put("$lt", upper);
+        }
+        return range.isEmpty() ? range : new Document("_id", range);
+    }
+
+    private static boolean isLiteral(@Nullable Object value) {
+        if (value == null || value instanceof Pattern || value instanceof BsonRegularExpression) {
+            return false;
+        }
+        return !(value instanceof Document) || ((Document) value).keySet().stream().noneMatch(key -> key.startsWith("$"));
+    }
+
+    private Codec<Document> documentCodec() {
+        return datastore.getCodecRegistry().get(Document.class);
+    }
+
+    private int hash(Document query) {
+        return query.toJson(documentCodec()).hashCode();
+    }
+
+    private Page<T> page(FindOptions options, Document query, Keyset keyset) {
+        if (options.getSkip() != 0) {
+            throw new IllegalArgumentException(Sofia.pageSkipNotAllowed());
+        }
+        Document filter = query;
+        if (keyset.hasKeys()) {
+            Document seek = keyset.seek();
+            filter = query.isEmpty() ? seek : new Document("$and", List.of(query, seek));
+        }
+        int size = keyset.getSize();
+        FindOptions paged = options.copy()
+                .sort(keyset.getSort())
+                .limit(size + 1);
+        List<T> items = new ArrayList<>(size + 1);
+        lastOptions = paged;
+        try (MongoCursor<T> cursor = prepareCursor(paged, collection, filter)) {
+            while (items.size() <= size && cursor.hasNext()) {
+                items.add(cursor.next());
+            }
+        }
+        String next = null;
+        if (items.size() > size) {
+            items.remove(size);
+            T last = items.get(size - 1);
+            next = new Keyset(keyset.getSort(), size, hash(query),
+                    Keyset.keys(mapper, mapper.getEntityModel(type), keyset.getSort(), last))
+                            .encode(documentCodec());
+        }
+        return new Page<>(items, next);
+    }
+
     @NonNull
     private <E> FindIterable<E> iterable(FindOptions findOptions, MongoCollection<E> collection) {
-        final Document query = toDocument();
+        return iterable(findOptions, collection, toDocument());
+    }
 
+    @NonNull
+    private <E> FindIterable<E> iterable(FindOptions findOptions, MongoCollection<E> collection, Document query) {
         if (LOG.isTraceEnabled()) {
             LOG.trace(format("Running query(%s) : %s, options: %s,", getCollectionName(), query, findOptions));
         }
 
+        QueryAnalyzer analyzer = datastore.getQueryAnalyzer();
+        if (analyzer != null && mapper.isMappable(type)) {
+            Projection projection = findOptions.getProjection();
+            analyzer.analyze(mapper.getEntityModel(type), getCollectionName(), query, findOptions.mappedSort(mapper, type),
+                    projection != null ? projection.map(mapper, type) : null);
+        }
+
         MongoCollection<E> updated = datastore.configureCollection(findOptions, collection);
 
         return datastore.operations().find(updated, query);
     }
 
-    @SuppressWarnings("ConstantConditions")
+    private <E> AggregateIterable<E> aggregation(FindOptions findOptions, MongoCollection<E> collection, Document query) {
+        List<Document> pipeline = findOptions.fetchPipeline(mapper, type, query);
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(format("Running query(%s) : %s, options: %s,", getCollectionName(), pipeline, findOptions));
+        }
+
+        MongoCollection<E> updated = datastore.configureCollection(findOptions, collection);
+
+        return datastore.operations().aggregate(updated, pipeline);
+    }
+
     private <E> MongoCursor<E> prepareCursor(FindOptions findOptions, MongoCollection<E> collection) {
-        Document oldProfile = null;
         lastOptions = findOptions;
+        return prepareCursor(findOptions, collection, toDocument());
+    }
+
+    private <E> MongoCursor<E> prepareCursor(FindOptions findOptions, MongoCollection<E> collection, Document query) {
+        IdentityMap identityMap = datastore.getIdentityMap();
+        if (identityMap == null || findOptions.getProjection() != null) {
+            return batchCursor(findOptions, collection, query);
+        }
+        MongoCursor<E> cursor = IdentityMap.with(identityMap, () -> batchCursor(findOptions, collection, query));
+        return new IdentityMapCursor<>(cursor, identityMap);
+    }
+
+    private <E> MongoCursor<E> batchCursor(FindOptions findOptions, MongoCollection<E> collection, Document query) {
+        if (!mapper.getOptions().isBatchLazyReferences()) {
+            return openCursor(findOptions, collection, query);
+        }
+        // the first batch of results is decoded when the cursor is opened
+        ReferenceBatch batch = new ReferenceBatch(datastore);
+        MongoCursor<E> cursor = ReferenceBatch.with(batch, () -> openCursor(findOptions, collection, query));
+        return new ReferenceBatchCursor<>(cursor, datastore, batch);
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private <E> MongoCursor<E> openCursor(FindOptions findOptions, MongoCollection<E> collection, Document query) {
+        Document oldProfile = null;
         if (findOptions.isLogQuery()) {
             oldProfile = datastore.getDatabase().runCommand(new Document("profile", 2).append("slowms", 0));
         }
         try {
-            return findOptions
-                    .apply(iterable(findOptions, collection), mapper, type)
+            Instrumentation instrumentation = mapper.getOptions().getInstrumentation();
+            if (!findOptions.fetchPaths().isEmpty()) {
+                long start = System.nanoTime();
+                MongoCursor<E> cursor = findOptions
+                        .apply(aggregation(findOptions, collection, query))
+                        .iterator();
+                return !instrumentation.isEnabled()
+                        ? cursor
+                        : new InstrumentedCursor<>(cursor, instrumentation, OperationType.AGGREGATE, type, getCollectionName(),
+                                System.nanoTime() - start);
+            }
+            if (!instrumentation.isEnabled()) {
+                return findOptions
+                        .apply(iterable(findOptions, collection, query), mapper, type)
+                        .iterator();
+            }
+            long start = System.nanoTime();
+            MongoCursor<E> cursor = findOptions
+                    .apply(iterable(findOptions, collection, query), mapper, type)
                     .iterator();
+            return new InstrumentedCursor<>(cursor, instrumentation, OperationType.FIND, type, getCollectionName(),
+                    System.nanoTime() - start);
         } finally {
             if (findOptions.isLogQuery()) {
                 datastore.getDatabase().runCommand(new Document("profile", oldProfile.get("was"))
@@ -345,6 +620,39 @@ class MorphiaQuery<T> implements Query<T> {
         }
     }
 
+    @Nullable
+    private Codec<?> idCodec() {
+        if (!mapper.isMappable(type)) {
+            return null;
+        }
+        PropertyModel idProperty = mapper.getEntityModel(type).getIdProperty();
+        return idProperty != null ? datastore.getCodecRegistry().get(idProperty.getType()) : null;
+    }
+
+    /**
+     * The common ID types are read directly from the raw document so that no intermediate document is decoded for each key.
+     */
+    private static Object toId(BsonValue value, @Nullable Codec<?> idCodec) {
+        switch (value.getBsonType()) {
+            case OBJECT_ID:
+                return value.asObjectId().getValue();
+            case INT32:
+                return value.asInt32().getValue();
+            case INT64:
+                return value.asInt64().getValue();
+            case STRING:
+                return value.asString().getValue();
+            default:
+                if (idCodec == null) {
+                    return value;
+                }
+                BsonDocumentReader reader = new BsonDocumentReader(new BsonDocument("_id", value));
+                reader.readStartDocument();
+                reader.readName();
+                return idCodec.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
     Document getQueryDocument() {
         DocumentWriter writer = new DocumentWriter(mapper, seedQuery);
         document(writer, () -> {
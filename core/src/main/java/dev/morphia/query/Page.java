@@ -0,0 +1,49 @@
+package dev.morphia.query;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+/**
+ * A page of results fetched with keyset pagination.
+ *
+ * @param <T> the entity type
+ * @see Query#page(FindOptions)
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class Page<T> {
+    private final List<T> items;
+    @Nullable
+    private final String nextToken;
+
+    Page(List<T> items, @Nullable String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    /**
+     * @return the entities on this page
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the opaque token to pass to {@link Query#page(String)} to fetch the next page or null if this is the last page
+     */
+    @Nullable
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * @return true if there is at least one more page
+     */
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -13,9 +13,11 @@ import com.mongodb.client.result.UpdateResult;
 import com.mongodb.lang.Nullable;
 
 import dev.morphia.DeleteOptions;
+import dev.morphia.KeySet;
 import dev.morphia.ModifyOptions;
 import dev.morphia.UpdateOptions;
 import dev.morphia.aggregation.stages.Stage;
+import dev.morphia.annotations.internal.MorphiaExperimental;
 import dev.morphia.annotations.internal.MorphiaInternal;
 import dev.morphia.query.filters.Filter;
 import dev.morphia.query.filters.Filters;
@@ -371,6 +373,33 @@ public interface Query<T> extends CriteriaContainer, Iterable<T> {
     @Deprecated(since = "2.0", forRemoval = true)
     MorphiaKeyCursor<T> keys(FindOptions options);
 
+    /**
+     * Loads the IDs of the documents matched by this query in to a compact {@link KeySet}. Only the {@code _id} field is fetched and
+     * no entities are decoded, so this is suited to key only workloads over very large numbers of documents.
+     *
+     * @return the IDs
+     * @see dev.morphia.Datastore#fetch(KeySet)
+     * @see dev.morphia.Datastore#delete(KeySet)
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    default KeySet<T> keySet() {
+        return keySet(new FindOptions());
+    }
+
+    /**
+     * Loads the IDs of the documents matched by this query in to a compact {@link KeySet}.
+     *
+     * @param options the options to apply to the find operation. Any projection is replaced with one including only {@code _id}.
+     * @return the IDs
+     * @see #keySet()
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    default KeySet<T> keySet(FindOptions options) {
+        throw new UnsupportedOperationException(Sofia.modernOperation());
+    }
+
     /**
      * Creates a container to hold 'or' clauses
      *
@@ -397,6 +426,82 @@ public interface Query<T> extends CriteriaContainer, Iterable<T> {
         return legacyOperation();
     }
 
+    /**
+     * Provides a parallel {@link Stream} over the results of this query for full collection batch jobs. The matching documents are
+     * split into {@code _id} ranges of roughly equal size, found with one {@code $bucketAuto} aggregation, and each range is read with
+     * its own cursor so throughput is not bound by a single cursor. Ranges are read on the configured
+     * {@link dev.morphia.mapping.MapperOptions#getExecutor() executor} or, if there is none, on the threads consuming the
+     * stream. The {@code _id} values of the matching documents must all be of one type. Numeric types count as one
+     * type. Results are not returned in any particular order. Close the stream to release any cursors left open if it is not fully
+     * consumed.
+     *
+     * @param partitions the number of ranges to split the results into
+     * @return the stream
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    default Stream<T> partitioned(int partitions) {
+        return partitioned(partitions, new FindOptions());
+    }
+
+    /**
+     * Provides a parallel {@link Stream} over the results of this query for full collection batch jobs.
+     *
+     * @param partitions the number of ranges to split the results into
+     * @param options    the options to apply to each partition's cursor. Skip, limit, and sort can not be used.
+     * @return the stream
+     * @see #partitioned(int)
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    default Stream<T> partitioned(int partitions, FindOptions options) {
+        throw new UnsupportedOperationException(Sofia.modernOperation());
+    }
+
+    /**
+     * Fetches the first page of results using keyset pagination. Rather than skipping the preceding results, later pages are fetched
+     * with a filter selecting only the documents after the last one on the previous page in sort order, so every page costs the same
+     * as the first when the sort is backed by an index.
+     * <p>
+     * The page size is taken from {@link FindOptions#limit(int)} and the order from {@link FindOptions#sort(Sort...)}. {@code _id} is
+     * appended to the sort to break ties if it is not already sorted on. Only ascending and descending sorts on single valued
+     * properties are supported.
+     *
+     * @param options the options to apply
+     * @return the first page
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    default Page<T> page(FindOptions options) {
+        throw new UnsupportedOperationException(Sofia.modernOperation());
+    }
+
+    /**
+     * Fetches the page of results following the one which issued the token.
+     *
+     * @param token the token from {@link Page#getNextToken()}
+     * @return the page
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    default Page<T> page(String token) {
+        return page(token, new FindOptions());
+    }
+
+    /**
+     * Fetches the page of results following the one which issued the token. The token must have been issued for a query with the same
+     * filters. The sort and page size are taken from the token so those set on the options are ignored.
+     *
+     * @param token   the token from {@link Page#getNextToken()}
+     * @param options the options to apply
+     * @return the page
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    default Page<T> page(String token, FindOptions options) {
+        throw new UnsupportedOperationException(Sofia.modernOperation());
+    }
+
     /**
      * Limits the fields retrieved to those of the query type -- dangerous with interfaces and abstract classes
      *
@@ -0,0 +1,206 @@
+package dev.morphia.query.analysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.IndexHelper;
+import dev.morphia.annotations.internal.MorphiaExperimental;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.sofia.Sofia;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static dev.morphia.query.analysis.QueryShape.EQUALITY;
+import static dev.morphia.query.analysis.QueryShape.GEO;
+import static dev.morphia.query.analysis.QueryShape.TEXT;
+import static dev.morphia.query.analysis.QueryShape.UNINDEXABLE;
+
+/**
+ * Checks the shape of executed queries against the indexes declared on the queried entity and keeps counts per shape. This does not
+ * consult the server so indexes created outside of Morphia are not considered. The analysis approximates the query planner: a filter
+ * is considered indexed if some declared index leads with one of its fields and a sort is considered indexed if some declared index
+ * lists the sort fields, in order and with consistent directions, after any equality matched fields.
+ *
+ * @see dev.morphia.mapping.MapperOptions.Builder#analyzeQueries(boolean)
+ * @since 2.4
+ */
+@MorphiaExperimental
+public class QueryAnalyzer {
+    private static final Logger LOG = LoggerFactory.getLogger(QueryAnalyzer.class);
+    private static final List<Document> ID_INDEX = List.of(new Document("_id", 1));
+
+    private final IndexHelper indexHelper;
+    private final Map<Class<?>, List<Document>> indexes = new ConcurrentHashMap<>();
+    private final Map<QueryShape, QueryShapeStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param mapper the mapper
+     * @morphia.internal
+     */
+    @MorphiaInternal
+    public QueryAnalyzer(Mapper mapper) {
+        indexHelper = new IndexHelper(mapper);
+    }
+
+    /**
+     * Records the execution of a query.
+     *
+     * @param model      the queried entity
+     * @param collection the queried collection
+     * @param filter     the mapped filter
+     * @param sort       the mapped sort, if any
+     * @param projection the mapped projection, if any
+     * @return the updated statistics for the query's shape
+     * @morphia.internal
+     */
+    @MorphiaInternal
+    public QueryShapeStats analyze(EntityModel model, String collection, Document filter, @Nullable Document sort,
+            @Nullable Document projection) {
+        QueryShape shape = new QueryShape(collection, filter, sort, projection);
+        QueryShapeStats shapeStats = stats.get(shape);
+        if (shapeStats == null) {
+            shapeStats = stats.computeIfAbsent(shape, s -> evaluate(model, s));
+        }
+        shapeStats.increment();
+        return shapeStats;
+    }
+
+    /**
+     * @return the flagged shapes ordered by how often they were executed
+     */
+    public List<QueryShapeStats> getFlagged() {
+        return stats.values().stream()
+                .filter(QueryShapeStats::isFlagged)
+                .sorted((first, second) -> Long.compare(second.getCount(), first.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the statistics for every shape seen
+     */
+    public Map<QueryShape, QueryShapeStats> getStats() {
+        return Map.copyOf(stats);
+    }
+
+    /**
+     * Discards all collected statistics.
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    private static boolean filterIndexed(Document filter, List<Document> indexes) {
+        if (filter.isEmpty()) {
+            return true;
+        }
+        Map<String, Object> fields = fields(filter);
+        for (Document index : indexes) {
+            String leading = index.keySet().iterator().next();
+            Object type = index.get(leading);
+            if (TEXT.equals(type)) {
+                if (filter.containsKey("$text")) {
+                    return true;
+                }
+            } else {
+                Object kind = fields.get(leading);
+                if (kind != null && !kind.equals(UNINDEXABLE) && (!kind.equals(GEO) || !(type instanceof Number))) {
+                    return true;
+                }
+            }
+        }
+        Object or = filter.get("$or");
+        return or != null && ((List<?>) or).stream()
+                .allMatch(clause -> filterIndexed((Document) clause, indexes));
+    }
+
+    /**
+     * Flattens the top level and {@code $and} clauses of a filter shape.
+     */
+    private static Map<String, Object> fields(Document filter) {
+        Map<String, Object> fields = new HashMap<>();
+        for (Entry<String, Object> entry : filter.entrySet()) {
+            if (entry.getKey().equals("$and")) {
+                for (Object clause : (List<?>) entry.getValue()) {
+                    fields.putAll(fields((Document) clause));
+                }
+            } else if (!entry.getKey().startsWith("$")) {
+                fields.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return fields;
+    }
+
+    private static boolean sortIndexed(Document filter, Document sort, List<Document> indexes) {
+        List<Entry<String, Object>> sortFields = sort.entrySet().stream()
+                .filter(entry -> entry.getValue() instanceof Number)
+                .collect(Collectors.toList());
+        if (sortFields.isEmpty()) {
+            return true;
+        }
+        Map<String, Object> fields = filter.containsKey("$or") ? Map.of() : fields(filter);
+        for (Document index : indexes) {
+            List<Entry<String, Object>> keys = new ArrayList<>(index.entrySet());
+            int position = 0;
+            while (position < keys.size() && EQUALITY.equals(fields.get(keys.get(position).getKey()))
+                    && !sort.containsKey(keys.get(position).getKey())) {
+                position++;
+            }
+            if (keys.size() - position >= sortFields.size() && sortMatches(sortFields, keys.subList(position, keys.size()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sortMatches(List<Entry<String, Object>> sortFields, List<Entry<String, Object>> keys) {
+        Boolean reversed = null;
+        for (int i = 0; i < sortFields.size(); i++) {
+            Entry<String, Object> sortField = sortFields.get(i);
+            Entry<String, Object> key = keys.get(i);
+            if (!sortField.getKey().equals(key.getKey()) || !(key.getValue() instanceof Number)) {
+                return false;
+            }
+            boolean same = Integer.signum(((Number) sortField.getValue()).intValue()) == Integer
+                    .signum(((Number) key.getValue()).intValue());
+            if (reversed == null) {
+                reversed = !same;
+            } else if (reversed == same) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private QueryShapeStats evaluate(EntityModel model, QueryShape shape) {
+        List<Document> declared = indexes.computeIfAbsent(model.getType(), type -> declaredIndexes(model));
+        boolean collectionScan = !filterIndexed(shape.getFilter(), declared);
+        boolean inMemorySort = !sortIndexed(shape.getFilter(), shape.getSort(), declared);
+        if (collectionScan) {
+            LOG.warn(Sofia.queryShapeCollectionScan(shape));
+        }
+        if (inMemorySort) {
+            LOG.warn(Sofia.queryShapeInMemorySort(shape));
+        }
+        return new QueryShapeStats(shape, collectionScan, inMemorySort);
+    }
+
+    private List<Document> declaredIndexes(EntityModel model) {
+        List<Document> list = new ArrayList<>(ID_INDEX);
+        for (IndexModel indexModel : indexHelper.indexModels(model)) {
+            list.add((Document) indexModel.getKeys());
+        }
+        return list;
+    }
+}
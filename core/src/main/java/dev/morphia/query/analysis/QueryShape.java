@@ -0,0 +1,169 @@
+package dev.morphia.query.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+import org.bson.Document;
+
+/**
+ * The shape of a query: the fields it filters on and how, its sort, and its projection. Values are discarded so that queries differing
+ * only in their values share a shape. All field names are the mapped names as sent to the server.
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class QueryShape {
+    /**
+     * Marks a field compared by equality or {@code $in}
+     */
+    public static final String EQUALITY = "eq";
+    /**
+     * Marks a field compared by range or another operator which can use an index
+     */
+    public static final String RANGE = "range";
+    /**
+     * Marks a field used in a geospatial query
+     */
+    public static final String GEO = "geo";
+    /**
+     * Marks a {@code $text} search
+     */
+    public static final String TEXT = "text";
+    /**
+     * Marks a clause which can not use an index such as {@code $where} or {@code $expr}
+     */
+    public static final String UNINDEXABLE = "unindexable";
+
+    private final String collection;
+    private final Document filter;
+    private final Document sort;
+    private final List<String> projection;
+
+    QueryShape(String collection, Document filter, @Nullable Document sort, @Nullable Document projection) {
+        this.collection = collection;
+        this.filter = shape(filter);
+        this.sort = new Document();
+        if (sort != null) {
+            for (Entry<String, Object> entry : sort.entrySet()) {
+                this.sort.put(entry.getKey(), entry.getValue() instanceof Number
+                        ? (int) Math.signum(((Number) entry.getValue()).doubleValue())
+                        : "$meta");
+            }
+        }
+        this.projection = projection != null ? new ArrayList<>(new TreeMap<>(projection).keySet()) : List.of();
+    }
+
+    /**
+     * @return the collection queried
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return the filter with each value replaced by how the field is matched
+     */
+    public Document getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return the projected fields
+     */
+    public List<String> getProjection() {
+        return projection;
+    }
+
+    /**
+     * @return the sort with directions normalized to 1 or -1
+     */
+    public Document getSort() {
+        return sort;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(collection, filter, sort, projection);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryShape)) {
+            return false;
+        }
+        QueryShape that = (QueryShape) o;
+        return collection.equals(that.collection) && filter.equals(that.filter) && sort.equals(that.sort)
+                && projection.equals(that.projection);
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", QueryShape.class.getSimpleName() + "[", "]")
+                .add("collection='" + collection + "'")
+                .add("filter=" + filter.toJson())
+                .add("sort=" + sort.toJson())
+                .add("projection=" + projection)
+                .toString();
+    }
+
+    private static Document shape(Document filter) {
+        Document shape = new Document();
+        for (Entry<String, Object> entry : new TreeMap<>(filter).entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            switch (key) {
+                case "$and":
+                case "$or":
+                case "$nor":
+                    List<Document> clauses = new ArrayList<>();
+                    for (Object clause : (List<?>) value) {
+                        clauses.add(shape((Document) clause));
+                    }
+                    shape.put(key, clauses);
+                    break;
+                case "$text":
+                    shape.put(key, TEXT);
+                    break;
+                default:
+                    shape.put(key, key.startsWith("$") ? UNINDEXABLE : kind(value));
+            }
+        }
+        return shape;
+    }
+
+    private static String kind(@Nullable Object value) {
+        if (!(value instanceof Document)) {
+            return value instanceof Pattern ? RANGE : EQUALITY;
+        }
+        Document operators = (Document) value;
+        if (operators.isEmpty() || !operators.keySet().iterator().next().startsWith("$")) {
+            return EQUALITY;
+        }
+        for (String operator : operators.keySet()) {
+            switch (operator) {
+                case "$near":
+                case "$nearSphere":
+                case "$geoWithin":
+                case "$geoIntersects":
+                    return GEO;
+                case "$where":
+                case "$expr":
+                    return UNINDEXABLE;
+                default:
+            }
+        }
+        return operators.keySet().stream().allMatch(o -> o.equals("$eq") || o.equals("$in")) ? EQUALITY : RANGE;
+    }
+}
@@ -0,0 +1,74 @@
+package dev.morphia.query.analysis;
+
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.morphia.annotations.internal.MorphiaExperimental;
+
+/**
+ * The aggregated statistics for a single {@link QueryShape}.
+ *
+ * @since 2.4
+ */
+@MorphiaExperimental
+public final class QueryShapeStats {
+    private final QueryShape shape;
+    private final boolean collectionScan;
+    private final boolean inMemorySort;
+    private final LongAdder count = new LongAdder();
+
+    QueryShapeStats(QueryShape shape, boolean collectionScan, boolean inMemorySort) {
+        this.shape = shape;
+        this.collectionScan = collectionScan;
+        this.inMemorySort = inMemorySort;
+    }
+
+    /**
+     * @return the number of times a query with this shape was executed
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the shape
+     */
+    public QueryShape getShape() {
+        return shape;
+    }
+
+    /**
+     * @return true if no declared index can serve the filter of this shape
+     */
+    public boolean isCollectionScan() {
+        return collectionScan;
+    }
+
+    /**
+     * @return true if no declared index can provide the sort order of this shape
+     */
+    public boolean isInMemorySort() {
+        return inMemorySort;
+    }
+
+    /**
+     * @return true if this shape scans the collection or sorts in memory
+     */
+    public boolean isFlagged() {
+        return collectionScan || inMemorySort;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", QueryShapeStats.class.getSimpleName() + "[", "]")
+                .add("shape=" + shape)
+                .add("count=" + count.sum())
+                .add("collectionScan=" + collectionScan)
+                .add("inMemorySort=" + inMemorySort)
+                .toString();
+    }
+
+    void increment() {
+        count.increment();
+    }
+}
@@ -0,0 +1,4 @@
+@NonNullApi
+package dev.morphia.query.analysis;
+
+import com.mongodb.lang.NonNullApi;
@@ -0,0 +1,70 @@
+package dev.morphia.query.internal;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.transactions.IdentityMap;
+
+/**
+ * Replaces each result with the instance already loaded by a session for the same document, and registers the results loaded for the
+ * first time. The map is bound while results are decoded so that references are resolved through it.
+ *
+ * @param <T> the cursor type
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class IdentityMapCursor<T> implements MongoCursor<T> {
+    private final MongoCursor<T> cursor;
+    private final IdentityMap identityMap;
+
+    /**
+     * @param cursor      the cursor to wrap
+     * @param identityMap the session's identity map
+     */
+    public IdentityMapCursor(MongoCursor<T> cursor, IdentityMap identityMap) {
+        this.cursor = cursor;
+        this.identityMap = identityMap;
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return IdentityMap.with(identityMap, cursor::hasNext);
+    }
+
+    @Override
+    public T next() {
+        return identityMap.register(IdentityMap.with(identityMap, cursor::next));
+    }
+
+    @Override
+    public int available() {
+        return cursor.available();
+    }
+
+    @Override
+    @Nullable
+    public T tryNext() {
+        T next = IdentityMap.with(identityMap, cursor::tryNext);
+        return next != null ? identityMap.register(next) : null;
+    }
+
+    @Override
+    @Nullable
+    public ServerCursor getServerCursor() {
+        return cursor.getServerCursor();
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+        return cursor.getServerAddress();
+    }
+}
@@ -0,0 +1,300 @@
+package dev.morphia.query.internal;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.MappingException;
+import dev.morphia.sofia.Sofia;
+
+import org.bson.Document;
+
+/**
+ * Iterates a set of {@code _id} range partitions with one cursor per partition. Splitting hands whole partitions to other threads.
+ * Without an executor each partition is fetched and decoded on the thread consuming it. With an executor each partition is fetched
+ * and decoded by a task on that executor which hands results to the consuming thread through a bounded queue. Cursors are opened only
+ * when their partition is reached.
+ *
+ * @param <T> the entity type
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class PartitionSpliterator<T> implements Spliterator<T>, AutoCloseable {
+    private static final int CAPACITY = 256;
+    private static final Object END = new Object();
+    private final List<Document> partitions;
+    private final Function<Document, MongoCursor<T>> opener;
+    @Nullable
+    private final Executor executor;
+    private final Set<MongoCursor<T>> open;
+    private final AtomicBoolean closed;
+    private int next;
+    private final int end;
+    @Nullable
+    private MongoCursor<T> cursor;
+
+    /**
+     * @param partitions the filters selecting each partition
+     * @param opener     opens a cursor over a partition
+     * @param executor   the executor to read partitions on or null to read them on the consuming threads
+     */
+    public PartitionSpliterator(List<Document> partitions, Function<Document, MongoCursor<T>> opener, @Nullable Executor executor) {
+        this(partitions, opener, executor, ConcurrentHashMap.newKeySet(), new AtomicBoolean(), 0, partitions.size());
+    }
+
+    private PartitionSpliterator(List<Document> partitions, Function<Document, MongoCursor<T>> opener, @Nullable Executor executor,
+            Set<MongoCursor<T>> open, AtomicBoolean closed, int next, int end) {
+        this.partitions = partitions;
+        this.opener = opener;
+        this.executor = executor;
+        this.open = open;
+        this.closed = closed;
+        this.next = next;
+        this.end = end;
+    }
+
+    /**
+     * Closes any cursors still open, e.g., when a stream is abandoned part way through.
+     */
+    @Override
+    public void close() {
+        closed.set(true);
+        for (MongoCursor<T> cursor : open) {
+            cursor.close();
+        }
+        open.clear();
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+
+    @Override
+    public long estimateSize() {
+        return cursor == null && next == end ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (advance()) {
+            MongoCursor<T> current = cursor;
+            while (current.hasNext()) {
+                action.accept(current.next());
+            }
+            finish();
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (advance()) {
+            if (cursor.hasNext()) {
+                action.accept(cursor.next());
+                return true;
+            }
+            finish();
+        }
+        return false;
+    }
+
+    @Override
+    @Nullable
+    public Spliterator<T> trySplit() {
+        int remaining = end - next;
+        if (remaining < 2) {
+            return null;
+        }
+        int middle = next + remaining / 2;
+        PartitionSpliterator<T> prefix = new PartitionSpliterator<>(partitions, opener, executor, open, closed, next, middle);
+        next = middle;
+        return prefix;
+    }
+
+    /**
+     * Ensures a cursor is open if any partitions remain.
+     */
+    private boolean advance() {
+        if (cursor == null && next < end) {
+            Document partition = partitions.get(next++);
+            if (executor == null) {
+                cursor = opener.apply(partition);
+                open.add(cursor);
+            } else {
+                Reader reader = new Reader(partition);
+                executor.execute(reader);
+                cursor = reader;
+            }
+        }
+        return cursor != null;
+    }
+
+    private void finish() {
+        if (cursor != null) {
+            cursor.close();
+            open.remove(cursor);
+            cursor = null;
+        }
+    }
+
+    /**
+     * Reads a partition on the executor and hands its results over through a bounded queue. The reader stops once the spliterator is
+     * closed or the consuming side closes it.
+     */
+    private class Reader implements Runnable, MongoCursor<T> {
+        private final Document partition;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(CAPACITY);
+        private volatile boolean stopped;
+        @Nullable
+        private volatile MongoCursor<T> source;
+        @Nullable
+        private Object head;
+
+        Reader(Document partition) {
+            this.partition = partition;
+        }
+
+        @Override
+        public void run() {
+            try (MongoCursor<T> cursor = opener.apply(partition)) {
+                source = cursor;
+                while (!stopped() && cursor.hasNext()) {
+                    if (!put(cursor.next())) {
+                        return;
+                    }
+                }
+                put(END);
+            } catch (Throwable e) {
+                // errors such as a failed class initialization in a codec must still reach the consuming thread or it waits forever
+                put(new Failure(e));
+            }
+        }
+
+        @Override
+        public void close() {
+            stopped = true;
+            queue.clear();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (head == null) {
+                try {
+                    while ((head = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+                        if (stopped()) {
+                            return false;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MappingException(e.getMessage(), e);
+                }
+            }
+            if (head instanceof Failure) {
+                throw ((Failure) head).rethrow();
+            }
+            return head != END;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = (T) head;
+            head = null;
+            return value;
+        }
+
+        @Override
+        public int available() {
+            return queue.size();
+        }
+
+        @Override
+        @Nullable
+        @SuppressWarnings("unchecked")
+        public T tryNext() {
+            if (head == null) {
+                head = queue.poll();
+            }
+            if (head instanceof Failure) {
+                throw ((Failure) head).rethrow();
+            }
+            if (head == null || head == END) {
+                return null;
+            }
+            T value = (T) head;
+            head = null;
+            return value;
+        }
+
+        @Override
+        @Nullable
+        public ServerCursor getServerCursor() {
+            return null;
+        }
+
+        @Override
+        public ServerAddress getServerAddress() {
+            MongoCursor<T> cursor = source;
+            if (cursor == null) {
+                throw new IllegalStateException(Sofia.partitionCursorNotOpened());
+            }
+            return cursor.getServerAddress();
+        }
+
+        private boolean stopped() {
+            return stopped || closed.get();
+        }
+
+        private boolean put(Object value) {
+            try {
+                while (!queue.offer(value, 100, TimeUnit.MILLISECONDS)) {
+                    if (stopped()) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private static final class Failure {
+        private final Throwable exception;
+
+        private Failure(Throwable exception) {
+            this.exception = exception;
+        }
+
+        private RuntimeException rethrow() {
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            if (exception instanceof Error) {
+                throw (Error) exception;
+            }
+            return new MappingException(exception.getMessage(), exception);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package dev.morphia.query.internal;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.Datastore;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.codec.references.ReferenceBatch;
+
+/**
+ * Gathers the lazy references decoded from each batch of results in to a {@link ReferenceBatch} so they are loaded together. A new
+ * batch is started whenever the documents fetched from the server so far have been consumed.
+ *
+ * @param <T> the cursor type
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public class ReferenceBatchCursor<T> implements MongoCursor<T> {
+    private final MongoCursor<T> cursor;
+    private final Datastore datastore;
+    private ReferenceBatch batch;
+
+    /**
+     * @param cursor    the cursor to wrap
+     * @param datastore the datastore to load references with
+     * @param batch     the batch holding the references decoded when the cursor was opened
+     */
+    public ReferenceBatchCursor(MongoCursor<T> cursor, Datastore datastore, ReferenceBatch batch) {
+        this.cursor = cursor;
+        this.datastore = datastore;
+        this.batch = batch;
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return ReferenceBatch.with(batch(), cursor::hasNext);
+    }
+
+    @Override
+    public T next() {
+        return ReferenceBatch.with(batch(), cursor::next);
+    }
+
+    @Override
+    public int available() {
+        return cursor.available();
+    }
+
+    @Override
+    @Nullable
+    public T tryNext() {
+        return ReferenceBatch.with(batch(), cursor::tryNext);
+    }
+
+    @Override
+    @Nullable
+    public ServerCursor getServerCursor() {
+        return cursor.getServerCursor();
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+        return cursor.getServerAddress();
+    }
+
+    private ReferenceBatch batch() {
+        if (cursor.available() == 0) {
+            batch = new ReferenceBatch(datastore);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,176 @@
+package dev.morphia.query.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.morphia.annotations.Reference;
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.query.ValidationException;
+import dev.morphia.sofia.Sofia;
+
+import org.bson.Document;
+
+import static java.util.Arrays.asList;
+import static java.util.List.of;
+
+/**
+ * Builds the aggregation stages which join the documents referenced by a {@link Reference} property in to the referring documents. The
+ * reference values are replaced in place by the referenced documents, tagged with their discriminator, so that the reference codec
+ * decodes them directly rather than fetching them. Values which find no match are left as they are and fall back to being fetched.
+ * <p>
+ * References are stored either as the bare ID or, when the referenced entity lives in a different collection than the property's
+ * type, as a DBRef. The join matches the ID of either form against the collection of the property's type. DBRefs naming any other
+ * collection are not joined and are left to be fetched.
+ *
+ * @morphia.internal
+ * @since 2.4
+ */
+@MorphiaInternal
+public final class ReferenceLookup {
+    private static final String PREFIX = "__morphia_fetch";
+
+    private final Mapper mapper;
+    private final EntityModel model;
+
+    /**
+     * @param mapper the mapper to use
+     * @param type   the type being queried
+     */
+    public ReferenceLookup(Mapper mapper, Class<?> type) {
+        this.mapper = mapper;
+        this.model = mapper.getEntityModel(type);
+    }
+
+    /**
+     * @param paths the reference paths to join
+     * @return the stages joining the references and removing any temporary fields
+     */
+    public List<Document> stages(List<String> paths) {
+        List<Document> stages = new ArrayList<>();
+        Document temporary = new Document();
+        for (int i = 0; i < paths.size(); i++) {
+            String keys = PREFIX + "_keys" + i;
+            String joined = PREFIX + i;
+            List<PropertyModel> path = resolve(paths.get(i));
+            PropertyModel reference = path.get(path.size() - 1);
+            EntityModel target = mapper.getEntityModel(reference.getNormalizedType());
+
+            String from = target.getCollectionName();
+            stages.add(new Document("$addFields", new Document(keys, keys("$" + path.get(0).getMappedName(), path, 0, from))));
+            stages.add(new Document("$lookup", new Document("from", from)
+                    .append("localField", keys)
+                    .append("foreignField", "_id")
+                    .append("as", joined)));
+            Document tagged = new Document(target.getDiscriminatorKey(), new Document("$literal", target.getDiscriminator()));
+            stages.add(new Document("$addFields", new Document(path.get(0).getMappedName(),
+                    replace("$" + path.get(0).getMappedName(), path, 0, "$" + joined, tagged, from))));
+            temporary.append(keys, 0).append(joined, 0);
+        }
+        if (!temporary.isEmpty()) {
+            stages.add(new Document("$project", temporary));
+        }
+        return stages;
+    }
+
+    /**
+     * Extracts the ID of a reference value. DBRefs are recognized by their leading {@code $ref} field and yield null unless they refer
+     * to the joined collection, so they neither join nor match a document of that collection with the same ID.
+     */
+    private static Document id(String value, String collection) {
+        Document fields = new Document("$cond", asList(new Document("$eq", asList(new Document("$type", value), "object")),
+                new Document("$objectToArray", value), of()));
+        Document isRef = new Document("$eq", asList(new Document("$arrayElemAt", asList("$$fields.k", 0)),
+                new Document("$literal", "$ref")));
+        Document sameCollection = new Document("$eq", asList(new Document("$arrayElemAt", asList("$$fields.v", 0)),
+                new Document("$literal", collection)));
+        Document refId = new Document("$cond", asList(sameCollection, new Document("$arrayElemAt", asList("$$fields.v", 1)), null));
+        return new Document("$let", new Document("vars", new Document("fields", fields))
+                .append("in", new Document("$cond", asList(isRef, refId, value))));
+    }
+
+    private static Document ifArray(String value, Document then) {
+        return new Document("$cond", asList(new Document("$isArray", value), then, value));
+    }
+
+    /**
+     * Builds an expression collecting the IDs referenced beneath a value in to a flat list
+     */
+    private static Object keys(String value, List<PropertyModel> path, int depth, String collection) {
+        PropertyModel property = path.get(depth);
+        String element = "$$k" + depth;
+        Object inner;
+        if (depth == path.size() - 1) {
+            inner = new Document("$let", new Document("vars", new Document("id", id(property.isMultipleValues() ? element : value,
+                    collection)))
+                            .append("in", new Document("$cond", asList(new Document("$eq", asList("$$id", null)), of(), of("$$id")))));
+        } else {
+            inner = keys((property.isMultipleValues() ? element : value) + "." + path.get(depth + 1).getMappedName(), path, depth + 1,
+                    collection);
+        }
+        if (!property.isMultipleValues()) {
+            return inner;
+        }
+        return new Document("$reduce", new Document("input", new Document("$cond",
+                asList(new Document("$isArray", value), value, of())))
+                        .append("initialValue", of())
+                        .append("in", new Document("$concatArrays", asList("$$value",
+                                new Document("$let", new Document("vars", new Document("k" + depth, "$$this"))
+                                        .append("in", inner))))));
+    }
+
+    /**
+     * Builds an expression replacing the references beneath a value with the joined documents
+     */
+    private static Object replace(String value, List<PropertyModel> path, int depth, String joined, Document tagged,
+            String collection) {
+        PropertyModel property = path.get(depth);
+        String element = property.isMultipleValues() ? "$$r" + depth : value;
+        Object single;
+        if (depth == path.size() - 1) {
+            String matches = "$$m" + depth;
+            Document filter = new Document("$filter", new Document("input", joined)
+                    .append("as", "d")
+                    .append("cond", new Document("$eq", asList("$$d._id", id(element, collection)))));
+            single = new Document("$let", new Document("vars", new Document("m" + depth, filter))
+                    .append("in", new Document("$cond", asList(new Document("$gt", asList(new Document("$size", matches), 0)),
+                            new Document("$mergeObjects", asList(tagged, new Document("$arrayElemAt", asList(matches, 0)))),
+                            element))));
+        } else {
+            String next = path.get(depth + 1).getMappedName();
+            single = new Document("$cond", asList(new Document("$eq", asList(new Document("$type", element), "object")),
+                    new Document("$mergeObjects", asList(element,
+                            new Document(next, replace(element + "." + next, path, depth + 1, joined, tagged, collection)))),
+                    element));
+        }
+        if (!property.isMultipleValues()) {
+            return single;
+        }
+        return ifArray(value, new Document("$map", new Document("input", value)
+                .append("as", "r" + depth)
+                .append("in", single)));
+    }
+
+    private List<PropertyModel> resolve(String path) {
+        List<PropertyModel> properties = new ArrayList<>();
+        EntityModel current = model;
+        String[] segments = path.split("\\.");
+        for (int i = 0; i < segments.length; i++) {
+            PropertyModel property = current != null ? current.getProperty(segments[i]) : null;
+            if (property == null) {
+                throw new ValidationException(Sofia.fetchPathInvalid(path, model.getType().getName()));
+            }
+            properties.add(property);
+            boolean last = i == segments.length - 1;
+            if (last != property.hasAnnotation(Reference.class) || property.isMap()) {
+                throw new ValidationException(Sofia.fetchPathInvalid(path, model.getType().getName()));
+            }
+            current = last || !mapper.isMappable(property.getNormalizedType())
+                    ? null
+                    : mapper.getEntityModel(property.getNormalizedType());
+        }
+        return properties;
+    }
+}
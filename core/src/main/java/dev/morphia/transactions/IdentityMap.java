@@ -0,0 +1,196 @@
+package dev.morphia.transactions;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.annotations.internal.MorphiaInternal;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt64;
+import org.bson.BsonValue;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Holds the entities loaded by a session keyed by collection and ID so that loading the same document again yields the same instance.
+ * IDs are compared by their {@link #key(CodecRegistry, Object) encoded form} so that the raw values found in query documents and
+ * references match the mapped IDs of entities.
+ *
+ * @morphia.internal
+ * @see MorphiaSession#identityMap(boolean)
+ * @since 2.4
+ */
+@MorphiaInternal
+public final class IdentityMap {
+    private static final ThreadLocal<IdentityMap> CURRENT = new ThreadLocal<>();
+
+    private final Mapper mapper;
+    private final CodecRegistry codecRegistry;
+    private final Map<String, Map<BsonValue, Object>> entities = new ConcurrentHashMap<>();
+
+    /**
+     * @param mapper        the mapper used to find entity IDs
+     * @param codecRegistry the registry used to encode ID values
+     */
+    public IdentityMap(Mapper mapper, CodecRegistry codecRegistry) {
+        this.mapper = mapper;
+        this.codecRegistry = codecRegistry;
+    }
+
+    /**
+     * @return the map bound to the current thread or null if there is none
+     */
+    @Nullable
+    public static IdentityMap current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds a map to the current thread for the duration of the given work. References decoded during the work are resolved through
+     * the map.
+     *
+     * @param map      the map to bind
+     * @param supplier the work to perform
+     * @param <T>      the result type
+     * @return the result of the work
+     */
+    public static <T> T with(IdentityMap map, Supplier<T> supplier) {
+        IdentityMap previous = CURRENT.get();
+        CURRENT.set(map);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Encodes an ID to the form used to compare IDs. Integral numbers are widened to longs so that IDs the server considers equal, e.g.,
+     * an int and a long of the same value, compare equal.
+     *
+     * @param codecRegistry the registry used to encode the ID
+     * @param id            the ID, either mapped or encoded
+     * @return the key
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static BsonValue key(CodecRegistry codecRegistry, Object id) {
+        BsonValue value;
+        if (id instanceof BsonValue) {
+            value = (BsonValue) id;
+        } else {
+            BsonDocument document = new BsonDocument();
+            BsonDocumentWriter writer = new BsonDocumentWriter(document);
+            writer.writeStartDocument();
+            writer.writeName("_id");
+            Codec codec = codecRegistry.get(id.getClass());
+            EncoderContext.builder().build().encodeWithChildContext(codec, writer, id);
+            writer.writeEndDocument();
+            value = document.get("_id");
+        }
+        if (value.isInt32()) {
+            return new BsonInt64(value.asInt32().getValue());
+        }
+        if (value.isDouble()) {
+            double number = value.asDouble().getValue();
+            if (number == (long) number) {
+                return new BsonInt64((long) number);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes every entity.
+     */
+    public void clear() {
+        entities.clear();
+    }
+
+    /**
+     * Removes every entity of a collection.
+     *
+     * @param collection the collection name
+     */
+    public void evict(String collection) {
+        entities.remove(collection);
+    }
+
+    /**
+     * @param collection the collection name
+     * @param id         the ID, either mapped or encoded
+     * @param <T>        the entity type
+     * @return the loaded entity or null if it has not been loaded
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(String collection, Object id) {
+        Map<BsonValue, Object> loaded = entities.get(collection);
+        return loaded != null ? (T) loaded.get(encodeId(id)) : null;
+    }
+
+    /**
+     * Adds an entity unless one with the same ID has already been loaded.
+     *
+     * @param entity the entity
+     * @param <T>    the entity type
+     * @return the entity previously loaded with the same ID or the given entity if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T register(T entity) {
+        String collection = collection(entity);
+        Object id = collection != null ? mapper.getId(entity) : null;
+        if (id == null) {
+            return entity;
+        }
+        Object existing = entities.computeIfAbsent(collection, k -> new ConcurrentHashMap<>())
+                .putIfAbsent(encodeId(id), entity);
+        return existing != null ? (T) existing : entity;
+    }
+
+    /**
+     * Adds an entity replacing any loaded with the same ID.
+     *
+     * @param entity the entity
+     */
+    public void replace(Object entity) {
+        String collection = collection(entity);
+        Object id = collection != null ? mapper.getId(entity) : null;
+        if (id != null) {
+            entities.computeIfAbsent(collection, k -> new ConcurrentHashMap<>())
+                    .put(encodeId(id), entity);
+        }
+    }
+
+    /**
+     * @return the number of entities held
+     */
+    public int size() {
+        return entities.values().stream()
+                .mapToInt(Map::size)
+                .sum();
+    }
+
+    @Nullable
+    private String collection(Object entity) {
+        if (!mapper.isMappable(entity.getClass())) {
+            return null;
+        }
+        EntityModel model = mapper.getEntityModel(entity.getClass());
+        return model.getIdProperty() != null ? model.getCollectionName() : null;
+    }
+
+    private BsonValue encodeId(Object id) {
+        return key(codecRegistry, id);
+    }
+}
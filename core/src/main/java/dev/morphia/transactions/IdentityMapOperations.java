@@ -0,0 +1,174 @@
+package dev.morphia.transactions;
+
+import java.util.List;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.DatastoreImpl.DatastoreOperations;
+import dev.morphia.DeleteOptions;
+import dev.morphia.InsertManyOptions;
+import dev.morphia.InsertOneOptions;
+import dev.morphia.ModifyOptions;
+import dev.morphia.ReplaceOptions;
+import dev.morphia.UpdateOptions;
+import dev.morphia.query.CountOptions;
+import dev.morphia.query.FindAndDeleteOptions;
+
+import org.bson.Document;
+
+/**
+ * Keeps a session's {@link IdentityMap} in step with the writes made through it. Saved entities become the loaded instance for their
+ * ID while any other write evicts the collection written to since the loaded instances no longer reflect the stored documents.
+ */
+class IdentityMapOperations extends DatastoreOperations {
+    private final DatastoreOperations operations;
+    private final MorphiaSessionImpl session;
+
+    IdentityMapOperations(DatastoreOperations operations, MorphiaSessionImpl session) {
+        this.operations = operations;
+        this.session = session;
+    }
+
+    @Override
+    public <E> AggregateIterable<E> aggregate(MongoCollection<E> collection, List<Document> pipeline) {
+        return operations.aggregate(collection, pipeline);
+    }
+
+    @Override
+    public <T> long countDocuments(MongoCollection<T> collection, Document query, CountOptions options) {
+        return operations.countDocuments(collection, query, options);
+    }
+
+    @Override
+    public <T> DeleteResult deleteMany(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        try {
+            return operations.deleteMany(collection, queryDocument, options);
+        } finally {
+            evict(collection);
+        }
+    }
+
+    @Override
+    public <T> DeleteResult deleteOne(MongoCollection<T> collection, Document queryDocument, DeleteOptions options) {
+        try {
+            return operations.deleteOne(collection, queryDocument, options);
+        } finally {
+            evict(collection);
+        }
+    }
+
+    @Override
+    public <E> FindIterable<E> find(MongoCollection<E> collection, Document query) {
+        return operations.find(collection, query);
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndDelete(MongoCollection<T> mongoCollection, Document queryDocument, FindAndDeleteOptions options) {
+        try {
+            return operations.findOneAndDelete(mongoCollection, queryDocument, options);
+        } finally {
+            evict(mongoCollection);
+        }
+    }
+
+    @Override
+    @Nullable
+    public <T> T findOneAndUpdate(MongoCollection<T> collection, Document toDocument, Document update, ModifyOptions options) {
+        try {
+            return operations.findOneAndUpdate(collection, toDocument, update, options);
+        } finally {
+            evict(collection);
+        }
+    }
+
+    @Override
+    public <T> InsertManyResult insertMany(MongoCollection<T> collection, List<T> list, InsertManyOptions options) {
+        InsertManyResult result = operations.insertMany(collection, list, options);
+        IdentityMap identityMap = session.getIdentityMap();
+        if (identityMap != null) {
+            list.forEach(identityMap::replace);
+        }
+        return result;
+    }
+
+    @Override
+    public <T> InsertOneResult insertOne(MongoCollection<T> collection, T entity, InsertOneOptions options) {
+        InsertOneResult result = operations.insertOne(collection, entity, options);
+        saved(entity);
+        return result;
+    }
+
+    @Override
+    public <T> UpdateResult replaceOne(MongoCollection<T> collection, T entity, Document filter, ReplaceOptions options) {
+        UpdateResult result = operations.replaceOne(collection, entity, filter, options);
+        saved(entity);
+        return result;
+    }
+
+    @Override
+    public Document runCommand(Document command) {
+        return operations.runCommand(command);
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateMany(collection, queryObject, updateOperations, options);
+        } finally {
+            evict(collection);
+        }
+    }
+
+    @Override
+    public <T> UpdateResult updateMany(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateMany(collection, queryObject, updateOperations, options);
+        } finally {
+            evict(collection);
+        }
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, Document updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateOne(collection, queryObject, updateOperations, options);
+        } finally {
+            evict(collection);
+        }
+    }
+
+    @Override
+    public <T> UpdateResult updateOne(MongoCollection<T> collection, Document queryObject, List<Document> updateOperations,
+            UpdateOptions options) {
+        try {
+            return operations.updateOne(collection, queryObject, updateOperations, options);
+        } finally {
+            evict(collection);
+        }
+    }
+
+    private void evict(MongoCollection<?> collection) {
+        IdentityMap identityMap = session.getIdentityMap();
+        if (identityMap != null) {
+            identityMap.evict(collection.getNamespace().getCollectionName());
+        }
+    }
+
+    private void saved(Object entity) {
+        IdentityMap identityMap = session.getIdentityMap();
+        if (identityMap != null) {
+            identityMap.replace(entity);
+        }
+    }
+}
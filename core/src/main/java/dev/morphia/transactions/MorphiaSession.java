@@ -3,10 +3,24 @@ package dev.morphia.transactions;
 import com.mongodb.client.ClientSession;
 
 import dev.morphia.AdvancedDatastore;
+import dev.morphia.annotations.internal.MorphiaExperimental;
 
 /**
  * Wraps a ClientSession reference for convenient use of MongoDB's multidocument transaction support.
  */
 @SuppressWarnings("removal")
 public interface MorphiaSession extends AdvancedDatastore, ClientSession {
+    /**
+     * Enables or disables the session's identity map. While enabled, each document loaded through the session by a query, a
+     * reference, or a refresh is decoded in to a single instance: finding an entity by ID again returns the instance already loaded
+     * without querying and queries returning a loaded document yield the loaded instance. Writes other than saving an entity evict the
+     * affected collection so that later reads see the written state. Aborting a transaction clears the map. Queries with projections
+     * bypass the map. This is disabled by default.
+     *
+     * @param enabled true to enable the identity map
+     * @return this
+     * @since 2.4
+     */
+    @MorphiaExperimental
+    MorphiaSession identityMap(boolean enabled);
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import com.mongodb.ClientSessionOptions;
 import com.mongodb.ServerAddress;
 import com.mongodb.TransactionOptions;
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
@@ -40,6 +41,8 @@ import org.bson.Document;
 public class MorphiaSessionImpl extends DatastoreImpl implements MorphiaSession {
 
     private final ClientSession session;
+    @Nullable
+    private IdentityMap identityMap;
 
     /**
      * Creates a new session.
@@ -92,16 +95,47 @@ public class MorphiaSessionImpl extends DatastoreImpl implements MorphiaSession
     @Override
     public void commitTransaction() {
         session.commitTransaction();
+        replayInvalidations();
     }
 
     @Override
     public void abortTransaction() {
         session.abortTransaction();
+        clearIdentityMap();
     }
 
     @Override
     public <T> T withTransaction(TransactionBody<T> transactionBody) {
-        return session.withTransaction(transactionBody);
+        try {
+            return session.withTransaction(transactionBody);
+        } catch (RuntimeException e) {
+            // the transaction was aborted so the loaded entities may hold state which was never committed
+            clearIdentityMap();
+            throw e;
+        } finally {
+            replayInvalidations();
+        }
+    }
+
+    @Override
+    @Nullable
+    public IdentityMap getIdentityMap() {
+        return identityMap;
+    }
+
+    @Override
+    public MorphiaSession identityMap(boolean enabled) {
+        if (!enabled) {
+            identityMap = null;
+        } else if (identityMap == null) {
+            identityMap = new IdentityMap(getMapper(), getCodecRegistry());
+        }
+        return this;
+    }
+
+    @Override
+    public DatastoreImpl operations(DatastoreOperations operations) {
+        return super.operations(new IdentityMapOperations(operations, this));
     }
 
     @Override
@@ -111,7 +145,15 @@ public class MorphiaSessionImpl extends DatastoreImpl implements MorphiaSession
 
     @Override
     public <T> T withTransaction(TransactionBody<T> transactionBody, TransactionOptions options) {
-        return session.withTransaction(transactionBody, options);
+        try {
+            return session.withTransaction(transactionBody, options);
+        } catch (RuntimeException e) {
+            // the transaction was aborted so the loaded entities may hold state which was never committed
+            clearIdentityMap();
+            throw e;
+        } finally {
+            replayInvalidations();
+        }
     }
 
     /**
@@ -183,7 +225,19 @@ public class MorphiaSessionImpl extends DatastoreImpl implements MorphiaSession
         session.advanceClusterTime(clusterTime);
     }
 
+    private void clearIdentityMap() {
+        IdentityMap map = identityMap;
+        if (map != null) {
+            map.clear();
+        }
+    }
+
     private class TransactionalOperations extends DatastoreOperations {
+        @Override
+        public <E> AggregateIterable<E> aggregate(MongoCollection<E> collection, List<Document> pipeline) {
+            return collection.aggregate(session, pipeline);
+        }
+
         @Override
         public <T> long countDocuments(MongoCollection<T> collection, Document query, CountOptions options) {
             return collection.countDocuments(session, query, options);
@@ -274,5 +328,7 @@ public class MorphiaSessionImpl extends DatastoreImpl implements MorphiaSession
     @Override
     public void close() {
         session.close();
+        replayInvalidations();
+        identityMap = null;
     }
 }
@@ -0,0 +1,181 @@
+package dev.morphia.test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Reference;
+import dev.morphia.memory.InMemoryOperations;
+import dev.morphia.query.FindOptions;
+import dev.morphia.transactions.MorphiaSessionImpl;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.updates.UpdateOperators.set;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class TestIdentityMap {
+    private MongoClient client;
+    private Datastore datastore;
+    private InMemoryOperations operations;
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Author.class, Book.class);
+        operations = new InMemoryOperations();
+        ((DatastoreImpl) datastore).operations(operations);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @BeforeMethod
+    public void seed() {
+        operations.clear();
+        Author author = new Author(1, "Ursula");
+        datastore.save(author);
+        datastore.save(new Book(1, "Earthsea", author));
+        datastore.save(new Book(2, "Lathe", author));
+    }
+
+    @Test
+    public void findById() {
+        MorphiaSessionImpl session = session(true);
+        Author first = session.find(Author.class).filter(eq("_id", 1)).first();
+
+        // removed outside of the session so only the identity map can still produce it
+        datastore.find(Author.class).filter(eq("_id", 1)).delete();
+
+        assertSame(session.find(Author.class).filter(eq("_id", 1)).first(), first);
+    }
+
+    @Test
+    public void queries() {
+        MorphiaSessionImpl session = session(true);
+        Author author = session.find(Author.class).filter(eq("_id", 1)).first();
+
+        List<Author> authors = session.find(Author.class).iterator().toList();
+        assertSame(authors.get(0), author);
+    }
+
+    @Test
+    public void references() {
+        MorphiaSessionImpl session = session(true);
+        Author author = session.find(Author.class).filter(eq("_id", 1)).first();
+
+        List<Book> books = session.find(Book.class).iterator().toList();
+        assertSame(books.get(0).author, author);
+        assertSame(books.get(1).author, author);
+    }
+
+    @Test
+    public void refresh() {
+        MorphiaSessionImpl session = session(true);
+        Author loaded = session.find(Author.class).filter(eq("_id", 1)).first();
+        Author other = new Author(1, null);
+
+        session.refresh(other);
+
+        assertEquals(other.name, "Ursula");
+        assertNotSame(other, loaded);
+        assertSame(session.find(Author.class).filter(eq("_id", 1)).first(), other);
+    }
+
+    @Test
+    public void writes() {
+        MorphiaSessionImpl session = session(true);
+        Author author = session.find(Author.class).filter(eq("_id", 1)).first();
+
+        session.find(Author.class).filter(eq("_id", 1))
+                .update(set("name", "Le Guin"))
+                .execute();
+
+        Author updated = session.find(Author.class).filter(eq("_id", 1)).first();
+        assertNotSame(updated, author);
+        assertEquals(updated.name, "Le Guin");
+
+        Author saved = new Author(2, "Octavia");
+        session.save(saved);
+        assertSame(session.find(Author.class).filter(eq("_id", 2)).first(), saved);
+    }
+
+    @Test
+    public void projections() {
+        MorphiaSessionImpl session = session(true);
+        Author author = session.find(Author.class).filter(eq("_id", 1)).first();
+
+        Author projected = session.find(Author.class).iterator(new FindOptions().projection().include("_id")).next();
+        assertNotSame(projected, author);
+        assertNull(projected.name);
+    }
+
+    @Test
+    public void disabled() {
+        MorphiaSessionImpl session = session(false);
+        Author first = session.find(Author.class).filter(eq("_id", 1)).first();
+
+        assertNotSame(session.find(Author.class).filter(eq("_id", 1)).first(), first);
+    }
+
+    private MorphiaSessionImpl session(boolean identityMap) {
+        ClientSession clientSession = (ClientSession) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { ClientSession.class },
+                (proxy, method, args) -> method.getReturnType().equals(boolean.class) ? false : null);
+        MorphiaSessionImpl session = new MorphiaSessionImpl((DatastoreImpl) datastore, clientSession);
+        session.operations(operations);
+        session.identityMap(identityMap);
+        return session;
+    }
+
+    @Entity("authors")
+    private static class Author {
+        @Id
+        private int id;
+        private String name;
+
+        Author() {
+        }
+
+        Author(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @Entity("books")
+    private static class Book {
+        @Id
+        private int id;
+        private String title;
+        @Reference
+        private Author author;
+
+        Book() {
+        }
+
+        Book(int id, String title, Author author) {
+            this.id = id;
+            this.title = title;
+            this.author = author;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package dev.morphia.test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.result.DeleteResult;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.KeySet;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.OperationEvent;
+import dev.morphia.instrumentation.OperationType;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.memory.InMemoryOperations;
+
+import org.bson.types.ObjectId;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.gte;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestKeySet {
+    private final AtomicInteger finds = new AtomicInteger();
+    private MongoClient client;
+    private Datastore datastore;
+    private InMemoryOperations operations;
+    private List<Widget> widgets;
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                .instrumentation(new Instrumentation() {
+                    @Override
+                    public void operation(OperationEvent event) {
+                        if (event.getType() == OperationType.FIND) {
+                            finds.incrementAndGet();
+                        }
+                    }
+                })
+                .build());
+        operations = new InMemoryOperations();
+        ((DatastoreImpl) datastore).operations(operations);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @BeforeMethod
+    public void seed() {
+        operations.clear();
+        widgets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            widgets.add(new Widget(i));
+        }
+        datastore.save(widgets);
+        finds.set(0);
+    }
+
+    @Test
+    public void packing() {
+        KeySet<Widget> keys = new KeySet<>(Widget.class, "widgets");
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        keys.add(first).add(second);
+
+        assertEquals(keys.size(), 2);
+        assertEquals(keys.get(0), first);
+        assertEquals(keys.get(1), second);
+
+        keys.add(42L).add("text");
+        List<Object> ids = new ArrayList<>();
+        keys.forEach(ids::add);
+        assertEquals(ids, List.of(first, second, 42L, "text"));
+        assertThrows(IndexOutOfBoundsException.class, () -> keys.get(4));
+        assertThrows(IllegalArgumentException.class, () -> keys.chunkSize(0));
+    }
+
+    @Test
+    public void keySet() {
+        KeySet<Widget> keys = datastore.find(Widget.class)
+                .filter(gte("count", 2))
+                .keySet();
+
+        assertEquals(keys.getCollection(), "widgets");
+        assertEquals(keys.size(), 3);
+        Set<Object> ids = new HashSet<>();
+        keys.forEach(ids::add);
+        assertEquals(ids, widgets.subList(2, 5).stream().map(w -> w.id).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void fetch() {
+        KeySet<Widget> keys = datastore.find(Widget.class).keySet()
+                .chunkSize(2);
+        finds.set(0);
+
+        try (Stream<Widget> fetched = datastore.fetch(keys)) {
+            Set<Integer> counts = fetched
+                    .map(w -> w.count)
+                    .collect(Collectors.toSet());
+            assertEquals(counts, Set.of(0, 1, 2, 3, 4));
+        }
+        assertEquals(finds.get(), 3);
+    }
+
+    @Test
+    public void delete() {
+        KeySet<Widget> keys = datastore.find(Widget.class)
+                .filter(gte("count", 1))
+                .keySet()
+                .chunkSize(3);
+
+        DeleteResult result = datastore.delete(keys);
+
+        assertTrue(result.wasAcknowledged());
+        assertEquals(result.getDeletedCount(), 4);
+        assertEquals(datastore.find(Widget.class).count(), 1);
+        assertEquals(datastore.delete(new KeySet<>(Widget.class, "widgets")).getDeletedCount(), 0);
+    }
+
+    @Entity("widgets")
+    private static class Widget {
+        @Id
+        private ObjectId id;
+        private int count;
+
+        Widget() {
+        }
+
+        Widget(int count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package dev.morphia.test.aggregation;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.Morphia;
+import dev.morphia.aggregation.PipelineTemplate;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static dev.morphia.aggregation.expressions.AccumulatorExpressions.sum;
+import static dev.morphia.aggregation.expressions.ComparisonExpressions.gte;
+import static dev.morphia.aggregation.expressions.Expressions.field;
+import static dev.morphia.aggregation.expressions.Expressions.value;
+import static dev.morphia.aggregation.expressions.VariableExpressions.variable;
+import static dev.morphia.aggregation.stages.Group.group;
+import static dev.morphia.aggregation.stages.Group.id;
+import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.filters.Filters.expr;
+import static org.bson.BsonDocument.parse;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+
+public class TestPipelineTemplate {
+    private final Date since = new Date(1_600_000_000_000L);
+    private MongoClient client;
+    private Datastore datastore;
+
+    @BeforeClass
+    public void setup() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Order.class);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void inline() {
+        PipelineTemplate<Order> template = template().inline();
+        Map<String, Object> values = Map.of("since", since, "status", "shipped");
+
+        List<Bson> pipeline = template.pipeline(values);
+        assertEquals(pipeline.get(0), parse("{$match: {status: 'shipped', $expr: {$gte: ['$placed', {$literal: "
+                + "{$date: 1600000000000}}]}}}"));
+        assertNull(template.variables(values));
+    }
+
+    @Test
+    public void let() {
+        PipelineTemplate<Order> template = template();
+        Map<String, Object> values = Map.of("since", since, "status", "shipped");
+
+        List<Bson> pipeline = template.pipeline(values);
+        assertEquals(pipeline.get(0), parse("{$match: {status: 'shipped', $expr: {$gte: ['$placed', '$$since']}}}"));
+        assertSame(pipeline.get(1), template.getStages().get(1));
+        assertEquals(template.variables(values), new BsonDocument("since", new BsonDateTime(since.getTime())));
+    }
+
+    @Test
+    public void unchanged() {
+        PipelineTemplate<Order> template = datastore.aggregate(Order.class)
+                .match(eq("status", "shipped"))
+                .template();
+
+        assertSame(template.pipeline(Map.of()).get(0), template.getStages().get(0));
+        assertNull(template.variables(Map.of()));
+    }
+
+    @Test
+    public void validation() {
+        PipelineTemplate<Order> template = template();
+
+        assertThrows(IllegalArgumentException.class, () -> template.pipeline(Map.of("since", since)));
+        assertThrows(IllegalArgumentException.class, () -> template.pipeline(Map.of("since", since, "status", "shipped",
+                "other", 1)));
+        assertEquals(template.getVariables(), Set.of("since", "status"));
+    }
+
+    private PipelineTemplate<Order> template() {
+        return datastore.aggregate(Order.class)
+                .match(eq("status", "$$status"), expr(gte(field("placed"), variable("since"))))
+                .group(group(id(field("status")))
+                        .field("count", sum(value(1))))
+                .limit(1)
+                .template("since", "status");
+    }
+
+    @Entity("orders")
+    private static class Order {
+        @Id
+        private ObjectId id;
+        private String status;
+        private Date placed;
+    }
+}
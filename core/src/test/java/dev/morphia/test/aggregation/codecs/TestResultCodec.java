@@ -0,0 +1,117 @@
+package dev.morphia.test.aggregation.codecs;
+
+import java.nio.ByteBuffer;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+
+import dev.morphia.Datastore;
+import dev.morphia.Morphia;
+import dev.morphia.aggregation.codecs.ResultCodec;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.PostLoad;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestResultCodec {
+    private MongoClient client;
+    private Datastore datastore;
+
+    @BeforeClass
+    public void setup() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Sale.class, Summary.class, LoadedSummary.class);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void configure() {
+        MongoCollection<Sale> collection = datastore.getDatabase().getCollection("sales", Sale.class);
+
+        assertSame(ResultCodec.configure(collection, datastore.getMapper(), Sale.class), collection);
+        assertSame(ResultCodec.configure(collection, datastore.getMapper(), Document.class), collection);
+        assertTrue(ResultCodec.configure(collection, datastore.getMapper(), Summary.class)
+                .getCodecRegistry().get(Summary.class) instanceof ResultCodec);
+    }
+
+    @Test
+    public void ignoresSourceDiscriminator() {
+        byte[] sale = encode(new Sale("widgets", 12));
+
+        Summary summary = decode(Summary.class, sale);
+        assertEquals(summary.item, "widgets");
+        assertEquals(summary.quantity, 12);
+
+        LoadedSummary loaded = decode(LoadedSummary.class, sale);
+        assertEquals(loaded.item, "widgets");
+        assertTrue(loaded.loaded);
+    }
+
+    private <R> R decode(Class<R> type, byte[] bytes) {
+        MongoCollection<Sale> collection = ResultCodec.configure(datastore.getDatabase().getCollection("sales", Sale.class),
+                datastore.getMapper(), type);
+        return collection.getCodecRegistry().get(type)
+                .decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DecoderContext.builder().build());
+    }
+
+    private byte[] encode(Sale sale) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        Codec<Sale> codec = datastore.getCodecRegistry().get(Sale.class);
+        codec.encode(new BsonBinaryWriter(buffer), sale, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    @Entity(value = "sales", useDiscriminator = true)
+    private static class Sale {
+        @Id
+        private String item;
+        private int quantity;
+
+        Sale() {
+        }
+
+        Sale(String item, int quantity) {
+            this.item = item;
+            this.quantity = quantity;
+        }
+    }
+
+    @Entity(value = "summaries", useDiscriminator = true)
+    private static class Summary {
+        @Id
+        private String item;
+        private int quantity;
+    }
+
+    @Entity(value = "loaded", useDiscriminator = true)
+    private static class LoadedSummary {
+        @Id
+        private String item;
+        private boolean loaded;
+
+        @PostLoad
+        void loaded() {
+            loaded = true;
+        }
+    }
+}
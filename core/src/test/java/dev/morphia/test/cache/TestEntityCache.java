@@ -0,0 +1,260 @@
+package dev.morphia.test.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Cached;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Reference;
+import dev.morphia.cache.EntityCache;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.memory.InMemoryOperations;
+
+import org.bson.Document;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.filters.Filters.gt;
+import static dev.morphia.query.updates.UpdateOperators.inc;
+import static dev.morphia.query.updates.UpdateOperators.set;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestEntityCache {
+    private MongoClient client;
+    private Datastore datastore;
+    private InMemoryOperations operations;
+    private EntityCache cache;
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                .entityCacheSize(1024 * 1024)
+                .build());
+        datastore.getMapper().map(Country.class, Rate.class, Customer.class);
+        operations = new InMemoryOperations();
+        ((DatastoreImpl) datastore).operations(operations);
+        cache = ((DatastoreImpl) datastore).getEntityCache();
+        assertNotNull(cache);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @BeforeMethod
+    public void reset() {
+        operations.clear();
+        cache.clear();
+    }
+
+    @Test
+    public void findById() {
+        datastore.save(new Country("nz", "New Zealand", 5));
+
+        Country first = find("nz");
+        Country second = find("nz");
+        assertNotNull(first);
+        assertNotSame(first, second);
+        assertEquals(second.name, "New Zealand");
+        assertEquals(cache.getMisses(), 1);
+        assertEquals(cache.getHits(), 1);
+
+        assertNull(find("xx"));
+        assertNull(find("xx"));
+        assertEquals(cache.size(), 1);
+
+        datastore.find(Country.class).filter(eq("name", "New Zealand")).first();
+        assertEquals(cache.getHits() + cache.getMisses(), 4);
+    }
+
+    @Test
+    public void invalidation() {
+        Country country = datastore.save(new Country("nz", "New Zealand", 5));
+        datastore.save(new Country("au", "Australia", 26));
+        find("nz");
+        find("au");
+        assertEquals(cache.size(), 2);
+
+        datastore.find(Country.class).filter(eq("_id", "nz")).update(inc("population", 1)).execute();
+        assertEquals(cache.size(), 1);
+        assertEquals(find("nz").population, 6);
+
+        country.name = "Aotearoa";
+        datastore.save(country);
+        assertEquals(find("nz").name, "Aotearoa");
+
+        datastore.find(Country.class).filter(gt("population", 10)).update(set("name", "Oz")).execute();
+        assertEquals(cache.size(), 0);
+        assertEquals(find("au").name, "Oz");
+
+        datastore.delete(country);
+        assertNull(find("nz"));
+    }
+
+    @Test
+    public void eviction() {
+        DatastoreImpl small = (DatastoreImpl) Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                .entityCacheSize(200)
+                .build());
+        small.getMapper().map(Country.class);
+        small.operations(operations);
+        EntityCache smallCache = small.getEntityCache();
+        assertNotNull(smallCache);
+
+        for (int i = 0; i < 20; i++) {
+            small.save(new Country("c" + i, "Country " + i, i));
+            small.find(Country.class).filter(eq("_id", "c" + i)).first();
+        }
+        assertTrue(smallCache.getBytes() <= 200);
+        assertTrue(smallCache.size() < 20);
+
+        small.find(Country.class).filter(eq("_id", "c19")).first();
+        assertEquals(smallCache.getHits(), 1);
+        small.find(Country.class).filter(eq("_id", "c0")).first();
+        assertEquals(smallCache.getHits(), 1);
+    }
+
+    @Test
+    public void invalidatedWhileReading() {
+        DatastoreImpl racing = (DatastoreImpl) Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                .entityCacheSize(1024 * 1024)
+                .build());
+        racing.getMapper().map(Country.class);
+        EntityCache racingCache = racing.getEntityCache();
+        assertNotNull(racingCache);
+        List<String> invalidate = new ArrayList<>();
+        racing.operations(new InMemoryOperations() {
+            @Override
+            public <E> FindIterable<E> find(MongoCollection<E> collection, Document query) {
+                invalidate.forEach(racingCache::invalidate);
+                return super.find(collection, query);
+            }
+        });
+        racing.save(new Country("nz", "New Zealand", 5));
+
+        invalidate.add("rates");
+        racing.find(Country.class).filter(eq("_id", "nz")).first();
+        assertEquals(racingCache.size(), 1);
+
+        racingCache.invalidate("countries", "nz");
+        invalidate.set(0, "countries");
+        racing.find(Country.class).filter(eq("_id", "nz")).first();
+        assertEquals(racingCache.size(), 0);
+    }
+
+    @Test
+    public void expiry() {
+        datastore.save(new Rate("nzd", 1.6));
+        datastore.find(Rate.class).filter(eq("_id", "nzd")).first();
+        datastore.find(Rate.class).filter(eq("_id", "nzd")).first();
+        assertEquals(cache.getHits(), 0);
+        assertEquals(cache.getMisses(), 2);
+    }
+
+    @Test
+    public void references() {
+        datastore.save(asList(new Country("nz", "New Zealand", 5), new Country("au", "Australia", 26)));
+        Customer customer = new Customer(1, find("nz"));
+        customer.visited = asList(find("nz"), find("au"));
+        datastore.save(customer);
+        long misses = cache.getMisses();
+        long hits = cache.getHits();
+
+        Customer loaded = datastore.find(Customer.class).filter(eq("_id", 1)).first();
+        assertNotNull(loaded);
+        assertEquals(loaded.home.name, "New Zealand");
+        assertEquals(loaded.visited.size(), 2);
+        assertEquals(cache.getMisses(), misses);
+        assertEquals(cache.getHits(), hits + 3);
+    }
+
+    @Test
+    public void refresh() {
+        Country country = datastore.save(new Country("nz", "New Zealand", 5));
+        datastore.find(Country.class).filter(eq("_id", "nz")).update(set("name", "Aotearoa")).execute();
+
+        datastore.refresh(country);
+        assertEquals(country.name, "Aotearoa");
+        country.name = "stale";
+        datastore.refresh(country);
+        assertEquals(country.name, "Aotearoa");
+        assertEquals(cache.getMisses(), 1);
+        assertEquals(cache.getHits(), 1);
+    }
+
+    private Country find(String id) {
+        return datastore.find(Country.class).filter(eq("_id", id)).first();
+    }
+
+    @Entity("countries")
+    @Cached
+    private static class Country {
+        @Id
+        private String id;
+        private String name;
+        private int population;
+
+        Country() {
+        }
+
+        Country(String id, String name, int population) {
+            this.id = id;
+            this.name = name;
+            this.population = population;
+        }
+    }
+
+    @Entity("rates")
+    @Cached(ttl = 1, unit = TimeUnit.NANOSECONDS)
+    private static class Rate {
+        @Id
+        private String id;
+        private double value;
+
+        Rate() {
+        }
+
+        Rate(String id, double value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    @Entity("customers")
+    private static class Customer {
+        @Id
+        private int id;
+        @Reference
+        private Country home;
+        @Reference
+        private List<Country> visited;
+
+        Customer() {
+        }
+
+        Customer(int id, Country home) {
+            this.id = id;
+            this.home = home;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package dev.morphia.test.changes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.Datastore;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.changes.ChangeStreamWatcher;
+import dev.morphia.changes.EntityChange;
+import dev.morphia.changes.EntityChangeListener;
+import dev.morphia.changes.ResumeTokenStore;
+import dev.morphia.changes.WatchOptions;
+import dev.morphia.mapping.MapperOptions;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestChangeStreamWatcher {
+    private MongoClient client;
+    private Datastore datastore;
+    private Source source;
+    private Recorder recorder;
+    private CountingStore store;
+
+    @BeforeMethod
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Reading.class);
+        source = new Source();
+        recorder = new Recorder();
+        store = new CountingStore();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void resumesAfterFailure() {
+        source.add(change("t1"), change("t2"), new MongoException("connection lost"));
+        source.add(change("t3"));
+
+        try (ChangeStreamWatcher<Reading> watcher = watch(options())) {
+            await(() -> recorder.tokens.size() == 3);
+            assertEquals(recorder.tokens, List.of("t1", "t2", "t3"));
+            assertEquals(recorder.errors.size(), 1);
+            assertEquals(source.opened, asList(null, token("t2")));
+            assertTrue(watcher.isRunning());
+        }
+        assertEquals(store.load("readings"), token("t3"));
+    }
+
+    @Test
+    public void historyLost() {
+        source.add(new MongoCommandException(BsonDocument.parse("{ok: 0, code: 286, codeName: 'ChangeStreamHistoryLost', "
+                + "errmsg: 'Resume of change stream was not possible'}"), new ServerAddress()));
+
+        try (ChangeStreamWatcher<Reading> watcher = watch(options())) {
+            await(() -> !watcher.isRunning());
+            assertEquals(source.opened.size(), 1);
+            assertEquals(recorder.errors.size(), 1);
+            assertSame(watcher.getFailure(), recorder.errors.get(0));
+        }
+    }
+
+    @Test
+    public void invalidate() {
+        source.add(change("t1"), invalidate("t2"));
+        source.add(change("t3"));
+
+        try (ChangeStreamWatcher<Reading> watcher = watch(options().saveInterval(1, TimeUnit.HOURS))) {
+            await(() -> recorder.tokens.size() == 3);
+            assertEquals(source.opened, asList(null, token("t2")));
+            assertEquals(store.saves.get(), 1);
+            assertEquals(store.load("readings"), token("t2"));
+        }
+    }
+
+    @Test
+    public void failedChangesAreRedelivered() {
+        recorder.failOn = "t2";
+        source.add(change("t1"), change("t2"), change("t3"));
+        source.add(change("t2"), change("t3"));
+
+        try (ChangeStreamWatcher<Reading> watcher = watch(options())) {
+            await(() -> recorder.tokens.size() == 4);
+            assertEquals(recorder.tokens, List.of("t1", "t2", "t2", "t3"));
+            assertEquals(recorder.errors.size(), 1);
+            assertEquals(source.opened, asList(null, token("t1")));
+        }
+        assertEquals(store.load("readings"), token("t3"));
+    }
+
+    @Test
+    public void skipFailedChanges() {
+        recorder.failOn = "t1";
+        source.add(change("t1"), change("t2"));
+
+        try (ChangeStreamWatcher<Reading> watcher = watch(options().skipFailedChanges(true))) {
+            await(() -> recorder.tokens.size() == 2);
+            assertEquals(recorder.errors.size(), 1);
+            assertEquals(source.opened.size(), 1);
+            assertEquals(watcher.getResumeToken(), token("t2"));
+        }
+        assertEquals(store.load("readings"), token("t2"));
+    }
+
+    @Test
+    public void throttledSaves() {
+        source.add(change("t1"), change("t2"), change("t3"));
+
+        ChangeStreamWatcher<Reading> watcher = watch(options().saveInterval(1, TimeUnit.HOURS));
+        await(() -> recorder.tokens.size() == 3);
+        assertEquals(watcher.getResumeToken(), token("t3"));
+        assertEquals(store.saves.get(), 0);
+
+        watcher.close();
+        assertFalse(watcher.isRunning());
+        assertEquals(store.saves.get(), 1);
+        assertEquals(store.load("readings"), token("t3"));
+    }
+
+    @Test
+    public void executor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "watcher"));
+        try {
+            datastore = Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                    .executor(executor)
+                    .build());
+            datastore.getMapper().map(Reading.class);
+            source.add(change("t1"));
+
+            try (ChangeStreamWatcher<Reading> watcher = watch(options())) {
+                await(() -> recorder.tokens.size() == 1);
+                assertEquals(recorder.threads, List.of("watcher"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void defaultName() {
+        try (ChangeStreamWatcher<Reading> watcher = ChangeStreamWatcher.watch(datastore, Reading.class, recorder,
+                new WatchOptions().resumeTokenStore(store), source)) {
+            assertTrue(watcher.getName().startsWith("readings@"), watcher.getName());
+            await(() -> !source.opened.isEmpty());
+            assertNull(source.opened.get(0));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the watcher");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static BsonDocument token(String data) {
+        return new BsonDocument("_data", new BsonString(data));
+    }
+
+    private ChangeStreamDocument<Reading> change(String token) {
+        return decode("{_id: {_data: '" + token + "'}, operationType: 'delete', ns: {db: 'morphia_test', coll: 'readings'}, "
+                + "documentKey: {_id: 'r1'}}");
+    }
+
+    private ChangeStreamDocument<Reading> decode(String json) {
+        Codec<ChangeStreamDocument<Reading>> codec = ChangeStreamDocument.createCodec(Reading.class, datastore.getCodecRegistry());
+        return codec.decode(RawBsonDocument.parse(json).asBsonReader(), DecoderContext.builder().build());
+    }
+
+    private ChangeStreamDocument<Reading> invalidate(String token) {
+        return decode("{_id: {_data: '" + token + "'}, operationType: 'invalidate'}");
+    }
+
+    private WatchOptions options() {
+        return new WatchOptions()
+                .name("readings")
+                .resumeTokenStore(store)
+                .retryDelay(10, TimeUnit.MILLISECONDS)
+                .saveInterval(0, TimeUnit.MILLISECONDS)
+                .maxAwaitTime(100, TimeUnit.MILLISECONDS);
+    }
+
+    private ChangeStreamWatcher<Reading> watch(WatchOptions options) {
+        return ChangeStreamWatcher.watch(datastore, Reading.class, recorder, options, source);
+    }
+
+    @Entity("readings")
+    private static class Reading {
+        @Id
+        private String id;
+    }
+
+    private static class Recorder implements EntityChangeListener<Reading> {
+        private final List<String> tokens = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+        private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+        private volatile String failOn;
+
+        @Override
+        public void onChange(EntityChange<Reading> change) {
+            String token = change.getResumeToken().getString("_data").getValue();
+            tokens.add(token);
+            threads.add(Thread.currentThread().getName());
+            if (token.equals(failOn)) {
+                failOn = null;
+                throw new IllegalStateException("failed on " + token);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            errors.add(error);
+        }
+    }
+
+    private static class CountingStore implements ResumeTokenStore {
+        private final ResumeTokenStore store = ResumeTokenStore.inMemory();
+        private final AtomicInteger saves = new AtomicInteger();
+
+        @Override
+        @Nullable
+        public BsonDocument load(String name) {
+            return store.load(name);
+        }
+
+        @Override
+        public void save(String name, BsonDocument token) {
+            saves.incrementAndGet();
+            store.save(name, token);
+        }
+    }
+
+    /**
+     * Hands out scripted cursors in order and records the token each was opened after. Once the script runs out the cursors stay
+     * empty.
+     */
+    private static class Source implements Function<BsonDocument, MongoChangeStreamCursor<ChangeStreamDocument<Reading>>> {
+        private final Deque<List<Object>> scripts = new ArrayDeque<>();
+        private final List<BsonDocument> opened = new CopyOnWriteArrayList<>();
+
+        void add(Object... steps) {
+            scripts.add(new ArrayList<>(asList(steps)));
+        }
+
+        @Override
+        public synchronized MongoChangeStreamCursor<ChangeStreamDocument<Reading>> apply(@Nullable BsonDocument token) {
+            opened.add(token);
+            List<Object> steps = scripts.isEmpty() ? new ArrayList<>() : scripts.poll();
+            if (!steps.isEmpty() && steps.get(0) instanceof RuntimeException) {
+                throw (RuntimeException) steps.get(0);
+            }
+            return new ScriptedCursor(steps);
+        }
+    }
+
+    private static class ScriptedCursor implements MongoChangeStreamCursor<ChangeStreamDocument<Reading>> {
+        private final Deque<Object> steps;
+        @Nullable
+        private BsonDocument resumeToken;
+
+        ScriptedCursor(List<Object> steps) {
+            this.steps = new ArrayDeque<>(steps);
+        }
+
+        @Override
+        @Nullable
+        public BsonDocument getResumeToken() {
+            return resumeToken;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ChangeStreamDocument<Reading> next() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int available() {
+            return steps.size();
+        }
+
+        @Override
+        @Nullable
+        @SuppressWarnings("unchecked")
+        public ChangeStreamDocument<Reading> tryNext() {
+            Object step = steps.poll();
+            if (step == null) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+            if (step instanceof RuntimeException) {
+                throw (RuntimeException) step;
+            }
+            ChangeStreamDocument<Reading> document = (ChangeStreamDocument<Reading>) step;
+            resumeToken = document.getResumeToken();
+            return document;
+        }
+
+        @Override
+        @Nullable
+        public ServerCursor getServerCursor() {
+            return null;
+        }
+
+        @Override
+        public ServerAddress getServerAddress() {
+            return new ServerAddress();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package dev.morphia.test.changes;
+
+import java.util.UUID;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import dev.morphia.Datastore;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.changes.EntityChange;
+import dev.morphia.changes.ResumeTokenStore;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class TestEntityChanges {
+    private static final UUID ID = UUID.fromString("3b241101-e2bb-4255-8caf-4136c566a962");
+    private MongoClient client;
+    private Datastore datastore;
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Sensor.class);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void insert() {
+        EntityChange<Sensor> change = change("{_id: {_data: 'token1'}, operationType: 'insert', "
+                + "ns: {db: 'morphia_test', coll: 'sensors'}, "
+                + "documentKey: {_id: {$binary: {base64: 'OyQRAeK7QlWMr0E2xWapYg==', subType: '04'}}}, "
+                + "fullDocument: {_id: {$binary: {base64: 'OyQRAeK7QlWMr0E2xWapYg==', subType: '04'}}, location: 'roof', reading: 21.5}}");
+
+        assertEquals(change.getOperationType(), OperationType.INSERT);
+        assertEquals(change.getCollection(), "sensors");
+        assertEquals(change.getType(), Sensor.class);
+        assertEquals(change.getId(), ID);
+        assertEquals(change.getResumeToken(), new BsonDocument("_data", new BsonString("token1")));
+        Sensor sensor = change.getEntity();
+        assertNotNull(sensor);
+        assertEquals(sensor.id, ID);
+        assertEquals(sensor.location, "roof");
+        assertEquals(sensor.reading, 21.5);
+    }
+
+    @Test
+    public void delete() {
+        EntityChange<Sensor> change = change("{_id: {_data: 'token2'}, operationType: 'delete', "
+                + "ns: {db: 'morphia_test', coll: 'sensors'}, "
+                + "documentKey: {_id: {$binary: {base64: 'OyQRAeK7QlWMr0E2xWapYg==', subType: '04'}}}}");
+
+        assertEquals(change.getOperationType(), OperationType.DELETE);
+        assertEquals(change.getId(), ID);
+        assertNull(change.getEntity());
+        assertNull(change.getUpdateDescription());
+    }
+
+    @Test
+    public void update() {
+        EntityChange<Sensor> change = change("{_id: {_data: 'token3'}, operationType: 'update', "
+                + "ns: {db: 'morphia_test', coll: 'sensors'}, "
+                + "documentKey: {_id: {$binary: {base64: 'OyQRAeK7QlWMr0E2xWapYg==', subType: '04'}}}, "
+                + "updateDescription: {updatedFields: {reading: 22.0}, removedFields: []}}");
+
+        assertEquals(change.getOperationType(), OperationType.UPDATE);
+        assertEquals(change.getId(), ID);
+        assertNull(change.getEntity());
+        assertNotNull(change.getUpdateDescription());
+        assertEquals(change.getUpdateDescription().getUpdatedFields().getDouble("reading").getValue(), 22.0);
+    }
+
+    @Test
+    public void invalidate() {
+        EntityChange<Sensor> change = change("{_id: {_data: 'token4'}, operationType: 'invalidate'}");
+
+        assertEquals(change.getOperationType(), OperationType.INVALIDATE);
+        assertNull(change.getId());
+        assertNull(change.getDocumentKey());
+    }
+
+    @Test
+    public void resumeTokens() {
+        ResumeTokenStore store = ResumeTokenStore.inMemory();
+        assertNull(store.load("sensors"));
+
+        BsonDocument token = new BsonDocument("_data", new BsonString("token5"));
+        store.save("sensors", token);
+        assertEquals(store.load("sensors"), token);
+        assertNull(store.load("other"));
+    }
+
+    private EntityChange<Sensor> change(String json) {
+        Codec<ChangeStreamDocument<Sensor>> codec = ChangeStreamDocument.createCodec(Sensor.class, datastore.getCodecRegistry());
+        ChangeStreamDocument<Sensor> document = codec.decode(RawBsonDocument.parse(json).asBsonReader(),
+                DecoderContext.builder().build());
+        return EntityChange.of(datastore, Sensor.class, document);
+    }
+
+    @Entity("sensors")
+    private static class Sensor {
+        @Id
+        private UUID id;
+        private String location;
+        private double reading;
+    }
+}
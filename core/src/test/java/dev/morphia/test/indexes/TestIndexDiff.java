@@ -0,0 +1,111 @@
+package dev.morphia.test.indexes;
+
+import java.util.Date;
+import java.util.List;
+
+import dev.morphia.IndexDiff;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Field;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Index;
+import dev.morphia.annotations.IndexOptions;
+import dev.morphia.annotations.Indexed;
+import dev.morphia.annotations.Indexes;
+import dev.morphia.annotations.Text;
+import dev.morphia.annotations.internal.IndexHelper;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.testng.annotations.Test;
+
+import static dev.morphia.utils.IndexType.DESC;
+import static org.bson.Document.parse;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Exercises the index diff against index listings captured from a server so no database is needed.
+ */
+public class TestIndexDiff {
+    private static final Document ID_INDEX = parse("{v: 2, key: {_id: 1}, name: '_id_'}");
+
+    private final Mapper mapper = new Mapper(MapperOptions.DEFAULT);
+    private final IndexHelper helper = new IndexHelper(mapper);
+
+    @Test
+    public void extra() {
+        Document stale = parse("{v: 2, key: {legacy: 1}, name: 'legacy_1'}");
+        IndexDiff diff = diff(Article.class, ID_INDEX, expiry(3600), text("english"), compound(), stale);
+
+        assertTrue(diff.isSatisfied());
+        assertFalse(diff.isEmpty());
+        assertEquals(diff.getExtra(), List.of(stale));
+    }
+
+    @Test
+    public void inSync() {
+        IndexDiff diff = diff(Article.class, ID_INDEX, expiry(3600), text("english"), compound());
+
+        assertTrue(diff.isEmpty(), diff.toString());
+    }
+
+    @Test
+    public void mismatched() {
+        Document expiry = expiry(60);
+        Document text = text("french");
+        IndexDiff diff = diff(Article.class, ID_INDEX, expiry, text, compound());
+
+        assertTrue(diff.getMissing().isEmpty());
+        assertTrue(diff.getExtra().isEmpty());
+        assertEquals(diff.getMismatched().size(), 2, diff.toString());
+        assertEquals(diff.getMismatched().get(0).getExisting(), expiry);
+        assertEquals(diff.getMismatched().get(0).getExpected().get("expireAfterSeconds"), 3600L);
+        assertEquals(diff.getMismatched().get(1).getExisting(), text);
+    }
+
+    @Test
+    public void missing() {
+        IndexDiff diff = diff(Article.class, ID_INDEX, text("english"));
+
+        assertFalse(diff.isSatisfied());
+        assertEquals(diff.getMissing().size(), 2);
+        assertEquals(diff.getMissing().get(0).getKeys(), new Document("author", 1).append("published", -1));
+        assertEquals(diff.getMissing().get(1).getKeys(), new Document("published", 1));
+        assertTrue(diff.getMismatched().isEmpty());
+        assertTrue(diff.getExtra().isEmpty());
+    }
+
+    private static Document compound() {
+        return parse("{v: 2, key: {author: 1, published: -1}, name: 'author_1_published_-1', unique: true}");
+    }
+
+    private static Document expiry(int seconds) {
+        return parse("{v: 2, key: {published: 1}, name: 'published_1', expireAfterSeconds: " + seconds + "}");
+    }
+
+    private static Document text(String language) {
+        return parse("{v: 2, key: {_fts: 'text', _ftsx: 1}, name: 'body_text', weights: {body: 1}, default_language: '"
+                + language + "', language_override: 'language', textIndexVersion: 3}");
+    }
+
+    private IndexDiff diff(Class<?> type, Document... existing) {
+        EntityModel model = mapper.getEntityModel(type);
+        return helper.diff(model.getCollectionName(), List.of(model), List.of(existing));
+    }
+
+    @Entity
+    @Indexes(@Index(fields = { @Field("author"), @Field(value = "published", type = DESC) }, options = @IndexOptions(unique = true)))
+    private static class Article {
+        @Id
+        private ObjectId id;
+        private String author;
+        @Indexed(options = @IndexOptions(expireAfterSeconds = 3600))
+        private Date published;
+        @Text
+        private String body;
+    }
+}
@@ -3,14 +3,22 @@ package dev.morphia.test.indexes;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
 import com.mongodb.client.model.CollationCaseFirst;
 import com.mongodb.client.model.CollationMaxVariable;
 import com.mongodb.client.model.CollationStrength;
 import com.mongodb.client.model.geojson.Point;
 import com.mongodb.client.model.geojson.Position;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
 
+import dev.morphia.Datastore;
+import dev.morphia.Morphia;
 import dev.morphia.annotations.Collation;
 import dev.morphia.annotations.Entity;
 import dev.morphia.annotations.Field;
@@ -48,6 +56,55 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestIndexes extends TestBase {
+    @Test
+    public void ensureIndexesConcurrently() {
+        List<String> created = new CopyOnWriteArrayList<>();
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (event.getCommandName().equals("createIndexes")) {
+                            created.add(event.getCommand().getString("createIndexes").getValue());
+                        }
+                    }
+                })
+                .build();
+        try (MongoClient client = MongoClients.create(settings)) {
+            Datastore datastore = Morphia.createDatastore(client, TEST_DB_NAME, MapperOptions.builder()
+                    .indexParallelism(4)
+                    .build());
+            List<EntityModel> models = datastore.getMapper().map(CompoundTextIndex.class, FeedEvent.class, HasExpiryField.class,
+                    UniqueIndexOnValue.class);
+            datastore.ensureIndexes();
+
+            assertEquals(created.size(), 4, created.toString());
+            assertEquals(Set.copyOf(created), models.stream()
+                    .map(EntityModel::getCollectionName)
+                    .collect(toSet()));
+            assertThat(getIndexInfo(CompoundTextIndex.class), hasIndexNamed("indexing_test"));
+            assertThat(getIndexInfo(FeedEvent.class), hasIndexNamed("actor.actorObject.userId_1_actor.actorType_-1"));
+            assertThat(getIndexInfo(HasExpiryField.class), hasIndexNamed("offerExpiresAt_1"));
+            assertEquals(getIndexInfo(UniqueIndexOnValue.class).size(), 3);
+
+            // every index already exists so a second pass should send no commands at all
+            created.clear();
+            datastore.ensureIndexes();
+            assertTrue(created.isEmpty(), created.toString());
+            datastore.diffIndexes()
+                    .forEach(diff -> assertTrue(diff.isSatisfied(), diff.toString()));
+        }
+    }
+
+    @Test
+    public void conflictingIndexDoesNotBlockOthers() {
+        getMapper().map(UniqueIndexOnValue.class);
+        getDs().getCollection(UniqueIndexOnValue.class)
+                .createIndex(new Document("value", 1), new com.mongodb.client.model.IndexOptions().name("l_ascending"));
+
+        Assert.assertThrows(MongoCommandException.class, () -> getDs().ensureIndexes());
+        assertThat(getIndexInfo(UniqueIndexOnValue.class), hasIndexNamed("unique_1"));
+    }
+
     @Test
     public void indexTypefromValue() {
         assertEquals(IndexType.fromValue(1), IndexType.ASC);
@@ -0,0 +1,119 @@
+package dev.morphia.test.mapping;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dev.morphia.mapping.codec.Conversions;
+
+import org.bson.types.ObjectId;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestConversions {
+    private static final int THREADS = 32;
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    public void concurrentConversions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < ITERATIONS; j++) {
+                        assertEquals(Conversions.convert(String.valueOf(j), Integer.class), Integer.valueOf(j));
+                        assertEquals(Conversions.convert((long) j, Double.class), (double) j);
+                        assertEquals(Conversions.convert(new Date(j), long.class), Long.valueOf(j));
+                        assertEquals(Conversions.convert(j, String.class), String.valueOf(j));
+                        assertEquals(Conversions.convert("BLUE", Color.class), Color.BLUE);
+                        if (j % 1_000 == 0) {
+                            Conversions.register(Token.class, String.class, Token::value);
+                        }
+                        assertEquals(Conversions.convert(new Token(thread + ":" + j), String.class), thread + ":" + j);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            Conversions.unregister(Token.class, String.class);
+        }
+    }
+
+    @Test
+    public void fallbacks() {
+        ObjectId id = new ObjectId();
+        assertEquals(Conversions.convert(id.toHexString(), ObjectId.class), id);
+        assertEquals(Conversions.convert(id, ObjectId.class), id);
+        assertEquals(Conversions.convert(42, Integer.class), Integer.valueOf(42));
+        assertEquals(Conversions.convert(null, int.class), 0);
+        assertEquals(Conversions.convert(null, boolean.class), Boolean.FALSE);
+        assertNull(Conversions.convert(null, String.class));
+
+        UUID uuid = UUID.randomUUID();
+        assertEquals(Conversions.convert(uuid, Long.class), uuid);
+    }
+
+    @Test
+    public void registrationReplacesResolved() {
+        assertEquals(Conversions.convert(new Celsius(100), Double.class), new Celsius(100));
+
+        try {
+            Conversions.register(Celsius.class, Double.class, c -> c.degrees * 9 / 5 + 32);
+            assertEquals(Conversions.convert(new Celsius(100), Double.class), 212.0);
+        } finally {
+            Conversions.unregister(Celsius.class, Double.class);
+        }
+        assertEquals(Conversions.convert(new Celsius(100), Double.class), new Celsius(100));
+    }
+
+    private enum Color {
+        RED,
+        BLUE
+    }
+
+    private static final class Token {
+        private final String value;
+
+        private Token(String value) {
+            this.value = value;
+        }
+
+        private String value() {
+            return value;
+        }
+    }
+
+    private static final class Celsius {
+        private final double degrees;
+
+        private Celsius(double degrees) {
+            this.degrees = degrees;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Celsius && ((Celsius) o).degrees == degrees;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(degrees);
+        }
+    }
+}
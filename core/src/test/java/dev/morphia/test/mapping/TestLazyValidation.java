@@ -0,0 +1,119 @@
+package dev.morphia.test.mapping;
+
+import java.util.List;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.MappingException;
+import dev.morphia.test.models.versioned.AbstractVersionedBase;
+import dev.morphia.test.models.versioned.Versioned;
+import dev.morphia.test.models.versioned.VersionedChildEntity;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestLazyValidation {
+    private MongoClient client;
+
+    @BeforeMethod
+    public void client() {
+        client = MongoClients.create();
+    }
+
+    @AfterMethod
+    public void close() {
+        client.close();
+    }
+
+    @Test
+    public void deferred() {
+        Mapper mapper = new Mapper(MapperOptions.builder()
+                .lazyValidation(true)
+                .build());
+
+        mapper.map(TwoIds.class, Versioned.class);
+
+        assertTrue(mapper.isMapped(TwoIds.class));
+        assertFalse(mapper.isValidated(TwoIds.class));
+        assertFalse(mapper.isValidated(Versioned.class));
+        assertThrows(MappingException.class, () -> mapper.ensureValidated(mapper.getEntityModel(TwoIds.class)));
+        assertFalse(mapper.isValidated(TwoIds.class));
+
+        mapper.ensureValidated(mapper.getEntityModel(Versioned.class));
+        assertTrue(mapper.isValidated(Versioned.class));
+    }
+
+    @Test
+    public void eager() {
+        Mapper mapper = new Mapper(MapperOptions.DEFAULT);
+
+        assertThrows(MappingException.class, () -> mapper.map(TwoIds.class));
+        mapper.map(Versioned.class);
+        assertTrue(mapper.isValidated(Versioned.class));
+    }
+
+    @Test
+    public void parallel() {
+        Mapper mapper = new Mapper(MapperOptions.builder()
+                .lazyValidation(true)
+                .parallelMapping(true)
+                .build());
+
+        mapper.map(TwoIds.class, VersionedChildEntity.class);
+
+        assertFalse(mapper.isValidated(TwoIds.class));
+        assertFalse(mapper.isValidated(VersionedChildEntity.class));
+    }
+
+    @Test
+    public void firstUse() {
+        DatastoreImpl datastore = (DatastoreImpl) Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                .lazyValidation(true)
+                .build());
+        Mapper mapper = datastore.getMapper();
+        mapper.map(TwoIds.class, Versioned.class);
+
+        assertNotNull(datastore.getCodecRegistry().get(Versioned.class));
+        assertTrue(mapper.isValidated(Versioned.class));
+        assertThrows(MappingException.class, () -> datastore.getCodecRegistry().get(TwoIds.class));
+    }
+
+    @Test
+    public void prewarm() {
+        DatastoreImpl datastore = (DatastoreImpl) Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                .lazyValidation(true)
+                .prewarm(VersionedChildEntity.class.getName(), TwoIds.class.getName(), "dev.morphia.test.Missing")
+                .build());
+        datastore.prewarming().join();
+
+        Mapper mapper = datastore.getMapper();
+        assertTrue(mapper.isValidated(VersionedChildEntity.class));
+        assertFalse(mapper.isValidated(AbstractVersionedBase.class));
+        assertTrue(mapper.isMapped(TwoIds.class));
+        assertFalse(mapper.isValidated(TwoIds.class));
+
+        datastore.prewarm(List.of(AbstractVersionedBase.class.getName())).join();
+        assertTrue(mapper.isValidated(AbstractVersionedBase.class));
+    }
+
+    @Entity
+    private static class TwoIds {
+        @Id
+        private String id;
+        @Id
+        private String other;
+    }
+}
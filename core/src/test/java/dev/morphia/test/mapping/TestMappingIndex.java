@@ -0,0 +1,117 @@
+package dev.morphia.test.mapping;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.MappingException;
+import dev.morphia.mapping.MappingIndex;
+import dev.morphia.mapping.MappingIndexWriter;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.test.models.versioned.AbstractVersionedBase;
+import dev.morphia.test.models.versioned.Versioned;
+import dev.morphia.test.models.versioned.VersionedChildEntity;
+import dev.morphia.test.models.versioned.subversioned.VersionedToo;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestMappingIndex {
+    private static final String PACKAGE = Versioned.class.getPackageName();
+
+    @Test
+    public void classes() {
+        MappingIndex index = MappingIndexWriter.index(MapperOptions.DEFAULT, List.of(PACKAGE));
+
+        assertEquals(Set.copyOf(index.classes(PACKAGE, false)), Set.of(AbstractVersionedBase.class.getName(),
+                Versioned.class.getName(), VersionedChildEntity.class.getName()));
+        assertNull(index.classes(PACKAGE, true));
+        assertNull(index.classes("dev.morphia.test.models", false));
+
+        MappingIndex nested = MappingIndexWriter.index(MapperOptions.DEFAULT, List.of(PACKAGE + ".*"));
+        assertTrue(nested.classes(PACKAGE, true).contains(VersionedToo.class.getName()));
+        assertEquals(nested.classes(VersionedToo.class.getPackageName(), false), List.of(VersionedToo.class.getName()));
+    }
+
+    @Test
+    public void mapFromIndex() throws IOException {
+        Path directory = Files.createTempDirectory("mapping-index");
+        MappingIndexWriter.write(directory, List.of(PACKAGE));
+
+        Mapper mapper = mapper(directory);
+        mapper.mapPackage(PACKAGE);
+
+        assertEquals(mapper.getMappedEntities().size(), 3);
+        MappingIndex index = MappingIndex.load(mapper.getOptions().getClassLoader());
+        for (EntityModel model : mapper.getMappedEntities()) {
+            assertTrue(index.isValidated(model), model.toString());
+        }
+    }
+
+    @Test
+    public void stale() throws IOException {
+        MappingIndex index = new MappingIndex();
+        index.addPackage(PACKAGE, "outdated");
+        index.add(new Mapper(MapperOptions.DEFAULT).getEntityModel(AbstractVersionedBase.class));
+        Path directory = Files.createTempDirectory("mapping-index");
+        index.write(directory);
+
+        Mapper mapper = mapper(directory);
+        assertThrows(MappingException.class, () -> mapper.mapPackage(PACKAGE));
+        assertTrue(mapper.getMappedEntities().isEmpty());
+    }
+
+    @Test
+    public void fingerprint() throws IOException {
+        ClassLoader loader = getClass().getClassLoader();
+        List<String> classes = List.of(Versioned.class.getName(), VersionedChildEntity.class.getName());
+
+        assertEquals(MappingIndex.fingerprint(loader, classes), MappingIndex.fingerprint(loader, List.of(classes.get(1), classes.get(0))));
+        assertNotEquals(MappingIndex.fingerprint(loader, classes), MappingIndex.fingerprint(loader, classes.subList(0, 1)));
+        assertNotEquals(MappingIndex.fingerprint(loader, classes),
+                MappingIndex.fingerprint(loader, List.of(classes.get(0), "missing.Type")));
+
+        List<String> written = List.of("dev.morphia.test.written.Type");
+        assertNotEquals(MappingIndex.fingerprint(classFile(new byte[] { 1 }), written),
+                MappingIndex.fingerprint(classFile(new byte[] { 2 }), written));
+    }
+
+    @Test
+    public void changedLayout() {
+        MappingIndex index = MappingIndexWriter.index(MapperOptions.DEFAULT, List.of(PACKAGE));
+        Mapper changed = new Mapper(MapperOptions.builder()
+                .discriminatorKey("_type")
+                .build());
+
+        assertTrue(index.isValidated(new Mapper(MapperOptions.DEFAULT).getEntityModel(Versioned.class)));
+        assertFalse(index.isValidated(changed.getEntityModel(Versioned.class)));
+    }
+
+    private ClassLoader classFile(byte[] contents) throws IOException {
+        Path directory = Files.createTempDirectory("mapping-index");
+        Path file = directory.resolve("dev/morphia/test/written/Type.class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, contents);
+        return new URLClassLoader(new URL[] { directory.toUri().toURL() }, null);
+    }
+
+    private Mapper mapper(Path directory) throws IOException {
+        ClassLoader loader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, getClass().getClassLoader());
+        return new Mapper(MapperOptions.builder()
+                .classLoader(loader)
+                .mappingIndex(true)
+                .build());
+    }
+}
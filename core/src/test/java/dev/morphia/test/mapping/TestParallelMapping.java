@@ -0,0 +1,143 @@
+package dev.morphia.test.mapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.MappingException;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.test.models.versioned.AbstractVersionedBase;
+import dev.morphia.test.models.versioned.Versioned;
+import dev.morphia.test.models.versioned.VersionedChildEntity;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestParallelMapping {
+    @Test
+    public void mapPackage() {
+        Mapper sequential = new Mapper(MapperOptions.builder()
+                .mapSubPackages(true)
+                .build());
+        sequential.mapPackageFromClass(Versioned.class);
+        Mapper parallel = new Mapper(MapperOptions.builder()
+                .mapSubPackages(true)
+                .parallelMapping(true)
+                .build());
+        parallel.mapPackageFromClass(Versioned.class);
+
+        Map<Class<?>, EntityModel> expected = models(sequential);
+        Map<Class<?>, EntityModel> actual = models(parallel);
+        assertEquals(actual.keySet(), expected.keySet());
+        expected.forEach((type, model) -> {
+            EntityModel mapped = actual.get(type);
+            assertEquals(mapped.getCollectionName(), model.getCollectionName());
+            assertEquals(names(mapped), names(model));
+            assertEquals(mapped.getSubtypes().size(), model.getSubtypes().size());
+        });
+    }
+
+    @Test
+    public void subtypesFirst() {
+        Mapper mapper = new Mapper(MapperOptions.builder()
+                .parallelMapping(true)
+                .build());
+
+        List<EntityModel> models = mapper.map(VersionedChildEntity.class, AbstractVersionedBase.class);
+
+        assertEquals(models.get(0).getType(), VersionedChildEntity.class);
+        assertSame(models.get(0).getSuperClass(), models.get(1));
+        assertEquals(models.get(1).getSubtypes(), List.of(models.get(0)));
+    }
+
+    @Test
+    public void invalid() {
+        Mapper mapper = new Mapper(MapperOptions.builder()
+                .parallelMapping(true)
+                .build());
+
+        assertThrows(MappingException.class, () -> mapper.map(Versioned.class, TwoIds.class));
+        assertFalse(mapper.isMapped(Versioned.class));
+        assertEquals(mapper.map(Versioned.class).get(0).getType(), Versioned.class);
+    }
+
+    @Test
+    public void rollsBackSubtypes() {
+        Mapper mapper = new Mapper(MapperOptions.builder()
+                .parallelMapping(true)
+                .build());
+        EntityModel parent = mapper.map(Parent.class).get(0);
+
+        assertThrows(MappingException.class, () -> mapper.map(Child.class, TwoIds.class));
+        assertFalse(mapper.isMapped(Child.class));
+        assertTrue(parent.getSubtypes().isEmpty());
+
+        EntityModel child = mapper.map(Child.class).get(0);
+        assertEquals(parent.getSubtypes(), List.of(child));
+    }
+
+    @Test
+    public void executor() {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+            threads.incrementAndGet();
+            return new Thread(r, "mapping");
+        });
+        try {
+            Mapper mapper = new Mapper(MapperOptions.builder()
+                    .parallelMapping(true)
+                    .executor(executor)
+                    .build());
+
+            mapper.map(VersionedChildEntity.class, AbstractVersionedBase.class);
+            assertTrue(mapper.isMapped(VersionedChildEntity.class));
+            assertTrue(threads.get() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<Class<?>, EntityModel> models(Mapper mapper) {
+        return mapper.getMappedEntities().stream()
+                .collect(Collectors.toMap(EntityModel::getType, Function.identity()));
+    }
+
+    private static List<String> names(EntityModel model) {
+        return model.getProperties().stream()
+                .map(PropertyModel::getMappedName)
+                .collect(Collectors.toList());
+    }
+
+    @Entity
+    private static class TwoIds {
+        @Id
+        private String id;
+        @Id
+        private String other;
+    }
+
+    @Entity("family")
+    private static class Parent {
+        @Id
+        private String id;
+    }
+
+    @Entity("family")
+    private static class Child extends Parent {
+        private String name;
+    }
+}
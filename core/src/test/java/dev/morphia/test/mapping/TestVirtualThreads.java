@@ -0,0 +1,125 @@
+package dev.morphia.test.mapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.internal.MorphiaInternals;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.memory.InMemoryOperations;
+
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.eq;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class TestVirtualThreads {
+    private static final int TASKS = 100_000;
+
+    @Test
+    public void sharedExecutor() {
+        MapperOptions first = MapperOptions.builder()
+                .virtualThreads(true)
+                .build();
+        MapperOptions second = MapperOptions.builder()
+                .virtualThreads(true)
+                .build();
+
+        assertSame(first.getExecutor(), second.getExecutor());
+    }
+
+    @Test
+    public void noExecutorByDefault() {
+        assertNull(MapperOptions.builder().build().getExecutor());
+    }
+
+    @Test
+    public void concurrentOperations() throws Exception {
+        if (!MorphiaInternals.virtualThreadsSupported()) {
+            throw new SkipException("Virtual threads are not supported on this JVM");
+        }
+        try (MongoClient client = MongoClients.create()) {
+            MapperOptions options = MapperOptions.builder()
+                    .virtualThreads(true)
+                    .build();
+            Datastore datastore = Morphia.createDatastore(client, "morphia_test", options);
+            ((DatastoreImpl) datastore).operations(new InMemoryOperations());
+            ExecutorService executor = options.getExecutor();
+            assertEquals(executor.getClass().getSimpleName(), "ThreadPerTaskExecutor");
+
+            Class<?>[] types = { First.class, Second.class, Third.class };
+            Map<Class<?>, EntityModel> models = new ConcurrentHashMap<>();
+            List<Future<?>> futures = new ArrayList<>(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    Class<?> type = types[index % types.length];
+                    EntityModel model = datastore.getMapper().getEntityModel(type);
+                    assertSame(models.computeIfAbsent(type, t -> model), model, "Each type should only ever be mapped once");
+                    saveAndFind(datastore, type, index);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertEquals(models.size(), types.length);
+            long saved = 0;
+            for (Class<?> type : types) {
+                saved += datastore.find(type).count();
+            }
+            assertEquals(saved, TASKS);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void saveAndFind(Datastore datastore, Class<T> type, int value) {
+        try {
+            T entity = type.getDeclaredConstructor().newInstance();
+            ((Base) entity).id = value;
+            ((Base) entity).name = "name " + value;
+            datastore.save(entity);
+            T found = datastore.find(type)
+                    .filter(eq("_id", value))
+                    .first();
+            assertNotNull(found);
+            assertEquals(((Base) found).name, "name " + value);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private abstract static class Base {
+        @Id
+        int id;
+        String name;
+    }
+
+    @Entity
+    private static class First extends Base {
+    }
+
+    @Entity
+    private static class Second extends Base {
+    }
+
+    @Entity
+    private static class Third extends Base {
+    }
+}
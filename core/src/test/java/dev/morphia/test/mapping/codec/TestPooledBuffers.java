@@ -0,0 +1,215 @@
+package dev.morphia.test.mapping.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.DatastoreImpl;
+import dev.morphia.InsertManyOptions;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Property;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.mapping.codec.writer.BufferPool;
+import dev.morphia.mapping.codec.writer.EncodedNameOutput;
+import dev.morphia.memory.InMemoryOperations;
+
+import org.bson.BsonBinaryWriter;
+import org.bson.ByteBuf;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.eq;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestPooledBuffers {
+    private MongoClient client;
+    private DatastoreImpl datastore;
+
+    @BeforeMethod
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = (DatastoreImpl) Morphia.createDatastore(client, "morphia_test");
+        datastore.operations(new InMemoryOperations());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void insert() {
+        List<Widget> widgets = widgets(500, 10);
+        datastore.insert(widgets, new InsertManyOptions().pooledBuffers(true));
+
+        assertEquals(datastore.find(Widget.class).count(), 500);
+        for (Widget widget : List.of(widgets.get(0), widgets.get(250), widgets.get(499))) {
+            assertNotNull(widget.id);
+            assertEquals(datastore.find(Widget.class).filter(eq("_id", widget.id)).first(), widget);
+        }
+
+        BufferPool pool = datastore.getBufferPool();
+        assertEquals(pool.getBuffersInUse(), 0);
+        assertEquals(pool.getBytesInUse(), 0);
+        assertTrue(pool.getPooledBuffers() > 0);
+        assertTrue(pool.getAverageDocumentSize() > 0);
+
+        long allocations = pool.getAllocations();
+        datastore.insert(widgets(500, 10), new InsertManyOptions().pooledBuffers(true));
+        assertEquals(pool.getAllocations(), allocations);
+        assertTrue(pool.getReuses() > 0);
+        assertEquals(datastore.find(Widget.class).count(), 1000);
+    }
+
+    @Test
+    public void direct() {
+        datastore.insert(widgets(100, 10), new InsertManyOptions()
+                .pooledBuffers(true)
+                .directBuffers(true));
+
+        assertEquals(datastore.find(Widget.class).count(), 100);
+        assertEquals(datastore.getBufferPool().getBuffersInUse(), 0);
+    }
+
+    @Test
+    public void outgrowsBuffer() {
+        List<Widget> widgets = widgets(3, 10);
+        widgets.add(1, new Widget("x".repeat(3 * BufferPool.MIN_BUFFER_SIZE)));
+        datastore.insert(widgets, new InsertManyOptions().pooledBuffers(true));
+
+        for (Widget widget : widgets) {
+            assertEquals(datastore.find(Widget.class).filter(eq("_id", widget.id)).first(), widget);
+        }
+        assertEquals(datastore.getBufferPool().getBuffersInUse(), 0);
+    }
+
+    @Test
+    public void capacity() {
+        BufferPool pool = new BufferPool(BufferPool.MIN_BUFFER_SIZE);
+        ByteBuffer first = pool.acquire(10, false);
+        ByteBuffer second = pool.acquire(BufferPool.MIN_BUFFER_SIZE + 1, false);
+
+        assertEquals(first.capacity(), BufferPool.MIN_BUFFER_SIZE);
+        assertEquals(second.capacity(), 2 * BufferPool.MIN_BUFFER_SIZE);
+        assertEquals(pool.getBuffersInUse(), 2);
+        assertEquals(pool.getBytesInUse(), 3L * BufferPool.MIN_BUFFER_SIZE);
+
+        pool.release(second);
+        pool.release(first);
+        assertEquals(pool.getPooledBuffers(), 1);
+        assertEquals(pool.getPooledBytes(), BufferPool.MIN_BUFFER_SIZE);
+        assertEquals(pool.getBuffersInUse(), 0);
+
+        assertTrue(pool.acquire(1, false) == first);
+        assertEquals(pool.getReuses(), 1);
+        assertEquals(pool.getAllocations(), 2);
+    }
+
+    @Test
+    public void encodedNames() {
+        Codec<Gadget> codec = datastore.getCodecRegistry().get(Gadget.class);
+        Gadget gadget = new Gadget();
+        gadget.id = new ObjectId();
+        gadget.widget = new Widget("embedded");
+        gadget.widget.id = new ObjectId();
+        gadget.labels = List.of("a", "b");
+
+        PropertyModel size = datastore.getMapper().getEntityModel(Gadget.class).getProperty("size");
+        assertEquals(size.getEncodedName(), "größe\0".getBytes(StandardCharsets.UTF_8));
+
+        NameCountingOutput output = new NameCountingOutput();
+        codec.encode(new BsonBinaryWriter(output), gadget, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+
+        ByteBuf expected = new RawBsonDocument(gadget, codec).getByteBuffer();
+        byte[] bytes = new byte[expected.remaining()];
+        expected.get(bytes);
+        assertEquals(output.toByteArray(), bytes);
+        assertEquals(output.copied, List.of("_id", "größe", "widget", "_id", "name", "labels"));
+    }
+
+    private static List<Widget> widgets(int count, int length) {
+        List<Widget> widgets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            widgets.add(new Widget(String.valueOf(i).repeat(length)));
+        }
+        return widgets;
+    }
+
+    @Entity
+    private static class Gadget {
+        @Id
+        private ObjectId id;
+        @Property("größe")
+        private int size = 3;
+        private Widget widget;
+        private List<String> labels;
+    }
+
+    private static class NameCountingOutput extends BasicOutputBuffer implements EncodedNameOutput {
+        private final List<String> copied = new ArrayList<>();
+        private String nextName;
+        private byte[] nextEncoded;
+
+        @Override
+        public void nextName(String name, byte[] encoded) {
+            nextName = name;
+            nextEncoded = encoded;
+        }
+
+        @Override
+        public void writeCString(String value) {
+            if (value == nextName) {
+                copied.add(value);
+                writeBytes(nextEncoded);
+                nextName = null;
+            } else {
+                super.writeCString(value);
+            }
+        }
+    }
+
+    @Entity
+    private static class Widget {
+        @Id
+        private ObjectId id;
+        private String name;
+
+        Widget() {
+        }
+
+        Widget(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Widget)) {
+                return false;
+            }
+            Widget widget = (Widget) o;
+            return id.equals(widget.id) && name.equals(widget.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package dev.morphia.test.mapping.lazy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Reference;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.OperationEvent;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.codec.references.MorphiaProxy;
+import dev.morphia.mapping.codec.references.ProxyFactory;
+import dev.morphia.memory.InMemoryOperations;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.eq;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestProxyFactory {
+    private MongoClient client;
+    private final List<Class<?>> generated = new ArrayList<>();
+
+    @BeforeMethod
+    public void setUp() {
+        client = MongoClients.create();
+        generated.clear();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void eager() {
+        Datastore datastore = datastore(true);
+        datastore.getMapper().map(Book.class, Magazine.class);
+
+        assertEquals(datastore.getMapper().getProxyFactory().getGenerated(), 2);
+        assertEquals(generated, List.of(Author.class, List.class));
+    }
+
+    @Test
+    public void shared() {
+        Datastore datastore = datastore(false);
+        datastore.getMapper().map(Book.class, Magazine.class);
+        ProxyFactory factory = datastore.getMapper().getProxyFactory();
+        assertEquals(factory.getGenerated(), 0);
+
+        Author author = new Author(1, "Ursula");
+        datastore.save(author);
+        datastore.save(new Book(1, author, List.of(author)));
+        datastore.save(new Magazine(1, author));
+
+        for (int i = 0; i < 3; i++) {
+            Book book = datastore.find(Book.class).filter(eq("_id", 1)).first();
+            Magazine magazine = datastore.find(Magazine.class).filter(eq("_id", 1)).first();
+
+            assertTrue(book.author instanceof MorphiaProxy);
+            assertSame(book.author.getClass(), magazine.editor.getClass());
+            assertEquals(magazine.editor.getName(), "Ursula");
+            assertEquals(book.reviewers.get(0).getName(), "Ursula");
+        }
+        assertEquals(factory.getGenerated(), 2);
+        assertEquals(factory.size(), 2);
+        assertEquals(generated, List.of(Author.class, List.class));
+    }
+
+    private Datastore datastore(boolean eager) {
+        MapperOptions options = MapperOptions.builder()
+                .eagerProxies(eager)
+                .instrumentation(new Instrumentation() {
+                    @Override
+                    public boolean isEnabled() {
+                        return false;
+                    }
+
+                    @Override
+                    public void operation(OperationEvent event) {
+                    }
+
+                    @Override
+                    public void proxyGenerated(Class<?> type, long nanos) {
+                        generated.add(type);
+                    }
+                })
+                .build();
+        Datastore datastore = Morphia.createDatastore(client, "morphia_test", options);
+        ((DatastoreImpl) datastore).operations(new InMemoryOperations());
+        return datastore;
+    }
+
+    @Entity("authors")
+    public static class Author {
+        @Id
+        private int id;
+        private String name;
+
+        public Author() {
+        }
+
+        public Author(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Entity("books")
+    public static class Book {
+        @Id
+        private int id;
+        @Reference(lazy = true)
+        private Author author;
+        @Reference(lazy = true)
+        private List<Author> reviewers;
+
+        public Book() {
+        }
+
+        public Book(int id, Author author, List<Author> reviewers) {
+            this.id = id;
+            this.author = author;
+            this.reviewers = reviewers;
+        }
+    }
+
+    @Entity("magazines")
+    public static class Magazine {
+        @Id
+        private int id;
+        @Reference(lazy = true)
+        private Author editor;
+
+        public Magazine() {
+        }
+
+        public Magazine(int id, Author editor) {
+            this.id = id;
+            this.editor = editor;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package dev.morphia.test.mapping.lazy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Reference;
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.OperationEvent;
+import dev.morphia.instrumentation.OperationType;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.codec.references.MorphiaProxy;
+import dev.morphia.mapping.lazy.proxy.ReferenceException;
+import dev.morphia.memory.InMemoryOperations;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.eq;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestReferenceBatch {
+    private MongoClient client;
+    private final AtomicInteger finds = new AtomicInteger();
+
+    @BeforeMethod
+    public void setUp() {
+        client = MongoClients.create();
+        finds.set(0);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void batched() {
+        Datastore datastore = datastore(true);
+        save(datastore, 5);
+
+        List<Post> posts = datastore.find(Post.class).iterator().toList();
+        assertEquals(finds.get(), 1);
+        assertFalse(((MorphiaProxy) posts.get(0).author).isFetched());
+
+        assertEquals(posts.get(2).author.getName(), "author2");
+        assertEquals(finds.get(), 2);
+        for (int i = 0; i < posts.size(); i++) {
+            assertTrue(((MorphiaProxy) posts.get(i).author).isFetched());
+            assertEquals(posts.get(i).author.getName(), "author" + i);
+        }
+        assertEquals(finds.get(), 2);
+    }
+
+    @Test
+    public void unbatched() {
+        Datastore datastore = datastore(false);
+        save(datastore, 5);
+
+        List<Post> posts = datastore.find(Post.class).iterator().toList();
+        for (int i = 0; i < posts.size(); i++) {
+            assertEquals(posts.get(i).author.getName(), "author" + i);
+        }
+        assertEquals(finds.get(), 6);
+    }
+
+    @Test
+    public void missing() {
+        Datastore datastore = datastore(true);
+        save(datastore, 3);
+        datastore.find(Author.class).filter(eq("_id", 1)).delete();
+        finds.set(0);
+
+        List<Post> posts = datastore.find(Post.class).iterator().toList();
+        assertEquals(posts.get(0).author.getName(), "author0");
+        assertThrows(ReferenceException.class, () -> posts.get(1).author.getName());
+        assertEquals(posts.get(2).author.getName(), "author2");
+    }
+
+    @Test
+    public void widenedIds() {
+        Datastore datastore = datastore(true);
+        datastore.save(List.of(new LongPerson(1, "first"), new LongPerson(2, "second")));
+        datastore.save(List.of(new IntNote(1, 1), new IntNote(2, 2)));
+
+        List<LongNote> notes = datastore.find(LongNote.class).iterator().toList();
+        assertEquals(notes.size(), 2);
+        assertEquals(notes.get(0).person.getName(), "first");
+        assertEquals(notes.get(1).person.getName(), "second");
+        assertEquals(finds.get(), 2);
+    }
+
+    @Test
+    public void sharedCollections() {
+        Datastore datastore = datastore(true);
+        // IntNote is mapped first so it is the class a lookup by the collection's name would find
+        datastore.save(new IntNote(1, 1));
+        datastore.save(new Bookmark(1, datastore.find(LongNote.class).first()));
+
+        Bookmark bookmark = datastore.find(Bookmark.class).first();
+        assertEquals(bookmark.note.getId(), 1);
+    }
+
+    private void save(Datastore datastore, int count) {
+        List<Author> authors = new ArrayList<>();
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Author author = new Author(i, "author" + i);
+            authors.add(author);
+            posts.add(new Post(i, author));
+        }
+        datastore.save(authors);
+        datastore.save(posts);
+        finds.set(0);
+    }
+
+    private Datastore datastore(boolean batch) {
+        MapperOptions options = MapperOptions.builder()
+                .batchLazyReferences(batch)
+                .instrumentation(new Instrumentation() {
+                    @Override
+                    public void operation(OperationEvent event) {
+                        if (event.getType() == OperationType.FIND) {
+                            finds.incrementAndGet();
+                        }
+                    }
+                })
+                .build();
+        Datastore datastore = Morphia.createDatastore(client, "morphia_test", options);
+        ((DatastoreImpl) datastore).operations(new InMemoryOperations());
+        return datastore;
+    }
+
+    @Entity("authors")
+    public static class Author {
+        @Id
+        private int id;
+        private String name;
+
+        public Author() {
+        }
+
+        public Author(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Entity("posts")
+    public static class Post {
+        @Id
+        private int id;
+        @Reference(lazy = true)
+        private Author author;
+
+        public Post() {
+        }
+
+        public Post(int id, Author author) {
+            this.id = id;
+            this.author = author;
+        }
+    }
+
+    @Entity(value = "people", useDiscriminator = false)
+    public static class LongPerson {
+        @Id
+        private long id;
+        private String name;
+
+        public LongPerson() {
+        }
+
+        public LongPerson(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Entity(value = "notes", useDiscriminator = false)
+    public static class IntNote {
+        @Id
+        private int id;
+        private int person;
+
+        public IntNote() {
+        }
+
+        public IntNote(int id, int person) {
+            this.id = id;
+            this.person = person;
+        }
+    }
+
+    @Entity(value = "notes", useDiscriminator = false)
+    public static class LongNote {
+        @Id
+        private int id;
+        @Reference(lazy = true)
+        private LongPerson person;
+
+        public int getId() {
+            return id;
+        }
+    }
+
+    @Entity("bookmarks")
+    public static class Bookmark {
+        @Id
+        private int id;
+        @Reference(lazy = true)
+        private LongNote note;
+
+        public Bookmark() {
+        }
+
+        public Bookmark(int id, LongNote note) {
+            this.id = id;
+            this.note = note;
+        }
+    }
+}
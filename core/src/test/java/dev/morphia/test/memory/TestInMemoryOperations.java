@@ -0,0 +1,301 @@
+package dev.morphia.test.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.ReturnDocument;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.ModifyOptions;
+import dev.morphia.Morphia;
+import dev.morphia.UpdateOptions;
+import dev.morphia.VersionMismatchException;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.IndexOptions;
+import dev.morphia.annotations.Indexed;
+import dev.morphia.annotations.Version;
+import dev.morphia.memory.InMemoryOperations;
+import dev.morphia.query.FindOptions;
+import dev.morphia.query.Sort;
+import dev.morphia.query.filters.Filters;
+import dev.morphia.query.updates.UpdateOperators;
+
+import org.bson.types.ObjectId;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.filters.Filters.and;
+import static dev.morphia.query.filters.Filters.elemMatch;
+import static dev.morphia.query.filters.Filters.eq;
+import static dev.morphia.query.filters.Filters.exists;
+import static dev.morphia.query.filters.Filters.gt;
+import static dev.morphia.query.filters.Filters.gte;
+import static dev.morphia.query.filters.Filters.in;
+import static dev.morphia.query.filters.Filters.lt;
+import static dev.morphia.query.filters.Filters.or;
+import static dev.morphia.query.filters.Filters.regex;
+import static dev.morphia.query.filters.Filters.size;
+import static dev.morphia.query.updates.UpdateOperators.addToSet;
+import static dev.morphia.query.updates.UpdateOperators.inc;
+import static dev.morphia.query.updates.UpdateOperators.pullAll;
+import static dev.morphia.query.updates.UpdateOperators.push;
+import static dev.morphia.query.updates.UpdateOperators.set;
+import static dev.morphia.query.updates.UpdateOperators.unset;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestInMemoryOperations {
+    private MongoClient client;
+    private Datastore datastore;
+    private InMemoryOperations operations;
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Player.class, Account.class);
+        operations = new InMemoryOperations();
+        ((DatastoreImpl) datastore).operations(operations);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @BeforeMethod
+    public void reset() {
+        operations.clear();
+        operations.ensureIndexes(datastore);
+    }
+
+    @Test
+    public void queries() {
+        datastore.save(asList(
+                new Player("alice", 30, "chess", "go"),
+                new Player("bob", 25, "chess"),
+                new Player("carol", 41),
+                new Player("dave", 35, "go", "poker")));
+
+        assertEquals(names(eq("name", "alice")), List.of("alice"));
+        assertEquals(names(gt("age", 30)), List.of("carol", "dave"));
+        assertEquals(names(and(gte("age", 30), lt("age", 40))), List.of("alice", "dave"));
+        assertEquals(names(in("name", List.of("bob", "dave", "erin"))), List.of("bob", "dave"));
+        assertEquals(names(eq("games", "go")), List.of("alice", "dave"));
+        assertEquals(names(size("games", 2)), List.of("alice", "dave"));
+        assertEquals(names(exists("games").not()), List.of("carol"));
+        assertEquals(names(or(eq("name", "bob"), gt("age", 40))), List.of("bob", "carol"));
+        assertEquals(names(regex("name").pattern("^[cd]")), List.of("carol", "dave"));
+        assertEquals(names(exists("nickname")), List.of());
+        assertEquals(names(Filters.nin("games", List.of("chess"))), List.of("carol", "dave"));
+
+        assertEquals(datastore.find(Player.class).filter(eq("games", "chess")).count(), 2);
+
+        List<Player> sorted = datastore.find(Player.class)
+                .iterator(new FindOptions()
+                        .sort(Sort.descending("age"))
+                        .skip(1)
+                        .limit(2))
+                .toList();
+        assertEquals(sorted.size(), 2);
+        assertEquals(sorted.get(0).name, "dave");
+        assertEquals(sorted.get(1).name, "alice");
+
+        Player projected = datastore.find(Player.class)
+                .filter(eq("name", "alice"))
+                .first(new FindOptions().projection().include("name"));
+        assertNotNull(projected);
+        assertEquals(projected.name, "alice");
+        assertEquals(projected.age, 0);
+        assertNull(projected.games);
+    }
+
+    @Test
+    public void elementMatches() {
+        Account first = new Account("first");
+        first.transactions = List.of(new Transaction("deposit", 10), new Transaction("withdrawal", 250));
+        Account second = new Account("second");
+        second.transactions = List.of(new Transaction("deposit", 250), new Transaction("withdrawal", 10));
+        datastore.save(asList(first, second));
+
+        List<Account> list = datastore.find(Account.class)
+                .filter(elemMatch("transactions", eq("kind", "withdrawal"), gt("amount", 100)))
+                .iterator()
+                .toList();
+        assertEquals(list.size(), 1);
+        assertEquals(list.get(0).owner, "first");
+    }
+
+    @Test
+    public void updates() {
+        Player player = datastore.save(new Player("alice", 30, "chess"));
+
+        datastore.find(Player.class)
+                .filter(eq("name", "alice"))
+                .update(inc("age", 2), push("games", "go"), addToSet("games", "chess"), set("nickname", "al"))
+                .execute();
+        Player updated = datastore.find(Player.class).filter(eq("_id", player.id)).first();
+        assertNotNull(updated);
+        assertEquals(updated.age, 32);
+        assertEquals(updated.games, List.of("chess", "go"));
+        assertEquals(updated.nickname, "al");
+
+        datastore.find(Player.class)
+                .filter(eq("name", "alice"), eq("games", "go"))
+                .update(UpdateOperators.set("games.$", "shogi"), unset("nickname"), pullAll("games", List.of("chess")))
+                .execute();
+        updated = datastore.find(Player.class).filter(eq("_id", player.id)).first();
+        assertNotNull(updated);
+        assertEquals(updated.games, List.of("shogi"));
+        assertNull(updated.nickname);
+
+        assertEquals(datastore.find(Player.class)
+                .filter(eq("name", "zed"))
+                .update(set("age", 99))
+                .execute(new UpdateOptions().upsert(true))
+                .getMatchedCount(), 0);
+        Player upserted = datastore.find(Player.class).filter(eq("name", "zed")).first();
+        assertNotNull(upserted);
+        assertEquals(upserted.age, 99);
+
+        Player modified = datastore.find(Player.class)
+                .filter(eq("name", "zed"))
+                .modify(inc("age", 1))
+                .execute(new ModifyOptions().returnDocument(ReturnDocument.AFTER));
+        assertNotNull(modified);
+        assertEquals(modified.age, 100);
+
+        Player deleted = datastore.find(Player.class).filter(eq("name", "zed")).findAndDelete();
+        assertNotNull(deleted);
+        assertEquals(datastore.find(Player.class).count(), 1);
+        assertEquals(datastore.find(Player.class).delete().getDeletedCount(), 1);
+        assertEquals(datastore.find(Player.class).count(), 0);
+    }
+
+    @Test
+    public void uniqueIndexes() {
+        assertTrue(operations.indexNames(datastore.getCollection(Player.class)).contains("name_1"));
+        datastore.save(new Player("alice", 30));
+
+        MongoWriteException e = expectThrows(() -> datastore.save(new Player("alice", 31)));
+        assertEquals(e.getCode(), 11000);
+        assertEquals(datastore.find(Player.class).count(), 1);
+
+        Player bob = datastore.save(new Player("bob", 25));
+        assertThrows(MongoWriteException.class, () -> datastore.find(Player.class)
+                .filter(eq("_id", bob.id))
+                .update(set("name", "alice"))
+                .execute());
+        assertEquals(datastore.find(Player.class).filter(eq("name", "bob")).count(), 1);
+    }
+
+    @Test
+    public void versioning() {
+        Account account = datastore.save(new Account("alice"));
+        assertEquals(account.version, 1L);
+
+        Account stale = datastore.find(Account.class).first();
+        assertNotNull(stale);
+
+        account.owner = "alicia";
+        datastore.save(account);
+        assertEquals(account.version, 2L);
+
+        stale.owner = "allie";
+        assertThrows(VersionMismatchException.class, () -> datastore.save(stale));
+        Account current = datastore.find(Account.class).first();
+        assertNotNull(current);
+        assertEquals(current.owner, "alicia");
+    }
+
+    @Test
+    public void unsupported() {
+        datastore.save(new Player("alice", 30, "chess"));
+        assertThrows(UnsupportedOperationException.class, () -> datastore.find(Player.class)
+                .filter(Filters.text("chess"))
+                .iterator()
+                .toList());
+        assertFalse(operations.indexNames(datastore.getCollection(Player.class)).contains("games_text"));
+    }
+
+    private List<String> names(dev.morphia.query.filters.Filter filter) {
+        List<String> names = new ArrayList<>();
+        datastore.find(Player.class)
+                .filter(filter)
+                .iterator(new FindOptions().sort(Sort.ascending("name")))
+                .forEachRemaining(p -> names.add(p.name));
+        return names;
+    }
+
+    private static MongoWriteException expectThrows(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (MongoWriteException e) {
+            return e;
+        }
+        throw new AssertionError("Expected a MongoWriteException");
+    }
+
+    @Entity("players")
+    private static class Player {
+        @Id
+        private ObjectId id;
+        @Indexed(options = @IndexOptions(unique = true))
+        private String name;
+        private int age;
+        private String nickname;
+        private List<String> games;
+
+        Player() {
+        }
+
+        Player(String name, int age, String... games) {
+            this.name = name;
+            this.age = age;
+            this.games = asList(games);
+        }
+    }
+
+    @Entity("accounts")
+    private static class Account {
+        @Id
+        private ObjectId id;
+        private String owner;
+        private List<Transaction> transactions;
+        @Version
+        private Long version;
+
+        Account() {
+        }
+
+        Account(String owner) {
+            this.owner = owner;
+        }
+    }
+
+    @Entity
+    private static class Transaction {
+        private String kind;
+        private int amount;
+
+        Transaction() {
+        }
+
+        Transaction(String kind, int amount) {
+            this.kind = kind;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package dev.morphia.test.query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Property;
+import dev.morphia.memory.InMemoryOperations;
+import dev.morphia.query.FindOptions;
+import dev.morphia.query.Page;
+import dev.morphia.query.Query;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.Sort.ascending;
+import static dev.morphia.query.Sort.descending;
+import static dev.morphia.query.filters.Filters.gte;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestKeysetPagination {
+    private MongoClient client;
+    private Datastore datastore;
+    private final List<Score> scores = new ArrayList<>();
+    private final List<Handle> handles = new ArrayList<>();
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Score.class);
+        ((DatastoreImpl) datastore).operations(new InMemoryOperations());
+        for (int i = 0; i < 47; i++) {
+            scores.add(new Score(i, "player" + (i % 5), i % 7, new Level(i % 3)));
+        }
+        datastore.save(scores);
+        for (int i = 0; i < 13; i++) {
+            handles.add(new Handle(i, i % 3 == 0 ? "name" + (i % 4) : null));
+        }
+        datastore.save(handles);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void defaultSort() {
+        List<Integer> ids = pages(datastore.find(Score.class), new FindOptions().limit(10)).stream()
+                .map(s -> s.id)
+                .collect(Collectors.toList());
+
+        assertEquals(ids, scores.stream().map(s -> s.id).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void filtered() {
+        Query<Score> query = datastore.find(Score.class).filter(gte("points", 3));
+        List<Score> paged = pages(query, new FindOptions().sort(descending("points"), ascending("player")).limit(4));
+
+        assertEquals(ids(paged), ids(scores.stream()
+                .filter(s -> s.points >= 3)
+                .sorted(Comparator.comparing((Score s) -> -s.points)
+                        .thenComparing(s -> s.player)
+                        .thenComparing(s -> s.id))
+                .collect(Collectors.toList())));
+    }
+
+    @Test
+    public void nested() {
+        List<Score> paged = pages(datastore.find(Score.class), new FindOptions().sort(descending("level.rank")).limit(6));
+
+        assertEquals(ids(paged), ids(scores.stream()
+                .sorted(Comparator.comparing((Score s) -> -s.level.rank).thenComparing(s -> s.id))
+                .collect(Collectors.toList())));
+    }
+
+    @Test
+    public void nullKeys() {
+        Comparator<Handle> byName = Comparator.comparing((Handle h) -> h.name, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        List<Handle> ascending = pages(datastore.find(Handle.class), new FindOptions().sort(ascending("name")).limit(3));
+        assertEquals(handleIds(ascending), handleIds(handles.stream()
+                .sorted(byName.thenComparing(h -> h.id))
+                .collect(Collectors.toList())));
+
+        List<Handle> descending = pages(datastore.find(Handle.class), new FindOptions().sort(descending("name")).limit(3));
+        assertEquals(handleIds(descending), handleIds(handles.stream()
+                .sorted(byName.reversed().thenComparing(h -> h.id))
+                .collect(Collectors.toList())));
+    }
+
+    @Test
+    public void lastPage() {
+        Page<Score> page = datastore.find(Score.class).page(new FindOptions().limit(47));
+
+        assertEquals(page.getItems().size(), 47);
+        assertFalse(page.hasNext());
+        assertNull(page.getNextToken());
+    }
+
+    @Test
+    public void validation() {
+        Query<Score> query = datastore.find(Score.class);
+        assertThrows(IllegalArgumentException.class, () -> query.page(new FindOptions()));
+        assertThrows(IllegalArgumentException.class, () -> query.page(new FindOptions().limit(5).skip(5)));
+        assertThrows(IllegalArgumentException.class, () -> query.page(new FindOptions().limit(5).sort(ascending("tags"))));
+        assertThrows(IllegalArgumentException.class, () -> query.page("not a token"));
+
+        String token = query.page(new FindOptions().limit(5)).getNextToken();
+        assertThrows(IllegalArgumentException.class, () -> datastore.find(Score.class).filter(gte("points", 3)).page(token));
+        assertTrue(datastore.find(Score.class).page(token).hasNext());
+    }
+
+    private static List<Integer> ids(List<Score> scores) {
+        return scores.stream().map(s -> s.id).collect(Collectors.toList());
+    }
+
+    private static List<Integer> handleIds(List<Handle> handles) {
+        return handles.stream().map(h -> h.id).collect(Collectors.toList());
+    }
+
+    private static <T> List<T> pages(Query<T> query, FindOptions options) {
+        List<T> all = new ArrayList<>();
+        Page<T> page = query.page(options);
+        all.addAll(page.getItems());
+        while (page.hasNext()) {
+            assertEquals(page.getItems().size(), options.getLimit());
+            page = query.page(page.getNextToken());
+            all.addAll(page.getItems());
+        }
+        return all;
+    }
+
+    @Entity("scores")
+    private static class Score {
+        @Id
+        private int id;
+        private String player;
+        @Property("pts")
+        private int points;
+        private Level level;
+        private List<String> tags = List.of("a", "b");
+
+        Score() {
+        }
+
+        Score(int id, String player, int points, Level level) {
+            this.id = id;
+            this.player = player;
+            this.points = points;
+            this.level = level;
+        }
+    }
+
+    @Entity("handles")
+    private static class Handle {
+        @Id
+        private int id;
+        private String name;
+
+        Handle() {
+        }
+
+        Handle(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @Entity
+    private static class Level {
+        private int rank;
+
+        Level() {
+        }
+
+        Level(int rank) {
+            this.rank = rank;
+        }
+    }
+}
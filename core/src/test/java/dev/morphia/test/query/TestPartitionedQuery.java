@@ -0,0 +1,180 @@
+package dev.morphia.test.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.InsertOneOptions;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.PostLoad;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.memory.InMemoryOperations;
+import dev.morphia.query.FindOptions;
+import dev.morphia.query.Query;
+import dev.morphia.query.internal.PartitionSpliterator;
+
+import org.bson.Document;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static dev.morphia.query.Sort.ascending;
+import static dev.morphia.query.filters.Filters.eq;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class TestPartitionedQuery {
+    private static final int COUNT = 2_000;
+    private MongoClient client;
+    private Datastore datastore;
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Event.class);
+        ((DatastoreImpl) datastore).operations(new InMemoryOperations());
+        List<Event> events = IntStream.range(0, COUNT)
+                .mapToObj(i -> new Event(i, i % 2 == 0 ? "even" : "odd"))
+                .collect(Collectors.toCollection(ArrayList::new));
+        Collections.shuffle(events);
+        datastore.save(events);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void everything() {
+        try (Stream<Event> stream = datastore.find(Event.class).partitioned(8)) {
+            List<Integer> ids = stream
+                    .map(e -> e.id)
+                    .sorted()
+                    .collect(Collectors.toList());
+            assertEquals(ids, IntStream.range(0, COUNT).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void filtered() {
+        try (Stream<Event> stream = datastore.find(Event.class).filter(eq("kind", "odd")).partitioned(3)) {
+            List<Integer> ids = stream.map(e -> e.id).sorted().collect(Collectors.toList());
+            assertEquals(ids.size(), COUNT / 2);
+            assertTrue(ids.stream().allMatch(id -> id % 2 == 1));
+        }
+    }
+
+    @Test
+    public void morePartitionsThanDocuments() {
+        Query<Event> query = datastore.find(Event.class).filter(eq("id", 7));
+        try (Stream<Event> stream = query.partitioned(16)) {
+            assertEquals(stream.count(), 1);
+        }
+    }
+
+    @Test
+    public void abandoned() {
+        try (Stream<Event> stream = datastore.find(Event.class).partitioned(4)) {
+            assertTrue(stream.anyMatch(e -> e.id > 10));
+        }
+    }
+
+    @Test
+    public void executor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "partition-reader"));
+        try {
+            Datastore custom = Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                    .executor(executor)
+                    .build());
+            custom.getMapper().map(Event.class);
+            ((DatastoreImpl) custom).operations(((DatastoreImpl) datastore).operations());
+            Event.loadedOn.clear();
+            try (Stream<Event> stream = custom.find(Event.class).partitioned(4)) {
+                assertEquals(stream.count(), COUNT);
+            }
+            assertEquals(Event.loadedOn, Set.of("partition-reader"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void readerErrors() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PartitionSpliterator<Event> spliterator = new PartitionSpliterator<>(List.of(new Document()), partition -> {
+                throw new AssertionError("codec failed");
+            }, executor);
+            try (Stream<Event> stream = StreamSupport.stream(spliterator, false).onClose(spliterator::close)) {
+                AssertionError error = expectThrows(AssertionError.class, stream::count);
+                assertEquals(error.getMessage(), "codec failed");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void mixedIdTypes() {
+        InMemoryOperations operations = new InMemoryOperations();
+        Datastore mixed = Morphia.createDatastore(client, "morphia_test");
+        mixed.getMapper().map(Event.class);
+        ((DatastoreImpl) mixed).operations(operations);
+        MongoCollection<Document> events = mixed.getDatabase().getCollection("events");
+        for (Object id : List.of(1, 2L, 3.5, "four", "five")) {
+            operations.insertOne(events, new Document("_id", id).append("_t", "Event").append("kind", "odd"), new InsertOneOptions());
+        }
+
+        // ranges only match _id values of their bounds' type so these can not be partitioned without losing documents
+        assertThrows(IllegalStateException.class, () -> mixed.find(Event.class).partitioned(2));
+    }
+
+    @Test
+    public void validation() {
+        Query<Event> query = datastore.find(Event.class);
+        assertThrows(IllegalArgumentException.class, () -> query.partitioned(0));
+        assertThrows(IllegalArgumentException.class, () -> query.partitioned(2, new FindOptions().limit(5)));
+        assertThrows(IllegalArgumentException.class, () -> query.partitioned(2, new FindOptions().sort(ascending("kind"))));
+    }
+
+    @Entity("events")
+    private static class Event {
+        @Id
+        private int id;
+        private static final Set<String> loadedOn = ConcurrentHashMap.newKeySet();
+        private String kind;
+
+        Event() {
+        }
+
+        Event(int id, String kind) {
+            this.id = id;
+            this.kind = kind;
+        }
+
+        @PostLoad
+        void loaded() {
+            loadedOn.add(Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.morphia.test.query;
+
+import java.util.Date;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Field;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Index;
+import dev.morphia.annotations.Indexed;
+import dev.morphia.annotations.Indexes;
+import dev.morphia.annotations.Text;
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.query.analysis.QueryAnalyzer;
+import dev.morphia.query.analysis.QueryShapeStats;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.testng.annotations.Test;
+
+import static dev.morphia.utils.IndexType.DESC;
+import static org.bson.Document.parse;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryAnalyzer {
+    private final Mapper mapper = new Mapper(MapperOptions.DEFAULT);
+
+    @Test
+    public void collectionScans() {
+        QueryAnalyzer analyzer = new QueryAnalyzer(mapper);
+
+        assertFalse(analyze(analyzer, "{author: 'Bob'}", null).isCollectionScan());
+        assertFalse(analyze(analyzer, "{published: {$gt: 5}}", null).isCollectionScan());
+        assertFalse(analyze(analyzer, "{$text: {$search: 'mongo'}}", null).isCollectionScan());
+        assertFalse(analyze(analyzer, "{$or: [{author: 'Bob'}, {published: {$lt: 3}}]}", null).isCollectionScan());
+        assertFalse(analyze(analyzer, "{}", null).isCollectionScan());
+
+        assertTrue(analyze(analyzer, "{views: 10}", null).isCollectionScan());
+        assertTrue(analyze(analyzer, "{$or: [{author: 'Bob'}, {views: 10}]}", null).isCollectionScan());
+        assertTrue(analyze(analyzer, "{$expr: {$gt: ['$views', 10]}}", null).isCollectionScan());
+        assertEquals(analyzer.getFlagged().size(), 3);
+    }
+
+    @Test
+    public void counts() {
+        QueryAnalyzer analyzer = new QueryAnalyzer(mapper);
+
+        analyze(analyzer, "{author: 'Bob'}", null);
+        analyze(analyzer, "{author: 'Alice'}", null);
+        analyze(analyzer, "{author: {$in: ['Alice', 'Bob']}}", null);
+        analyze(analyzer, "{views: 1}", null);
+        QueryShapeStats stats = analyze(analyzer, "{views: 2}", null);
+
+        assertEquals(analyzer.getStats().size(), 2);
+        assertEquals(stats.getCount(), 2);
+        assertEquals(stats.getShape().getFilter(), new Document("views", "eq"));
+        assertEquals(analyzer.getStats().values().stream().mapToLong(QueryShapeStats::getCount).sum(), 5);
+
+        analyzer.reset();
+        assertTrue(analyzer.getStats().isEmpty());
+    }
+
+    @Test
+    public void sorts() {
+        QueryAnalyzer analyzer = new QueryAnalyzer(mapper);
+
+        assertFalse(analyze(analyzer, "{author: 'Bob'}", "{published: -1}").isInMemorySort());
+        assertFalse(analyze(analyzer, "{author: 'Bob'}", "{published: 1}").isInMemorySort());
+        assertFalse(analyze(analyzer, "{}", "{author: -1, published: 1}").isInMemorySort());
+        assertFalse(analyze(analyzer, "{views: 10}", "{_id: -1}").isInMemorySort());
+
+        assertTrue(analyze(analyzer, "{author: 'Bob'}", "{views: 1}").isInMemorySort());
+        assertTrue(analyze(analyzer, "{}", "{author: 1, published: 1}").isInMemorySort());
+        assertTrue(analyze(analyzer, "{author: {$gt: 'B'}}", "{author: 1, views: 1}").isInMemorySort());
+
+        assertEquals(analyze(analyzer, "{}", "{author: 5, published: -2.5}").getShape().getSort(), parse("{author: 1, published: -1}"));
+        assertFalse(analyze(analyzer, "{}", "{author: -0.5, published: 0.5}").isInMemorySort());
+    }
+
+    private QueryShapeStats analyze(QueryAnalyzer analyzer, String filter, String sort) {
+        EntityModel model = mapper.getEntityModel(Article.class);
+        return analyzer.analyze(model, model.getCollectionName(), parse(filter), sort != null ? parse(sort) : null, null);
+    }
+
+    @Entity
+    @Indexes(@Index(fields = { @Field("author"), @Field(value = "published", type = DESC) }))
+    private static class Article {
+        @Id
+        private ObjectId id;
+        private String author;
+        @Indexed
+        private Date published;
+        @Text
+        private String body;
+        private int views;
+    }
+}
@@ -0,0 +1,169 @@
+package dev.morphia.test.query;
+
+import java.util.List;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+
+import dev.morphia.Datastore;
+import dev.morphia.DatastoreImpl;
+import dev.morphia.InsertOneOptions;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Reference;
+import dev.morphia.memory.InMemoryOperations;
+import dev.morphia.query.FindOptions;
+import dev.morphia.query.ValidationException;
+
+import org.bson.Document;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestReferenceFetch {
+    private MongoClient client;
+    private Datastore datastore;
+    private InMemoryOperations operations;
+
+    @BeforeClass
+    public void setUp() {
+        client = MongoClients.create();
+        datastore = Morphia.createDatastore(client, "morphia_test");
+        datastore.getMapper().map(Order.class, Customer.class, Product.class, Warehouse.class);
+        operations = new InMemoryOperations();
+        ((DatastoreImpl) datastore).operations(operations);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void pipeline() {
+        List<Document> pipeline = new FindOptions()
+                .fetch("customer", "lineItems.product")
+                .skip(10)
+                .limit(5)
+                .fetchPipeline(datastore.getMapper(), Order.class, new Document("status", "open"));
+
+        assertEquals(pipeline.stream().map(stage -> stage.keySet().iterator().next()).collect(toList()),
+                List.of("$match", "$skip", "$limit",
+                        "$addFields", "$lookup", "$addFields",
+                        "$addFields", "$lookup", "$addFields",
+                        "$project"));
+        assertEquals(pipeline.get(4).get("$lookup"), new Document("from", "customers")
+                .append("localField", "__morphia_fetch_keys0")
+                .append("foreignField", "_id")
+                .append("as", "__morphia_fetch0"));
+        assertEquals(pipeline.get(7).get("$lookup", Document.class).get("from"), "products");
+        // DBRefs to other collections are not joined so they can not match a customer with the same ID
+        assertTrue(pipeline.get(3).toJson().contains("{\"$literal\": \"customers\"}"));
+        assertEquals(pipeline.get(9).get("$project"), new Document("__morphia_fetch_keys0", 0)
+                .append("__morphia_fetch0", 0)
+                .append("__morphia_fetch_keys1", 0)
+                .append("__morphia_fetch1", 0));
+    }
+
+    @Test
+    public void invalidPaths() {
+        FindOptions options = new FindOptions();
+        assertThrows(ValidationException.class, () -> options.fetch("status")
+                .fetchPipeline(datastore.getMapper(), Order.class, new Document()));
+        assertThrows(ValidationException.class, () -> options.fetch("lineItems")
+                .fetchPipeline(datastore.getMapper(), Order.class, new Document()));
+        assertThrows(ValidationException.class, () -> options.fetch("missing")
+                .fetchPipeline(datastore.getMapper(), Order.class, new Document()));
+        assertThrows(IllegalArgumentException.class, () -> new FindOptions().fetch("customer").returnKey(true)
+                .fetchPipeline(datastore.getMapper(), Order.class, new Document()));
+    }
+
+    @Test
+    public void decodesJoinedDocuments() {
+        operations.clear();
+        // the shape of an order after the fetch stages: no customers or products are stored so any client side fetch would fail
+        MongoCollection<Document> orders = datastore.getDatabase().getCollection("orders");
+        operations.insertOne(orders, Document.parse("{_id: 1, _t: 'Order', status: 'open', "
+                + "customer: {_t: 'Customer', _id: 7, name: 'Ada'}, "
+                + "lineItems: [{quantity: 2, product: {_t: 'Product', _id: 'p1', title: 'Widget'}}, "
+                + "{quantity: 1, product: {_t: 'Product', _id: 'p2', title: 'Gadget'}}]}"), new InsertOneOptions());
+
+        Order order = datastore.find(Order.class).first();
+
+        assertNotNull(order);
+        assertEquals(order.customer.name, "Ada");
+        assertEquals(order.lineItems.get(0).product.title, "Widget");
+        assertEquals(order.lineItems.get(1).product.title, "Gadget");
+        assertEquals(order.lineItems.get(1).quantity, 1);
+    }
+
+    @Test
+    public void decodesCustomDiscriminatorKeys() {
+        operations.clear();
+        MongoCollection<Document> orders = datastore.getDatabase().getCollection("orders");
+        operations.insertOne(orders, Document.parse("{_id: 2, _t: 'Order', status: 'open', "
+                + "warehouse: {kind: 'Warehouse', _id: 3, city: 'Oslo'}}"), new InsertOneOptions());
+
+        Order order = datastore.find(Order.class).first();
+
+        assertNotNull(order);
+        assertEquals(order.warehouse.city, "Oslo");
+    }
+
+    @Test
+    public void routesThroughOperations() {
+        operations.clear();
+        // the in memory operations do not support $lookup so reaching them proves the fetch did not go straight to the collection
+        assertThrows(UnsupportedOperationException.class, () -> datastore.find(Order.class)
+                .iterator(new FindOptions().fetch("customer"))
+                .toList());
+    }
+
+    @Entity("orders")
+    private static class Order {
+        @Id
+        private int id;
+        private String status;
+        @Reference
+        private Customer customer;
+        private List<LineItem> lineItems;
+        @Reference
+        private Warehouse warehouse;
+    }
+
+    @Entity
+    private static class LineItem {
+        private int quantity;
+        @Reference
+        private Product product;
+    }
+
+    @Entity("customers")
+    private static class Customer {
+        @Id
+        private int id;
+        private String name;
+    }
+
+    @Entity(value = "warehouses", discriminatorKey = "kind")
+    private static class Warehouse {
+        @Id
+        private int id;
+        private String city;
+    }
+
+    @Entity("products")
+    private static class Product {
+        @Id
+        private String id;
+        private String title;
+    }
+}
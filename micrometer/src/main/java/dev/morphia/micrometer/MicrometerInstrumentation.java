@@ -0,0 +1,171 @@
+package dev.morphia.micrometer;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.lang.Nullable;
+
+import dev.morphia.instrumentation.Instrumentation;
+import dev.morphia.instrumentation.OperationEvent;
+import dev.morphia.instrumentation.OperationType;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes Morphia's instrumentation to a Micrometer {@link MeterRegistry}. The following meters are registered:
+ * <ul>
+ * <li>{@code morphia.operation}: a timer tagged by {@code operation}, {@code entity}, {@code collection}, {@code outcome}, and
+ * {@code phase} where the phase is either {@code server} or {@code mapping}</li>
+ * <li>{@code morphia.operation.documents}: the documents affected by each operation</li>
+ * <li>{@code morphia.codec}: a timer tagged by {@code entity} and {@code direction}, either {@code encode} or {@code decode}</li>
+ * <li>{@code morphia.codec.bytes}: the encoded size of each entity when writing directly to BSON</li>
+ * <li>{@code morphia.proxy.generated}: a timer tagged by {@code type} recording the generation of each lazy reference proxy class</li>
+ * </ul>
+ * Meters are registered the first time each combination of tags is seen and reused afterwards.
+ *
+ * <pre>
+ * <code>
+ * MapperOptions.builder()
+ *     .instrumentation(new MicrometerInstrumentation(registry))
+ *     .build();
+ * </code>
+ * </pre>
+ *
+ * @since 2.4
+ */
+public class MicrometerInstrumentation implements Instrumentation {
+    private final MeterRegistry registry;
+    private final ClassValue<CodecMeters> codecMeters = new ClassValue<>() {
+        @Override
+        protected CodecMeters computeValue(Class<?> type) {
+            return new CodecMeters(type);
+        }
+    };
+    private final ClassValue<Timer> proxyTimers = new ClassValue<>() {
+        @Override
+        protected Timer computeValue(Class<?> type) {
+            return Timer.builder("morphia.proxy.generated")
+                    .tags("type", type.getName())
+                    .register(registry);
+        }
+    };
+    private final ConcurrentMap<OperationKey, OperationMeters> operationMeters = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry the registry to publish to
+     */
+    public MicrometerInstrumentation(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void decoded(Class<?> type, long nanos) {
+        codecMeters.get(type).decode.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void encoded(Class<?> type, long bytes, long nanos) {
+        CodecMeters meters = codecMeters.get(type);
+        meters.encode.record(nanos, TimeUnit.NANOSECONDS);
+        if (bytes >= 0) {
+            meters.bytes.record(bytes);
+        }
+    }
+
+    @Override
+    public void operation(OperationEvent event) {
+        OperationKey key = new OperationKey(event.getType(), event.getEntityType(), event.getCollection(), event.getFailure() == null);
+        OperationMeters meters = operationMeters.get(key);
+        if (meters == null) {
+            meters = operationMeters.computeIfAbsent(key, OperationMeters::new);
+        }
+        meters.server.record(event.getServerNanos(), TimeUnit.NANOSECONDS);
+        meters.mapping.record(event.getMappingNanos(), TimeUnit.NANOSECONDS);
+        meters.documents.record(event.getDocuments());
+    }
+
+    @Override
+    public void proxyGenerated(Class<?> type, long nanos) {
+        proxyTimers.get(type).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private final class CodecMeters {
+        private final Timer decode;
+        private final Timer encode;
+        private final DistributionSummary bytes;
+
+        private CodecMeters(Class<?> type) {
+            decode = Timer.builder("morphia.codec")
+                    .tags("entity", type.getName(), "direction", "decode")
+                    .register(registry);
+            encode = Timer.builder("morphia.codec")
+                    .tags("entity", type.getName(), "direction", "encode")
+                    .register(registry);
+            bytes = DistributionSummary.builder("morphia.codec.bytes")
+                    .baseUnit("bytes")
+                    .tags("entity", type.getName())
+                    .register(registry);
+        }
+    }
+
+    private static final class OperationKey {
+        private final OperationType type;
+        @Nullable
+        private final Class<?> entityType;
+        @Nullable
+        private final String collection;
+        private final boolean success;
+
+        private OperationKey(OperationType type, @Nullable Class<?> entityType, @Nullable String collection, boolean success) {
+            this.type = type;
+            this.entityType = entityType;
+            this.collection = collection;
+            this.success = success;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, entityType, collection, success);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof OperationKey)) {
+                return false;
+            }
+            OperationKey that = (OperationKey) o;
+            return type == that.type && success == that.success && Objects.equals(entityType, that.entityType)
+                    && Objects.equals(collection, that.collection);
+        }
+    }
+
+    private final class OperationMeters {
+        private final Timer server;
+        private final Timer mapping;
+        private final DistributionSummary documents;
+
+        private OperationMeters(OperationKey key) {
+            Tags tags = Tags.of("operation", key.type.name().toLowerCase(),
+                    "entity", key.entityType != null ? key.entityType.getName() : "none",
+                    "collection", key.collection != null ? key.collection : "none");
+            Tags timerTags = tags.and("outcome", key.success ? "success" : "failure");
+            server = Timer.builder("morphia.operation")
+                    .tags(timerTags.and("phase", "server"))
+                    .register(registry);
+            mapping = Timer.builder("morphia.operation")
+                    .tags(timerTags.and("phase", "mapping"))
+                    .register(registry);
+            documents = DistributionSummary.builder("morphia.operation.documents")
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+}
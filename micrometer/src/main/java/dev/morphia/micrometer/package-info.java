@@ -0,0 +1,4 @@
+@NonNullApi
+package dev.morphia.micrometer;
+
+import com.mongodb.lang.NonNullApi;
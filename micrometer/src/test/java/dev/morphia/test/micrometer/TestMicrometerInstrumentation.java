@@ -0,0 +1,92 @@
+package dev.morphia.test.micrometer;
+
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import dev.morphia.Datastore;
+import dev.morphia.Morphia;
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.instrumentation.OperationEvent;
+import dev.morphia.instrumentation.OperationType;
+import dev.morphia.mapping.MapperOptions;
+import dev.morphia.micrometer.MicrometerInstrumentation;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.testng.annotations.Test;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static java.nio.ByteBuffer.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestMicrometerInstrumentation {
+    @Test
+    public void codecs() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (MongoClient client = MongoClients.create()) {
+            Datastore datastore = Morphia.createDatastore(client, "morphia_test", MapperOptions.builder()
+                    .instrumentation(new MicrometerInstrumentation(registry))
+                    .build());
+            Codec<Book> codec = datastore.getCodecRegistry().get(Book.class);
+
+            BasicOutputBuffer buffer = new BasicOutputBuffer();
+            codec.encode(new BsonBinaryWriter(buffer), new Book(1, "Dune"), EncoderContext.builder().build());
+            Book book = codec.decode(new BsonBinaryReader(wrap(buffer.toByteArray())), DecoderContext.builder().build());
+            assertEquals(book.title, "Dune");
+        }
+
+        String entity = Book.class.getName();
+        assertEquals(registry.get("morphia.codec").tags("entity", entity, "direction", "encode").timer().count(), 1);
+        assertEquals(registry.get("morphia.codec").tags("entity", entity, "direction", "decode").timer().count(), 1);
+        DistributionSummary bytes = registry.get("morphia.codec.bytes").tags("entity", entity).summary();
+        assertTrue(bytes.totalAmount() > 0);
+    }
+
+    @Test
+    public void operations() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerInstrumentation instrumentation = new MicrometerInstrumentation(registry);
+
+        instrumentation.operation(new OperationEvent(OperationType.FIND, Book.class, "books", 3_000_000, 1_000_000, 20, null));
+        instrumentation.operation(new OperationEvent(OperationType.FIND, Book.class, "books", 5_000_000, 2_000_000, 10, null));
+        instrumentation.operation(new OperationEvent(OperationType.COMMAND, null, null, 1_000_000, 0, 0, new RuntimeException()));
+
+        Timer server = registry.get("morphia.operation")
+                .tags("operation", "find", "collection", "books", "phase", "server", "outcome", "success")
+                .timer();
+        Timer mapping = registry.get("morphia.operation")
+                .tags("operation", "find", "collection", "books", "phase", "mapping")
+                .timer();
+        assertEquals(server.count(), 2);
+        assertEquals(server.totalTime(TimeUnit.MILLISECONDS), 8.0);
+        assertEquals(mapping.totalTime(TimeUnit.MILLISECONDS), 3.0);
+        assertEquals(registry.get("morphia.operation.documents").tags("operation", "find").summary().totalAmount(), 30.0);
+        assertEquals(registry.get("morphia.operation").tags("operation", "command", "outcome", "failure").timers().size(), 2);
+    }
+
+    @Entity("books")
+    private static class Book {
+        @Id
+        private int id;
+        private String title;
+
+        Book() {
+        }
+
+        Book(int id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+    }
+}